@@ -20,9 +20,11 @@ public class IndexFileNames {
 	
 	public static final String docStored = "document.stored";
 	public static final String docPosition = "document.position";
+	public static final String docFormat = "document.format"; //저장문서 포맷버전. 없으면 문서별 압축포맷.
 	public static final String docDeleteSet = "delete.set"; //deleted docs in segment
 	public static final String docDeleteReq = "delete.req"; //실제삭제가 아닌 delete doc 으로 요청된 삭제문서 아이디 리스트.
 	public static final String primaryKeyMap = "primarykey.map";
+	public static final String primaryKeyBloom = "primarykey.bloom"; //pk맵의 bloom filter
 	
 	public static final String tempFile = "temp";
 	
@@ -47,6 +49,9 @@ public class IndexFileNames {
 	public static String getSearchIndexFileName(String name){
 		return "search." + name + ".index";
 	}
+	public static String getSearchSkipFileName(String name){
+		return "search." + name + ".skip";
+	}
 	
 	//
 	// group
@@ -69,6 +74,10 @@ public class IndexFileNames {
 	public static String getFieldIndexFileName(String name){
 		return "field." + name + ".index";
 	}
+	//숫자형 싱글밸류 필드색인의 컬럼 데이터.
+	public static String getNumericDocValuesFileName(String name){
+		return "field." + name + ".dv";
+	}
 	
 	
 	//
@@ -31,11 +31,12 @@ import javax.xml.bind.annotation.XmlType;
 	</data-plan>
 	<full-indexing-alert-timeout>0</full-indexing-alert-timeout>
 	<add-indexing-alert-timeout>0</add-indexing-alert-timeout>
+	<segment-search-parallelism>1</segment-search-parallelism>
 </collection-config>
  * */
 
 @XmlRootElement(name = "collection-config")
-@XmlType(propOrder = { "name", "indexNode", "searchNodeList", "dataNodeList", "dataPlanConfig", "fullIndexingSegmentSize", "fullIndexingAlertTimeout", "addIndexingAlertTimeout" })
+@XmlType(propOrder = { "name", "indexNode", "searchNodeList", "dataNodeList", "dataPlanConfig", "fullIndexingSegmentSize", "fullIndexingAlertTimeout", "addIndexingAlertTimeout", "segmentSearchParallelism" })
 public class CollectionConfig {
 
 	private String name;
@@ -46,6 +47,7 @@ public class CollectionConfig {
 	private Integer fullIndexingSegmentSize;
 	private Integer fullIndexingAlertTimeout;
 	private Integer addIndexingAlertTimeout;
+	private Integer segmentSearchParallelism;
 
 	public CollectionConfig(){
 		searchNodeList = new ArrayList<String>();
@@ -158,4 +160,14 @@ public class CollectionConfig {
 	public void setAddIndexingAlertTimeout(Integer addIndexingAlertTimeout) {
 		this.addIndexingAlertTimeout = addIndexingAlertTimeout;
 	}
+
+	//세그먼트 동시검색 쓰레드 갯수. 1이하이면 기존처럼 호출쓰레드에서 세그먼트를 차례로 검색한다.
+	@XmlElement(name="segment-search-parallelism")
+	public Integer getSegmentSearchParallelism() {
+		return segmentSearchParallelism != null ? segmentSearchParallelism : 1;
+	}
+
+	public void setSegmentSearchParallelism(Integer segmentSearchParallelism) {
+		this.segmentSearchParallelism = segmentSearchParallelism;
+	}
 }
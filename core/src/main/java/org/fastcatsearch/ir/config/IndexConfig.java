@@ -10,7 +10,19 @@ import javax.xml.bind.annotation.XmlRootElement;
 	<work-memory-size>128M</work-memory-size>
 	<work-bucket-size>256</work-bucket-size>
 	<compression-type>fast</compression-type>
+	<mmap-file-types>search,pk</mmap-file-types>
+	<document-block-size>32768</document-block-size>
+	<index-field-threads>4</index-field-threads>
+	<index-field-queue-size>256</index-field-queue-size>
+	<index-merge-threads>4</index-merge-threads>
 </index-config>
+
+mmap-file-types : 세그먼트 파일을 MMapIndexInput 으로 읽을 파일종류. all, search, field, group, document, pk 를 콤마로 구분. 없으면 BufferedFileInput 을 사용한다.
+document-block-size : 0보다 크면 저장문서를 이 크기(byte) 정도의 블럭으로 묶어 LZ4 로 압축한다. 없거나 0이면 문서별 deflate 압축. (DocumentFormat)
+index-field-threads : 0보다 크면 세그먼트마다 이 갯수의 스레드로 색인필드별 분석을 병렬수행한다. (SearchIndexesAsyncWriter) 색인필드 갯수보다 크면 필드당 한 스레드.
+	전체색인을 여러 세그먼트로 나누어 할때는 세그먼트 갯수 x index-field-threads 만큼의 스레드가 사용된다. 없거나 0이면 색인스레드에서 순차수행.
+index-field-queue-size : index-field-threads 사용시 스레드별로 대기할수 있는 최대 문서수. 기본 256.
+index-merge-threads : 세그먼트 색인을 마칠때 색인필드별 임시파일 머징을 동시에 수행할 스레드 수. 없거나 1이하면 필드순서대로 수행.
  * */
 @XmlRootElement(name = "index-config")
 public class IndexConfig {
@@ -30,6 +42,11 @@ public class IndexConfig {
 	private int indexTermInterval;// inmemory lexicon ratio = 1/indexTermInterval
 	private int indexWorkBucketSize;
 	private int indexWorkMemorySize;// limit memory use. if exeed this value, flush.
+	private String mmapFileTypes;
+	private int documentBlockSize;
+	private int indexFieldThreads;
+	private int indexFieldQueueSize = 256;
+	private int indexMergeThreads;
 	
 
 	@XmlElement(name="pk-term-interval")
@@ -57,6 +74,31 @@ public class IndexConfig {
 		return indexWorkMemorySize;
 	}
 
+	@XmlElement(name="mmap-file-types")
+	public String getMmapFileTypes() {
+		return mmapFileTypes;
+	}
+
+	@XmlElement(name="document-block-size")
+	public int getDocumentBlockSize() {
+		return documentBlockSize;
+	}
+
+	@XmlElement(name="index-field-threads")
+	public int getIndexFieldThreads() {
+		return indexFieldThreads;
+	}
+
+	@XmlElement(name="index-field-queue-size")
+	public int getIndexFieldQueueSize() {
+		return indexFieldQueueSize;
+	}
+
+	@XmlElement(name="index-merge-threads")
+	public int getIndexMergeThreads() {
+		return indexMergeThreads;
+	}
+
 	public void setPkTermInterval(int pkTermInterval) {
 		this.pkTermInterval = pkTermInterval;
 	}
@@ -76,6 +118,26 @@ public class IndexConfig {
 	public void setIndexWorkMemorySize(int indexWorkMemorySize) {
 		this.indexWorkMemorySize = indexWorkMemorySize;
 	}
+
+	public void setMmapFileTypes(String mmapFileTypes) {
+		this.mmapFileTypes = mmapFileTypes;
+	}
+
+	public void setDocumentBlockSize(int documentBlockSize) {
+		this.documentBlockSize = documentBlockSize;
+	}
+
+	public void setIndexFieldThreads(int indexFieldThreads) {
+		this.indexFieldThreads = indexFieldThreads;
+	}
+
+	public void setIndexFieldQueueSize(int indexFieldQueueSize) {
+		this.indexFieldQueueSize = indexFieldQueueSize;
+	}
+
+	public void setIndexMergeThreads(int indexMergeThreads) {
+		this.indexMergeThreads = indexMergeThreads;
+	}
 	
 }
 
@@ -0,0 +1,77 @@
+package org.fastcatsearch.ir.document;
+
+import java.io.IOException;
+
+import org.fastcatsearch.ir.io.BytesBuffer;
+import org.fastcatsearch.ir.io.IOUtil;
+import org.fastcatsearch.ir.io.IndexInput;
+import org.fastcatsearch.ir.io.LZ4Compressor;
+
+/**
+ * 압축을 푼 저장문서 블럭. (DocumentFormat.VERSION_BLOCK)
+ *     format : int(문서수), { int(문서시작오프셋) }, { byte[](한 문서) }
+ * 오프셋은 문서데이터 시작위치 기준이다. 문서데이터는 DocumentWriter 가 deflate 전에 만드는 바이트와 같다.
+ * */
+public class DocumentBlock {
+
+	private final byte[] data;
+	private final int count;
+	private final int dataOffset;
+
+	public DocumentBlock(byte[] data) {
+		this.data = data;
+		count = IOUtil.readInt(data, 0);
+		dataOffset = IOUtil.SIZE_OF_INT * (count + 1);
+	}
+
+	public byte[] data() {
+		return data;
+	}
+
+	public int count() {
+		return count;
+	}
+
+	/**
+	 * index 번째 문서의 data() 내 시작위치.
+	 * */
+	public int offset(int index) {
+		return dataOffset + IOUtil.readInt(data, IOUtil.SIZE_OF_INT * (index + 1));
+	}
+
+	public int length(int index) {
+		int end = index + 1 < count ? offset(index + 1) : data.length;
+		return end - offset(index);
+	}
+
+	public int memorySize() {
+		return data.length;
+	}
+
+	/**
+	 * blockPosition 의 블럭을 읽어 압축을 푼다. buffer 가 압축데이터보다 작으면 키워서 buffer 에 넣어두므로 호출한 reader 가 다음에 다시 사용한다.
+	 * */
+	public static DocumentBlock read(IndexInput input, long blockPosition, BytesBuffer buffer) throws IOException {
+		input.seek(blockPosition);
+		int compressedLength = input.readInt();
+		int length = input.readInt();
+		if (buffer.bytes == null || buffer.bytes.length < compressedLength) {
+			int newLength = buffer.bytes != null && buffer.bytes.length > 0 ? buffer.bytes.length : 1024;
+			while (newLength < compressedLength) {
+				newLength *= 2;
+			}
+			buffer.bytes = new byte[newLength];
+		}
+		input.readBytes(buffer.bytes, 0, compressedLength);
+		return decompress(buffer.bytes, compressedLength, length);
+	}
+
+	public static DocumentBlock decompress(byte[] compressed, int compressedLength, int length) throws IOException {
+		byte[] data = new byte[length];
+		int n = LZ4Compressor.decompress(compressed, 0, compressedLength, data, 0, length);
+		if (n != length) {
+			throw new IOException("Document block length mismatch. expected=" + length + ", actual=" + n);
+		}
+		return new DocumentBlock(data);
+	}
+}
@@ -0,0 +1,152 @@
+package org.fastcatsearch.ir.document;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 압축을 푼 저장문서 블럭 LRU 캐시. 노드의 모든 세그먼트 DocumentReader 와 clone 들이 공유한다.
+ * 결과페이지의 문서들은 같은 블럭에 모여있는 경우가 많으므로, 블럭을 한번 풀어 여러 문서에서 사용한다.
+ * 블럭 메모리 합이 maxBytes 를 넘으면 세그먼트에 상관없이 오래 사용하지 않은 것부터 제거한다.
+ * maxBytes 는 IRService 시작시 설정에서 읽어 setMaxBytes 로 지정한다.
+ * */
+public class DocumentBlockCache {
+	private static Logger logger = LoggerFactory.getLogger(DocumentBlockCache.class);
+
+	public static final long DEFAULT_MAX_BYTES = 64 * 1024 * 1024;
+
+	private static final DocumentBlockCache instance = new DocumentBlockCache(DEFAULT_MAX_BYTES);
+
+	private long maxBytes;
+	private final LinkedHashMap<BlockKey, DocumentBlock> map;
+	private long bytes;
+
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+	private final AtomicLong evictionCount = new AtomicLong();
+
+	public static DocumentBlockCache getInstance() {
+		return instance;
+	}
+
+	public DocumentBlockCache(long maxBytes) {
+		this.maxBytes = maxBytes;
+		map = new LinkedHashMap<BlockKey, DocumentBlock>(16, 0.75f, true);
+	}
+
+	public synchronized void setMaxBytes(long maxBytes) {
+		this.maxBytes = maxBytes;
+		logger.info("document block cache max bytes = {}", maxBytes);
+		evict(null);
+	}
+
+	/**
+	 * owner 는 세그먼트를 구분하는 객체로, DocumentReader 와 clone 들이 같은 객체를 사용한다.
+	 * */
+	public synchronized DocumentBlock get(Object owner, long blockPosition) {
+		DocumentBlock block = map.get(new BlockKey(owner, blockPosition));
+		if (block != null) {
+			hitCount.incrementAndGet();
+		} else {
+			missCount.incrementAndGet();
+		}
+		return block;
+	}
+
+	public synchronized void put(Object owner, long blockPosition, DocumentBlock block) {
+		int size = block.memorySize();
+		if (size > maxBytes) {
+			return;
+		}
+		DocumentBlock old = map.put(new BlockKey(owner, blockPosition), block);
+		if (old != null) {
+			bytes -= old.memorySize();
+		}
+		bytes += size;
+		evict(block);
+	}
+
+	/**
+	 * 세그먼트가 닫힐때 그 세그먼트의 블럭을 모두 제거한다.
+	 * */
+	public synchronized void removeAll(Object owner) {
+		Iterator<Map.Entry<BlockKey, DocumentBlock>> iterator = map.entrySet().iterator();
+		while (iterator.hasNext()) {
+			Map.Entry<BlockKey, DocumentBlock> entry = iterator.next();
+			if (entry.getKey().owner == owner) {
+				bytes -= entry.getValue().memorySize();
+				iterator.remove();
+			}
+		}
+	}
+
+	private void evict(DocumentBlock keep) {
+		Iterator<Map.Entry<BlockKey, DocumentBlock>> iterator = map.entrySet().iterator();
+		while (bytes > maxBytes && iterator.hasNext()) {
+			Map.Entry<BlockKey, DocumentBlock> entry = iterator.next();
+			if (entry.getValue() == keep) {
+				continue;
+			}
+			bytes -= entry.getValue().memorySize();
+			iterator.remove();
+			evictionCount.incrementAndGet();
+		}
+	}
+
+	public synchronized int size() {
+		return map.size();
+	}
+
+	public synchronized long bytes() {
+		return bytes;
+	}
+
+	public synchronized long maxBytes() {
+		return maxBytes;
+	}
+
+	public long hitCount() {
+		return hitCount.get();
+	}
+
+	public long missCount() {
+		return missCount.get();
+	}
+
+	public long evictionCount() {
+		return evictionCount.get();
+	}
+
+	@Override
+	public String toString() {
+		return "[DocumentBlockCache] size[" + size() + "] bytes[" + bytes() + "/" + maxBytes() + "] hit[" + hitCount() + "] miss[" + missCount() + "] eviction[" + evictionCount() + "]";
+	}
+
+	private static class BlockKey {
+		private final Object owner;
+		private final long blockPosition;
+
+		private BlockKey(Object owner, long blockPosition) {
+			this.owner = owner;
+			this.blockPosition = blockPosition;
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(owner) * 31 + (int) (blockPosition ^ (blockPosition >>> 32));
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof BlockKey)) {
+				return false;
+			}
+			BlockKey other = (BlockKey) obj;
+			return owner == other.owner && blockPosition == other.blockPosition;
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package org.fastcatsearch.ir.document;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.fastcatsearch.ir.common.IndexFileNames;
+import org.fastcatsearch.ir.io.BufferedFileInput;
+import org.fastcatsearch.ir.io.BufferedFileOutput;
+import org.fastcatsearch.ir.io.IndexInput;
+import org.fastcatsearch.ir.io.IndexOutput;
+
+/**
+ * 세그먼트별 저장문서 포맷버전.
+ * document.format 파일이 없는 세그먼트는 이전 포맷(VERSION_DEFLATE)으로 읽는다.
+ *
+ * document.format
+ *     format : int(version), int(blockSize)
+ *
+ * VERSION_DEFLATE : 문서를 한개씩 deflate 한다.
+ *     document.stored : int(docCount), { int(압축길이), byte[](한 문서) }
+ *     document.position : { long(문서위치) }
+ *
+ * VERSION_BLOCK : 여러 문서를 blockSize 정도의 블럭으로 묶어 LZ4 로 압축한다. (DocumentBlock)
+ *     document.stored : int(docCount), { int(압축길이), int(원래길이), byte[](압축된 블럭) }
+ *     document.position : { long(블럭위치 << BLOCK_INDEX_BITS | 블럭내 문서순서) }
+ * */
+public class DocumentFormat {
+
+	public static final int VERSION_DEFLATE = 1;
+	public static final int VERSION_BLOCK = 2;
+
+	public static final int BLOCK_INDEX_BITS = 12;
+	//한 블럭의 최대 문서수.
+	public static final int MAX_BLOCK_DOCS = 1 << BLOCK_INDEX_BITS;
+
+	private final int version;
+	private final int blockSize;
+
+	public DocumentFormat(int version, int blockSize) {
+		this.version = version;
+		this.blockSize = blockSize;
+	}
+
+	public int version() {
+		return version;
+	}
+
+	public int blockSize() {
+		return blockSize;
+	}
+
+	public boolean isBlock() {
+		return version == VERSION_BLOCK;
+	}
+
+	public static DocumentFormat read(File dir) throws IOException {
+		File f = new File(dir, IndexFileNames.docFormat);
+		if (!f.exists()) {
+			return new DocumentFormat(VERSION_DEFLATE, 0);
+		}
+		IndexInput input = new BufferedFileInput(f);
+		try {
+			int version = input.readInt();
+			int blockSize = input.readInt();
+			if (version != VERSION_DEFLATE && version != VERSION_BLOCK) {
+				throw new IOException("Unsupported document format version " + version + " : " + f.getAbsolutePath());
+			}
+			return new DocumentFormat(version, blockSize);
+		} finally {
+			input.close();
+		}
+	}
+
+	public void write(File dir) throws IOException {
+		IndexOutput output = new BufferedFileOutput(dir, IndexFileNames.docFormat);
+		try {
+			output.writeInt(version);
+			output.writeInt(blockSize);
+		} finally {
+			output.close();
+		}
+	}
+
+	public static long position(long blockPosition, int index) {
+		return (blockPosition << BLOCK_INDEX_BITS) | index;
+	}
+
+	public static long blockPosition(long position) {
+		return position >>> BLOCK_INDEX_BITS;
+	}
+
+	public static int blockIndex(long position) {
+		return (int) (position & (MAX_BLOCK_DOCS - 1));
+	}
+}
@@ -1,8 +1,10 @@
 package org.fastcatsearch.ir.document;
 
+import org.apache.lucene.util.BytesRef;
 import org.fastcatsearch.ir.common.IndexFileNames;
 import org.fastcatsearch.ir.io.BufferedFileOutput;
 import org.fastcatsearch.ir.io.IndexOutput;
+import org.fastcatsearch.ir.merge.MergingSegment;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -15,6 +17,9 @@ import java.io.IOException;
  * doc.stored File
  *   format : int(docCount), {int(compress data length), byte[](one document)}
  *
+ * 압축된 문서데이터를 풀지않고 그대로 복사하며, 삭제문서는 제외한다.
+ * 블럭포맷(DocumentFormat)으로 기록하거나 블럭포맷 세그먼트가 포함된 경우는 압축을 푼 문서데이터를 DocumentWriter 로 다시 기록한다.
+ *
  * Created by swsong on 2015. 11. 17..
  */
 public class DocumentMerger {
@@ -25,18 +30,49 @@ public class DocumentMerger {
     private PrimaryKeyIndexWriter primaryKeyIndexWriter;
     private int readerSize;
     private DocumentRawReader[] reader;
+    private File dir;
+    private int blockSize;
+    private DocumentWriter documentWriter;
 
     public DocumentMerger(File dir) throws IOException {
-        docOutput = new BufferedFileOutput(dir, IndexFileNames.docStored);
-        positionOutput = new BufferedFileOutput(dir, IndexFileNames.docPosition);
+        this(dir, 0);
+    }
+
+    /**
+     * blockSize 가 0보다 크면 블럭포맷으로 기록한다.
+     */
+    public DocumentMerger(File dir, int blockSize) throws IOException {
+        this.dir = dir;
+        this.blockSize = blockSize;
 //        primaryKeyIndexWriter = new PrimaryKeyIndexWriter();
     }
 
-    public void merge(File... dirs) throws IOException {
+    public int merge(File... dirs) throws IOException {
+        return merge(MergingSegment.load(dirs));
+    }
+
+    /**
+     * 기록한 문서갯수를 리턴한다.
+     */
+    public int merge(MergingSegment... segments) throws IOException {
+
+        readerSize = segments.length;
+        boolean copyCompressed = blockSize <= 0;
+        for (int i = 0; i < readerSize; i++) {
+            if (DocumentFormat.read(segments[i].dir()).isBlock()) {
+                copyCompressed = false;
+            }
+        }
+        if (!copyCompressed) {
+            return mergeRaw(segments);
+        }
 
-        readerSize = dirs.length;
+        docOutput = new BufferedFileOutput(dir, IndexFileNames.docStored);
+        positionOutput = new BufferedFileOutput(dir, IndexFileNames.docPosition);
+        new DocumentFormat(DocumentFormat.VERSION_DEFLATE, 0).write(dir);
         if (readerSize <= 0) {
-            return;
+            docOutput.writeInt(0);
+            return 0;
         }
         reader = new DocumentRawReader[readerSize];
 
@@ -46,7 +82,7 @@ public class DocumentMerger {
         try {
             for (int i = 0; i < readerSize; i++) {
 
-                reader[i] = new DocumentRawReader(dirs[i]);
+                reader[i] = new DocumentRawReader(segments[i].dir(), segments[i].deleteSet());
 
                 while(reader[i].read()) {
                     int docNo = reader[i].getDocNo();
@@ -70,25 +106,62 @@ public class DocumentMerger {
             docOutput.writeInt(totalCount);
             logger.debug("Total Count[{}] Delete[{}]", totalCount, deleteCount);
         } finally {
-            //CLOSE
-            IOException exception = null;
+            closeReaders();
+        }
+        return totalCount;
+    }
+
+    /*
+     * 문서의 압축을 풀어 DocumentWriter 로 다시 기록한다. 필드 파싱은 하지 않는다.
+     */
+    private int mergeRaw(MergingSegment... segments) throws IOException {
+        documentWriter = new DocumentWriter(null, dir, blockSize);
+        reader = new DocumentRawReader[readerSize];
+        int deleteCount = 0;
+        try {
             for (int i = 0; i < readerSize; i++) {
-                try {
-                    reader[i].close();
-                } catch (IOException e) {
-                    exception = e;
+                reader[i] = new DocumentRawReader(segments[i].dir(), segments[i].deleteSet());
+                while (reader[i].read()) {
+                    if (reader[i].isAlive()) {
+                        BytesRef data = reader[i].getRawDocument();
+                        documentWriter.writeRaw(data.bytes, data.offset, data.length);
+                    } else {
+                        deleteCount++;
+                    }
                 }
             }
-            if (exception != null) {
-                throw exception;
-            }
+            logger.debug("Total Count[{}] Delete[{}] blockSize[{}]", documentWriter.totalCount(), deleteCount, blockSize);
+        } finally {
+            closeReaders();
         }
+        return documentWriter.totalCount();
+    }
 
-
+    private void closeReaders() throws IOException {
+        IOException exception = null;
+        for (int i = 0; i < readerSize; i++) {
+            try {
+                if (reader[i] != null) {
+                    reader[i].close();
+                }
+            } catch (IOException e) {
+                exception = e;
+            }
+        }
+        if (exception != null) {
+            throw exception;
+        }
     }
 
     public void close() throws IOException {
         IOException exception = null;
+        try {
+            if (documentWriter != null) {
+                documentWriter.close();
+            }
+        } catch (IOException e) {
+            exception = e;
+        }
         try {
             if (docOutput != null) {
                 docOutput.close();
@@ -1,8 +1,11 @@
 package org.fastcatsearch.ir.document;
 
+import org.apache.lucene.util.BytesRef;
 import org.fastcatsearch.ir.common.IndexFileNames;
 import org.fastcatsearch.ir.io.BitSet;
 import org.fastcatsearch.ir.io.BufferedFileInput;
+import org.fastcatsearch.ir.io.ByteRefArrayOutputStream;
+import org.fastcatsearch.ir.io.BytesBuffer;
 import org.fastcatsearch.ir.io.IOUtil;
 import org.fastcatsearch.ir.io.IndexInput;
 import org.slf4j.Logger;
@@ -12,6 +15,8 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
 
 /**
  * Created by swsong on 2015. 11. 18..
@@ -33,13 +38,32 @@ public class DocumentRawReader {
 
     private boolean isAlive;
 
+    private DocumentFormat format;
+    //블럭포맷은 순차로 읽으므로 마지막 블럭 하나만 가지고 있는다.
+    private DocumentBlock block;
+    private long blockPosition = -1;
+    //블럭 압축데이터를 읽는 버퍼. 큰 블럭을 만나면 키워서 계속 사용한다.
+    private BytesBuffer blockBuffer = new BytesBuffer(8192);
+    private int blockIndex;
+    private Inflater inflater;
+    private ByteRefArrayOutputStream inflaterOutput;
+    private byte[] workingBuffer;
+
     public DocumentRawReader(File dir) throws IOException {
+        this(dir, new BitSet(dir, IndexFileNames.docDeleteSet));
+    }
+
+    /**
+     * 이미 읽어놓은 삭제문서를 사용한다.
+     */
+    public DocumentRawReader(File dir, BitSet deleteSet) throws IOException {
         docInput = new BufferedFileInput(dir, IndexFileNames.docStored);
         positionInput = new BufferedFileInput(dir, IndexFileNames.docPosition);
-        deleteSet = new BitSet(dir, IndexFileNames.docDeleteSet);
+        this.deleteSet = deleteSet;
         positionLimit = positionInput.length();
         documentCount = docInput.readInt();
-        logger.info("DocumentCount = {}", documentCount);
+        format = DocumentFormat.read(dir);
+        logger.info("DocumentCount = {}, format = {}", documentCount, format.version());
     }
 
     public boolean read() throws IOException {
@@ -57,6 +81,19 @@ public class DocumentRawReader {
         } else {
             positionInput.seek(positionOffset);
             long pos = positionInput.readLong();
+            if (format.isBlock()) {
+                long docBlockPosition = DocumentFormat.blockPosition(pos);
+                if (docBlockPosition != blockPosition) {
+                    block = DocumentBlock.read(docInput, docBlockPosition, blockBuffer);
+                    blockPosition = docBlockPosition;
+                }
+                blockIndex = DocumentFormat.blockIndex(pos);
+                dataLength = block.length(blockIndex);
+                isAlive = true;
+                lastDocNo = docNo;
+                docNo++;
+                return true;
+            }
             // find a document block
             docInput.seek(pos);
             dataLength = docInput.readInt();
@@ -75,10 +112,46 @@ public class DocumentRawReader {
         return true;
     }
 
+    /**
+     * 문서별 deflate 포맷에서 압축된 문서데이터. 블럭포맷에서는 getRawDocument 를 사용한다.
+     */
     public byte[] getBuffer() {
         return buffer;
     }
 
+    public boolean isBlockFormat() {
+        return format.isBlock();
+    }
+
+    /**
+     * 압축을 푼 문서데이터. DocumentWriter.writeRaw 로 다른 포맷에 다시 기록할수 있다.
+     */
+    public BytesRef getRawDocument() throws IOException {
+        if (format.isBlock()) {
+            return new BytesRef(block.data(), block.offset(blockIndex), dataLength);
+        }
+        if (inflater == null) {
+            inflater = new Inflater();
+            inflaterOutput = new ByteRefArrayOutputStream(20 * 1024);
+            workingBuffer = new byte[1024];
+        }
+        inflater.reset();
+        inflater.setInput(buffer, 0, dataLength);
+        inflaterOutput.reset();
+        try {
+            while (!inflater.finished()) {
+                int count = inflater.inflate(workingBuffer);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Unexpected end of compressed document. docNo=" + lastDocNo);
+                }
+                inflaterOutput.write(workingBuffer, 0, count);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException(e);
+        }
+        return inflaterOutput.getBytesRef();
+    }
+
     public int getDataLength() {
         return dataLength;
     }
@@ -92,6 +165,9 @@ public class DocumentRawReader {
     }
 
     public void close() throws IOException {
+        if (inflater != null) {
+            inflater.end();
+        }
         IOException exception = null;
         try {
             if (docInput != null) {
@@ -20,20 +20,20 @@ import java.io.File;
 import java.io.IOException;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.DataFormatException;
 import java.util.zip.Inflater;
-import java.util.zip.InflaterInputStream;
 
-import org.apache.commons.io.input.BoundedInputStream;
 import org.apache.lucene.util.BytesRef;
 import org.fastcatsearch.ir.common.IndexFileNames;
 import org.fastcatsearch.ir.field.Field;
 import org.fastcatsearch.ir.field.FieldDataParseException;
-import org.fastcatsearch.ir.io.BufferedFileInput;
 import org.fastcatsearch.ir.io.ByteRefArrayOutputStream;
+import org.fastcatsearch.ir.io.BytesBuffer;
 import org.fastcatsearch.ir.io.BytesDataInput;
 import org.fastcatsearch.ir.io.DataInput;
 import org.fastcatsearch.ir.io.IOUtil;
 import org.fastcatsearch.ir.io.IndexInput;
+import org.fastcatsearch.ir.io.IndexInputFactory;
 import org.fastcatsearch.ir.settings.FieldSetting;
 import org.fastcatsearch.ir.settings.SchemaSetting;
 import org.slf4j.Logger;
@@ -41,6 +41,8 @@ import org.slf4j.LoggerFactory;
 
 /**
  * 문서번호는 세그먼트마다 0부터 시작하는 번호로 read한다. baseNo와는 상관없는 내부문서번호.
+ * 세그먼트의 document.format 에 따라 문서별 deflate 포맷과 블럭포맷을 모두 읽는다.
+ * 블럭포맷은 압축을 푼 블럭을 노드 공용 DocumentBlockCache 에 보관한다.
  * */
 
 public class DocumentReader implements Cloneable {
@@ -52,6 +54,16 @@ public class DocumentReader implements Cloneable {
 	private IndexInput positionInput;
 	private ByteRefArrayOutputStream inflaterOutput;
 	private byte[] workingBuffer;
+	//문서마다 새로 만들지 않고 reset 하여 사용한다.
+	private Inflater inflater;
+	private byte[] compressedBuffer;
+	private DocumentFormat format;
+	private DocumentBlockCache blockCache;
+	//블럭캐시에서 이 세그먼트를 구분하는 객체. clone 들과 공유한다.
+	private Object blockCacheOwner;
+	//블럭 압축데이터를 읽는 버퍼. 큰 블럭을 만나면 키워서 계속 사용한다.
+	private BytesBuffer blockBuffer;
+	private boolean isClone;
 
 	private int documentCount;
 	private int lastDocNo = -1;
@@ -64,15 +76,27 @@ public class DocumentReader implements Cloneable {
 	}
 
 	public DocumentReader(SchemaSetting schemaSetting, File dir) throws IOException {
+		this(schemaSetting, dir, IndexInputFactory.DEFAULT);
+	}
+
+	public DocumentReader(SchemaSetting schemaSetting, File dir, IndexInputFactory indexInputFactory) throws IOException {
 		fields = schemaSetting.getFieldSettingList();
-		docInput = new BufferedFileInput(dir, IndexFileNames.docStored);
-		positionInput = new BufferedFileInput(dir, IndexFileNames.docPosition);
+		docInput = indexInputFactory.open(dir, IndexFileNames.docStored);
+		positionInput = indexInputFactory.open(dir, IndexFileNames.docPosition);
 		positionLimit = positionInput.length();
 		documentCount = docInput.readInt();
-		logger.debug("DocumentCount = {}", documentCount);
+		format = DocumentFormat.read(dir);
+		logger.debug("DocumentCount = {}, format = {}", documentCount, format.version());
+		if (format.isBlock()) {
+			blockCache = DocumentBlockCache.getInstance();
+			blockCacheOwner = new Object();
+			blockBuffer = new BytesBuffer(1024);
+		}
 
 		inflaterOutput = new ByteRefArrayOutputStream(INFLATE_BUFFER_INIT_SIZE); // 자동 증가됨. 초기 20KB으로 내림. 예전에는 3MB였음.
 		workingBuffer = new byte[1024];
+		inflater = new Inflater();
+		compressedBuffer = new byte[1024];
         referenceCount = new AtomicInteger();
 	}
 
@@ -106,29 +130,12 @@ public class DocumentReader implements Cloneable {
 			}
 			positionInput.seek(positionOffset);
 			long pos = positionInput.readLong();
-			// find a document block
-			docInput.seek(pos);
-			int len = docInput.readInt();
-			
-			//2014-11-26 검색요청이 많아서 working 버퍼가 너무 빠르게 많이 생길경우 GC 되기전에 OOM 발생할수 있음.
-			// Stream으로 바꾸어 해결.
-			InflaterInputStream decompressInputStream = null;
-			inflaterOutput.reset();
-			int count = -1;
-			try {
-				BoundedInputStream boundedInputStream = new BoundedInputStream(docInput, len);
-				boundedInputStream.setPropagateClose(false);//하위 docInput 를 닫지않는다.
-				decompressInputStream = new InflaterInputStream(boundedInputStream, new Inflater(), 512);
-				while ((count = decompressInputStream.read(workingBuffer)) != -1) {
-					inflaterOutput.write(workingBuffer, 0, count);
-				}
-			} finally {
-				decompressInputStream.close();
+			if (format.isBlock()) {
+				bai = readBlock(pos);
+			} else {
+				bai = inflate(pos);
 			}
 
-			BytesRef bytesRef = inflaterOutput.getBytesRef();
-			bai = new BytesDataInput(bytesRef.bytes, 0, bytesRef.length);
-
 			lastDocNo = docNo;
 			lastBai = bai;
 		} else {
@@ -174,6 +181,51 @@ public class DocumentReader implements Cloneable {
 		return document;
 	}
 
+	/*
+	 * 2014-11-26 검색요청이 많을때 working 버퍼가 많이 생겨 OOM 이 발생할수 있어 Stream 으로 바꾸었었으나,
+	 * 문서마다 Inflater 와 스트림을 새로 만들면 native 메모리 할당이 많으므로 reader 별 Inflater 와 버퍼를 재사용한다.
+	 * */
+	private DataInput inflate(long pos) throws IOException {
+		// find a document block
+		docInput.seek(pos);
+		int len = docInput.readInt();
+		if (compressedBuffer.length < len) {
+			compressedBuffer = new byte[Math.max(len, compressedBuffer.length * 2)];
+		}
+		docInput.readBytes(compressedBuffer, 0, len);
+		inflater.reset();
+		inflater.setInput(compressedBuffer, 0, len);
+		inflaterOutput.reset();
+		try {
+			while (!inflater.finished()) {
+				int count = inflater.inflate(workingBuffer);
+				if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+					throw new IOException("Unexpected end of compressed document. pos=" + pos);
+				}
+				inflaterOutput.write(workingBuffer, 0, count);
+			}
+		} catch (DataFormatException e) {
+			throw new IOException(e);
+		}
+		BytesRef bytesRef = inflaterOutput.getBytesRef();
+		return new BytesDataInput(bytesRef.bytes, 0, bytesRef.length);
+	}
+
+	private DataInput readBlock(long pos) throws IOException {
+		long blockPosition = DocumentFormat.blockPosition(pos);
+		int index = DocumentFormat.blockIndex(pos);
+		DocumentBlock block = blockCache.get(blockCacheOwner, blockPosition);
+		if (block == null) {
+			block = DocumentBlock.read(docInput, blockPosition, blockBuffer);
+			blockCache.put(blockCacheOwner, blockPosition, block);
+		}
+		return new BytesDataInput(block.data(), block.offset(index), block.length(index));
+	}
+
+	public DocumentBlockCache blockCache() {
+		return blockCache;
+	}
+
 	@Override
 	public DocumentReader clone() {
 		DocumentReader reader = new DocumentReader();
@@ -184,6 +236,15 @@ public class DocumentReader implements Cloneable {
 
 		reader.inflaterOutput = new ByteRefArrayOutputStream(INFLATE_BUFFER_INIT_SIZE); // 자동 증가됨.
 		reader.workingBuffer = new byte[1024];
+		reader.inflater = new Inflater();
+		reader.compressedBuffer = new byte[1024];
+		reader.format = format;
+		reader.blockCache = blockCache;
+		reader.blockCacheOwner = blockCacheOwner;
+		if (blockBuffer != null) {
+			reader.blockBuffer = new BytesBuffer(1024);
+		}
+		reader.isClone = true;
 		reader.positionLimit = positionLimit;
         reader.referenceCount = referenceCount;
         referenceCount.incrementAndGet();
@@ -193,6 +254,10 @@ public class DocumentReader implements Cloneable {
 	public void close() throws IOException {
 		docInput.close();
 		positionInput.close();
+		inflater.end();
         referenceCount.decrementAndGet();
+		if (!isClone && blockCache != null) {
+			blockCache.removeAll(blockCacheOwner);
+		}
 	}
 }
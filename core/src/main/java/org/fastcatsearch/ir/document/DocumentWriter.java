@@ -45,6 +45,7 @@ import java.util.zip.InflaterInputStream;
 /**
  * 문서를 한개씩 압축하여 기록한다.
  * 입력되는 Document들을 파일로 기록하는 클래스.
+ * IndexConfig 의 document-block-size 가 0보다 크면 문서들을 블럭으로 묶어 LZ4 로 압축한다. 포맷은 DocumentFormat 참조.
  * 
  * 생성되는파일은 2개인데 문서데이터파일, 데이터파일내 문서위치를 기록한 문서위치파일이다.
  * 
@@ -67,14 +68,43 @@ public class DocumentWriter implements WriteInfoLoggable {
 	private Deflater compressor;
 	private int count; //현 색인시 추가문서갯수.
 
+	private File dir;
+	private DocumentFormat format;
+	//블럭포맷에서 기록중인 블럭.
+	private LZ4Compressor blockCompressor;
+	private BytesDataOutput blockData;
+	private BytesDataOutput blockOutput;
+	private int[] blockOffsets;
+	private int blockDocCount;
+	private long blockPosition;
+	private byte[] compressedBuffer;
+
     private static final int INFLATE_BUFFER_INIT_SIZE = 20 * 1024;
     private ByteRefArrayOutputStream inflaterOutput;
 
 
 	public DocumentWriter(SchemaSetting schemaSetting, File dir, IndexConfig indexConfig) throws IOException, IRException {
+		this(schemaSetting.getFieldSettingList(), dir, indexConfig != null ? indexConfig.getDocumentBlockSize() : 0);
+	}
+
+	/**
+	 * blockSize 가 0보다 크면 블럭포맷으로 기록한다.
+	 * */
+	public DocumentWriter(List<FieldSetting> fields, File dir, int blockSize) throws IOException {
 		
 		compressor = new Deflater(Deflater.BEST_SPEED);
-		fields = schemaSetting.getFieldSettingList();
+		this.fields = fields;
+		this.dir = dir;
+		if (blockSize > 0) {
+			format = new DocumentFormat(DocumentFormat.VERSION_BLOCK, blockSize);
+			blockCompressor = new LZ4Compressor();
+			blockData = new BytesDataOutput(blockSize + 1024);
+			blockOutput = new BytesDataOutput(blockSize + 1024);
+			blockOffsets = new int[DocumentFormat.MAX_BLOCK_DOCS];
+			compressedBuffer = new byte[LZ4Compressor.maxCompressedLength(blockSize + 1024)];
+		} else {
+			format = new DocumentFormat(DocumentFormat.VERSION_DEFLATE, 0);
+		}
 		
 		docOutput = new BufferedFileOutput(dir, IndexFileNames.docStored);
 		positionOutput = new BufferedFileOutput(dir, IndexFileNames.docPosition);
@@ -90,8 +120,6 @@ public class DocumentWriter implements WriteInfoLoggable {
 
 	public int write(Document document) throws IOException, IRException {
 		fbaos.reset();
-		long docStartPosition = docOutput.position();
-		positionOutput.writeLong(docStartPosition);
 		
 		for (int i = 0; i < document.size(); i++) {
 			Field f = document.get(i);
@@ -107,8 +135,35 @@ public class DocumentWriter implements WriteInfoLoggable {
 			}
 		}
 		
+		writeRaw(fbaos.array(), 0, (int) fbaos.position());
+		return totalCount - 1;
+	}
+
+	/**
+	 * 압축전 문서데이터 하나를 기록한다. 머징시 문서를 다시 파싱하지 않고 옮길때에도 사용한다.
+	 * */
+	public void writeRaw(byte[] data, int offset, int length) throws IOException {
+		if (format.isBlock()) {
+			if (blockDocCount == 0) {
+				//블럭은 다음 문서부터 이어서 기록되므로 현재위치가 블럭위치가 된다.
+				blockPosition = docOutput.position();
+			}
+			positionOutput.writeLong(DocumentFormat.position(blockPosition, blockDocCount));
+			blockOffsets[blockDocCount++] = (int) blockData.position();
+			blockData.writeBytes(data, offset, length);
+			if (blockDocCount == DocumentFormat.MAX_BLOCK_DOCS || blockData.position() >= format.blockSize()) {
+				flushBlock();
+			}
+			count++;
+			totalCount++;
+			return;
+		}
+		
+		long docStartPosition = docOutput.position();
+		positionOutput.writeLong(docStartPosition);
+		
 		compressor.reset();
-		compressor.setInput(fbaos.array(), 0, (int) fbaos.position());
+		compressor.setInput(data, offset, length);
 		compressor.finish();
 
 		long pos = docOutput.position();
@@ -128,7 +183,31 @@ public class DocumentWriter implements WriteInfoLoggable {
 		docOutput.seek(lastPos);
 		
 		count++;
-		return totalCount++;
+		totalCount++;
+	}
+
+	private void flushBlock() throws IOException {
+		if (blockDocCount == 0) {
+			return;
+		}
+		int dataLength = (int) blockData.position();
+		blockOutput.reset();
+		blockOutput.writeInt(blockDocCount);
+		for (int i = 0; i < blockDocCount; i++) {
+			blockOutput.writeInt(blockOffsets[i]);
+		}
+		blockOutput.writeBytes(blockData.array(), 0, dataLength);
+		int length = (int) blockOutput.position();
+		int maxLength = LZ4Compressor.maxCompressedLength(length);
+		if (compressedBuffer.length < maxLength) {
+			compressedBuffer = new byte[maxLength];
+		}
+		int compressedLength = blockCompressor.compress(blockOutput.array(), 0, length, compressedBuffer, 0);
+		docOutput.writeInt(compressedLength);
+		docOutput.writeInt(length);
+		docOutput.writeBytes(compressedBuffer, 0, compressedLength);
+		blockData.reset();
+		blockDocCount = 0;
 	}
 
     public Document readDocument(int docNo) throws IOException, IRException {
@@ -142,6 +221,10 @@ public class DocumentWriter implements WriteInfoLoggable {
             positionOutput.seek(prevPosPos);
         }
 
+        if (format.isBlock()) {
+            return readBlockDocument(docNo, docPos);
+        }
+
         // find a document block
         long prevDocPos = docOutput.position();
         try {
@@ -170,8 +253,34 @@ public class DocumentWriter implements WriteInfoLoggable {
         }
 
         BytesRef bytesRef = inflaterOutput.getBytesRef();
-        DataInput bai = new BytesDataInput(bytesRef.bytes, 0, bytesRef.length);
+        return toDocument(new BytesDataInput(bytesRef.bytes, 0, bytesRef.length), docNo);
+    }
+
+    private Document readBlockDocument(int docNo, long position) throws IOException {
+        long docBlockPosition = DocumentFormat.blockPosition(position);
+        int index = DocumentFormat.blockIndex(position);
+        if (blockDocCount > 0 && docBlockPosition == blockPosition) {
+            //아직 기록하지 않은 현재 블럭의 문서.
+            int end = index + 1 < blockDocCount ? blockOffsets[index + 1] : (int) blockData.position();
+            return toDocument(new BytesDataInput(blockData.array(), blockOffsets[index], end - blockOffsets[index]), docNo);
+        }
+        long prevDocPos = docOutput.position();
+        DocumentBlock block = null;
+        try {
+            docOutput.seek(docBlockPosition);
+            RandomAccessFile raf = docOutput.getRaf();
+            int compressedLength = IOUtil.readInt(raf);
+            int length = IOUtil.readInt(raf);
+            byte[] compressed = new byte[compressedLength];
+            raf.readFully(compressed);
+            block = DocumentBlock.decompress(compressed, compressedLength, length);
+        } finally {
+            docOutput.seek(prevDocPos);
+        }
+        return toDocument(new BytesDataInput(block.data(), block.offset(index), block.length(index)), docNo);
+    }
 
+    private Document toDocument(DataInput bai, int docNo) throws IOException {
         Document document = new Document(fields.size());
         for (int i = 0; i < fields.size(); i++) {
             FieldSetting fs = fields.get(i);
@@ -203,6 +312,9 @@ public class DocumentWriter implements WriteInfoLoggable {
 	
 	public void close() throws IOException {
 		logger.debug("DocumentWriter close() count={}", count);
+		if (format.isBlock()) {
+			flushBlock();
+		}
 
 		// write header
 		if(count > 0){
@@ -212,6 +324,7 @@ public class DocumentWriter implements WriteInfoLoggable {
 		docOutput.close();
 		
 		positionOutput.close();
+		format.write(dir);
 	}
 
 	@Override
@@ -0,0 +1,157 @@
+package org.fastcatsearch.ir.document;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.fastcatsearch.ir.common.IndexFileNames;
+import org.fastcatsearch.ir.io.BufferedFileInput;
+import org.fastcatsearch.ir.io.BufferedFileOutput;
+import org.fastcatsearch.ir.io.BytesBuffer;
+import org.fastcatsearch.ir.io.IndexInput;
+import org.fastcatsearch.ir.io.IndexOutput;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 세그먼트 pk맵의 bloom filter.
+ * 동적색인시 새 세그먼트의 pk를 이전 세그먼트마다 pk맵에서 찾게 되는데, 대부분은 없는 pk이므로 디스크 탐색전에 이것으로 걸러낸다.
+ * false 이면 확실히 없는 pk이고, true 이면 pk맵에서 확인해야 한다. 키당 10bit, 해시 7개로 오탐율은 약 1% 이다.
+ *
+ * 포맷 : int(해시갯수), int(long갯수), { long(비트) }
+ *
+ * 세그먼트 색인(PrimaryKeyIndexesWriter)과 머징(PrimaryKeyIndexesMerger)시 pk맵을 만든후 생성한다.
+ * 파일이 없는 이전 세그먼트는 load 시 null 이 리턴되며, 항상 pk맵을 찾아야 한다.
+ * */
+public class PrimaryKeyBloomFilter {
+	private static Logger logger = LoggerFactory.getLogger(PrimaryKeyBloomFilter.class);
+
+	private static final int BITS_PER_KEY = 10;
+	private static final int HASH_COUNT = 7;
+
+	private final int hashCount;
+	private final long[] bits;
+	private final long bitSize;
+
+	public PrimaryKeyBloomFilter(int keyCount) {
+		this(HASH_COUNT, new long[Math.max(1, (int) (((long) keyCount * BITS_PER_KEY + 63) >>> 6))]);
+	}
+
+	private PrimaryKeyBloomFilter(int hashCount, long[] bits) {
+		this.hashCount = hashCount;
+		this.bits = bits;
+		this.bitSize = (long) bits.length << 6;
+	}
+
+	public void add(BytesBuffer key) {
+		add(key.bytes, key.offset, key.length());
+	}
+
+	public void add(byte[] data, int offset, int length) {
+		long hash = hash(data, offset, length);
+		int h1 = (int) hash;
+		int h2 = (int) (hash >>> 32);
+		for (int i = 1; i <= hashCount; i++) {
+			int combined = h1 + i * h2;
+			if (combined < 0) {
+				combined = ~combined;
+			}
+			long bit = combined % bitSize;
+			bits[(int) (bit >>> 6)] |= (1L << bit);
+		}
+	}
+
+	public boolean mightContain(BytesBuffer key) {
+		return mightContain(key.bytes, key.offset, key.length());
+	}
+
+	public boolean mightContain(byte[] data, int offset, int length) {
+		long hash = hash(data, offset, length);
+		int h1 = (int) hash;
+		int h2 = (int) (hash >>> 32);
+		for (int i = 1; i <= hashCount; i++) {
+			int combined = h1 + i * h2;
+			if (combined < 0) {
+				combined = ~combined;
+			}
+			long bit = combined % bitSize;
+			if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/*
+	 * 64bit FNV-1a 후 murmur3 finalizer 로 섞는다.
+	 * */
+	private static long hash(byte[] data, int offset, int length) {
+		long h = 0xcbf29ce484222325L;
+		for (int i = offset; i < offset + length; i++) {
+			h ^= (data[i] & 0xff);
+			h *= 0x100000001b3L;
+		}
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+
+	public void save(File dir) throws IOException {
+		IndexOutput output = new BufferedFileOutput(dir, IndexFileNames.primaryKeyBloom);
+		try {
+			output.writeInt(hashCount);
+			output.writeInt(bits.length);
+			for (int i = 0; i < bits.length; i++) {
+				output.writeLong(bits[i]);
+			}
+		} finally {
+			output.close();
+		}
+	}
+
+	/**
+	 * 파일이 없으면 null 을 리턴한다.
+	 * */
+	public static PrimaryKeyBloomFilter load(File dir) throws IOException {
+		File f = new File(dir, IndexFileNames.primaryKeyBloom);
+		if (!f.exists()) {
+			return null;
+		}
+		IndexInput input = new BufferedFileInput(f);
+		try {
+			int hashCount = input.readInt();
+			long[] bits = new long[input.readInt()];
+			for (int i = 0; i < bits.length; i++) {
+				bits[i] = input.readLong();
+			}
+			return new PrimaryKeyBloomFilter(hashCount, bits);
+		} finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * 세그먼트의 pk맵을 읽어 bloom filter 파일을 만든다. pk맵이 없으면 만들지 않는다.
+	 * */
+	public static void build(File dir) throws IOException {
+		File pkFile = new File(dir, IndexFileNames.primaryKeyMap);
+		if (!pkFile.exists()) {
+			return;
+		}
+		PrimaryKeyIndexBulkReader reader = new PrimaryKeyIndexBulkReader(pkFile);
+		try {
+			PrimaryKeyBloomFilter bloomFilter = new PrimaryKeyBloomFilter(reader.count());
+			BytesBuffer buf = new BytesBuffer(1024);
+			while (reader.next(buf) != -1) {
+				bloomFilter.add(buf);
+				buf.clear();
+			}
+			bloomFilter.save(dir);
+			logger.debug("pk bloom filter {} keys[{}] bytes[{}]", dir.getName(), reader.count(), bloomFilter.bits.length * 8);
+		} finally {
+			reader.close();
+		}
+	}
+}
@@ -30,12 +30,19 @@ public class PrimaryKeyIndexBulkReader {
 	
 	private BufferedFileInput input;
 	private int keyCount;
+	private int count;
     private File file;
 	
 	public PrimaryKeyIndexBulkReader(File file) throws IOException{
         this.file = file;
 		input  = new BufferedFileInput(file);
 		keyCount = input.readInt();
+		count = keyCount;
+	}
+
+	//전체 키 갯수.
+	public int count() {
+		return count;
 	}
 	
 	public int next(BytesBuffer buf) throws IOException{
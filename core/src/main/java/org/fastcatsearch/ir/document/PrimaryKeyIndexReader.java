@@ -23,6 +23,7 @@ import org.fastcatsearch.ir.common.IndexFileNames;
 import org.fastcatsearch.ir.io.BufferedFileInput;
 import org.fastcatsearch.ir.io.BytesBuffer;
 import org.fastcatsearch.ir.io.IndexInput;
+import org.fastcatsearch.ir.io.IndexInputFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -48,10 +49,15 @@ public class PrimaryKeyIndexReader implements BytesToIntReader, Cloneable {
 //	}
 
 	public PrimaryKeyIndexReader(File dir, String filename) throws IOException {
+		this(dir, filename, IndexInputFactory.DEFAULT);
+	}
+
+	public PrimaryKeyIndexReader(File dir, String filename, IndexInputFactory indexInputFactory) throws IOException {
         this.dir = dir;
 		String pkIndexFilename = IndexFileNames.getIndexFileName(filename);
 
-		input = new BufferedFileInput(dir, filename);
+		input = indexInputFactory.open(dir, filename);
+		// index 파일은 메모리에 올린후 닫으므로 항상 buffered 로 읽는다.
 		IndexInput indexInput = new BufferedFileInput(dir, pkIndexFilename);
 
 		init(input, indexInput);
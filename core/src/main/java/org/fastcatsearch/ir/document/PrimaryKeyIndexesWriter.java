@@ -51,6 +51,7 @@ public class PrimaryKeyIndexesWriter {
 	private LargePrimaryKeyIndexWriter indexWriter;
 	private PrimaryKeySetting primaryKeySetting;
 	private int[] primaryKeyFieldIdList;
+	private File dir;
 
 	int MEMORY_LIMIT = 64 * 1024 * 1024; //적절은 64M
 	int CHECK_COUNT = 100000;
@@ -79,6 +80,7 @@ public class PrimaryKeyIndexesWriter {
 			}
 		}
 
+        this.dir = dir;
         indexWriter = new LargePrimaryKeyIndexWriter(dir, IndexFileNames.primaryKeyMap, indexConfig.getPkTermInterval(), indexConfig.getPkBucketSize());
 
 		pkbaos = new BytesDataOutput(1024); //초기 1kb로 시작.
@@ -139,6 +141,7 @@ public class PrimaryKeyIndexesWriter {
 	public void close() throws IOException {
 		if(indexWriter != null){
 			indexWriter.close();
+			PrimaryKeyBloomFilter.build(dir);
 		}
 		
 		// save delete list
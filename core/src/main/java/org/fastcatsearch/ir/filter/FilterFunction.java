@@ -25,6 +25,7 @@ import org.fastcatsearch.ir.io.BytesDataOutput;
 import org.fastcatsearch.ir.io.DataRef;
 import org.fastcatsearch.ir.query.Filter;
 import org.fastcatsearch.ir.query.RankInfo;
+import org.fastcatsearch.ir.search.NumericDocValues;
 import org.fastcatsearch.ir.settings.FieldIndexSetting;
 import org.fastcatsearch.ir.settings.FieldSetting;
 import org.slf4j.Logger;
@@ -35,6 +36,12 @@ import org.slf4j.LoggerFactory;
  * */
 public abstract class FilterFunction {
 	protected static Logger logger = LoggerFactory.getLogger(FilterFunction.class);
+	
+	//블럭의 [min, max] 범위와 필터조건의 관계.
+	public static final int RELATION_NONE = 0; //블럭의 모든 문서가 제외된다.
+	public static final int RELATION_SOME = 1; //문서별로 확인해야 한다.
+	public static final int RELATION_ALL = 2; //블럭의 모든 문서가 포함된다.
+	
 	protected FieldSetting fieldSetting;
 	protected int boostScore;
 	protected boolean isBoostFunction;
@@ -44,6 +51,10 @@ public abstract class FilterFunction {
 
 	protected boolean isMultiField;
 
+	//filtering(RankInfo, long) 기본구현에서 값을 바이트로 바꿀때 사용한다.
+	private int docValuesType;
+	private DataRef docValuesRef;
+
 	public FilterFunction(Filter filter, FieldIndexSetting fieldIndexSetting, FieldSetting fieldSetting, boolean isBoostFunction) throws FilterException{
         Object fieldIdObject = filter.fieldIndexId();
         if(fieldIdObject instanceof String) {
@@ -69,4 +80,49 @@ public abstract class FilterFunction {
 	 */
 	public abstract boolean filtering(RankInfo rankInfo, DataRef dataRef) throws FilterException, IOException;
 	
+	/**
+	 * doc values 를 사용할지 결정한다. HitFilter 에서 호출한다.
+	 * */
+	public final boolean useNumericDocValues(int valueType) {
+		if (prepareNumericDocValues(valueType)) {
+			docValuesType = valueType;
+			docValuesRef = new DataRef(NumericDocValues.byteSize(valueType));
+			docValuesRef.setType(fieldSetting != null ? fieldSetting.getType() : null);
+			return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * 필드색인 대신 doc values 의 값으로 필터링할 수 있도록 준비한다.
+	 * 지원하는 필터는 override 하여 true 를 리턴하며, 이후 filtering(RankInfo, long) 이 사용된다.
+	 * @param valueType NumericDocValues 의 값타입
+	 */
+	public boolean prepareNumericDocValues(int valueType) {
+		return false;
+	}
+	
+	/**
+	 * doc values 의 값으로 필터링한다. useNumericDocValues 가 true 를 리턴한 경우만 호출된다.
+	 * override 하지 않으면 값을 필드색인과 같은 바이트로 바꾸어 filtering(RankInfo, DataRef) 로 비교한다.
+	 * @param value NumericDocValues 의 크기비교 가능한 값
+	 */
+	public boolean filtering(RankInfo rankInfo, long value) throws FilterException {
+		NumericDocValues.writeBytes(value, docValuesType, docValuesRef.bytesRef().bytes, 0);
+		docValuesRef.init(1);
+		try {
+			return filtering(rankInfo, docValuesRef);
+		} catch (IOException e) {
+			throw new FilterException(e.getMessage(), e);
+		}
+	}
+	
+	/**
+	 * doc values 블럭의 값범위로 블럭 전체의 포함여부를 판단한다. 판단할 수 없으면 RELATION_SOME.
+	 */
+	public int relation(long min, long max) {
+		return RELATION_SOME;
+	}
+	
+
 }
@@ -105,4 +105,43 @@ public class MatchFilter extends PatternFilterFunction {
 
 	}
 
+	@Override
+	public boolean prepareNumericDocValues(int valueType) {
+		return prepareNumericPatterns(valueType);
+	}
+
+	@Override
+	public boolean filtering(RankInfo rankInfo, long value) {
+		for (int j = 0; j < patternCount; j++) {
+			if (hasNumericPattern[j] && value == numericPatternList[j]) {
+				if (isBoostFunction) {
+					// boost옵션이 있다면 점수를 올려주고 리턴한다.
+					rankInfo.addScore(boostScore);
+					if(rankInfo.isExplain()) {
+						rankInfo.explain(fieldIndexIdList[0], boostScore, "MATCH_BOOST_FILTER");
+					}
+				}
+				return true;
+			}
+		}
+		return isBoostFunction;
+	}
+
+	@Override
+	public int relation(long min, long max) {
+		if (isBoostFunction) {
+			return RELATION_SOME;
+		}
+		int relation = RELATION_NONE;
+		for (int j = 0; j < patternCount; j++) {
+			if (hasNumericPattern[j] && min <= numericPatternList[j] && numericPatternList[j] <= max) {
+				if (min == max) {
+					return RELATION_ALL;
+				}
+				relation = RELATION_SOME;
+			}
+		}
+		return relation;
+	}
+
 }
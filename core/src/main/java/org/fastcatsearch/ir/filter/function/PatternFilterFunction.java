@@ -7,6 +7,7 @@ import org.fastcatsearch.ir.filter.FilterException;
 import org.fastcatsearch.ir.filter.FilterFunction;
 import org.fastcatsearch.ir.io.BytesDataOutput;
 import org.fastcatsearch.ir.query.Filter;
+import org.fastcatsearch.ir.search.NumericDocValues;
 import org.fastcatsearch.ir.settings.FieldIndexSetting;
 import org.fastcatsearch.ir.settings.FieldSetting;
 
@@ -23,6 +24,12 @@ public abstract class PatternFilterFunction extends FilterFunction {
     protected BytesRef[] patternList;
     protected BytesRef[] endPatternList;
 
+    //doc values 로 필터링할때 사용하는 크기비교 가능한 패턴값. 패턴이 없으면 hasNumericPattern 이 false.
+    protected long[] numericPatternList;
+    protected long[] numericEndPatternList;
+    protected boolean[] hasNumericPattern;
+    protected boolean[] hasNumericEndPattern;
+
     public PatternFilterFunction(Filter filter, FieldIndexSetting fieldIndexSetting, FieldSetting fieldSetting, boolean isBoostFunction) throws FilterException {
         super(filter, fieldIndexSetting, fieldSetting, isBoostFunction);
         patternCount = filter.paramLength();
@@ -80,6 +87,30 @@ public abstract class PatternFilterFunction extends FilterFunction {
 
     }
 
+    /**
+     * 숫자형 단일필드이면 패턴 바이트를 doc values 와 같은 long 값으로 변환해 둔다.
+     */
+    protected boolean prepareNumericPatterns(int valueType) {
+        if (isMultiField || fieldSetting == null || !fieldSetting.isNumericField()) {
+            return false;
+        }
+        numericPatternList = new long[patternCount];
+        numericEndPatternList = new long[patternCount];
+        hasNumericPattern = new boolean[patternCount];
+        hasNumericEndPattern = new boolean[patternCount];
+        for (int j = 0; j < patternCount; j++) {
+            if (patternList[j] != null) {
+                numericPatternList[j] = NumericDocValues.toSortableLong(patternList[j].bytes, patternList[j].offset, valueType);
+                hasNumericPattern[j] = true;
+            }
+            if (endPatternList[j] != null) {
+                numericEndPatternList[j] = NumericDocValues.toSortableLong(endPatternList[j].bytes, endPatternList[j].offset, valueType);
+                hasNumericEndPattern[j] = true;
+            }
+        }
+        return true;
+    }
+
     public BytesRef[] getPatternList(){
         return patternList;
     }
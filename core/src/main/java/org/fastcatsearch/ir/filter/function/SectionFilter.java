@@ -96,6 +96,47 @@ public class SectionFilter extends PatternFilterFunction {
 		return isBoostFunction;
 	}
 
+	@Override
+	public boolean prepareNumericDocValues(int valueType) {
+		return prepareNumericPatterns(valueType);
+	}
+
+	@Override
+	public boolean filtering(RankInfo rankInfo, long value) {
+		for (int j = 0; j < patternCount; j++) {
+			if ((!hasNumericPattern[j] || value >= numericPatternList[j]) && (!hasNumericEndPattern[j] || value <= numericEndPatternList[j])) {
+				if(isBoostFunction){
+					//boost옵션이 있다면 점수를 올려주고 리턴한다.
+					rankInfo.addScore(boostScore);
+					if(rankInfo.isExplain()) {
+						rankInfo.explain(fieldIndexId, boostScore, "SECTION_BOOST_FILTER");
+					}
+				}
+				return true;
+			}
+		}
+		return isBoostFunction;
+	}
+
+	@Override
+	public int relation(long min, long max) {
+		if (isBoostFunction) {
+			return RELATION_SOME;
+		}
+		int relation = RELATION_NONE;
+		for (int j = 0; j < patternCount; j++) {
+			long start = hasNumericPattern[j] ? numericPatternList[j] : Long.MIN_VALUE;
+			long end = hasNumericEndPattern[j] ? numericEndPatternList[j] : Long.MAX_VALUE;
+			if (start <= min && max <= end) {
+				return RELATION_ALL;
+			}
+			if (start <= max && min <= end) {
+				relation = RELATION_SOME;
+			}
+		}
+		return relation;
+	}
+
 	private static int compareString(BytesRef lval, int lsize, BytesRef rval, int rsize) {
 		// 무조건 앞에서부터 비교.. 두 값 중 짧은 길이로 선택
 		// 앞부분이 모두 같다면 긴쪽이 더 큰 값
@@ -0,0 +1,244 @@
+package org.fastcatsearch.ir.group;
+
+import org.apache.lucene.util.BytesRef;
+import org.fastcatsearch.ir.group.value.DoubleGroupingValue;
+import org.fastcatsearch.ir.group.value.FloatGroupingValue;
+import org.fastcatsearch.ir.group.value.IntGroupingValue;
+import org.fastcatsearch.ir.group.value.LongGroupingValue;
+import org.fastcatsearch.ir.group.value.StringGroupingValue;
+import org.fastcatsearch.ir.io.DataRef;
+import org.fastcatsearch.ir.settings.FieldSetting.Type;
+
+/**
+ * 한 세그먼트에서 그룹 function 하나의 그룹번호별 값을 모은다.
+ * 숫자값은 primitive 배열에 바로 누적하고, GroupingValue 객체는 generate 시점에 값이 있는 키에 대해서만 만든다.
+ * 결과 GroupingValue 의 타입은 이전과 같다. (COUNT,INT : Int, LONG : Long, FLOAT : Float, DOUBLE : Double, 그외 : String)
+ * */
+public abstract class GroupAccumulator {
+
+	protected final GroupFunctionType type;
+
+	public GroupAccumulator(GroupFunctionType type) {
+		this.type = type;
+	}
+
+	/**
+	 * 연산대상 필드가 없는 function. (COUNT)
+	 * */
+	public abstract void increment(int groupNo);
+
+	/**
+	 * dataRef 의 현재값을 누적한다.
+	 * */
+	public abstract void add(int groupNo, DataRef dataRef);
+
+	/**
+	 * 값이 없으면 null.
+	 * */
+	public abstract GroupingValue value(int groupNo);
+
+	/**
+	 * fieldType 은 연산대상 필드의 타입이며, 대상필드가 없으면 null 이다.
+	 * 만들수 없는 function 이면 null 을 리턴한다.
+	 * */
+	public static GroupAccumulator create(GroupFunctionType type, Type fieldType, int groupKeySize) {
+		if (type == GroupFunctionType.COUNT) {
+			return new CountAccumulator(groupKeySize);
+		}
+		if (fieldType == null) {
+			return null;
+		}
+		if (fieldType == Type.INT || fieldType == Type.LONG) {
+			return new LongAccumulator(type, groupKeySize, fieldType == Type.INT);
+		} else if (fieldType == Type.FLOAT || fieldType == Type.DOUBLE) {
+			return new DoubleAccumulator(type, groupKeySize, fieldType == Type.FLOAT);
+		} else {
+			return new ObjectAccumulator(type, groupKeySize);
+		}
+	}
+
+	protected static boolean isSet(long[] bits, int groupNo) {
+		return (bits[groupNo >>> 6] & (1L << (groupNo & 63))) != 0;
+	}
+
+	protected static void set(long[] bits, int groupNo) {
+		bits[groupNo >>> 6] |= 1L << (groupNo & 63);
+	}
+
+	public static class CountAccumulator extends GroupAccumulator {
+		private final int[] counts;
+
+		public CountAccumulator(int groupKeySize) {
+			super(GroupFunctionType.COUNT);
+			counts = new int[groupKeySize];
+		}
+
+		@Override
+		public void increment(int groupNo) {
+			counts[groupNo]++;
+		}
+
+		@Override
+		public void add(int groupNo, DataRef dataRef) {
+			counts[groupNo]++;
+		}
+
+		@Override
+		public GroupingValue value(int groupNo) {
+			int count = counts[groupNo];
+			return count == 0 ? null : new IntGroupingValue(count, type);
+		}
+	}
+
+	/**
+	 * INT, LONG 필드. INT 의 SUM 은 하위 32비트만 사용하므로 Integer 로 더했을때와 결과가 같다.
+	 * */
+	public static class LongAccumulator extends GroupAccumulator {
+		private final long[] values;
+		private final long[] bits;
+		private final boolean isInt;
+
+		public LongAccumulator(GroupFunctionType type, int groupKeySize, boolean isInt) {
+			super(type);
+			values = new long[groupKeySize];
+			bits = new long[(groupKeySize + 63) >>> 6];
+			this.isInt = isInt;
+		}
+
+		@Override
+		public void increment(int groupNo) {
+		}
+
+		@Override
+		public void add(int groupNo, DataRef dataRef) {
+			BytesRef bytesRef = dataRef.bytesRef();
+			long v = isInt ? bytesRef.toIntValue() : bytesRef.toLongValue();
+			if (!isSet(bits, groupNo)) {
+				values[groupNo] = v;
+				set(bits, groupNo);
+			} else if (type == GroupFunctionType.SUM) {
+				values[groupNo] += v;
+			} else if (type == GroupFunctionType.MIN) {
+				if (v < values[groupNo]) {
+					values[groupNo] = v;
+				}
+			} else if (type == GroupFunctionType.MAX) {
+				if (v > values[groupNo]) {
+					values[groupNo] = v;
+				}
+			} else if (type == GroupFunctionType.LAST) {
+				values[groupNo] = v;
+			}
+		}
+
+		@Override
+		public GroupingValue value(int groupNo) {
+			if (!isSet(bits, groupNo)) {
+				return null;
+			}
+			if (isInt) {
+				return new IntGroupingValue((int) values[groupNo], type);
+			} else {
+				return new LongGroupingValue(values[groupNo], type);
+			}
+		}
+	}
+
+	/**
+	 * FLOAT, DOUBLE 필드. FLOAT 의 SUM 은 float 연산으로 더한다.
+	 * */
+	public static class DoubleAccumulator extends GroupAccumulator {
+		private final double[] values;
+		private final long[] bits;
+		private final boolean isFloat;
+
+		public DoubleAccumulator(GroupFunctionType type, int groupKeySize, boolean isFloat) {
+			super(type);
+			values = new double[groupKeySize];
+			bits = new long[(groupKeySize + 63) >>> 6];
+			this.isFloat = isFloat;
+		}
+
+		@Override
+		public void increment(int groupNo) {
+		}
+
+		@Override
+		public void add(int groupNo, DataRef dataRef) {
+			BytesRef bytesRef = dataRef.bytesRef();
+			double v = isFloat ? Float.intBitsToFloat(bytesRef.toIntValue()) : Double.longBitsToDouble(bytesRef.toLongValue());
+			if (!isSet(bits, groupNo)) {
+				values[groupNo] = v;
+				set(bits, groupNo);
+			} else if (type == GroupFunctionType.SUM) {
+				if (isFloat) {
+					values[groupNo] = (float) values[groupNo] + (float) v;
+				} else {
+					values[groupNo] += v;
+				}
+			} else if (type == GroupFunctionType.MIN) {
+				if (v < values[groupNo]) {
+					values[groupNo] = v;
+				}
+			} else if (type == GroupFunctionType.MAX) {
+				if (v > values[groupNo]) {
+					values[groupNo] = v;
+				}
+			} else if (type == GroupFunctionType.LAST) {
+				values[groupNo] = v;
+			}
+		}
+
+		@Override
+		public GroupingValue value(int groupNo) {
+			if (!isSet(bits, groupNo)) {
+				return null;
+			}
+			if (isFloat) {
+				return new FloatGroupingValue((float) values[groupNo], type);
+			} else {
+				return new DoubleGroupingValue(values[groupNo], type);
+			}
+		}
+	}
+
+	/**
+	 * 문자열, 날짜 필드. 값이 들어온 키에 대해서만 GroupingValue 를 만든다.
+	 * */
+	public static class ObjectAccumulator extends GroupAccumulator {
+		private final GroupingValue[] values;
+
+		public ObjectAccumulator(GroupFunctionType type, int groupKeySize) {
+			super(type);
+			values = new GroupingValue[groupKeySize];
+		}
+
+		@Override
+		public void increment(int groupNo) {
+		}
+
+		@Override
+		public void add(int groupNo, DataRef dataRef) {
+			Object value = dataRef.getValue();
+			if (value instanceof String) {
+				String strValue = (String) value;
+				//trim nil character
+				int inx = strValue.indexOf('\0');
+				if (inx != -1) {
+					value = strValue.substring(0, inx);
+				}
+			}
+			GroupingValue groupingValue = values[groupNo];
+			if (groupingValue == null) {
+				groupingValue = new StringGroupingValue(type);
+				values[groupNo] = groupingValue;
+			}
+			groupingValue.addValue(value);
+		}
+
+		@Override
+		public GroupingValue value(int groupNo) {
+			return values[groupNo];
+		}
+	}
+}
@@ -20,18 +20,11 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import org.apache.lucene.util.BytesRef;
 import org.fastcatsearch.ir.field.FieldDataStringer;
-import org.fastcatsearch.ir.group.value.DoubleGroupingValue;
-import org.fastcatsearch.ir.group.value.FloatGroupingValue;
-import org.fastcatsearch.ir.group.value.IntGroupingValue;
-import org.fastcatsearch.ir.group.value.LongGroupingValue;
-import org.fastcatsearch.ir.group.value.StringGroupingValue;
 import org.fastcatsearch.ir.io.DataRef;
 import org.fastcatsearch.ir.query.Group;
 import org.fastcatsearch.ir.query.RankInfo;
@@ -57,7 +50,8 @@ public class GroupDataGenerator {
 	private GroupFunction[][] groupFunctionList;
 	private int totalSearchCount;
 	private IndexRef<GroupIndexReader> indexRef;
-	private Set<Integer> redundancyCheck;
+	private GroupAccumulator[][] accumulatorList;
+	private GroupKeyTracker[] keyTrackerList; //그룹별 검색결과에 나온 키.
 	private IndexRef<FieldIndexReader>[] fieldIndexRefList;
 	private Map<String, DataRef>[] fieldBytesRefMap;
 	private int[] groupKeySizeList; //그룹별 키의 총 갯수.
@@ -74,7 +68,8 @@ public class GroupDataGenerator {
 		fieldIndexRefList = new IndexRef[groupSize];
 		fieldBytesRefMap = new Map[groupSize];
 		groupKeySizeList = new int[groupSize];
-		redundancyCheck = new HashSet<Integer>();
+		accumulatorList = new GroupAccumulator[groupSize][];
+		keyTrackerList = new GroupKeyTracker[groupSize];
 		
 		List<String> indexIdList = new ArrayList<String>(groupSize);
 		for (int i = 0; i < groupSize; i++) {
@@ -105,12 +100,19 @@ public class GroupDataGenerator {
 			String refId = groupIndexSetting.getRef();
 			fieldSettingList[i] = schema.fieldSettingMap().get(refId);
 			
-			groupFunctionList[i] = group.function();
+			//Query 의 GroupFunction 은 세그먼트간에 공유되므로 세그먼트별 복사본을 사용한다.
+			GroupFunction[] functions = group.function();
+			groupFunctionList[i] = new GroupFunction[functions.length];
+			for (int j = 0; j < functions.length; j++) {
+				if(functions[j] != null){
+					groupFunctionList[i][j] = functions[j].copy();
+				}
+			}
 			int functionSize = groupFunctionList[i].length;
-			//내부 grouping object 배열 초기화.
-			//function별로 결과 객체를 만들어준다.
-			//count는 key갯수만큼 생성후 검색결과로 존재하는 키에 대해서만 갯수를 증가시켜주고,
-			//range도 count와 동일하게 생성후 done을 통해 범위결과로 재구성한다.
+			//function별로 누적기를 만들어준다. 값은 GroupFunction 이 아닌 이곳에만 쌓는다.
+			//count는 key갯수만큼의 int[]에 검색결과로 존재하는 키에 대해서만 갯수를 증가시켜준다.
+			accumulatorList[i] = new GroupAccumulator[functionSize];
+			keyTrackerList[i] = new GroupKeyTracker(groupKeySize);
 			List<String> paramFieldNameList = new ArrayList<String>(groupSize);
 			for (int j = 0; j < functionSize; j++) {
 				GroupFunction groupFunction = groupFunctionList[i][j];
@@ -119,40 +121,20 @@ public class GroupDataGenerator {
 					continue;
 				}
 				
-				if(groupFunction.getType() == GroupFunctionType.COUNT){
-					//int로 만들어준다.
-					groupFunction.init(IntGroupingValue.createList(groupKeySize, groupFunction.getType()));
-//					logger.debug("groupFunction #{} valuelist = {}", i, groupFunction.valueList);
-//				}else if(groupFunction instanceof RangeCountGroupFunction){
-//					//범위 그룹핑은 COUNT와 동일하게 int형으로 생성.
-//					groupFunction.init(IntGroupingValue.createList(groupKeySize));
-				}else{
+				//검색결과에 나온 키에 대해서만 값을 쌓을수 있도록 primitive 배열로 누적한다.
+				Type paramFieldType = null;
+				if(groupFunction.getType() != GroupFunctionType.COUNT && groupFunction.getFieldId() != null){
 					//
 					// sum, min, max 필드에 대한 그룹핑. 연산대상 fieldId가 필요하다.
 					//
-					if(groupFunction.getFieldId() != null){
-						
-						//동일한 필드를 여러번 function 수행할때는 함께 사용한다
-						
-						if(!paramFieldNameList.contains(groupFunction.getFieldId())) {
-                            paramFieldNameList.add(groupFunction.getFieldId());
-                        }
-                        //fieldId 타입에 따라서 value를 만들어준다.
-                        FieldSetting fieldSetting = schema.fieldSettingMap().get(groupFunction.getFieldId());
-                        if(fieldSetting.getType() == FieldSetting.Type.INT){
-                            groupFunction.init(IntGroupingValue.createList(groupKeySize, groupFunction.getType()));
-                        }else if(fieldSetting.getType() == FieldSetting.Type.LONG){
-                            groupFunction.init(LongGroupingValue.createList(groupKeySize, groupFunction.getType()));
-                        }else if(fieldSetting.getType() == FieldSetting.Type.FLOAT){
-                            groupFunction.init(FloatGroupingValue.createList(groupKeySize, groupFunction.getType()));
-                        }else if(fieldSetting.getType() == FieldSetting.Type.DOUBLE){
-                            groupFunction.init(DoubleGroupingValue.createList(groupKeySize, groupFunction.getType()));
-                        }else{
-                            groupFunction.init(StringGroupingValue.createList(groupKeySize, groupFunction.getType()));
-                        }
-
+					//동일한 필드를 여러번 function 수행할때는 함께 사용한다
+					if(!paramFieldNameList.contains(groupFunction.getFieldId())) {
+						paramFieldNameList.add(groupFunction.getFieldId());
 					}
+					//fieldId 타입에 따라서 value를 만들어준다.
+					paramFieldType = schema.fieldSettingMap().get(groupFunction.getFieldId()).getType();
 				}
+				accumulatorList[i][j] = GroupAccumulator.create(groupFunction.getType(), paramFieldType, groupKeySize);
 			}
 			
 			if(paramFieldNameList.size() > 0){
@@ -188,37 +170,32 @@ public class GroupDataGenerator {
 			indexRef.read(ri.docNo());
 			
 			for(int i = 0; i < groupSize ;i++){
+				GroupAccumulator[] accumulators = accumulatorList[i];
+				if(accumulators == null){
+					continue;
+				}
 				if(fieldIndexRefList[i] != null){
 					fieldIndexRefList[i].read(docNo);
 				}
-				redundancyCheck.clear();
 				while(indexRef.getDataRef(i).next()){
 					//multi-value는 여러번..
 					BytesRef bytesRef = indexRef.getDataRef(i).bytesRef();
 					int groupNo = bytesRef.toIntValue();
-					for(GroupFunction groupFunction : groupFunctionList[i]){
-						if(groupFunction == null){
+					keyTrackerList[i].add(groupNo);
+					for (int j = 0; j < accumulators.length; j++) {
+						GroupAccumulator accumulator = accumulators[j];
+						if(accumulator == null){
 							continue;
 						}
-						Object value = null;
-						if(groupFunction.getFieldId() != null){
-							DataRef dataRef = fieldBytesRefMap[i].get(groupFunction.getFieldId());
+						String fieldId = groupFunctionList[i][j].getFieldId();
+						if(fieldId != null && fieldBytesRefMap[i] != null){
+							DataRef dataRef = fieldBytesRefMap[i].get(fieldId);
 							dataRef.reset();
 							while(dataRef.next()){
-								value = dataRef.getValue();
-								if(value!=null && value instanceof String) {
-									String strValue = (String)value;
-									//trim nil character
-									int inx = strValue.indexOf('\0');
-									if(inx != -1) {
-										value = strValue.substring(0, inx);
-									}
-								}
-								groupFunction.addValue(groupNo, value);
+								accumulator.add(groupNo, dataRef);
 							}
 						}else{
-//							logger.debug("doc {} add group value groupNo={} val={}", docNo, groupNo, value);
-							groupFunction.addValue(groupNo, value);
+							accumulator.increment(groupNo);
 						}
 					}
 				}
@@ -236,7 +213,7 @@ public class GroupDataGenerator {
 		
 		for (int i = 0; i < groupSize; i++) {
 			
-			if(groupKeySizeList[i] == 0){
+			if(groupKeySizeList[i] == 0 || accumulatorList[i] == null){
 				//키가 없는 필드는 돌지 않는다. 빈 결과 추가.
 				result.add(new GroupEntryList());
 				continue;
@@ -249,30 +226,34 @@ public class GroupDataGenerator {
 
 			//범위 그룹핑은 후처리를 수행한다.
 			for (GroupFunction groupFunction : groupFunctionList[i]) {
-				groupFunction.done();
+				if(groupFunction != null){
+					groupFunction.done();
+				}
 			}
 			
 			Type fieldType = fieldSettingList[i].getType();
 			//group function 갯수만큼 []를 만든다.
 			int functionSize = groupFunctionList[i].length;
-			//모든 키에대해 검사를 수행한다.
-			for (int groupNo = 0; groupNo < groupKeySizeList[i]; groupNo++) {
-				
+			GroupAccumulator[] accumulators = accumulatorList[i];
+			GroupKeyTracker keyTracker = keyTrackerList[i];
+			//검색결과에 나온 키만 검사를 수행한다.
+			for (int k = 0; k < keyTracker.size(); k++) {
+				int groupNo = keyTracker.key(k);
 				GroupingValue[] valueList = new GroupingValue[functionSize];
 				
-				int j = 0;
+				int n = 0;
 				boolean hasValue = false;
-				for(GroupFunction groupFunction : groupFunctionList[i]){
-					if(groupFunction == null){
+				for (int j = 0; j < functionSize; j++) {
+					if(groupFunctionList[i][j] == null){
 						continue;
 					}
-					GroupingValue groupingValue = groupFunction.value(groupNo);
+					GroupingValue groupingValue = accumulators[j] != null ? accumulators[j].value(groupNo) : null;
 					//null이거나 비어있지 않으면 추가.
 					if(groupingValue != null && !groupingValue.isEmpty()){
-						valueList[j++] = groupingValue; 
+						valueList[n++] = groupingValue; 
 						hasValue = true;
 					} else {
-						valueList[j++] = null;
+						valueList[n++] = null;
 					}
 				}
 
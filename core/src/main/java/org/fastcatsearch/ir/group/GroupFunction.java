@@ -78,5 +78,13 @@ public class GroupFunction {
 
     public void done() {
     }
+
+    /**
+     * 세그먼트별로 따로 사용할 복사본을 만든다. 세그먼트를 동시에 검색할때 값을 공유하지 않도록 한다.
+     * 상태를 가지는 하위클래스는 재정의해야 한다.
+     */
+    public GroupFunction copy() {
+        return new GroupFunction(type, sortOrder, fieldId);
+    }
 		
 }
@@ -0,0 +1,48 @@
+package org.fastcatsearch.ir.group;
+
+/**
+ * 세그먼트 그룹핑중 검색결과에 나온 그룹번호만 기록한다.
+ * 키가 수십만개인 그룹도 결과 생성시에는 기록된 키만 돌면 된다.
+ * */
+public class GroupKeyTracker {
+
+	private final long[] bits;
+	private int[] keys;
+	private int size;
+
+	public GroupKeyTracker(int groupKeySize) {
+		bits = new long[(groupKeySize + 63) >>> 6];
+		keys = new int[Math.min(groupKeySize, 16)];
+	}
+
+	/**
+	 * 처음 나온 키이면 true.
+	 * */
+	public boolean add(int groupNo) {
+		int word = groupNo >>> 6;
+		long mask = 1L << (groupNo & 63);
+		if ((bits[word] & mask) != 0) {
+			return false;
+		}
+		bits[word] |= mask;
+		if (size == keys.length) {
+			int[] newKeys = new int[Math.max(16, size * 2)];
+			System.arraycopy(keys, 0, newKeys, 0, size);
+			keys = newKeys;
+		}
+		keys[size++] = groupNo;
+		return true;
+	}
+
+	public boolean contains(int groupNo) {
+		return (bits[groupNo >>> 6] & (1L << (groupNo & 63))) != 0;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int key(int i) {
+		return keys[i];
+	}
+}
@@ -29,6 +29,7 @@ import org.fastcatsearch.ir.field.FieldDataWriter;
 import org.fastcatsearch.ir.io.BufferedFileOutput;
 import org.fastcatsearch.ir.io.BytesDataOutput;
 import org.fastcatsearch.ir.io.IndexOutput;
+import org.fastcatsearch.ir.search.NumericDocValues;
 import org.fastcatsearch.ir.settings.FieldIndexSetting;
 import org.fastcatsearch.ir.settings.FieldSetting;
 import org.slf4j.Logger;
@@ -49,6 +50,8 @@ public class FieldIndexWriter implements WriteInfoLoggable {
 	private int limitSize;
 	private int fieldSequence;
 	private boolean isIgnoreCase;
+	private NumericDocValuesWriter docValuesWriter;
+	private BytesDataOutput docValuesBuffer;
 
 	public FieldIndexWriter(FieldIndexSetting fieldIndexSetting, Map<String, FieldSetting> fieldSettingMap, Map<String, Integer> fieldSequenceMap,
 			File dir) throws IOException, IRException {
@@ -68,6 +71,12 @@ public class FieldIndexWriter implements WriteInfoLoggable {
 			multiValueOutput = new BufferedFileOutput(dir, IndexFileNames.getMultiValueFileName(IndexFileNames.getFieldIndexFileName(id)));
 		}
 
+		//숫자형 싱글밸류는 범위필터와 정렬을 위해 doc values 도 함께 기록한다.
+		int valueType = NumericDocValues.valueType(refFieldSetting);
+		if (valueType > 0) {
+			docValuesWriter = new NumericDocValuesWriter(dir, id, valueType);
+			docValuesBuffer = new BytesDataOutput(refFieldSetting.getByteSize());
+		}
 	}
 
 	public void write(Document document) throws IOException, IRException {
@@ -103,6 +112,11 @@ public class FieldIndexWriter implements WriteInfoLoggable {
 				fieldIndexOutput.writeLong(-1);
 			}
 
+		} else if (docValuesWriter != null) {
+			docValuesBuffer.reset();
+			field.writeFixedDataTo(docValuesBuffer, limitSize, isIgnoreCase);
+			fieldIndexOutput.writeBytes(docValuesBuffer.array(), 0, (int) docValuesBuffer.position());
+			docValuesWriter.add(docValuesBuffer.array(), 0);
 		} else {
 			field.writeFixedDataTo(fieldIndexOutput, limitSize, isIgnoreCase);
 			
@@ -120,6 +134,10 @@ public class FieldIndexWriter implements WriteInfoLoggable {
 	public void close() throws IOException {
 		fieldIndexOutput.close();
 
+		if (docValuesWriter != null) {
+			docValuesWriter.close();
+		}
+
 		if (isMultiValue) {
 			multiValueOutput.close();
 		}
@@ -131,5 +149,8 @@ public class FieldIndexWriter implements WriteInfoLoggable {
 		if (isMultiValue) {
 			writeInfoList.add(multiValueOutput.getWriteInfo());
 		}
+		if (docValuesWriter != null) {
+			docValuesWriter.getIndexWriteInfo(writeInfoList);
+		}
 	}
 }
@@ -1,6 +1,8 @@
 package org.fastcatsearch.ir.index;
 
 import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /*
  * 색인시 append되는 파일의 길이정보등을 저장한다.
@@ -8,9 +10,14 @@ import java.io.File;
  * 그리고, 이전 revision복구시에도 사용된다.  
  * */
 public class IndexWriteInfo {
+	public static final String PHASE_ANALYZE = "analyze";
+	public static final String PHASE_FLUSH = "flush";
+	public static final String PHASE_MERGE = "merge";
+	
 	private String filename;
 	private long offset;
 	private long limit;
+	private Map<String, Long> phaseTimeMap; //단계별 소요시간(ms). 예) analyze, flush, merge
 	
 	public IndexWriteInfo(File f){
 		filename = f.getName();
@@ -24,7 +31,29 @@ public class IndexWriteInfo {
 	
 	@Override
 	public String toString(){
-		return "["+getClass().getSimpleName()+"] filename["+filename+"] offset["+offset+"] length["+limit+"]";
+		return "["+getClass().getSimpleName()+"] filename["+filename+"] offset["+offset+"] length["+limit+"]" + (phaseTimeMap != null ? " time" + phaseTimeMap : "");
+	}
+	
+	public void setPhaseTime(String phase, long timeInMillis){
+		if(phaseTimeMap == null){
+			phaseTimeMap = new LinkedHashMap<String, Long>();
+		}
+		phaseTimeMap.put(phase, timeInMillis);
+	}
+	
+	/**
+	 * 기록되지 않은 단계는 -1.
+	 * */
+	public long getPhaseTime(String phase){
+		if(phaseTimeMap == null){
+			return -1;
+		}
+		Long time = phaseTimeMap.get(phase);
+		return time != null ? time : -1;
+	}
+	
+	public Map<String, Long> phaseTimeMap(){
+		return phaseTimeMap;
 	}
 	
 	public void close(long limit){
@@ -0,0 +1,93 @@
+package org.fastcatsearch.ir.index;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.fastcatsearch.ir.common.IndexFileNames;
+import org.fastcatsearch.ir.io.BufferedFileOutput;
+import org.fastcatsearch.ir.io.IndexOutput;
+import org.fastcatsearch.ir.search.NumericDocValues;
+
+/**
+ * 숫자형 싱글밸류 필드색인의 doc values 를 기록한다. 포맷은 NumericDocValues 참조.
+ * 필드색인에 기록되는 고정길이 바이트를 문서순서대로 받아 블럭단위로 pack 한다.
+ * 색인(FieldIndexWriter)과 머징(FieldIndexesMerger)에서 같은 방식으로 사용하므로 두 결과는 동일하다.
+ * */
+public class NumericDocValuesWriter {
+
+	private IndexOutput output;
+	private int valueType;
+	private long[] values;
+	private int count;
+	private int docCount;
+
+	public NumericDocValuesWriter(File dir, String indexId, int valueType) throws IOException {
+		this.valueType = valueType;
+		values = new long[NumericDocValues.BLOCK_SIZE];
+		output = new BufferedFileOutput(dir, IndexFileNames.getNumericDocValuesFileName(indexId));
+		output.writeInt(valueType);
+		output.writeInt(NumericDocValues.BLOCK_SIZE);
+	}
+
+	public void add(byte[] data, int offset) throws IOException {
+		values[count++] = NumericDocValues.toSortableLong(data, offset, valueType);
+		docCount++;
+		if (count == values.length) {
+			flushBlock();
+		}
+	}
+
+	private void flushBlock() throws IOException {
+		if (count == 0) {
+			return;
+		}
+		long min = values[0];
+		long max = values[0];
+		for (int i = 1; i < count; i++) {
+			if (values[i] < min) {
+				min = values[i];
+			}
+			if (values[i] > max) {
+				max = values[i];
+			}
+		}
+		//max - min 은 부호없는 값으로 본다.
+		int bits = 64 - Long.numberOfLeadingZeros(max - min);
+		output.writeLong(min);
+		output.writeLong(max);
+		output.writeByte((byte) bits);
+		if (bits > 0) {
+			long word = 0;
+			int filled = 0;
+			for (int i = 0; i < count; i++) {
+				long value = values[i] - min;
+				word |= value << filled;
+				if (filled + bits >= 64) {
+					output.writeLong(word);
+					int used = 64 - filled;
+					word = used < 64 && used < bits ? value >>> used : 0;
+					filled = filled + bits - 64;
+				} else {
+					filled += bits;
+				}
+			}
+			if (filled > 0) {
+				output.writeLong(word);
+			}
+		}
+		count = 0;
+	}
+
+	public void close() throws IOException {
+		try {
+			flushBlock();
+			output.writeInt(docCount);
+		} finally {
+			output.close();
+		}
+	}
+
+	public void getIndexWriteInfo(IndexWriteInfoList writeInfoList) {
+		writeInfoList.add(output.getWriteInfo());
+	}
+}
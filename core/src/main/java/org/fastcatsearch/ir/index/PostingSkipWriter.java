@@ -0,0 +1,130 @@
+package org.fastcatsearch.ir.index;
+
+import org.fastcatsearch.ir.common.IndexFileNames;
+import org.fastcatsearch.ir.io.BufferedFileOutput;
+import org.fastcatsearch.ir.io.IOUtil;
+import org.fastcatsearch.ir.io.IndexOutput;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * 포스팅의 skip 정보를 기록한다.
+ * 포스팅파일 포맷은 그대로 두고 별도의 skip 파일에 SKIP_INTERVAL 문서마다 블럭의 마지막 문서번호와 다음 블럭의 파일위치를 기록한다.
+ * 문서수가 SKIP_INTERVAL 이하인 단어는 기록하지 않는다.
+ *
+ * [int skipInterval][int termCount][int entryCount]
+ * termCount * ([long postingPosition][int n] n * ([int lastDocNo][long nextBlockPosition]))
+ * */
+public class PostingSkipWriter {
+
+	public static final int SKIP_INTERVAL = 128;
+
+	private IndexOutput skipOutput;
+	private int termCount;
+	private int entryCount;
+
+	private long postingPosition;
+	private int docCount;
+	private int termEntryCount;
+	private int[] docNoList;
+	private long[] positionList;
+
+	public PostingSkipWriter(File dir, String indexId) throws IOException {
+		skipOutput = new BufferedFileOutput(new File(dir, IndexFileNames.getSearchSkipFileName(indexId)), false, 64 * 1024);
+		skipOutput.writeInt(SKIP_INTERVAL);
+		skipOutput.writeInt(0); // termCount
+		skipOutput.writeInt(0); // entryCount
+		docNoList = new int[16];
+		positionList = new long[16];
+	}
+
+	/**
+	 * 단어의 포스팅 기록을 시작한다.
+	 * @param postingPosition 렉시콘에 기록되는 포스팅 시작위치.
+	 * */
+	public void startTerm(long postingPosition) {
+		this.postingPosition = postingPosition;
+		docCount = 0;
+		termEntryCount = 0;
+	}
+
+	/**
+	 * 문서 하나가 기록될 때마다 호출한다.
+	 * @param docNo 기록된 문서번호
+	 * @param nextPosition 해당 문서 다음의 포스팅 파일위치
+	 * */
+	public void addDoc(int docNo, long nextPosition) {
+		docCount++;
+		if (docCount % SKIP_INTERVAL == 0) {
+			if (termEntryCount == docNoList.length) {
+				int[] newDocNoList = new int[termEntryCount * 2];
+				long[] newPositionList = new long[termEntryCount * 2];
+				System.arraycopy(docNoList, 0, newDocNoList, 0, termEntryCount);
+				System.arraycopy(positionList, 0, newPositionList, 0, termEntryCount);
+				docNoList = newDocNoList;
+				positionList = newPositionList;
+			}
+			docNoList[termEntryCount] = docNo;
+			positionList[termEntryCount] = nextPosition;
+			termEntryCount++;
+		}
+	}
+
+	/**
+	 * 메모리상의 포스팅 데이터를 읽어서 skip 정보를 만든다.
+	 * @param data 첫문서부터 시작하는 문서데이터. 첫 문서번호는 delta가 아닌 원래 번호이다.
+	 * @param dataPosition data[offset] 이 기록된 포스팅 파일위치
+	 * */
+	public void addDocs(byte[] data, int offset, int length, int count, boolean isStorePosition, long dataPosition) {
+		int pos = offset;
+		int prevDocNo = -1;
+		for (int i = 0; i < count && pos < offset + length; i++) {
+			int v = IOUtil.readVInt(data, pos);
+			pos += IOUtil.lenVariableByte(v);
+			int docNo = prevDocNo >= 0 ? prevDocNo + v + 1 : v;
+			int tf = IOUtil.readVInt(data, pos);
+			pos += IOUtil.lenVariableByte(tf);
+			if (tf > 0 && isStorePosition) {
+				for (int j = 0; j < tf; j++) {
+					pos += IOUtil.lenVariableByte(IOUtil.readVInt(data, pos));
+				}
+			}
+			addDoc(docNo, dataPosition + (pos - offset));
+			prevDocNo = docNo;
+		}
+	}
+
+	/**
+	 * 단어의 포스팅 기록을 끝낸다.
+	 * 마지막 블럭 이후에는 문서가 없으므로 마지막 문서에서 끝나는 entry는 버린다.
+	 * */
+	public void endTerm() throws IOException {
+		int n = termEntryCount;
+		if (n > 0 && n * SKIP_INTERVAL >= docCount) {
+			n--;
+		}
+		if (n <= 0) {
+			return;
+		}
+		skipOutput.writeLong(postingPosition);
+		skipOutput.writeInt(n);
+		for (int i = 0; i < n; i++) {
+			skipOutput.writeInt(docNoList[i]);
+			skipOutput.writeLong(positionList[i]);
+		}
+		termCount++;
+		entryCount += n;
+	}
+
+	public void close() throws IOException {
+		try {
+			skipOutput.seek(IOUtil.SIZE_OF_INT);
+			skipOutput.writeInt(termCount);
+			skipOutput.writeInt(entryCount);
+			skipOutput.flush();
+		} finally {
+			skipOutput.close();
+		}
+	}
+}
@@ -3,6 +3,7 @@ package org.fastcatsearch.ir.index;
 import org.apache.lucene.util.BytesRef;
 import org.fastcatsearch.ir.common.IndexFileNames;
 import org.fastcatsearch.ir.io.*;
+import org.fastcatsearch.ir.merge.MergingSegment;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -30,6 +31,7 @@ public class SearchIndexMerger {
     private IndexOutput postingOutput;
     private IndexOutput lexiconOutput;
     private IndexOutput indexOutput;
+    private PostingSkipWriter skipWriter;
 
     protected int[] heap;
     private int readerSize;
@@ -45,25 +47,30 @@ public class SearchIndexMerger {
         lexiconOutput = new BufferedFileOutput(dir, IndexFileNames.getSearchLexiconFileName(indexId));
         postingOutput = new BufferedFileOutput(dir, IndexFileNames.getSearchPostingFileName(indexId));
         indexOutput = new BufferedFileOutput(dir, IndexFileNames.getSearchIndexFileName(indexId));
+        skipWriter = new PostingSkipWriter(dir, indexId);
     }
 
     /**
      * 머징 대상이 되는 세그먼트 디렉토리들
      */
     public void merge(File... dirs) throws IOException {
-        readerSize = dirs.length;
+        merge(MergingSegment.load(dirs));
+    }
+
+    /**
+     * 여러 세그먼트를 순차적으로 머징시 이전 세그먼트의 살아있는 문서갯수 이후로 새 문서번호를 부여받는다. (MergingSegment.baseDocNo)
+     */
+    public void merge(MergingSegment... segments) throws IOException {
+        readerSize = segments.length;
         if (readerSize <= 0) {
             return;
         }
 
         reader = new SearchPostingReader[readerSize];
         workingReaders = new SearchPostingBufferReader[readerSize];
-        int prevSegmentAliveDocumentCount = 0;
         for (int i = 0; i < readerSize; i++) {
-            //여러 세그먼트를 순차적으로 머징시 이전 세그먼트의 문서갯수이후로 새 문서번호를 부여받을 것이므로 prevSegmentAliveDocumentCount를 알아야 한다.
-            reader[i] = new SearchPostingReader(i, indexId, dirs[i], prevSegmentAliveDocumentCount);
+            reader[i] = new SearchPostingReader(i, indexId, segments[i]);
             reader[i].nextTerm();
-            prevSegmentAliveDocumentCount += reader[i].getAliveDocumentCount();
         }
 
         IndexFieldOption fieldIndexOption = reader[0].indexFieldOption();
@@ -99,14 +106,7 @@ public class SearchIndexMerger {
             logger.debug("cv[{}] old[{}]", cv, cvOld);
             if ((cv == null || !cv.equals(cvOld)) && cvOld != null) {
                 // merge workingReaders
-                postingBeforePosition = postingOutput.position();
-                //1. data Size
-                postingOutput.writeInt(0);
-                //2. 문서갯수
-                postingOutput.writeInt(0);
-                //3. last doc no
-                postingOutput.writeInt(0);
-
+                postingBeforePosition = -1;
                 prevDocNo = -1;
                 totalCount = 0;
                 for (int k = 0; k < workingReaderSize; k++) {
@@ -117,6 +117,17 @@ public class SearchIndexMerger {
                         * 여기서 실제 삭제가 이루어 진다.
                         * */
                         if (reader.isAlive(docNo)) {
+                            //살아있는 문서가 처음 나올때 포스팅 헤더를 기록한다. 모두 삭제된 단어는 기록하지 않는다.
+                            if (postingBeforePosition < 0) {
+                                postingBeforePosition = postingOutput.position();
+                                //1. data Size
+                                postingOutput.writeInt(0);
+                                //2. 문서갯수
+                                postingOutput.writeInt(0);
+                                //3. last doc no
+                                postingOutput.writeInt(0);
+                                skipWriter.startTerm(postingBeforePosition);
+                            }
                             //삭제문서가 적용된 새로운 문서번호가 리턴된다.
                             docNo = reader.getNewDocNo(docNo);
                             if (prevDocNo >= 0) {
@@ -132,18 +143,25 @@ public class SearchIndexMerger {
                             //기록한 문서번호만 prevDocNo로 셋팅해야 정확한 delta가 계산된다.
                             prevDocNo = docNo;
                             totalCount++;
+                            skipWriter.addDoc(docNo, postingOutput.position());
+                        } else if (isStorePosition) {
+                            reader.skipPositionData();
                         }
 
                     }
                 }
 
-                termMade = true;
-                term.init(cvOld.array(), cvOld.start(), cvOld.length());
+                if (totalCount > 0) {
+                    termMade = true;
+                    term.init(cvOld.array(), cvOld.start(), cvOld.length());
+                }
 
                 workingReaderSize = 0;
             }
 
-            if (workingReaderSize < workingReaders.length) {
+            if (cv == null) {
+                //모든 reader 가 끝났다.
+            } else if (workingReaderSize < workingReaders.length) {
                 try {
                     workingReaders[workingReaderSize++] = reader[idx].bufferReader();
                 } catch (ArrayIndexOutOfBoundsException e) {
@@ -169,6 +187,7 @@ public class SearchIndexMerger {
                 postingOutput.writeInt(totalCount);
                 postingOutput.writeInt(prevDocNo);
                 postingOutput.seek(postingCurrentPosition);
+                skipWriter.endTerm();
 
                 //2. Write Lexicon
                 long lexiconPosition = lexiconOutput.position();
@@ -228,6 +247,13 @@ public class SearchIndexMerger {
         } catch (IOException e) {
             exception = e;
         }
+        try {
+            if (skipWriter != null) {
+                skipWriter.close();
+            }
+        } catch (IOException e) {
+            exception = e;
+        }
 
         for (int i = 0; i < readerSize; i++) {
             if (reader[i] != null) {
@@ -68,6 +68,12 @@ public class SearchIndexWriter implements SingleIndexWriter {
 
 	private AnalyzerOption indexingAnalyzerOption;
 	
+	//단계별 소요시간. IndexWriteInfo 로 전달된다.
+	private long analyzeTime; //ns
+	private long flushTime; //ms
+	private long mergeTime; //ms
+	private IndexWriteInfo writeInfo;
+	
 	@Override
 	public String toString(){
 		return indexId;
@@ -116,6 +122,7 @@ public class SearchIndexWriter implements SingleIndexWriter {
 
 		flushPosition = new ArrayList<Long>();
 
+		writeInfo = new IndexWriteInfo(new File(dir, IndexFileNames.getSearchPostingFileName(indexId)));
 		tempFile = new File(dir, IndexFileNames.getSearchTempFileName(indexId));
 		tempOutput = new BufferedFileOutput(tempFile, false);
 		
@@ -131,7 +138,7 @@ public class SearchIndexWriter implements SingleIndexWriter {
 
 	@Override
 	public void write(Document doc, int docNo) throws IRException, IOException {
-
+		long st = System.nanoTime();
 		int[] sequenceList = indexFieldSequence;
 		for (int i = 0; i < sequenceList.length; i++) {
 			int sequence = sequenceList[i];
@@ -144,6 +151,7 @@ public class SearchIndexWriter implements SingleIndexWriter {
 		}
 
 		count++;
+		analyzeTime += System.nanoTime() - st;
 	}
 
 	private void write(int docNo, int i, Field field, boolean isNoAdditional, int positionIncrementGap) throws IRException, IOException {
@@ -267,6 +275,7 @@ public class SearchIndexWriter implements SingleIndexWriter {
 
 		logger.debug("[{}] Flush#{} [documents {}th..]", indexId, flushPosition.size() + 1, count);
 
+		long st = System.currentTimeMillis();
 		try {
 			flushPosition.add(memoryPosting.save(tempOutput));
 			// ensure every data wrote on disk!
@@ -276,6 +285,7 @@ public class SearchIndexWriter implements SingleIndexWriter {
 		} catch (IOException e) {
 			throw new IRException(e);
 		}
+		flushTime += System.currentTimeMillis() - st;
 	}
 
 	public void close() throws IRException, IOException {
@@ -307,18 +317,32 @@ public class SearchIndexWriter implements SingleIndexWriter {
 //						appender.close();
 //					}
 //				} else {
+					long st = System.currentTimeMillis();
 					TempSearchFieldMerger merger = new TempSearchFieldMerger(indexId, flushPosition, tempFile);
 					try {
 						merger.mergeAndMakeIndex(baseDir, indexConfig.getIndexTermInterval(), fieldIndexOption);
 					} finally {
 						merger.close();
 					}
+					mergeTime = System.currentTimeMillis() - st;
+					logger.debug("[{}] merge flushCount[{}] analyze[{}ms] flush[{}ms] merge[{}ms]", indexId, flushPosition.size(), analyzeTime / 1000000, flushTime, mergeTime);
 //				}
 			}
 		} finally {
 			// delete temp file
 			tempFile.delete();
+			writeInfo.close(new File(baseDir, IndexFileNames.getSearchPostingFileName(indexId)).length());
+			writeInfo.setPhaseTime(IndexWriteInfo.PHASE_ANALYZE, analyzeTime / 1000000);
+			writeInfo.setPhaseTime(IndexWriteInfo.PHASE_FLUSH, flushTime);
+			writeInfo.setPhaseTime(IndexWriteInfo.PHASE_MERGE, mergeTime);
 		}
 	}
 
+	/**
+	 * 포스팅파일 정보와 분석, flush, 머징 단계별 소요시간. close 후에 호출한다.
+	 * */
+	public IndexWriteInfo getWriteInfo() {
+		return writeInfo;
+	}
+
 }
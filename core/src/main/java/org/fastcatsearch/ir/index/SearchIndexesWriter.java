@@ -30,19 +30,25 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class SearchIndexesWriter {
 	private static Logger logger = LoggerFactory.getLogger(SearchIndexesWriter.class);
 
 	private List<IndexSetting> indexSettingList;
-	private SearchIndexWriter[] searchIndexWriterList;
-	private int indexSize;
+	protected SearchIndexWriter[] searchIndexWriterList;
+	protected int indexSize;
 	
 	// limit memory use. if exeed this value, flush.
 	private long workMemoryLimit;
 	private int workMemoryCheck = 10000; //해당 갯수만큼 색인문서가 진행되면 정보를 출력한다. 
 
-	private int count;
+	protected int count;
+	private int mergeThreads; //close 시 동시에 머징할 필드수.
 
 	public SearchIndexesWriter(Schema schema, File dir, IndexConfig indexConfig, AnalyzerPoolManager analyzerPoolManager) throws IOException, IRException {
 		this(schema, dir, indexConfig, analyzerPoolManager, null);
@@ -68,6 +74,7 @@ public class SearchIndexesWriter {
 		indexSize = searchIndexWriterList.length;
 		
 		workMemoryLimit = indexConfig.getIndexWorkMemorySize();
+		mergeThreads = indexConfig.getIndexMergeThreads();
 		
 	}
 
@@ -80,6 +87,21 @@ public class SearchIndexesWriter {
 			searchIndexWriterList[i].write(doc, docNo);
 		}
 		
+		checkWorkingMemory();
+		count++;
+	}
+
+	/**
+	 * 이번 문서에서 checkWorkingMemory 가 메모리를 확인하는지 여부.
+	 */
+	protected boolean isMemoryCheckPoint() {
+		return (count + 1) % 1000 == 0;
+	}
+
+	/**
+	 * 1000개 문서마다 색인필드 작업메모리를 확인하여 제한을 넘으면 flush 한다.
+	 */
+	protected void checkWorkingMemory() throws IRException {
 		if ((count + 1) % workMemoryCheck == 0) {
 			int workingMemorySize = checkWorkingMemorySize();
 			logger.debug("SearchField Memory = {}, limit = {}", Formatter.getFormatSize(workingMemorySize), Formatter.getFormatSize(workMemoryLimit));
@@ -95,7 +117,6 @@ public class SearchIndexesWriter {
 				flush();
 			}
 		}
-		count++;
 	}
 
 	private int checkWorkingMemorySize() {
@@ -138,13 +159,63 @@ public class SearchIndexesWriter {
 	}
 
 	public void close() throws IRException, IOException {
+		int threads = Math.min(mergeThreads, indexSize);
+		if (threads <= 1) {
+			for (int i = 0; i < indexSize; i++) {
+				if(searchIndexWriterList[i] != null){
+					searchIndexWriterList[i].close();
+				}
+			}
+			return;
+		}
 		
+		//필드별 임시파일 머징은 서로 독립적이므로 동시에 수행한다.
+		logger.debug("Close search indexes concurrently. indexSize[{}] threads[{}]", indexSize, threads);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<Object>> futureList = new ArrayList<Future<Object>>(indexSize);
+			for (int i = 0; i < indexSize; i++) {
+				final SearchIndexWriter searchIndexWriter = searchIndexWriterList[i];
+				if(searchIndexWriter == null){
+					continue;
+				}
+				futureList.add(executor.submit(new Callable<Object>() {
+					@Override
+					public Object call() throws Exception {
+						searchIndexWriter.close();
+						return null;
+					}
+				}));
+			}
+			Exception exception = null;
+			for (Future<Object> future : futureList) {
+				try {
+					future.get();
+				} catch (ExecutionException e) {
+					logger.error("", e.getCause());
+					exception = (e.getCause() instanceof Exception) ? (Exception) e.getCause() : e;
+				} catch (InterruptedException e) {
+					exception = e;
+				}
+			}
+			if (exception instanceof IRException) {
+				throw (IRException) exception;
+			} else if (exception instanceof IOException) {
+				throw (IOException) exception;
+			} else if (exception != null) {
+				throw new IRException(exception);
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+	
+	public void getIndexWriteInfo(IndexWriteInfoList writeInfoList) {
 		for (int i = 0; i < indexSize; i++) {
 			if(searchIndexWriterList[i] != null){
-				searchIndexWriterList[i].close();
+				writeInfoList.add(searchIndexWriterList[i].getWriteInfo());
 			}
 		}
-	
 	}
 
 }
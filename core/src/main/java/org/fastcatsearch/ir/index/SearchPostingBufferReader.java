@@ -83,6 +83,13 @@ public class SearchPostingBufferReader {
         logger.debug("readPositionData:{}:done dataSize={}, pos={}, limit={}", sequence, currentBuffer.remaining(), currentBuffer.pos(), currentBuffer.limit);
     }
 
+    //삭제문서의 출현위치는 기록하지 않고 건너뛴다.
+    public void skipPositionData() throws IOException {
+        for (int i = 0; i < frequency; i++) {
+            IOUtil.readVInt(currentBuffer);
+        }
+    }
+
     public int getNewDocNo(int docNo) {
         return converter.convert(docNo) + offset;
     }
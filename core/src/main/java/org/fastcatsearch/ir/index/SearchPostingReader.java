@@ -19,6 +19,7 @@ package org.fastcatsearch.ir.index;
 import org.apache.lucene.util.BytesRef;
 import org.fastcatsearch.ir.common.IndexFileNames;
 import org.fastcatsearch.ir.io.*;
+import org.fastcatsearch.ir.merge.MergingSegment;
 import org.fastcatsearch.ir.util.DocumentNumberConverter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -65,23 +66,24 @@ public class SearchPostingReader {
         this(sequence, indexId, dir, 0);
     }
     public SearchPostingReader(int sequence, String indexId, File dir, int offset) throws IOException {
+        this(sequence, indexId, dir, offset, new BitSet(dir, IndexFileNames.docDeleteSet), readDocumentCount(dir));
+    }
+
+    /**
+     * 머징시작시 읽어놓은 삭제문서와 문서번호 offset 을 사용한다.
+     */
+    public SearchPostingReader(int sequence, String indexId, MergingSegment segment) throws IOException {
+        this(sequence, indexId, segment.dir(), segment.baseDocNo(), segment.deleteSet(), segment.documentCount());
+    }
+
+    private SearchPostingReader(int sequence, String indexId, File dir, int offset, BitSet deleteSet, int documentCount) throws IOException {
         this.sequence = sequence;
         this.indexId = indexId;
         this.offset = offset;
 
         lexiconInput = new BufferedFileInput(dir, IndexFileNames.getSearchLexiconFileName(indexId));
         postingInput = new BufferedFileInput(dir, IndexFileNames.getSearchPostingFileName(indexId));
-        deleteSet = new BitSet(dir, IndexFileNames.docDeleteSet);
-        IndexInput docInput = null;
-        int documentCount = 0;
-        try {
-            docInput = new BufferedFileInput(dir, IndexFileNames.docStored);
-            documentCount = docInput.readInt();
-        } finally {
-            if (docInput != null) {
-                docInput.close();
-            }
-        }
+        this.deleteSet = deleteSet;
 
         List<Integer> deleteList = new ArrayList<Integer>();
         for (int i = 0; i < documentCount; i++) {
@@ -106,6 +108,15 @@ public class SearchPostingReader {
         logger.debug("SearchPostingReader[{}:{}] >> terms[{}] doc[{}] deletes[{}] alive[{}]", indexId, sequence, termLeft, documentCount, deleteList.size(), aliveDocumentCount);
     }
 
+    private static int readDocumentCount(File dir) throws IOException {
+        IndexInput docInput = new BufferedFileInput(dir, IndexFileNames.docStored);
+        try {
+            return docInput.readInt();
+        } finally {
+            docInput.close();
+        }
+    }
+
     public IndexFieldOption indexFieldOption() {
         return indexFieldOption;
     }
@@ -50,7 +50,7 @@ public class SegmentIndexWriter implements IndexWritable {
 
 			if (selectedIndexList == null) {
 				primaryKeyIndexesWriter = new PrimaryKeyIndexesWriter(schema, targetDir, indexConfig);
-				searchIndexesWriter = new SearchIndexesWriter(schema, targetDir, indexConfig, analyzerPoolManager);
+				searchIndexesWriter = createSearchIndexesWriter(schema, targetDir, indexConfig, analyzerPoolManager, null);
 				fieldIndexesWriter = new FieldIndexesWriter(schema, targetDir);
 				groupIndexesWriter = new GroupIndexesWriter(schema, targetDir, indexConfig);
 			} else {
@@ -59,7 +59,7 @@ public class SegmentIndexWriter implements IndexWritable {
 				}
 
 				List<String> searchIndexList = selectedIndexList.getSearchIndexList();
-				searchIndexesWriter = new SearchIndexesWriter(schema, targetDir, indexConfig, analyzerPoolManager, searchIndexList);
+				searchIndexesWriter = createSearchIndexesWriter(schema, targetDir, indexConfig, analyzerPoolManager, searchIndexList);
 				List<String> fieldIndexList = selectedIndexList.getFieldIndexList();
 				fieldIndexesWriter = new FieldIndexesWriter(schema, targetDir, fieldIndexList);
 				
@@ -80,6 +80,17 @@ public class SegmentIndexWriter implements IndexWritable {
 
 	}
 
+	/**
+	 * index-field-threads 설정시 색인필드별 분석을 병렬로 수행하는 writer 를 사용한다.
+	 * */
+	protected SearchIndexesWriter createSearchIndexesWriter(Schema schema, File targetDir, IndexConfig indexConfig, AnalyzerPoolManager analyzerPoolManager,
+			List<String> searchIndexList) throws IOException, IRException {
+		if (indexConfig != null && indexConfig.getIndexFieldThreads() > 0) {
+			return new SearchIndexesAsyncWriter(schema, targetDir, indexConfig, analyzerPoolManager, searchIndexList);
+		}
+		return new SearchIndexesWriter(schema, targetDir, indexConfig, analyzerPoolManager, searchIndexList);
+	}
+
 	public int getDocumentCount() {
 		return count;
 	}
@@ -188,6 +199,9 @@ public class SegmentIndexWriter implements IndexWritable {
 	}
 	
 	public void getIndexWriteInfo(IndexWriteInfoList list) {
+		if (searchIndexesWriter != null) {
+			searchIndexesWriter.getIndexWriteInfo(list);
+		}
 		fieldIndexesWriter.getIndexWriteInfo(list);
 		groupIndexesWriter.getIndexWriteInfo(list);
 	}
@@ -1,76 +1,34 @@
 package org.fastcatsearch.ir.index.async;
 
-import java.io.IOException;
-
-import org.fastcatsearch.ir.common.IRException;
 import org.fastcatsearch.ir.document.Document;
-import org.fastcatsearch.ir.index.SingleIndexWriter;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
+/**
+ * 색인 worker 에게 넘길 문서 한건.
+ * 여러 worker 가 같은 문서를 동시에 읽으므로 Document 는 넘긴후 변경하면 안된다.
+ * */
 public class IndexWriteTask {
-	
-	private static Logger logger = LoggerFactory.getLogger(IndexWriteTask.class);
-			
-	private SingleIndexWriter w;
-	private Document doc;
-	private int docNo;
-	
-	private int resultCode;
-	private IRException exception;
-	
-	public IndexWriteTask(SingleIndexWriter w) {
-		this.w = w;
-	}
-	
-	public void setDocument(Document doc, int docNo) {
+
+	//worker 종료 신호.
+	static final IndexWriteTask FINISH = new IndexWriteTask(null, -1);
+
+	private final Document doc;
+	private final int docNo;
+
+	public IndexWriteTask(Document doc, int docNo) {
 		this.doc = doc;
 		this.docNo = docNo;
-		this.resultCode = 0;
-		this.exception = null;
 	}
-	
-	@Override
-	public String toString() {
-		return w.toString() + " #" + docNo;
+
+	public Document document() {
+		return doc;
 	}
-	
-	public void run() {
-		try {
-//			logger.debug("write {} > {}", w.toString(), docNo);
-			w.write(doc, docNo);
-		} catch (IRException e) {
-			exception = e;
-			logger.error("", e);
-		} catch (IOException e) {
-			exception = new IRException(e);
-			logger.error("", e);
-		} finally {
-			synchronized(this) {
-				notifyAll();
-				resultCode = (exception != null) ? 1 : -1;
-			}
-		}
+
+	public int docNo() {
+		return docNo;
 	}
-	
-	public void waitUntilDone() throws IRException {
-//		long l = System.nanoTime();
-		synchronized(this) {
-			while(resultCode == 0) {
-				try {
-					wait(100);
-					
-//					if(resultCode == 0) {
-//						logger.debug("resultCode = {}", resultCode);
-//					}
-				} catch (InterruptedException e) {
-					throw new IRException(e);
-				}
-			}
-		}
-//		logger.debug("[{}] {} > {}", System.nanoTime() - l, w, docNo);
-		if(exception != null) {
-			throw exception;
-		}
+
+	@Override
+	public String toString() {
+		return "#" + docNo;
 	}
 }
@@ -1,60 +1,175 @@
 package org.fastcatsearch.ir.index.async;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
 
+import org.fastcatsearch.ir.common.IRException;
+import org.fastcatsearch.ir.document.Document;
+import org.fastcatsearch.ir.index.SingleIndexWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * 색인필드 writer 들을 worker 스레드에 나누어 문서를 병렬로 색인한다.
+ * worker 마다 크기가 제한된 큐를 가지므로, 느린 필드가 있으면 write 가 대기한다.
+ * 한 writer 는 항상 같은 worker 에서만 쓰여지므로 writer 자체는 thread-safe 하지 않아도 된다.
+ * write 이후 writer 의 상태를 읽거나 flush 하려면 먼저 waitUntilDone 을 호출해야 한다.
+ * */
 public class IndexWriteTaskPool {
 	private static Logger logger = LoggerFactory.getLogger(IndexWriteTaskPool.class);
-			
-	private BlockingQueue<IndexWriteTask> taskQueue;
-	
-	public IndexWriteTaskPool(ThreadPoolExecutor jobExecutor, int poolSize) {
-		taskQueue = new LinkedBlockingQueue<IndexWriteTask>();
-		for(int i = 0; i < poolSize; i++) {
-			IndexWriteTaskWorker worker = new IndexWriteTaskWorker(taskQueue);
-			jobExecutor.execute(worker);
+
+	private IndexWriteTaskWorker[] workerList;
+	private int submitCount;
+
+	public IndexWriteTaskPool(String name, SingleIndexWriter[] singleIndexWriterList, int poolSize, int queueSize) {
+		poolSize = Math.max(1, Math.min(poolSize, singleIndexWriterList.length));
+		List<List<SingleIndexWriter>> writerGroupList = new ArrayList<List<SingleIndexWriter>>(poolSize);
+		for (int i = 0; i < poolSize; i++) {
+			writerGroupList.add(new ArrayList<SingleIndexWriter>());
+		}
+		for (int i = 0; i < singleIndexWriterList.length; i++) {
+			writerGroupList.get(i % poolSize).add(singleIndexWriterList[i]);
+		}
+		workerList = new IndexWriteTaskWorker[poolSize];
+		for (int i = 0; i < poolSize; i++) {
+			List<SingleIndexWriter> writerGroup = writerGroupList.get(i);
+			workerList[i] = new IndexWriteTaskWorker(name + "-" + i, writerGroup.toArray(new SingleIndexWriter[0]), Math.max(1, queueSize));
+			workerList[i].start();
 		}
+		logger.debug("IndexWriteTaskPool[{}] start. writers[{}] workers[{}] queue[{}]", name, singleIndexWriterList.length, poolSize, queueSize);
 	}
-	
-	public void start() {
-		
+
+	public int poolSize() {
+		return workerList.length;
 	}
-	public void finish() {
-		
+
+	/**
+	 * 모든 worker 큐에 문서를 넣는다. 색인이 끝나기를 기다리지 않는다.
+	 * 이전 문서에서 에러가 발생했다면 여기서 던진다.
+	 * */
+	public void write(Document doc, int docNo) throws IRException {
+		IndexWriteTask task = new IndexWriteTask(doc, docNo);
+		for (int i = 0; i < workerList.length; i++) {
+			workerList[i].checkError();
+			workerList[i].put(task);
+		}
+		submitCount++;
+	}
+
+	/**
+	 * 넣은 문서가 모두 색인될때까지 기다린다.
+	 * */
+	public void waitUntilDone() throws IRException {
+		for (int i = 0; i < workerList.length; i++) {
+			workerList[i].waitUntil(submitCount);
+		}
 	}
-	public BlockingQueue<IndexWriteTask> taskQueue() {
-		return taskQueue;
+
+	/**
+	 * 남은 문서를 색인하고 worker 를 종료한다. 에러가 있었다면 종료후 던진다.
+	 * */
+	public void finish() throws IRException {
+		IRException exception = null;
+		try {
+			waitUntilDone();
+		} catch (IRException e) {
+			exception = e;
+		}
+		for (int i = 0; i < workerList.length; i++) {
+			workerList[i].finish();
+		}
+		if (exception != null) {
+			throw exception;
+		}
 	}
-	
 }
 
-class IndexWriteTaskWorker implements Runnable {
+class IndexWriteTaskWorker extends Thread {
 	private static Logger logger = LoggerFactory.getLogger(IndexWriteTaskWorker.class);
-	
+
+	private SingleIndexWriter[] writerList;
 	private BlockingQueue<IndexWriteTask> taskQueue;
-	
-	public IndexWriteTaskWorker(BlockingQueue<IndexWriteTask> taskQueue) {
-		this.taskQueue = taskQueue;
+	private int doneCount;
+	private volatile IRException exception;
+
+	public IndexWriteTaskWorker(String name, SingleIndexWriter[] writerList, int queueSize) {
+		super("IndexWriteTaskWorker-" + name);
+		setDaemon(true);
+		this.writerList = writerList;
+		this.taskQueue = new ArrayBlockingQueue<IndexWriteTask>(queueSize);
+	}
+
+	public void put(IndexWriteTask task) throws IRException {
+		try {
+			taskQueue.put(task);
+		} catch (InterruptedException e) {
+			throw new IRException(e);
+		}
+	}
+
+	public void checkError() throws IRException {
+		if (exception != null) {
+			throw exception;
+		}
+	}
+
+	public synchronized void waitUntil(int count) throws IRException {
+		while (doneCount < count && exception == null) {
+			try {
+				wait(100);
+			} catch (InterruptedException e) {
+				throw new IRException(e);
+			}
+		}
+		checkError();
 	}
-	
+
+	public void finish() {
+		try {
+			taskQueue.put(IndexWriteTask.FINISH);
+			join();
+		} catch (InterruptedException e) {
+			logger.error("", e);
+		}
+	}
+
 	@Override
 	public void run() {
-		while(true) {
+		while (true) {
+			IndexWriteTask task = null;
 			try {
-//				logger.debug(" taskQueue.size > {}", taskQueue.size());
-				IndexWriteTask task = taskQueue.take();
-//				logger.debug(" take task > {}", task);
-				if(task != null) {
-					task.run();
-				}
+				task = taskQueue.take();
 			} catch (InterruptedException e) {
 				logger.error("", e);
+				continue;
+			}
+			if (task == IndexWriteTask.FINISH) {
+				break;
+			}
+			//에러가 발생한 이후의 문서는 큐만 비워준다.
+			if (exception == null) {
+				try {
+					for (int i = 0; i < writerList.length; i++) {
+						writerList[i].write(task.document(), task.docNo());
+					}
+				} catch (IRException e) {
+					logger.error("", e);
+					exception = e;
+				} catch (IOException e) {
+					logger.error("", e);
+					exception = new IRException(e);
+				} catch (Throwable e) {
+					logger.error("", e);
+					exception = new IRException(e);
+				}
+			}
+			synchronized (this) {
+				doneCount++;
+				notifyAll();
 			}
 		}
 	}
-	
 }
@@ -23,6 +23,7 @@ import java.util.List;
 import org.apache.lucene.util.BytesRef;
 import org.fastcatsearch.ir.common.IndexFileNames;
 import org.fastcatsearch.ir.index.IndexFieldOption;
+import org.fastcatsearch.ir.index.PostingSkipWriter;
 import org.fastcatsearch.ir.io.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,6 +31,12 @@ import org.slf4j.LoggerFactory;
 public class TempSearchFieldMerger {
 	protected static Logger logger = LoggerFactory.getLogger(TempSearchFieldMerger.class);
 
+	private static final int READ_BUFFER_MEMORY = 16 * 1024 * 1024;
+	private static final int MIN_READ_BUFFER_SIZE = 64 * 1024;
+	private static final int MAX_READ_BUFFER_SIZE = 1024 * 1024;
+	private static final int POSTING_WRITE_BUFFER_SIZE = 1024 * 1024;
+	private static final int LEXICON_WRITE_BUFFER_SIZE = 256 * 1024;
+
 	protected int[] heap;
 	protected TempSearchFieldReader[] reader;
 	protected String indexId;
@@ -47,8 +54,9 @@ public class TempSearchFieldMerger {
 		this.indexId = indexId;
 		this.flushCount = flushPosition.size();
 		reader = new TempSearchFieldReader[flushCount];
+		int readBufferSize = readBufferSize(flushCount);
 		for (int m = 0; m < flushCount; m++) {
-			reader[m] = new TempSearchFieldReader(m, indexId, tempFile, flushPosition.get(m));
+			reader[m] = new TempSearchFieldReader(m, indexId, tempFile, flushPosition.get(m), readBufferSize);
 			reader[m].next();
 		}
 
@@ -57,6 +65,17 @@ public class TempSearchFieldMerger {
 		buffers = new BytesBuffer[flushCount];
 	}
 
+	/**
+	 * flush 된 구간들을 번갈아 읽게 되므로, 구간별로 크게 미리 읽어 seek 와 read 호출을 줄인다.
+	 * 머징 하나당 전체 READ_BUFFER_MEMORY 정도를 사용한다.
+	 * */
+	protected static int readBufferSize(int flushCount) {
+		if (flushCount <= 0) {
+			return MIN_READ_BUFFER_SIZE;
+		}
+		return Math.max(MIN_READ_BUFFER_SIZE, Math.min(MAX_READ_BUFFER_SIZE, READ_BUFFER_MEMORY / flushCount));
+	}
+
 	public void mergeAndMakeIndex(File baseDir, int indexInterval, IndexFieldOption fieldIndexOption) throws IOException {
 		logger.debug("**** mergeAndMakeIndex ****");
 		logger.debug("flushCount={}", flushCount);
@@ -65,9 +84,12 @@ public class TempSearchFieldMerger {
 			return;
 		}
 
-		IndexOutput postingOutput = new BufferedFileOutput(baseDir, IndexFileNames.getSearchPostingFileName(indexId));
-		IndexOutput lexiconOutput = new BufferedFileOutput(baseDir, IndexFileNames.getSearchLexiconFileName(indexId));
-		IndexOutput indexOutput = new BufferedFileOutput(baseDir, IndexFileNames.getSearchIndexFileName(indexId));
+		//세 파일 모두 앞에서부터 순차기록하므로 큰 버퍼로 모아서 쓴다.
+		IndexOutput postingOutput = new BufferedFileOutput(new File(baseDir, IndexFileNames.getSearchPostingFileName(indexId)), false, POSTING_WRITE_BUFFER_SIZE);
+		IndexOutput lexiconOutput = new BufferedFileOutput(new File(baseDir, IndexFileNames.getSearchLexiconFileName(indexId)), false, LEXICON_WRITE_BUFFER_SIZE);
+		IndexOutput indexOutput = new BufferedFileOutput(new File(baseDir, IndexFileNames.getSearchIndexFileName(indexId)), false, LEXICON_WRITE_BUFFER_SIZE);
+		PostingSkipWriter skipWriter = new PostingSkipWriter(baseDir, indexId);
+		boolean isStorePosition = fieldIndexOption.isStorePosition();
 
 		try {
 			postingOutput.writeInt(fieldIndexOption.value());
@@ -108,6 +130,11 @@ public class TempSearchFieldMerger {
 				postingOutput.writeVInt(firstDocNo);
 				postingOutput.writeBytes(tempPostingOutput.array(), sz, len);
 
+				// 문서데이터는 len2, count, lastDocNo 다음부터 시작한다.
+				skipWriter.startTerm(postingPosition);
+				skipWriter.addDocs(tempPostingOutput.array(), 0, sz + len, count, isStorePosition, postingPosition + IOUtil.SIZE_OF_INT * 3);
+				skipWriter.endTerm();
+
 				
 				//2. Write Lexicon
 				long lexiconPosition = lexiconOutput.position();
@@ -167,6 +194,11 @@ public class TempSearchFieldMerger {
 			} catch (IOException e) {
 				exception = e;
 			}
+			try {
+				skipWriter.close();
+			} catch (IOException e) {
+				exception = e;
+			}
 
 			if (exception != null) {
 				throw exception;
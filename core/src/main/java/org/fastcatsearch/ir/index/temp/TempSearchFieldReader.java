@@ -23,6 +23,7 @@ import java.io.IOException;
 import org.apache.lucene.util.BytesRef;
 import org.fastcatsearch.ir.io.BufferedFileInput;
 import org.fastcatsearch.ir.io.CharVector;
+import org.fastcatsearch.ir.io.IOUtil;
 import org.fastcatsearch.ir.io.IndexInput;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,11 +40,18 @@ public class TempSearchFieldReader {
 	private BytesRef buffer;
 	private IndexInput tempInput;
 	private int left;
+	//머징중에는 직전 단어의 buffer 를 아직 사용하므로 두개를 번갈아 재사용한다.
+	private byte[][] bufferArrays = new byte[2][];
+	private int bufferFlip;
 	
 	public TempSearchFieldReader(int sequence, String indexId, File tempFile, long startPos) throws IOException{
+		this(sequence, indexId, tempFile, startPos, IOUtil.FILEBLOCKSIZE);
+	}
+	
+	public TempSearchFieldReader(int sequence, String indexId, File tempFile, long startPos, int readBufferSize) throws IOException{
 		this.sequence = sequence;
 		this.indexId = indexId;
-		this.tempInput = new BufferedFileInput(tempFile);
+		this.tempInput = new BufferedFileInput(tempFile, readBufferSize);
 		tempInput.seek(startPos);
 		logger.debug("{} - reader input position = {}", indexId, startPos);
 		logger.debug("{} - filesize = {}", indexId, tempFile.length());
@@ -92,7 +100,13 @@ public class TempSearchFieldReader {
 		term = new CharVector(array, 0, len);
 		
 		int bufLength = tempInput.readVInt();
-		buffer = new BytesRef(bufLength);
+		byte[] bufferArray = bufferArrays[bufferFlip];
+		if(bufferArray == null || bufferArray.length < bufLength){
+			bufferArray = new byte[Math.max(bufLength, 64)];
+			bufferArrays[bufferFlip] = bufferArray;
+		}
+		bufferFlip ^= 1;
+		buffer = new BytesRef(bufferArray, 0, bufLength);
 		tempInput.readBytes(buffer);
 		left--;
 		
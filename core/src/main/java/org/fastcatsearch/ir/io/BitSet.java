@@ -77,7 +77,7 @@ public class BitSet {
     }
 	
 	public String toString(){
-		return "[BitSet] "+file.getAbsolutePath();
+		return "[BitSet] "+(file != null ? file.getAbsolutePath() : "memory");
 	}
 	
 	public String getEntry(){
@@ -128,6 +128,50 @@ public class BitSet {
         onCount = -1;
 	}
 	
+	/**
+	 * from 이상인 첫번째 set 비트의 번호를 리턴한다. 없으면 -1.
+	 * */
+	public int nextSetBit(int from) {
+		if (from < 0) {
+			from = 0;
+		}
+		int pos = from / IOUtil.BITS_OF_LONG;
+		if (pos >= bitdata.length) {
+			return -1;
+		}
+		//상위비트부터 번호가 증가하므로 from 앞쪽의 상위비트를 지운다.
+		long word = bitdata[pos] & (0xFFFFFFFFFFFFFFFFL >>> (from % IOUtil.BITS_OF_LONG));
+		while (true) {
+			if (word != 0) {
+				return pos * IOUtil.BITS_OF_LONG + Long.numberOfLeadingZeros(word);
+			}
+			if (++pos >= bitdata.length) {
+				return -1;
+			}
+			word = bitdata[pos];
+		}
+	}
+
+	/**
+	 * another 의 비트를 합친 새 비트셋. 두 비트셋은 바뀌지 않으며, 파일은 이 비트셋의 파일을 가리킨다.
+	 * */
+	public BitSet union(BitSet another) {
+		BitSet result = new BitSet(Math.max(bitdata.length, another.bitdata.length));
+		System.arraycopy(bitdata, 0, result.bitdata, 0, bitdata.length);
+		for (int i = 0; i < another.bitdata.length; i++) {
+			result.bitdata[i] |= another.bitdata[i];
+		}
+		result.file = file;
+		return result;
+	}
+
+	/**
+	 * 비트배열의 메모리 크기.
+	 * */
+	public long memorySize() {
+		return (long) bitdata.length * IOUtil.SIZE_OF_LONG;
+	}
+	
 	public void save() throws IOException{
 		BufferedFileOutput out = new BufferedFileOutput(file);
 		int size = bitdata.length;
@@ -59,6 +59,14 @@ public class BufferedFileInput extends IndexInput implements Cloneable {
 	}
 
 	public BufferedFileInput(File f) throws IOException {
+		this(f, IOUtil.FILEBLOCKSIZE);
+	}
+
+	/**
+	 * 순차적으로 많이 읽는 파일은 bufferSize 를 크게 하여 read 호출을 줄인다.
+	 * */
+	public BufferedFileInput(File f, int bufferSize) throws IOException {
+		this.bufferSize = bufferSize;
 		off = 0L;
 		end = f.length();
 		this.f = f;
@@ -58,6 +58,13 @@ public class BufferedFileOutput extends IndexOutput {
 	}
 
 	public BufferedFileOutput(File file, boolean append) throws IOException {
+		this(file, append, IOUtil.PAGESIZE);
+	}
+
+	/**
+	 * 크게 순차기록하는 파일은 bufferSize 를 크게 하여 write 호출을 줄인다.
+	 * */
+	public BufferedFileOutput(File file, boolean append, int bufferSize) throws IOException {
 		f = file;
 
 		File pf = f.getParentFile();
@@ -67,7 +74,7 @@ public class BufferedFileOutput extends IndexOutput {
 		if (!append) {
 			f.delete();
 		}
-		buf = new byte[IOUtil.PAGESIZE];
+		buf = new byte[bufferSize];
 		raf = new RandomAccessFile(f, "rw");
 		if (append) {
 			long fp = raf.length();
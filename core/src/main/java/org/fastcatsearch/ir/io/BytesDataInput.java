@@ -28,6 +28,7 @@ public class BytesDataInput extends DataInput {
 	public BytesDataInput(byte[] array, int offset, int length){
 		this.array = array;
 		this.offset = offset;
+		this.pos = offset;
 		this.limit = Math.min(offset + length, array.length);
 	}
 	
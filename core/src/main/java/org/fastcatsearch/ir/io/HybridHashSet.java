@@ -100,6 +100,10 @@ public class HybridHashSet {
         }
     }
 
+    public int getKeySize() {
+        return keySize;
+    }
+
     public void setKeySize(int keySize) {
         this.keySize = keySize;
     }
@@ -0,0 +1,84 @@
+package org.fastcatsearch.ir.io;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.fastcatsearch.ir.config.IndexConfig;
+
+/**
+ * 세그먼트 파일을 읽을 IndexInput 을 만든다.
+ * IndexConfig 의 mmap-file-types 에 해당하는 파일종류는 MMapIndexInput 으로, 나머지는 BufferedFileInput 으로 연다.
+ * 파일종류는 파일명의 앞부분으로 구분한다. (search.*, field.*, group.*, document.*, primarykey.*)
+ * */
+public class IndexInputFactory {
+
+	public static final String TYPE_ALL = "all";
+	public static final String TYPE_SEARCH = "search";
+	public static final String TYPE_FIELD = "field";
+	public static final String TYPE_GROUP = "group";
+	public static final String TYPE_DOCUMENT = "document";
+	public static final String TYPE_PK = "pk";
+
+	public static final IndexInputFactory DEFAULT = new IndexInputFactory(null);
+
+	private boolean mmapSearch;
+	private boolean mmapField;
+	private boolean mmapGroup;
+	private boolean mmapDocument;
+	private boolean mmapPk;
+
+	public IndexInputFactory(String mmapFileTypes) {
+		if (mmapFileTypes == null) {
+			return;
+		}
+		for (String type : mmapFileTypes.split(",")) {
+			type = type.trim().toLowerCase();
+			if (type.equals(TYPE_ALL)) {
+				mmapSearch = mmapField = mmapGroup = mmapDocument = mmapPk = true;
+			} else if (type.equals(TYPE_SEARCH)) {
+				mmapSearch = true;
+			} else if (type.equals(TYPE_FIELD)) {
+				mmapField = true;
+			} else if (type.equals(TYPE_GROUP)) {
+				mmapGroup = true;
+			} else if (type.equals(TYPE_DOCUMENT)) {
+				mmapDocument = true;
+			} else if (type.equals(TYPE_PK)) {
+				mmapPk = true;
+			}
+		}
+	}
+
+	public static IndexInputFactory create(IndexConfig indexConfig) {
+		if (indexConfig == null || indexConfig.getMmapFileTypes() == null) {
+			return DEFAULT;
+		}
+		return new IndexInputFactory(indexConfig.getMmapFileTypes());
+	}
+
+	public IndexInput open(File dir, String filename) throws IOException {
+		if (isMMap(filename)) {
+			return new MMapIndexInput(dir, filename);
+		}
+		return new BufferedFileInput(dir, filename);
+	}
+
+	public IndexInput open(File f) throws IOException {
+		return open(f.getParentFile(), f.getName());
+	}
+
+	public boolean isMMap(String filename) {
+		if (filename.startsWith("search.")) {
+			return mmapSearch;
+		} else if (filename.startsWith("field.")) {
+			return mmapField;
+		} else if (filename.startsWith("group.")) {
+			return mmapGroup;
+		} else if (filename.startsWith("document.")) {
+			return mmapDocument;
+		} else if (filename.startsWith("primarykey.")) {
+			return mmapPk;
+		}
+		return false;
+	}
+}
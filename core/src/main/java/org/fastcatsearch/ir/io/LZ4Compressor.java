@@ -0,0 +1,182 @@
+package org.fastcatsearch.ir.io;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * LZ4 블럭포맷 압축, 해제. (native 라이브러리 없이 자바로 구현)
+ * 압축률보다 해제속도가 중요한 저장문서 블럭에 사용한다.
+ *
+ * 시퀀스 : token(상위4비트 리터럴길이, 하위4비트 매치길이-4), [리터럴길이 추가바이트], 리터럴, short(LE 매치거리), [매치길이 추가바이트]
+ * 마지막 시퀀스는 리터럴만 있다. 마지막 5바이트는 항상 리터럴이며, 마지막 매치는 끝에서 12바이트 이전에 시작한다.
+ * */
+public class LZ4Compressor {
+
+	private static final int MIN_MATCH = 4;
+	private static final int LAST_LITERALS = 5;
+	private static final int MF_LIMIT = 12;
+	private static final int MAX_DISTANCE = 65535;
+	private static final int HASH_LOG = 12;
+	private static final int RUN_MASK = 15;
+
+	private final int[] hashTable = new int[1 << HASH_LOG];
+
+	/**
+	 * 압축결과의 최대길이.
+	 * */
+	public static int maxCompressedLength(int length) {
+		return length + length / 255 + 16;
+	}
+
+	/**
+	 * dest 에는 maxCompressedLength 만큼의 공간이 있어야 한다. 압축된 길이를 리턴한다.
+	 * */
+	public int compress(byte[] src, int srcOff, int srcLen, byte[] dest, int destOff) {
+		int srcEnd = srcOff + srcLen;
+		int dOff = destOff;
+		int anchor = srcOff;
+
+		if (srcLen > MF_LIMIT) {
+			Arrays.fill(hashTable, -1);
+			int matchLimit = srcEnd - LAST_LITERALS;
+			int mfLimit = srcEnd - MF_LIMIT;
+			int sOff = srcOff;
+			while (sOff < mfLimit) {
+				int sequence = readInt(src, sOff);
+				int h = hash(sequence);
+				int ref = hashTable[h];
+				hashTable[h] = sOff;
+				if (ref < 0 || sOff - ref > MAX_DISTANCE || readInt(src, ref) != sequence) {
+					sOff++;
+					continue;
+				}
+				//매치 앞쪽으로 확장.
+				while (sOff > anchor && ref > srcOff && src[sOff - 1] == src[ref - 1]) {
+					sOff--;
+					ref--;
+				}
+				int matchLength = MIN_MATCH;
+				while (sOff + matchLength < matchLimit && src[sOff + matchLength] == src[ref + matchLength]) {
+					matchLength++;
+				}
+
+				int literalLength = sOff - anchor;
+				int tokenOff = dOff++;
+				int token;
+				if (literalLength >= RUN_MASK) {
+					token = RUN_MASK << 4;
+					dOff = writeLength(literalLength - RUN_MASK, dest, dOff);
+				} else {
+					token = literalLength << 4;
+				}
+				System.arraycopy(src, anchor, dest, dOff, literalLength);
+				dOff += literalLength;
+
+				int distance = sOff - ref;
+				dest[dOff++] = (byte) distance;
+				dest[dOff++] = (byte) (distance >>> 8);
+				int extra = matchLength - MIN_MATCH;
+				if (extra >= RUN_MASK) {
+					token |= RUN_MASK;
+					dOff = writeLength(extra - RUN_MASK, dest, dOff);
+				} else {
+					token |= extra;
+				}
+				dest[tokenOff] = (byte) token;
+
+				sOff += matchLength;
+				anchor = sOff;
+			}
+		}
+
+		//마지막 리터럴
+		int literalLength = srcEnd - anchor;
+		if (literalLength >= RUN_MASK) {
+			dest[dOff++] = (byte) (RUN_MASK << 4);
+			dOff = writeLength(literalLength - RUN_MASK, dest, dOff);
+		} else {
+			dest[dOff++] = (byte) (literalLength << 4);
+		}
+		System.arraycopy(src, anchor, dest, dOff, literalLength);
+		dOff += literalLength;
+		return dOff - destOff;
+	}
+
+	/**
+	 * 압축을 풀어 dest 에 기록하고 풀린 길이를 리턴한다. 데이터가 잘못되었거나 destLen 을 넘으면 IOException.
+	 * */
+	public static int decompress(byte[] src, int srcOff, int srcLen, byte[] dest, int destOff, int destLen) throws IOException {
+		int sOff = srcOff;
+		int srcEnd = srcOff + srcLen;
+		int dOff = destOff;
+		int destEnd = destOff + destLen;
+		try {
+			while (sOff < srcEnd) {
+				int token = src[sOff++] & 0xFF;
+				int literalLength = token >>> 4;
+				if (literalLength == RUN_MASK) {
+					int b;
+					do {
+						b = src[sOff++] & 0xFF;
+						literalLength += b;
+					} while (b == 255);
+				}
+				if (dOff + literalLength > destEnd || sOff + literalLength > srcEnd) {
+					throw new IOException("Malformed LZ4 data. literal length = " + literalLength);
+				}
+				System.arraycopy(src, sOff, dest, dOff, literalLength);
+				sOff += literalLength;
+				dOff += literalLength;
+				if (sOff >= srcEnd) {
+					//마지막 시퀀스.
+					break;
+				}
+
+				int distance = (src[sOff] & 0xFF) | ((src[sOff + 1] & 0xFF) << 8);
+				sOff += 2;
+				int matchLength = token & RUN_MASK;
+				if (matchLength == RUN_MASK) {
+					int b;
+					do {
+						b = src[sOff++] & 0xFF;
+						matchLength += b;
+					} while (b == 255);
+				}
+				matchLength += MIN_MATCH;
+				int ref = dOff - distance;
+				if (distance == 0 || ref < destOff || dOff + matchLength > destEnd) {
+					throw new IOException("Malformed LZ4 data. distance = " + distance + ", match length = " + matchLength);
+				}
+				if (distance >= matchLength) {
+					System.arraycopy(dest, ref, dest, dOff, matchLength);
+					dOff += matchLength;
+				} else {
+					//겹치는 매치는 한바이트씩 복사해야 반복패턴이 만들어진다.
+					for (int i = 0; i < matchLength; i++) {
+						dest[dOff++] = dest[ref++];
+					}
+				}
+			}
+		} catch (ArrayIndexOutOfBoundsException e) {
+			throw new IOException("Malformed LZ4 data. " + e.getMessage());
+		}
+		return dOff - destOff;
+	}
+
+	private static int writeLength(int length, byte[] dest, int dOff) {
+		while (length >= 255) {
+			dest[dOff++] = (byte) 255;
+			length -= 255;
+		}
+		dest[dOff++] = (byte) length;
+		return dOff;
+	}
+
+	private static int hash(int sequence) {
+		return (sequence * -1640531535) >>> (32 - HASH_LOG);
+	}
+
+	private static int readInt(byte[] b, int off) {
+		return (b[off] & 0xFF) | ((b[off + 1] & 0xFF) << 8) | ((b[off + 2] & 0xFF) << 16) | ((b[off + 3] & 0xFF) << 24);
+	}
+}
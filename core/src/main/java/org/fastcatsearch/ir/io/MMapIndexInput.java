@@ -0,0 +1,351 @@
+package org.fastcatsearch.ir.io;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 파일을 1GB(chunk) 단위의 MappedByteBuffer 로 매핑하여 읽는다.
+ * clone 은 같은 매핑을 공유하고 position 만 독립적으로 가진다. 힙 버퍼를 따로 만들지 않는다.
+ * 원본을 close 하면 원본과 clone 모두 닫힌 상태가 되며, 이후 읽기와 seek 는 IOException 이 발생한다.
+ * 매핑은 원본이 close 되고 clone 이 모두 close 되거나 GC 되어 더이상 읽을수 있는 clone 이 없을때 해제한다.
+ * 그 전에 원본이 close 되면 해제를 미뤄두고, 이후 다른 파일을 열거나 닫을때 다시 확인한다.
+ * */
+public class MMapIndexInput extends IndexInput {
+	private static Logger logger = LoggerFactory.getLogger(MMapIndexInput.class);
+
+	private static final int CHUNK_POWER = 30; // 1GB
+
+	// 원본은 close 되었지만 아직 살아있는 clone 이 있어서 매핑을 해제하지 못한 상태들.
+	private static final Set<MappedState> pendingStates = new HashSet<MappedState>();
+
+	private final File f;
+	private final long length;
+	private final int chunkPower;
+
+	// 원본과 clone 이 공유하는 매핑상태.
+	private final MappedState state;
+
+	private ByteBuffer[] buffers;
+	private int currentIndex;
+	private ByteBuffer current;
+	private boolean isClone;
+	private boolean closed;
+	// clone 이 가진 duplicate 버퍼의 참조. clone 을 close 하면 공유상태에서 제거한다.
+	private Reference<ByteBuffer>[] cloneRefs;
+
+	public MMapIndexInput(File dir, String filename) throws IOException {
+		this(new File(dir, filename));
+	}
+
+	public MMapIndexInput(File f) throws IOException {
+		this(f, CHUNK_POWER);
+	}
+
+	protected MMapIndexInput(File f, int chunkPower) throws IOException {
+		releasePending();
+		this.f = f;
+		this.chunkPower = chunkPower;
+
+		RandomAccessFile file = new RandomAccessFile(f, "r");
+		try {
+			FileChannel channel = file.getChannel();
+			length = channel.size();
+			long chunkSize = 1L << chunkPower;
+			int chunkCount = (int) (length >>> chunkPower) + 1;
+			MappedByteBuffer[] mappedBuffers = new MappedByteBuffer[chunkCount];
+			long offset = 0;
+			for (int i = 0; i < chunkCount; i++) {
+				long size = Math.min(chunkSize, length - offset);
+				mappedBuffers[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+				offset += size;
+			}
+			state = new MappedState(mappedBuffers);
+		} finally {
+			// 매핑은 파일을 닫아도 유지된다.
+			file.close();
+		}
+		buffers = new ByteBuffer[state.mappedBuffers.length];
+		for (int i = 0; i < buffers.length; i++) {
+			buffers[i] = state.mappedBuffers[i];
+		}
+		currentIndex = 0;
+		current = buffers[0];
+	}
+
+	@Override
+	public MMapIndexInput clone() {
+		MMapIndexInput clone = (MMapIndexInput) super.clone();
+		clone.isClone = true;
+		clone.buffers = new ByteBuffer[buffers.length];
+		for (int i = 0; i < buffers.length; i++) {
+			clone.buffers[i] = buffers[i].duplicate();
+		}
+		clone.currentIndex = currentIndex;
+		clone.current = clone.buffers[currentIndex];
+		clone.current.position(current.position());
+		clone.cloneRefs = state.register(clone.buffers);
+		return clone;
+	}
+
+	@Override
+	public final byte readByte() throws IOException {
+		ensureOpen();
+		try {
+			return current.get();
+		} catch (BufferUnderflowException e) {
+			nextChunk();
+			return current.get();
+		}
+	}
+
+	@Override
+	public void readBytes(byte[] b, int offset, int len) throws IOException {
+		ensureOpen();
+		int remaining = current.remaining();
+		while (len > remaining) {
+			current.get(b, offset, remaining);
+			offset += remaining;
+			len -= remaining;
+			nextChunk();
+			remaining = current.remaining();
+		}
+		current.get(b, offset, len);
+	}
+
+	@Override
+	public final short readShort() throws IOException {
+		ensureOpen();
+		if (current.remaining() >= 2) {
+			return current.getShort();
+		}
+		return super.readShort();
+	}
+
+	@Override
+	public final int readInt() throws IOException {
+		ensureOpen();
+		if (current.remaining() >= 4) {
+			return current.getInt();
+		}
+		return super.readInt();
+	}
+
+	@Override
+	public final long readLong() throws IOException {
+		ensureOpen();
+		if (current.remaining() >= 8) {
+			return current.getLong();
+		}
+		return super.readLong();
+	}
+
+	@Override
+	public int read() throws IOException {
+		return readByte() & 0xff;
+	}
+
+	@Override
+	public int read(byte[] b, int offset, int len) throws IOException {
+		long remain = length - position();
+		if (remain <= 0) {
+			return -1;
+		}
+		if (len > remain) {
+			len = (int) remain;
+		}
+		readBytes(b, offset, len);
+		return len;
+	}
+
+	private void nextChunk() throws IOException {
+		ensureOpen();
+		if (currentIndex + 1 >= buffers.length) {
+			throw new EOFException("read past EOF: " + this);
+		}
+		currentIndex++;
+		current = buffers[currentIndex];
+		current.position(0);
+	}
+
+	@Override
+	public long position() {
+		return (((long) currentIndex) << chunkPower) + current.position();
+	}
+
+	@Override
+	public void seek(long pos) throws IOException {
+		ensureOpen();
+		if (pos < 0 || pos > length) {
+			throw new EOFException("seek past EOF: pos=" + pos + " " + this);
+		}
+		int index = (int) (pos >>> chunkPower);
+		if (index >= buffers.length) {
+			// 파일끝이 chunk 경계인 경우.
+			index = buffers.length - 1;
+		}
+		currentIndex = index;
+		current = buffers[index];
+		current.position((int) (pos - (((long) index) << chunkPower)));
+	}
+
+	@Override
+	public long length() {
+		return length;
+	}
+
+	@Override
+	public void reset() throws IOException {
+
+	}
+
+	private void ensureOpen() throws IOException {
+		if (closed || state.closed) {
+			throw new IOException("already closed: " + this);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (isClone) {
+			if (!closed) {
+				closed = true;
+				state.unregister(cloneRefs);
+			}
+		} else {
+			state.closed = true;
+		}
+		if (state.closed && !state.releaseIfUnused()) {
+			synchronized (pendingStates) {
+				pendingStates.add(state);
+			}
+		}
+		releasePending();
+	}
+
+	boolean isReleased() {
+		synchronized (state) {
+			return state.released;
+		}
+	}
+
+	/*
+	 * 해제를 미뤄둔 매핑중 clone 이 모두 사라진 것을 해제한다.
+	 * */
+	private static void releasePending() {
+		synchronized (pendingStates) {
+			Iterator<MappedState> iterator = pendingStates.iterator();
+			while (iterator.hasNext()) {
+				if (iterator.next().releaseIfUnused()) {
+					iterator.remove();
+				}
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "[" + getClass().getName() + "]" + f.getName() + ", length=" + length;
+	}
+
+	private static class MappedState {
+		private final MappedByteBuffer[] mappedBuffers;
+		private volatile boolean closed;
+		private boolean released;
+		// clone 의 duplicate 버퍼가 GC 되면 queue 로 들어온다.
+		// 읽는 중인 clone 은 지역변수로 버퍼를 잡고 있으므로 GC 되지 않는다.
+		private final ReferenceQueue<ByteBuffer> queue = new ReferenceQueue<ByteBuffer>();
+		private final Set<Reference<ByteBuffer>> openRefs = new HashSet<Reference<ByteBuffer>>();
+
+		private MappedState(MappedByteBuffer[] mappedBuffers) {
+			this.mappedBuffers = mappedBuffers;
+		}
+
+		@SuppressWarnings("unchecked")
+		private synchronized Reference<ByteBuffer>[] register(ByteBuffer[] buffers) {
+			Reference<ByteBuffer>[] refs = new Reference[buffers.length];
+			for (int i = 0; i < buffers.length; i++) {
+				refs[i] = new WeakReference<ByteBuffer>(buffers[i], queue);
+				openRefs.add(refs[i]);
+			}
+			return refs;
+		}
+
+		private synchronized void unregister(Reference<ByteBuffer>[] refs) {
+			for (Reference<ByteBuffer> ref : refs) {
+				openRefs.remove(ref);
+			}
+		}
+
+		/*
+		 * 원본이 닫혔고 읽을수 있는 clone 이 없으면 매핑을 해제한다. 해제되었으면 true.
+		 * */
+		private synchronized boolean releaseIfUnused() {
+			if (released) {
+				return true;
+			}
+			if (!closed) {
+				return false;
+			}
+			Reference<? extends ByteBuffer> ref = null;
+			while ((ref = queue.poll()) != null) {
+				openRefs.remove(ref);
+			}
+			if (!openRefs.isEmpty()) {
+				return false;
+			}
+			released = true;
+			for (MappedByteBuffer buffer : mappedBuffers) {
+				unmapBuffer(buffer);
+			}
+			return true;
+		}
+	}
+
+	/*
+	 * MappedByteBuffer 는 GC 될때까지 해제되지 않으므로 cleaner 를 직접 호출한다.
+	 * jdk8 이하는 DirectBuffer.cleaner(), jdk9 이상은 Unsafe.invokeCleaner 를 사용한다.
+	 * 둘다 실패하면 GC 에 맡긴다.
+	 * */
+	private static void unmapBuffer(ByteBuffer buffer) {
+		try {
+			Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+			cleanerMethod.setAccessible(true);
+			Object cleaner = cleanerMethod.invoke(buffer);
+			if (cleaner != null) {
+				Method cleanMethod = cleaner.getClass().getMethod("clean");
+				cleanMethod.setAccessible(true);
+				cleanMethod.invoke(cleaner);
+			}
+			return;
+		} catch (Throwable ignore) {
+		}
+
+		try {
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			Field unsafeField = unsafeClass.getDeclaredField("theUnsafe");
+			unsafeField.setAccessible(true);
+			Object unsafe = unsafeField.get(null);
+			Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+			invokeCleaner.invoke(unsafe, buffer);
+		} catch (Throwable e) {
+			logger.warn("cannot unmap buffer. it will be released by GC. {}", e.toString());
+		}
+	}
+}
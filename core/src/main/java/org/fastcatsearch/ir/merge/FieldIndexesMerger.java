@@ -1,7 +1,116 @@
 package org.fastcatsearch.ir.merge;
 
+import org.fastcatsearch.ir.common.IndexFileNames;
+import org.fastcatsearch.ir.index.NumericDocValuesWriter;
+import org.fastcatsearch.ir.io.BufferedFileInput;
+import org.fastcatsearch.ir.io.BufferedFileOutput;
+import org.fastcatsearch.ir.io.IndexInput;
+import org.fastcatsearch.ir.io.IndexOutput;
+import org.fastcatsearch.ir.search.NumericDocValues;
+import org.fastcatsearch.ir.settings.FieldIndexSetting;
+import org.fastcatsearch.ir.settings.FieldSetting;
+import org.fastcatsearch.ir.settings.Schema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
 /**
+ * 필드색인은 문서별 고정길이 데이터이므로 살아있는 문서의 데이터만 그대로 복사한다.
+ * multi-value 필드는 .mv 파일의 위치(ptr)를 새로 계산하여 기록한다.
+ * 숫자형 싱글밸류 필드는 복사하는 데이터로 doc values(.dv) 를 새로 만든다.
  * Created by swsong on 2015. 11. 16..
  */
 public class FieldIndexesMerger {
+    private static Logger logger = LoggerFactory.getLogger(FieldIndexesMerger.class);
+
+    private Schema schema;
+    private File dir;
+
+    public FieldIndexesMerger(Schema schema, File dir) {
+        this.schema = schema;
+        this.dir = dir;
+    }
+
+    public void merge(MergingSegment... segments) throws IOException {
+        List<FieldIndexSetting> fieldIndexSettingList = schema.schemaSetting().getFieldIndexSettingList();
+        if (fieldIndexSettingList == null) {
+            return;
+        }
+        for (FieldIndexSetting fieldIndexSetting : fieldIndexSettingList) {
+            FieldSetting refFieldSetting = schema.fieldSettingMap().get(fieldIndexSetting.getRef());
+            int dataSize = refFieldSetting.getByteSize(fieldIndexSetting.getSize());
+            merge(fieldIndexSetting.getId(), dataSize, refFieldSetting.isMultiValue(), NumericDocValues.valueType(refFieldSetting), segments);
+        }
+    }
+
+    private void merge(String indexId, int dataSize, boolean isMultiValue, int docValuesType, MergingSegment... segments) throws IOException {
+        String indexFileName = IndexFileNames.getFieldIndexFileName(indexId);
+        String multiValueFileName = IndexFileNames.getMultiValueFileName(indexFileName);
+        IndexOutput indexOutput = new BufferedFileOutput(dir, indexFileName);
+        IndexOutput multiValueOutput = null;
+        NumericDocValuesWriter docValuesWriter = null;
+        byte[] data = new byte[dataSize];
+        try {
+            if (isMultiValue) {
+                multiValueOutput = new BufferedFileOutput(dir, multiValueFileName);
+            }
+            if (docValuesType > 0) {
+                docValuesWriter = new NumericDocValuesWriter(dir, indexId, docValuesType);
+            }
+            for (MergingSegment segment : segments) {
+                IndexInput indexInput = new BufferedFileInput(segment.dir(), indexFileName);
+                IndexInput multiValueInput = null;
+                try {
+                    if (isMultiValue) {
+                        multiValueInput = new BufferedFileInput(segment.dir(), multiValueFileName);
+                    }
+                    for (int docNo = 0; docNo < segment.documentCount(); docNo++) {
+                        if (isMultiValue) {
+                            long ptr = indexInput.readLong();
+                            if (!segment.isAlive(docNo)) {
+                                continue;
+                            }
+                            if (ptr < 0) {
+                                indexOutput.writeLong(-1);
+                            } else {
+                                indexOutput.writeLong(multiValueOutput.position());
+                                multiValueInput.seek(ptr);
+                                int count = multiValueInput.readVInt();
+                                multiValueOutput.writeVInt(count);
+                                for (int i = 0; i < count; i++) {
+                                    multiValueInput.readBytes(data, 0, dataSize);
+                                    multiValueOutput.writeBytes(data, 0, dataSize);
+                                }
+                            }
+                        } else {
+                            indexInput.readBytes(data, 0, dataSize);
+                            if (segment.isAlive(docNo)) {
+                                indexOutput.writeBytes(data, 0, dataSize);
+                                if (docValuesWriter != null) {
+                                    docValuesWriter.add(data, 0);
+                                }
+                            }
+                        }
+                    }
+                } finally {
+                    indexInput.close();
+                    if (multiValueInput != null) {
+                        multiValueInput.close();
+                    }
+                }
+            }
+        } finally {
+            indexOutput.close();
+            if (multiValueOutput != null) {
+                multiValueOutput.close();
+            }
+            if (docValuesWriter != null) {
+                docValuesWriter.close();
+            }
+        }
+        logger.debug("field index [{}] merged. segments[{}]", indexId, segments.length);
+    }
 }
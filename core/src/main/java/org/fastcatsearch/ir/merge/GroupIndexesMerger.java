@@ -1,7 +1,213 @@
 package org.fastcatsearch.ir.merge;
 
+import org.apache.lucene.util.BytesRef;
+import org.fastcatsearch.ir.common.IndexFileNames;
+import org.fastcatsearch.ir.config.IndexConfig;
+import org.fastcatsearch.ir.document.PrimaryKeyIndexReader;
+import org.fastcatsearch.ir.document.PrimaryKeyIndexWriter;
+import org.fastcatsearch.ir.io.BufferedFileInput;
+import org.fastcatsearch.ir.io.BufferedFileOutput;
+import org.fastcatsearch.ir.io.FixedDataInput;
+import org.fastcatsearch.ir.io.FixedDataOutput;
+import org.fastcatsearch.ir.io.IndexInput;
+import org.fastcatsearch.ir.io.IndexOutput;
+import org.fastcatsearch.ir.io.SequencialDataInput;
+import org.fastcatsearch.ir.io.SequencialDataOutput;
+import org.fastcatsearch.ir.io.VariableDataInput;
+import org.fastcatsearch.ir.io.VariableDataOutput;
+import org.fastcatsearch.ir.settings.FieldSetting;
+import org.fastcatsearch.ir.settings.GroupIndexSetting;
+import org.fastcatsearch.ir.settings.Schema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
 /**
+ * 그룹번호는 세그먼트마다 따로 부여되어 있으므로, 세그먼트의 그룹번호를 키로 바꾸어 새 그룹번호를 다시 부여한다.
+ * 키는 살아있는 문서에서 처음 나올때 한번만 읽으며, 삭제문서에만 있던 키는 머징된 세그먼트에 남지 않는다.
  * Created by swsong on 2015. 11. 16..
  */
 public class GroupIndexesMerger {
+    private static Logger logger = LoggerFactory.getLogger(GroupIndexesMerger.class);
+
+    private static final int UNMAPPED = -2;
+
+    private Schema schema;
+    private File dir;
+    private int indexInterval;
+    private int bucketSize;
+
+    public GroupIndexesMerger(Schema schema, File dir, IndexConfig indexConfig) {
+        this.schema = schema;
+        this.dir = dir;
+        this.indexInterval = indexConfig.getPkTermInterval();
+        this.bucketSize = indexConfig.getPkBucketSize();
+    }
+
+    public void merge(MergingSegment... segments) throws IOException {
+        List<GroupIndexSetting> groupIndexSettingList = schema.schemaSetting().getGroupIndexSettingList();
+        if (groupIndexSettingList == null) {
+            return;
+        }
+        for (GroupIndexSetting groupIndexSetting : groupIndexSettingList) {
+            FieldSetting refFieldSetting = schema.fieldSettingMap().get(groupIndexSetting.getRef());
+            merge(groupIndexSetting.getId(), refFieldSetting, segments);
+        }
+    }
+
+    private void merge(String indexId, FieldSetting refFieldSetting, MergingSegment... segments) throws IOException {
+        String indexFileName = IndexFileNames.getGroupIndexFileName(indexId);
+        String multiValueFileName = IndexFileNames.getMultiValueFileName(indexFileName);
+        String keyFileName = IndexFileNames.getGroupKeyFileName(indexId);
+        boolean isMultiValue = refFieldSetting.isMultiValue();
+
+        IndexOutput indexOutput = new BufferedFileOutput(dir, indexFileName);
+        IndexOutput multiValueOutput = null;
+        SequencialDataOutput keyOutput = null;
+        GroupKeys groupKeys = null;
+        int count = 0;
+        try {
+            if (isMultiValue) {
+                multiValueOutput = new BufferedFileOutput(dir, multiValueFileName);
+            }
+            if (refFieldSetting.isVariableField()) {
+                keyOutput = new VariableDataOutput(dir, keyFileName);
+            } else {
+                keyOutput = new FixedDataOutput(dir, keyFileName);
+            }
+            groupKeys = new GroupKeys(new PrimaryKeyIndexWriter(indexInterval, bucketSize), keyOutput);
+
+            for (MergingSegment segment : segments) {
+                IndexInput indexInput = new BufferedFileInput(segment.dir(), indexFileName);
+                IndexInput multiValueInput = null;
+                SequencialDataInput keyInput = null;
+                try {
+                    if (isMultiValue) {
+                        multiValueInput = new BufferedFileInput(segment.dir(), multiValueFileName);
+                    }
+                    if (refFieldSetting.isVariableField()) {
+                        keyInput = new VariableDataInput(segment.dir(), keyFileName);
+                    } else {
+                        keyInput = new FixedDataInput(segment.dir(), keyFileName, refFieldSetting.getByteSize());
+                    }
+                    //세그먼트 그룹번호 => 새 그룹번호
+                    int[] groupNoMap = new int[groupKeySize(segment.dir(), indexId)];
+                    Arrays.fill(groupNoMap, UNMAPPED);
+
+                    for (int docNo = 0; docNo < segment.documentCount(); docNo++) {
+                        if (isMultiValue) {
+                            long ptr = indexInput.readLong();
+                            if (!segment.isAlive(docNo)) {
+                                continue;
+                            }
+                            if (ptr < 0) {
+                                indexOutput.writeLong(-1);
+                            } else {
+                                indexOutput.writeLong(multiValueOutput.position());
+                                multiValueInput.seek(ptr);
+                                int valueCount = multiValueInput.readVInt();
+                                multiValueOutput.writeVInt(valueCount);
+                                for (int i = 0; i < valueCount; i++) {
+                                    multiValueOutput.writeInt(groupKeys.newGroupNo(multiValueInput.readInt(), groupNoMap, keyInput));
+                                }
+                            }
+                        } else {
+                            int groupNo = indexInput.readInt();
+                            if (!segment.isAlive(docNo)) {
+                                continue;
+                            }
+                            if (groupNo < 0) {
+                                indexOutput.writeInt(-1);
+                            } else {
+                                indexOutput.writeInt(groupKeys.newGroupNo(groupNo, groupNoMap, keyInput));
+                            }
+                        }
+                        count++;
+                    }
+                } finally {
+                    indexInput.close();
+                    if (multiValueInput != null) {
+                        multiValueInput.close();
+                    }
+                    if (keyInput != null) {
+                        keyInput.close();
+                    }
+                }
+            }
+        } finally {
+            indexOutput.close();
+            if (multiValueOutput != null) {
+                multiValueOutput.close();
+            }
+            if (keyOutput != null) {
+                keyOutput.close();
+            }
+        }
+
+        //GroupIndexWriter 와 동일하게 문서가 없으면 pk 맵을 만들지 않는다.
+        if (count > 0) {
+            String pkFilename = IndexFileNames.getGroupKeyMapFileName(indexId);
+            IndexOutput groupPkOutput = new BufferedFileOutput(dir, pkFilename);
+            IndexOutput groupPkIndexOutput = new BufferedFileOutput(dir, IndexFileNames.getIndexFileName(pkFilename));
+            try {
+                groupKeys.memoryKeyIndex.setDestination(groupPkOutput, groupPkIndexOutput);
+                groupKeys.memoryKeyIndex.write();
+            } finally {
+                groupPkOutput.close();
+                groupPkIndexOutput.close();
+            }
+        }
+        logger.debug("group index [{}] merged. doc[{}] key[{}]", indexId, count, groupKeys.groupNumber);
+    }
+
+    private int groupKeySize(File segmentDir, String indexId) throws IOException {
+        String pkFilename = IndexFileNames.getGroupKeyMapFileName(indexId);
+        if (!new File(segmentDir, pkFilename).exists()) {
+            return 0;
+        }
+        PrimaryKeyIndexReader pkReader = new PrimaryKeyIndexReader(segmentDir, pkFilename);
+        try {
+            return pkReader.count();
+        } finally {
+            pkReader.close();
+        }
+    }
+
+    /**
+     * 머징된 세그먼트의 그룹키와 새 그룹번호.
+     */
+    private static class GroupKeys {
+        private PrimaryKeyIndexWriter memoryKeyIndex;
+        private SequencialDataOutput keyOutput;
+        private int groupNumber;
+        private BytesRef bytesRef = new BytesRef(16);
+
+        private GroupKeys(PrimaryKeyIndexWriter memoryKeyIndex, SequencialDataOutput keyOutput) {
+            this.memoryKeyIndex = memoryKeyIndex;
+            this.keyOutput = keyOutput;
+        }
+
+        /*
+         * 처음 나온 세그먼트 그룹번호이면 키를 읽어 새 그룹번호를 찾고, 없는 키이면 새 그룹번호를 부여하고 키를 기록한다.
+         */
+        private int newGroupNo(int groupNo, int[] groupNoMap, SequencialDataInput keyInput) throws IOException {
+            int newGroupNo = groupNoMap[groupNo];
+            if (newGroupNo != UNMAPPED) {
+                return newGroupNo;
+            }
+            keyInput.read(bytesRef, groupNo);
+            newGroupNo = memoryKeyIndex.get(bytesRef.bytes, bytesRef.offset, bytesRef.length);
+            if (newGroupNo == -1) {
+                newGroupNo = groupNumber++;
+                memoryKeyIndex.put(bytesRef.bytes, bytesRef.offset, bytesRef.length, newGroupNo);
+                keyOutput.writeBytes(bytesRef.bytes, bytesRef.offset, bytesRef.length);
+            }
+            groupNoMap[groupNo] = newGroupNo;
+            return newGroupNo;
+        }
+    }
 }
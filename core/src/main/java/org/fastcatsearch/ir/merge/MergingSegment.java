@@ -0,0 +1,98 @@
+package org.fastcatsearch.ir.merge;
+
+import org.fastcatsearch.ir.common.IndexFileNames;
+import org.fastcatsearch.ir.io.BitSet;
+import org.fastcatsearch.ir.io.BufferedFileInput;
+import org.fastcatsearch.ir.io.IndexInput;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * 머징대상 세그먼트와 새 문서번호 맵.
+ * 머징중에도 실시간색인에 의해 delete.set 이 계속 바뀌므로, 머징시작시 한번만 읽어서 모든 merger 가 같은 삭제문서를 기준으로 문서번호를 변환하도록 한다.
+ * 머징시작 이후의 삭제는 delete.req 로 따로 적용된다. (CollectionHandler.applyMergedSegment 참조)
+ *
+ * 새 문서번호는 앞 세그먼트들의 살아있는 문서갯수(baseDocNo) 이후로, 삭제문서를 제외하고 순차적으로 부여된다.
+ */
+public class MergingSegment {
+
+    private File dir;
+    private int documentCount;
+    private int baseDocNo;
+    private int aliveCount;
+    private BitSet deleteSet;
+    private int[] newDocNoList; //삭제문서는 -1
+
+    public MergingSegment(File dir, int baseDocNo) throws IOException {
+        this.dir = dir;
+        this.baseDocNo = baseDocNo;
+        IndexInput docInput = new BufferedFileInput(dir, IndexFileNames.docStored);
+        try {
+            documentCount = docInput.readInt();
+        } finally {
+            docInput.close();
+        }
+
+        deleteSet = new BitSet(dir, IndexFileNames.docDeleteSet);
+        newDocNoList = new int[documentCount];
+        int newDocNo = baseDocNo;
+        for (int docNo = 0; docNo < documentCount; docNo++) {
+            if (deleteSet.isSet(docNo)) {
+                newDocNoList[docNo] = -1;
+            } else {
+                newDocNoList[docNo] = newDocNo++;
+            }
+        }
+        aliveCount = newDocNo - baseDocNo;
+    }
+
+    /**
+     * 머징대상 세그먼트 디렉토리들을 순서대로 읽어서 문서번호 맵을 만든다.
+     */
+    public static MergingSegment[] load(File... dirs) throws IOException {
+        MergingSegment[] segments = new MergingSegment[dirs.length];
+        int baseDocNo = 0;
+        for (int i = 0; i < dirs.length; i++) {
+            segments[i] = new MergingSegment(dirs[i], baseDocNo);
+            baseDocNo += segments[i].aliveCount();
+        }
+        return segments;
+    }
+
+    public File dir() {
+        return dir;
+    }
+
+    public int documentCount() {
+        return documentCount;
+    }
+
+    public int baseDocNo() {
+        return baseDocNo;
+    }
+
+    public int aliveCount() {
+        return aliveCount;
+    }
+
+    public BitSet deleteSet() {
+        return deleteSet;
+    }
+
+    public boolean isAlive(int docNo) {
+        return newDocNoList[docNo] >= 0;
+    }
+
+    /**
+     * 머징된 세그먼트에서의 문서번호. 삭제된 문서는 -1.
+     */
+    public int newDocNo(int docNo) {
+        return newDocNoList[docNo];
+    }
+
+    @Override
+    public String toString() {
+        return "[MergingSegment] " + dir.getName() + " doc[" + documentCount + "] alive[" + aliveCount + "] base[" + baseDocNo + "]";
+    }
+}
@@ -0,0 +1,118 @@
+package org.fastcatsearch.ir.merge;
+
+import org.fastcatsearch.ir.common.IndexFileNames;
+import org.fastcatsearch.ir.document.PrimaryKeyBloomFilter;
+import org.fastcatsearch.ir.document.PrimaryKeyIndexBulkReader;
+import org.fastcatsearch.ir.document.PrimaryKeyIndexBulkWriter;
+import org.fastcatsearch.ir.io.BitSet;
+import org.fastcatsearch.ir.io.BufferedFileOutput;
+import org.fastcatsearch.ir.io.BytesBuffer;
+import org.fastcatsearch.ir.io.IndexOutput;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * 정렬되어 있는 각 세그먼트의 pk맵을 k-way 머징한다. 삭제문서의 pk는 버리고 문서번호는 새 문서번호로 바꾼다.
+ * 같은 pk가 여러 세그먼트에 살아있으면 뒤 세그먼트의 문서를 남긴다.
+ * 머징된 세그먼트에는 삭제문서가 없으므로 빈 delete.set 을 만든다. pk bloom filter 도 함께 만든다.
+ */
+public class PrimaryKeyIndexesMerger {
+    private static Logger logger = LoggerFactory.getLogger(PrimaryKeyIndexesMerger.class);
+    private static final int KEY_MAX_SIZE = 1024 * 1024;
+
+    private File dir;
+    private int indexInterval;
+
+    public PrimaryKeyIndexesMerger(File dir, int indexInterval) {
+        this.dir = dir;
+        this.indexInterval = indexInterval;
+    }
+
+    public int merge(MergingSegment... segments) throws IOException {
+        int size = segments.length;
+        PrimaryKeyIndexBulkReader[] readers = new PrimaryKeyIndexBulkReader[size];
+        BytesBuffer[] buffers = new BytesBuffer[size];
+        int[] docNos = new int[size];
+        IndexOutput output = null;
+        IndexOutput indexOutput = null;
+        PrimaryKeyIndexBulkWriter writer = null;
+        try {
+            for (int i = 0; i < size; i++) {
+                File pkFile = new File(segments[i].dir(), IndexFileNames.primaryKeyMap);
+                docNos[i] = -1;
+                if (pkFile.exists()) {
+                    readers[i] = new PrimaryKeyIndexBulkReader(pkFile);
+                    buffers[i] = new BytesBuffer(KEY_MAX_SIZE);
+                    docNos[i] = next(readers[i], buffers[i], segments[i]);
+                }
+            }
+
+            output = new BufferedFileOutput(dir, IndexFileNames.primaryKeyMap);
+            indexOutput = new BufferedFileOutput(dir, IndexFileNames.getIndexFileName(IndexFileNames.primaryKeyMap));
+            writer = new PrimaryKeyIndexBulkWriter(output, indexOutput, indexInterval);
+
+            while (true) {
+                int min = -1;
+                for (int i = 0; i < size; i++) {
+                    if (docNos[i] >= 0 && (min < 0 || BytesBuffer.compareBuffer(buffers[i], buffers[min]) < 0)) {
+                        min = i;
+                    }
+                }
+                if (min < 0) {
+                    break;
+                }
+                //같은 키는 뒤 세그먼트의 문서번호를 사용한다.
+                int last = min;
+                for (int i = min + 1; i < size; i++) {
+                    if (docNos[i] >= 0 && BytesBuffer.compareBuffer(buffers[i], buffers[min]) == 0) {
+                        last = i;
+                    }
+                }
+                writer.write(buffers[min], segments[last].newDocNo(docNos[last]));
+
+                for (int i = size - 1; i >= min; i--) {
+                    if (docNos[i] >= 0 && (i == min || BytesBuffer.compareBuffer(buffers[i], buffers[min]) == 0)) {
+                        docNos[i] = next(readers[i], buffers[i], segments[i]);
+                    }
+                }
+            }
+        } finally {
+            for (int i = 0; i < size; i++) {
+                if (readers[i] != null) {
+                    readers[i].close();
+                }
+            }
+            if (writer != null) {
+                writer.done();
+            }
+            if (output != null) {
+                output.close();
+            }
+            if (indexOutput != null) {
+                indexOutput.close();
+            }
+        }
+
+        //색인시와 같은 크기로 만들도록 머징된 pk맵에서 만든다.
+        PrimaryKeyBloomFilter.build(dir);
+        new BitSet(dir, IndexFileNames.docDeleteSet, true);
+        logger.debug("primary key merged. key[{}]", writer.getKeyCount());
+        return writer.getKeyCount();
+    }
+
+    /*
+     * 살아있는 문서의 다음 pk를 읽는다. 더이상 없으면 -1.
+     */
+    private int next(PrimaryKeyIndexBulkReader reader, BytesBuffer buffer, MergingSegment segment) throws IOException {
+        while (true) {
+            buffer.clear();
+            int docNo = reader.next(buffer);
+            if (docNo < 0 || segment.isAlive(docNo)) {
+                return docNo;
+            }
+        }
+    }
+}
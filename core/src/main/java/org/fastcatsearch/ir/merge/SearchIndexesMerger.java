@@ -1,7 +1,48 @@
 package org.fastcatsearch.ir.merge;
 
+import org.fastcatsearch.ir.index.SearchIndexMerger;
+import org.fastcatsearch.ir.settings.IndexSetting;
+import org.fastcatsearch.ir.settings.Schema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
 /**
+ * 검색필드별로 lexicon 을 k-way 머징하고 포스팅의 문서번호를 새 문서번호로 바꾸어 기록한다.
+ * 분석기를 다시 거치지 않는다.
  * Created by swsong on 2015. 11. 16..
  */
 public class SearchIndexesMerger {
+    private static Logger logger = LoggerFactory.getLogger(SearchIndexesMerger.class);
+
+    private Schema schema;
+    private File dir;
+    private int indexInterval;
+
+    public SearchIndexesMerger(Schema schema, File dir, int indexInterval) {
+        this.schema = schema;
+        this.dir = dir;
+        this.indexInterval = indexInterval;
+    }
+
+    public void merge(MergingSegment... segments) throws IOException {
+        List<IndexSetting> indexSettingList = schema.schemaSetting().getIndexSettingList();
+        if (indexSettingList == null) {
+            return;
+        }
+        for (IndexSetting indexSetting : indexSettingList) {
+            String indexId = indexSetting.getId();
+            long st = System.currentTimeMillis();
+            SearchIndexMerger searchIndexMerger = new SearchIndexMerger(indexId, dir, indexInterval);
+            try {
+                searchIndexMerger.merge(segments);
+            } finally {
+                searchIndexMerger.close();
+            }
+            logger.debug("search index [{}] merged in {}ms", indexId, System.currentTimeMillis() - st);
+        }
+    }
 }
@@ -1,54 +1,71 @@
 package org.fastcatsearch.ir.merge;
 
 import org.fastcatsearch.ir.config.DataInfo;
-import org.fastcatsearch.ir.index.SearchIndexMerger;
-import org.fastcatsearch.ir.search.SegmentReader;
-import org.fastcatsearch.ir.settings.Schema;
+import org.fastcatsearch.ir.config.IndexConfig;
 import org.fastcatsearch.ir.document.DocumentMerger;
+import org.fastcatsearch.ir.settings.Schema;
+import org.fastcatsearch.ir.util.Formatter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
 
 /**
+ * 세그먼트들을 분석기를 거치지 않고 색인파일 단위로 머징한다.
+ * 문서는 압축된 채로 복사하고, 검색색인은 lexicon 을 k-way 머징하며, pk/필드/그룹색인은 새 문서번호로 다시 기록한다.
+ * 삭제문서는 머징시작시의 delete.set 을 기준으로 모두 제외되므로, 머징된 세그먼트의 삭제문서는 0 이다.
  * Created by swsong on 2015. 11. 16..
  */
 public class SegmentMerger {
+    private static Logger logger = LoggerFactory.getLogger(SegmentMerger.class);
+
+    private Schema schema;
     private File newSegmentDir;
+    private IndexConfig indexConfig;
 
-    public SegmentMerger(File dir) {
+    public SegmentMerger(Schema schema, File dir, IndexConfig indexConfig) {
+        this.schema = schema;
         this.newSegmentDir = dir;
-
+        this.indexConfig = indexConfig;
     }
 
-    public DataInfo.SegmentInfo merge(File... dirs) throws IOException {
-        DocumentMerger documentMerger = null;
+    public DataInfo.SegmentInfo merge(DataInfo.SegmentInfo segmentInfo, File... dirs) throws IOException {
+        long startTime = System.currentTimeMillis();
+        newSegmentDir.mkdirs();
+        MergingSegment[] segments = MergingSegment.load(dirs);
 
+        long st = System.currentTimeMillis();
+        int documentCount = 0;
+        DocumentMerger documentMerger = new DocumentMerger(newSegmentDir, indexConfig.getDocumentBlockSize());
         try {
-            documentMerger = new DocumentMerger(newSegmentDir);
-            documentMerger.merge(dirs);
+            documentCount = documentMerger.merge(segments);
         } finally {
-            if(documentMerger != null) {
-                documentMerger.close();
-            }
+            documentMerger.close();
         }
+        logger.debug("document merged. doc[{}] {}ms", documentCount, System.currentTimeMillis() - st);
 
-        //TODO search index 필드만큼 loop를 돈다
-        String indexId = "productname";
-        int indexInterval = 128;
-        SearchIndexMerger searchIndexMerger = null;
-        try {
-            searchIndexMerger = new SearchIndexMerger(indexId, newSegmentDir, indexInterval);
-            searchIndexMerger.merge(dirs);
-        }finally {
-            if(searchIndexMerger != null) {
-                searchIndexMerger.close();
-            }
-        }
+        st = System.currentTimeMillis();
+        new PrimaryKeyIndexesMerger(newSegmentDir, indexConfig.getPkTermInterval()).merge(segments);
+        logger.debug("primary key merged. {}ms", System.currentTimeMillis() - st);
 
+        st = System.currentTimeMillis();
+        new SearchIndexesMerger(schema, newSegmentDir, indexConfig.getIndexTermInterval()).merge(segments);
+        logger.debug("search index merged. {}ms", System.currentTimeMillis() - st);
 
+        st = System.currentTimeMillis();
+        new FieldIndexesMerger(schema, newSegmentDir).merge(segments);
+        logger.debug("field index merged. {}ms", System.currentTimeMillis() - st);
 
+        st = System.currentTimeMillis();
+        new GroupIndexesMerger(schema, newSegmentDir, indexConfig).merge(segments);
+        logger.debug("group index merged. {}ms", System.currentTimeMillis() - st);
 
-        return null;
+        segmentInfo.setDocumentCount(documentCount);
+        segmentInfo.setDeleteCount(0);
+        logger.info("Segment [{}] merged from {} segments. doc[{}] elapsed[{}]", newSegmentDir.getName(), dirs.length, documentCount,
+                Formatter.getFormatTime(System.currentTimeMillis() - startTime));
+        return segmentInfo;
     }
 
     public void close() {
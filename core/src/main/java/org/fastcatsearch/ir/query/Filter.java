@@ -177,6 +177,52 @@ public class Filter {
 		return str + ":" + boostScore;
 	}
 
+	/**
+	 * 점수나 RankInfo를 바꾸지 않고 필드값만으로 포함여부가 정해지는 필터인지 여부.
+	 * 이 필터들은 세그먼트별로 결과 비트셋을 캐시할 수 있다. (FilterBitSetCache)
+	 * */
+	public boolean isCacheable() {
+		switch (function) {
+		case MATCH:
+		case SECTION:
+		case PREFIX:
+		case SUFFIX:
+		case EXCLUDE:
+		case EMPTY:
+		case SECTION_EXCLUDE:
+			return functionParams == null;
+		}
+		return false;
+	}
+
+	/**
+	 * 필터 비트셋 캐시의 키. 필드, 기능, 모든 파라미터를 포함한다.
+	 * */
+	public String cacheKey() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(function).append(':');
+		if (fieldIndexId instanceof String[]) {
+			for (String id : (String[]) fieldIndexId) {
+				sb.append(id).append(',');
+			}
+		} else {
+			sb.append(fieldIndexId);
+		}
+		appendList(sb.append(':'), functionParamList);
+		appendList(sb.append(':'), paramList);
+		appendList(sb.append(':'), endParamList);
+		return sb.toString();
+	}
+
+	private void appendList(StringBuilder sb, String[] list) {
+		if (list != null) {
+			for (String str : list) {
+				//구분자가 값에 포함될 수 있으므로 길이를 앞에 붙인다.
+				sb.append(str == null ? -1 : str.length()).append('/').append(str).append(';');
+			}
+		}
+	}
+
     public void setFunctionParams(Object functionParams) {
         this.functionParams = functionParams;
     }
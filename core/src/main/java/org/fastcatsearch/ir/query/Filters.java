@@ -56,6 +56,32 @@ public class Filters {
 		return filterList;
 	}
 	
+	/**
+	 * 세그먼트별로 비트셋을 캐시할 수 있는 필터들.
+	 * */
+	public List<Filter> getCacheableFilterList(){
+		List<Filter> list = new ArrayList<Filter>();
+		for(Filter filter : filterList){
+			if(filter.isCacheable()){
+				list.add(filter);
+			}
+		}
+		return list;
+	}
+	
+	/**
+	 * 캐시할 수 없어 검색결과에 대해 HitFilter 로 처리해야 하는 필터들.
+	 * */
+	public Filters getUncacheableFilters(){
+		Filters filters = new Filters();
+		for(Filter filter : filterList){
+			if(!filter.isCacheable()){
+				filters.add(filter);
+			}
+		}
+		return filters;
+	}
+	
 	public HitFilter getHitFilter(Schema schema, FieldIndexesReader fieldIndexesReader, int bulkSize) throws IOException, IRException {
 		return new HitFilter(filterList, schema, fieldIndexesReader, bulkSize);
 	}
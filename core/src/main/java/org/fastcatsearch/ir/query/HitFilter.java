@@ -23,10 +23,12 @@ import java.util.Map;
 import org.fastcatsearch.ir.common.IRException;
 import org.fastcatsearch.ir.filter.FilterException;
 import org.fastcatsearch.ir.filter.FilterFunction;
+import org.fastcatsearch.ir.io.BitSet;
 import org.fastcatsearch.ir.io.DataRef;
 import org.fastcatsearch.ir.search.FieldIndexReader;
 import org.fastcatsearch.ir.search.FieldIndexesReader;
 import org.fastcatsearch.ir.search.IndexRef;
+import org.fastcatsearch.ir.search.NumericDocValues;
 import org.fastcatsearch.ir.settings.FieldIndexSetting;
 import org.fastcatsearch.ir.settings.FieldSetting;
 import org.fastcatsearch.ir.settings.Schema;
@@ -47,22 +49,14 @@ public class HitFilter {
 	
 	private IndexRef<FieldIndexReader> fieldIndexRef;
 	private List<DataRef> dataRefList;
+	private NumericDocValues[] docValuesList;
 	
 	
 	public HitFilter(List<Filter> filterList, Schema schema, FieldIndexesReader fieldIndexesReader, int bulkSize) throws IOException, IRException {
 		int size = filterList.size();
 		this.filterList = new Filter[size];
 		filterFunctions = new FilterFunction[size];
-		
-		Object[] fieldList = new Object[size];
-		int k = 0;
-		for (Filter filter : filterList) {
-			fieldList[k++] = filter.fieldIndexId();
-		}
-		//각 필드에대한 indexreader를 clone해서 dataRef와 연결시킨다.
-		fieldIndexRef = fieldIndexesReader.selectIndexRef(fieldList);
-		
-		dataRefList = fieldIndexRef.getDataRefList();
+		docValuesList = new NumericDocValues[size];
 		
 		for (int i = 0; i < size; i++) {
 			Filter filter = filterList.get(i);
@@ -79,6 +73,12 @@ public class HitFilter {
                 String fieldId = fieldIndexSetting.getRef();
                 FieldSetting fieldSetting = schema.getFieldSetting(fieldId);
                 filterFunctions[i] = filter.createFilterFunction(fieldIndexSetting, fieldSetting);
+                
+                //숫자형 필드는 doc values 가 있으면 필드색인을 읽지 않고 값으로 비교한다.
+                NumericDocValues docValues = fieldIndexesReader.getNumericDocValues((String) fieldIndexIdObject);
+                if(docValues != null && filterFunctions[i].useNumericDocValues(docValues.valueType())) {
+                	docValuesList[i] = docValues;
+                }
             } else if(fieldIndexIdObject instanceof String[]) {
                 for(String fieldIndexId : (String[]) fieldIndexIdObject) {
                     fieldIndexSetting = schema.getFieldIndexSetting(fieldIndexId);
@@ -91,8 +91,18 @@ public class HitFilter {
                 filterFunctions[i] = filter.createFilterFunction(null, null);
             }
 
-			logger.debug("FilterFunction[{}] > {}", i, filterFunctions[i]);
+			logger.debug("FilterFunction[{}] > {} docValues[{}]", i, filterFunctions[i], docValuesList[i] != null);
+		}
+		
+		Object[] fieldList = new Object[size];
+		for (int i = 0; i < size; i++) {
+			//doc values 를 사용하는 필터는 필드색인을 열지 않는다.
+			fieldList[i] = docValuesList[i] == null ? filterList.get(i).fieldIndexId() : null;
 		}
+		//각 필드에대한 indexreader를 clone해서 dataRef와 연결시킨다.
+		fieldIndexRef = fieldIndexesReader.selectIndexRef(fieldList);
+		
+		dataRefList = fieldIndexRef.getDataRefList();
 	}
 
 	private void checkFieldIndexId(Schema schema, String fieldIndexId) throws IRException {
@@ -119,9 +129,14 @@ public class HitFilter {
 			boolean isInclude = true;
 			
 			for (int i = 0; i < filterFunctions.length; i++) {
-				DataRef dataRef = dataRefList.get(i);
+				boolean isMatch;
+				if(docValuesList[i] != null){
+					isMatch = filterFunctions[i].filtering(rankInfo, docValuesList[i].get(rankInfo.docNo()));
+				}else{
+					isMatch = filterFunctions[i].filtering(rankInfo, dataRefList.get(i));
+				}
 				//이미 제외된 거라면 더이상 확인하지 않는다.
-				if(filterFunctions[i].filtering(rankInfo, dataRef)){
+				if(isMatch){
 					//부합한다면 다음조건으로 계속진행한다. 
 					//필터조건끼리는 AND관계이므로 모든 조건이 부합할때까지는 아직 break하면 안된다.
 				}else{
@@ -140,4 +155,78 @@ public class HitFilter {
 		
 		return count;
 	}
+	
+	/**
+	 * 세그먼트의 삭제되지 않은 모든 문서를 필터링하여 통과한 문서를 bitSet 에 기록한다. (FilterBitSetCache)
+	 * doc values 를 사용하는 필터는 블럭의 min, max 로 블럭전체를 제외하거나 포함시켜 문서별 비교를 생략한다.
+	 */
+	public void filtering(BitSet bitSet, BitSet deleteSet, int docCount) throws FilterException, IOException {
+		int bulkSize = 100;
+		RankInfo[] pool = new RankInfo[bulkSize];
+		for (int i = 0; i < bulkSize; i++) {
+			pool[i] = new RankInfo();
+		}
+		RankInfo[] rankInfoList = new RankInfo[bulkSize];
+		
+		boolean isBlockFilter = true;
+		boolean hasDocValues = false;
+		for (int i = 0; i < filterFunctions.length; i++) {
+			if(docValuesList[i] == null || docValuesList[i].docCount() < docCount){
+				isBlockFilter = false;
+			}else{
+				hasDocValues = true;
+			}
+		}
+		int blockSize = hasDocValues ? NumericDocValues.BLOCK_SIZE : docCount;
+		for (int blockStart = 0; blockStart < docCount; blockStart += blockSize) {
+			int blockEnd = Math.min(docCount, blockStart + blockSize);
+			int relation = FilterFunction.RELATION_SOME;
+			if (hasDocValues) {
+				int block = blockStart / NumericDocValues.BLOCK_SIZE;
+				relation = FilterFunction.RELATION_ALL;
+				for (int i = 0; i < filterFunctions.length; i++) {
+					if (docValuesList[i] != null && docValuesList[i].docCount() >= docCount) {
+						int r = filterFunctions[i].relation(docValuesList[i].blockMin(block), docValuesList[i].blockMax(block));
+						if (r == FilterFunction.RELATION_NONE) {
+							relation = r;
+							break;
+						} else if (r == FilterFunction.RELATION_SOME) {
+							relation = r;
+						}
+					}
+				}
+				if (relation == FilterFunction.RELATION_ALL && !isBlockFilter) {
+					relation = FilterFunction.RELATION_SOME;
+				}
+			}
+			
+			if (relation == FilterFunction.RELATION_NONE) {
+				continue;
+			} else if (relation == FilterFunction.RELATION_ALL) {
+				for (int docNo = blockStart; docNo < blockEnd; docNo++) {
+					if (!deleteSet.isSet(docNo)) {
+						bitSet.set(docNo);
+					}
+				}
+				continue;
+			}
+			
+			int docNo = blockStart;
+			while (docNo < blockEnd) {
+				int nread = 0;
+				while (nread < bulkSize && docNo < blockEnd) {
+					if (!deleteSet.isSet(docNo)) {
+						RankInfo rankInfo = pool[nread];
+						rankInfo.init(docNo, 0);
+						rankInfoList[nread++] = rankInfo;
+					}
+					docNo++;
+				}
+				nread = filtering(rankInfoList, nread);
+				for (int i = 0; i < nread; i++) {
+					bitSet.set(rankInfoList[i].docNo());
+				}
+			}
+		}
+	}
 }
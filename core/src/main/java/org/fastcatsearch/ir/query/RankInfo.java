@@ -82,6 +82,20 @@ public class RankInfo {
             addTermOccurrencesList(another.termOccurrencesList);
         }
     }
+    /**
+     * 새로 생성한 것과 같은 상태로 되돌린다. 하나의 객체를 반복해서 검색결과를 받는데 사용할때 호출한다.
+     */
+    public void clear() {
+        this.docNo = 0;
+        this.score = 0;
+        this.hit = 0;
+        this.matchFlag = 0;
+        this.distance = 0;
+        this.filterMatchOrder = 0;
+        reset();
+        clearOccurrence();
+    }
+
     public void setEmpty() {
         this.docNo = -1;
         this.score = 0;
@@ -38,6 +38,8 @@ public class Result {
 	private List<Explanation> explanations;
 	private List<RowExplanation>[] rowExplanationsList;
     private int[] bundleTotalSizeList;
+	//일부 노드의 결과가 제한시간안에 도착하지 않아 빠진 결과인지 여부.
+	private boolean isPartial;
 
 	public Result(){
 	}
@@ -128,4 +130,10 @@ public class Result {
 	public List<RowExplanation>[] getRowExplanationsList(){
 		return rowExplanationsList;
 	}
+	public boolean isPartial() {
+		return isPartial;
+	}
+	public void setPartial(boolean isPartial) {
+		this.isPartial = isPartial;
+	}
 }
@@ -48,6 +48,9 @@ public class Sort {
 	public boolean asc(){
 		return asc;
 	}
+	public boolean isShuffle(){
+		return isSuffle;
+	}
 	public SortFunction createSortFunction(FieldSetting fieldSetting) {
 		if(fieldSetting.isNumericField()){
 			//데이터가 int, long등의 숫자형일 경우 byte[] 의 비교방식이 달라진다.
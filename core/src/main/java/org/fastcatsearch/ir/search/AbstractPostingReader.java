@@ -2,6 +2,8 @@ package org.fastcatsearch.ir.search;
 
 import org.fastcatsearch.ir.io.CharVector;
 
+import java.io.IOException;
+
 public abstract class AbstractPostingReader implements PostingReader {
 
 	protected CharVector term;
@@ -16,6 +18,20 @@ public abstract class AbstractPostingReader implements PostingReader {
 		this.documentCount = documentCount;
 	}
 
+	/**
+	 * 기본구현은 순차로 읽으면서 찾는다. skip 정보가 있는 reader는 override 한다.
+	 * */
+	@Override
+	public PostingDoc advance(int targetDocNo) throws IOException {
+		while (hasNext()) {
+			PostingDoc postingDoc = next();
+			if (postingDoc.docNo() >= targetDocNo) {
+				return postingDoc;
+			}
+		}
+		return null;
+	}
+
 	@Override
 	public int weight() {
 		return weight;
@@ -6,44 +6,87 @@ import org.fastcatsearch.ir.index.IndexFieldOption;
 import org.fastcatsearch.ir.io.CharVector;
 import org.fastcatsearch.ir.io.IndexInput;
 
+/**
+ * 포스팅을 BUFFER_SIZE 단위로 필요할때마다 읽어들이는 스트림 reader.
+ * 문서번호, tf, 출현위치는 재사용되는 primitive 버퍼에 디코딩하며 문서마다 객체를 만들지 않는다.
+ * next() 가 리턴하는 PostingDoc 은 재사용되므로 다음 next() 호출 전까지만 유효하다.
+ * 출현위치 배열은 positions() 를 호출할때 만들어진다.
+ * sharedInput 이면 여러 reader 가 하나의 input 을 같이 쓰므로 버퍼를 채울때마다 자신의 위치로 seek 하고, close 시 input 을 닫지 않는다.
+ * */
 public class BufferedPostingReader extends AbstractPostingReader {
 
-	private static final int BUFFER_SIZE = 100;
+	private static final int BUFFER_SIZE = 128;
 	private int bufferSize;
 	private int bufferPointer;
-	private PostingDoc[] buffer;
+	private int[] docBuffer;
+	private int[] tfBuffer;
+	// 문서별 출현위치 시작 offset. 문서 i의 출현위치는 positionBuffer[positionOffset[i]] 부터 tfBuffer[i] 개.
+	private int[] positionOffset;
+	private int[] positionBuffer;
 
 	private IndexInput postingInput;
+	private boolean sharedInput;
+	// sharedInput 일때 다음에 읽을 input 위치.
+	private long inputPosition;
 	private boolean isStorePosition;
 
 	private int postingCount;
 	private int postingRemain;
 	private int prevId;
 
+	private PostingSkipReader postingSkipReader;
+	private int skipEntryStart;
+	private int skipEntryCount;
+	private int skipPointer;
+
+	private PostingCursor cursor;
+
 	public BufferedPostingReader(CharVector term, int termPosition, int weight, int documentCount, IndexFieldOption indexFieldOption, IndexInput postingInput, long inputOffset) {
+		this(term, termPosition, weight, documentCount, indexFieldOption, postingInput, inputOffset, null);
+	}
+
+	public BufferedPostingReader(CharVector term, int termPosition, int weight, int documentCount, IndexFieldOption indexFieldOption, IndexInput postingInput, long inputOffset, PostingSkipReader postingSkipReader) {
+		this(term, termPosition, weight, documentCount, indexFieldOption, postingInput, inputOffset, postingSkipReader, false);
+	}
+
+	public BufferedPostingReader(CharVector term, int termPosition, int weight, int documentCount, IndexFieldOption indexFieldOption, IndexInput postingInput, long inputOffset, PostingSkipReader postingSkipReader, boolean sharedInput) {
 		super(term, termPosition, weight, documentCount);
 		this.postingInput = postingInput;
+		this.sharedInput = sharedInput;
 		this.isStorePosition = indexFieldOption.isStorePosition();
-		
+
 		try {
 			postingInput.seek(inputOffset);
 			int len = postingInput.readInt();
 			this.postingCount = postingInput.readInt();
 			int lastDocNo = postingInput.readInt();
+			inputPosition = postingInput.position();
 		} catch (IOException e) {
 
 		}
 		postingRemain = postingCount;
 		prevId = -1;
-		
+
 		//lazy creation
-		if(postingRemain < BUFFER_SIZE){
-			buffer = new PostingDoc[postingRemain];
-		}else{
-			buffer = new PostingDoc[BUFFER_SIZE];
+		int size = postingRemain < BUFFER_SIZE ? postingRemain : BUFFER_SIZE;
+		docBuffer = new int[size];
+		tfBuffer = new int[size];
+		if(isStorePosition){
+			positionOffset = new int[size];
+			positionBuffer = new int[size * 2];
+		}
+		cursor = new PostingCursor();
+
+		if(postingSkipReader != null){
+			int termIndex = postingSkipReader.find(inputOffset);
+			if(termIndex >= 0){
+				this.postingSkipReader = postingSkipReader;
+				this.skipEntryStart = postingSkipReader.entryStart(termIndex);
+				this.skipEntryCount = postingSkipReader.entryCount(termIndex);
+			}
 		}
 	}
-	
+
 	@Override
 	public int size() {
 		return postingCount;
@@ -70,11 +113,15 @@ public class BufferedPostingReader extends AbstractPostingReader {
 		}
 		return true;
 	}
-	
+
 	private void fill() throws IOException {
 		// read BUFFER_SIZE amount
 		try {
+			if (sharedInput) {
+				postingInput.seek(inputPosition);
+			}
 			int docId = -1;
+			int positionSize = 0;
 			bufferSize = 0;
 			for (int i = 0; i < BUFFER_SIZE && postingRemain > 0; i++) {
 				if (prevId >= 0) {
@@ -83,27 +130,36 @@ public class BufferedPostingReader extends AbstractPostingReader {
 					docId = postingInput.readVInt();
 				}
 				int tf = postingInput.readVInt();
-				int[] positions = null;
-				if (tf > 0 && isStorePosition) {
-					int prevPosition = -1;
-					positions = new int[tf];
-					for (int j = 0; j < tf; j++) {
-						if (prevPosition >= 0) {
-							positions[j] = postingInput.readVInt() + prevPosition + 1;
-						} else {
-							positions[j] = postingInput.readVInt();
+				if (isStorePosition) {
+					positionOffset[bufferSize] = positionSize;
+					if (tf > 0) {
+						if (positionSize + tf > positionBuffer.length) {
+							int[] newPositionBuffer = new int[Math.max(positionBuffer.length * 2, positionSize + tf)];
+							System.arraycopy(positionBuffer, 0, newPositionBuffer, 0, positionSize);
+							positionBuffer = newPositionBuffer;
+						}
+						int prevPosition = -1;
+						for (int j = 0; j < tf; j++) {
+							int position;
+							if (prevPosition >= 0) {
+								position = postingInput.readVInt() + prevPosition + 1;
+							} else {
+								position = postingInput.readVInt();
+							}
+							positionBuffer[positionSize++] = position;
+							prevPosition = position;
 						}
-						prevPosition = positions[j];
-
 					}
-
-					
 				}
-				buffer[bufferSize++] = new PostingDoc(docId, tf, positions);
-//				logger.debug("posting[{}] {} > {}", term, bufferSize-1, buffer[bufferSize-1]);
+				docBuffer[bufferSize] = docId;
+				tfBuffer[bufferSize] = tf;
+				bufferSize++;
 				postingRemain--;
 				prevId = docId;
 			}
+			if (sharedInput) {
+				inputPosition = postingInput.position();
+			}
 		} finally {
 			bufferPointer = 0;
 		}
@@ -117,22 +173,104 @@ public class BufferedPostingReader extends AbstractPostingReader {
 		}
 
 		if (bufferPointer < bufferSize) {
-			return buffer[bufferPointer++];
+			return cursor.moveTo(bufferPointer++);
+		}
+
+		return null;
+	}
+
+	@Override
+	public PostingDoc advance(int targetDocNo) throws IOException {
+		// 버퍼에 남아있는 문서에서 먼저 찾는다.
+		while (bufferPointer < bufferSize) {
+			int index = bufferPointer++;
+			if (docBuffer[index] >= targetDocNo) {
+				return cursor.moveTo(index);
+			}
 		}
 
+		skipTo(targetDocNo);
+
+		while (hasNext()) {
+			int index = bufferPointer++;
+			if (docBuffer[index] >= targetDocNo) {
+				return cursor.moveTo(index);
+			}
+		}
 		return null;
 	}
 
+	/*
+	 * targetDocNo 보다 작은 문서로 끝나는 블럭중 가장 뒤의 블럭 다음으로 이동한다.
+	 * 이미 읽어들인 위치보다 앞이면 이동하지 않는다.
+	 * */
+	private void skipTo(int targetDocNo) throws IOException {
+		if (postingSkipReader == null) {
+			return;
+		}
+		while (skipPointer < skipEntryCount && postingSkipReader.docNo(skipEntryStart + skipPointer) < targetDocNo) {
+			skipPointer++;
+		}
+		int entry = skipPointer - 1;
+		if (entry < 0) {
+			return;
+		}
+		int skipDocCount = (entry + 1) * postingSkipReader.skipInterval();
+		int readDocCount = postingCount - postingRemain;
+		if (skipDocCount > readDocCount) {
+			inputPosition = postingSkipReader.position(skipEntryStart + entry);
+			postingInput.seek(inputPosition);
+			prevId = postingSkipReader.docNo(skipEntryStart + entry);
+			postingRemain = postingCount - skipDocCount;
+			bufferPointer = 0;
+			bufferSize = 0;
+		}
+	}
+
 	@Override
 	public void close() {
 		if (postingInput != null) {
-			try {
-				postingInput.close();
-			} catch (IOException e) {
-				// ignore
+			if (!sharedInput) {
+				try {
+					postingInput.close();
+				} catch (IOException e) {
+					// ignore
+
+				}
+			}
+			docBuffer = null;
+			tfBuffer = null;
+			positionOffset = null;
+			positionBuffer = null;
+		}
+	}
+
+	/*
+	 * 버퍼의 현재 문서를 가리키는 재사용 PostingDoc.
+	 * */
+	private class PostingCursor extends PostingDoc {
+		private int index;
+
+		private PostingDoc moveTo(int index) {
+			this.index = index;
+			this.docNo = docBuffer[index];
+			this.tf = tfBuffer[index];
+			this.positions = null;
+			return this;
+		}
+
+		@Override
+		public boolean hasPositions() {
+			return isStorePosition && tf > 0;
+		}
 
+		@Override
+		public int[] positions() {
+			if (positions == null && hasPositions()) {
+				positions = new int[tfBuffer[index]];
+				System.arraycopy(positionBuffer, positionOffset[index], positions, 0, positions.length);
 			}
-			buffer = null;
+			return positions;
 		}
 	}
 }
@@ -13,12 +13,14 @@ import org.fastcatsearch.ir.config.CollectionContext;
 import org.fastcatsearch.ir.config.DataInfo;
 import org.fastcatsearch.ir.config.DataInfo.SegmentInfo;
 import org.fastcatsearch.ir.document.PrimaryKeyIndexBulkReader;
+import org.fastcatsearch.ir.document.PrimaryKeyBloomFilter;
 import org.fastcatsearch.ir.document.PrimaryKeyIndexReader;
 import org.fastcatsearch.ir.index.DeleteIdSet;
 import org.fastcatsearch.ir.index.PrimaryKeys;
 import org.fastcatsearch.ir.index.SegmentIdGenerator;
 import org.fastcatsearch.ir.io.BitSet;
 import org.fastcatsearch.ir.io.BufferedFileInput;
+import org.fastcatsearch.ir.io.IndexInputFactory;
 import org.fastcatsearch.ir.io.BufferedFileOutput;
 import org.fastcatsearch.ir.io.BytesBuffer;
 import org.fastcatsearch.ir.settings.AnalyzerSetting;
@@ -36,6 +38,11 @@ import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.DelayQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class CollectionHandler {
@@ -64,6 +71,12 @@ public class CollectionHandler {
     private Map<String, List<String>> deletionForMergingMap;
     private Map<String, AtomicInteger> deletionIdRefCounter;
 
+    //동적색인 추가문서를 바로 검색하기 위한 임시 세그먼트. 먼저 만든 순서이며 컬렉션 정보에는 포함되지 않고 머징대상도 아니다.
+    private volatile List<SegmentReader> nrtSegmentReaderList = Collections.emptyList();
+
+    //세그먼트 병렬검색용 쓰레드풀. 병렬도가 1이하이면 null이다.
+    private ExecutorService segmentSearchExecutor;
+
     public CollectionHandler(CollectionContext collectionContext, AnalyzerFactoryManager analyzerFactoryManager) throws IRException, SettingException {
 		this.collectionContext = collectionContext;
 		this.collectionId = collectionContext.collectionId();
@@ -84,6 +97,7 @@ public class CollectionHandler {
 
 	public CollectionHandler load() throws IRException {
 		loadSearcherAndReader();
+		loadSegmentSearchExecutor();
 		this.collectionSearcher = new CollectionSearcher(this);
 		startedTime = System.currentTimeMillis();
 		isLoaded = true;
@@ -117,6 +131,13 @@ public class CollectionHandler {
 		return collectionContext;
 	}
 
+	/*
+	 * index-config 의 mmap-file-types 에 따라 세그먼트 파일을 열 방식을 정한다.
+	 * */
+	private IndexInputFactory indexInputFactory() {
+		return IndexInputFactory.create(collectionContext.indexConfig());
+	}
+
 	public CollectionSearcher searcher() {
 		return collectionSearcher.clone();
 	}
@@ -125,6 +146,37 @@ public class CollectionHandler {
 		return isLoaded;
 	}
 
+	/*
+	 * 세그먼트 병렬검색이 설정되어 있지 않으면 null을 리턴한다.
+	 * */
+	public ExecutorService segmentSearchExecutor() {
+		return segmentSearchExecutor;
+	}
+
+	private void loadSegmentSearchExecutor() {
+		int parallelism = 1;
+		if (collectionContext.collectionConfig() != null) {
+			parallelism = collectionContext.collectionConfig().getSegmentSearchParallelism();
+		}
+		if (parallelism <= 1) {
+			return;
+		}
+		final String namePrefix = "segment-search-" + collectionId + "-";
+		//쓰레드수가 고정되어 있으므로, 세그먼트 리더의 쓰레드별 clone 갯수도 제한된다.
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(parallelism, parallelism, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+			private final AtomicInteger threadNumber = new AtomicInteger(1);
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, namePrefix + threadNumber.getAndIncrement());
+				t.setDaemon(true);
+				return t;
+			}
+		});
+		executor.allowCoreThreadTimeOut(true);
+		segmentSearchExecutor = executor;
+		logger.info("[{}] Segment search parallelism = {}", collectionId, parallelism);
+	}
+
 	private void loadSearcherAndReader() throws IRException {
 
 		analyzerPoolManager = new AnalyzerPoolManager();
@@ -153,7 +205,7 @@ public class CollectionHandler {
             for (SegmentInfo segmentInfo : collectionContext.dataInfo().getSegmentInfoList()) {
                 File segmentDir = dataPaths.segmentFile(dataSequence, segmentInfo.getId());
                 if(segmentDir.exists()) {
-                    segmentReaderMap.put(segmentInfo.getId(), new SegmentReader(segmentInfo, schema, segmentDir, analyzerPoolManager));
+                    segmentReaderMap.put(segmentInfo.getId(), new SegmentReader(segmentInfo, schema, segmentDir, analyzerPoolManager, indexInputFactory()));
                 } else {
                     logger.error("[{}] Cannot find segment dir = {}", collectionId, segmentDir.getName());
                 }
@@ -191,6 +243,11 @@ public class CollectionHandler {
 
 	public void close() throws IOException {
 		logger.info("Close Collection handler {}", collectionId);
+		if (segmentSearchExecutor != null) {
+			segmentSearchExecutor.shutdownNow();
+			segmentSearchExecutor = null;
+		}
+
 		if (segmentReaderMap != null) {
 			for (SegmentReader segmentReader : segmentReaderMap.values()) {
 				segmentReader.close();
@@ -205,6 +262,11 @@ public class CollectionHandler {
             tmpSegmentReaderMap.clear();
         }
 
+        for (SegmentReader nrtReader : nrtSegmentReaderList) {
+            nrtReader.closeAndDelete();
+        }
+        nrtSegmentReaderList = Collections.emptyList();
+
 		collectionSearcher = null;
 		isLoaded = false;
 	}
@@ -226,7 +288,15 @@ public class CollectionHandler {
 	}
 
 	public SegmentReader segmentReader(String segmentId) {
-		return segmentReaderMap.get(segmentId);
+		SegmentReader segmentReader = segmentReaderMap.get(segmentId);
+		if (segmentReader == null) {
+			for (SegmentReader nrtReader : nrtSegmentReaderList) {
+				if (nrtReader.segmentId().equals(segmentId)) {
+					return nrtReader;
+				}
+			}
+		}
+		return segmentReader;
 	}
 
     //머징되서 삭제된 세그먼트를 잠시동안 유지한다.
@@ -242,6 +312,120 @@ public class CollectionHandler {
         return segmentReaderMap.values();
     }
 
+    /**
+     * 검색대상 세그먼트. 컬렉션 세그먼트에 NRT 세그먼트가 있으면 함께 포함한다.
+     */
+    public Collection<SegmentReader> searchableSegmentReaders() {
+        List<SegmentReader> nrtReaderList = nrtSegmentReaderList;
+        if (nrtReaderList.isEmpty()) {
+            return segmentReaderMap.values();
+        }
+        List<SegmentReader> list = new ArrayList<SegmentReader>(segmentReaderMap.values());
+        list.addAll(nrtReaderList);
+        return list;
+    }
+
+    public List<SegmentReader> nrtSegmentReaders() {
+        return nrtSegmentReaderList;
+    }
+
+    /**
+     * NRT 세그먼트 목록을 교체한다. 새로 들어온 세그먼트의 PK 와 같은 이전 문서는 컬렉션 세그먼트와 앞쪽 NRT 세그먼트에서 숨긴다.
+     * 목록에서 빠진 세그먼트는 검색중일수 있으므로 tmp 맵에 넣어두었다가 지연삭제한다.
+     * 빈 목록이면 NRT 세그먼트를 모두 제거하고 숨긴 문서를 되돌린다. 문서가 일반 세그먼트로 적용된 뒤에 호출한다.
+     */
+    public synchronized void setNrtSegmentReaders(List<SegmentReader> readerList) throws IOException {
+        List<SegmentReader> prevList = nrtSegmentReaderList;
+        List<SegmentReader> newList = Collections.unmodifiableList(new ArrayList<SegmentReader>(readerList));
+        if (newList.isEmpty()) {
+            //일반 세그먼트의 delete.set 에 이미 반영되었으므로 먼저 되돌려도 문서가 중복되지 않는다.
+            for (SegmentReader segmentReader : segmentReaderMap.values()) {
+                if (segmentReader.nrtHiddenSet() != null) {
+                    segmentReader.setNrtHiddenSet(null);
+                }
+            }
+            nrtSegmentReaderList = newList;
+        } else {
+            //이전 문서를 먼저 숨기고 목록을 바꿔야 검색에 같은 PK 문서가 두번 나오지 않는다.
+            for (int i = 0; i < newList.size(); i++) {
+                SegmentReader nrtReader = newList.get(i);
+                if (prevList.contains(nrtReader)) {
+                    continue;
+                }
+                List<SegmentReader> targetList = new ArrayList<SegmentReader>(segmentReaderMap.values());
+                targetList.addAll(newList.subList(0, i));
+                hideNrtDocuments(nrtReader, targetList);
+                //뒤쪽의 기존 세그먼트에 있는 문서는 새 세그먼트에서 숨긴다.
+                for (int j = i + 1; j < newList.size(); j++) {
+                    if (prevList.contains(newList.get(j))) {
+                        hideNrtDocuments(newList.get(j), Collections.singletonList(nrtReader));
+                    }
+                }
+            }
+            nrtSegmentReaderList = newList;
+        }
+
+        for (SegmentReader prevReader : prevList) {
+            if (newList.contains(prevReader)) {
+                continue;
+            }
+            String prevSegmentId = prevReader.segmentId();
+            if (segmentDelayedCloseQueue != null) {
+                tmpSegmentReaderMap.put(prevSegmentId, prevReader);
+                segmentDelayedCloseQueue.put(new SegmentDelayedClose(collectionId, prevSegmentId, tmpSegmentReaderMap, true));
+            } else {
+                try {
+                    prevReader.closeAndDelete();
+                } catch (IOException e) {
+                    logger.error("[" + collectionId + "] error while close nrt segment " + prevSegmentId, e);
+                }
+            }
+        }
+    }
+
+    /*
+     * nrtReader 의 PK 와 같은 문서를 targetList 세그먼트의 검색에서 숨긴다.
+     */
+    private void hideNrtDocuments(SegmentReader nrtReader, List<SegmentReader> targetList) throws IOException {
+        File pkFile = new File(nrtReader.segmentDir(), IndexFileNames.primaryKeyMap);
+        if (targetList.isEmpty() || !pkFile.exists()) {
+            return;
+        }
+        PrimaryKeyIndexesReader[] pkReaderList = new PrimaryKeyIndexesReader[targetList.size()];
+        BitSet[] hiddenSetList = new BitSet[targetList.size()];
+        for (int i = 0; i < targetList.size(); i++) {
+            pkReaderList[i] = targetList.get(i).newSearchIndexesReader().getPrimaryKeyIndexesReader();
+        }
+        PrimaryKeyIndexBulkReader pkBulkReader = new PrimaryKeyIndexBulkReader(pkFile);
+        try {
+            BytesBuffer buf = new BytesBuffer(1024);
+            while (pkBulkReader.next(buf) != -1) {
+                for (int i = 0; i < pkReaderList.length; i++) {
+                    if (pkReaderList[i] == null) {
+                        continue;
+                    }
+                    int localDocNo = pkReaderList[i].get(buf.array(), buf.offset, buf.length());
+                    if (localDocNo != -1 && !targetList.get(i).deleteSet().isSet(localDocNo)) {
+                        if (hiddenSetList[i] == null) {
+                            hiddenSetList[i] = new BitSet();
+                        }
+                        hiddenSetList[i].set(localDocNo);
+                    }
+                }
+                buf.clear();
+            }
+        } finally {
+            pkBulkReader.close();
+        }
+        for (int i = 0; i < hiddenSetList.length; i++) {
+            if (hiddenSetList[i] != null) {
+                SegmentReader target = targetList.get(i);
+                BitSet prevHiddenSet = target.nrtHiddenSet();
+                target.setNrtHiddenSet(prevHiddenSet != null ? prevHiddenSet.union(hiddenSetList[i]) : hiddenSetList[i]);
+            }
+        }
+    }
+
     public SegmentSearcher getFirstSegmentSearcher() {
         String segmentId = segmentReaderMap.keySet().iterator().next();
         return segmentReaderMap.get(segmentId).segmentSearcher();
@@ -304,12 +488,15 @@ public class CollectionHandler {
             segmentLogger.info("[{}] NewSegment start[{}] id[{}] doc[{}] del[{}] delReq[{}]", collectionId, segmentInfo.getStartTime(), tempSegmentId, segmentInfo.getDocumentCount(), segmentInfo.getDeleteCount(), deleteIdSet.size());
             List<PrimaryKeyIndexReader> pkReaderList = new ArrayList<PrimaryKeyIndexReader>();
             List<BitSet> deleteSetList = new ArrayList<BitSet>();
+            //세그먼트에 없는 pk는 pk맵을 찾지 않도록 bloom filter 로 먼저 걸러낸다. 파일이 없는 세그먼트는 null.
+            List<PrimaryKeyBloomFilter> bloomFilterList = new ArrayList<PrimaryKeyBloomFilter>();
 
             int segmentSize = segmentReaderMap.size();
             for (SegmentReader segmentReader : segmentReaderMap.values()) {
                 File dir = segmentReader.segmentDir();
                 pkReaderList.add(new PrimaryKeyIndexReader(dir, IndexFileNames.primaryKeyMap));
                 deleteSetList.add(new BitSet(dir, IndexFileNames.docDeleteSet));
+                bloomFilterList.add(segmentReader.primaryKeyBloomFilter());
             }
 
             //세그먼트간의 삭제처리.
@@ -319,13 +506,13 @@ public class CollectionHandler {
                 * */
                 if (liveDocumentSize > 0) {
                     File pkFile = new File(segmentDir, IndexFileNames.primaryKeyMap);
-                    applyPrimaryKeyToSegments(pkFile, pkReaderList, deleteSetList);
+                    applyPrimaryKeyToSegments(pkFile, pkReaderList, bloomFilterList, deleteSetList);
                 }
                 /*
                 * 2. deleteIdSet 적용
                 * */
                 if(deleteIdSet.size() > 0) {
-                    applyDeleteIdSetToSegments(deleteIdSet, pkReaderList, deleteSetList);
+                    applyDeleteIdSetToSegments(deleteIdSet, pkReaderList, bloomFilterList, deleteSetList);
                 }
             }
 
@@ -408,7 +595,7 @@ public class CollectionHandler {
                 segmentInfo.setId(segmentId);
 
                 //신규 세그먼트 추가.
-                SegmentReader segmentReader = new SegmentReader(segmentInfo, schema, newSegmentDir, analyzerPoolManager);
+                SegmentReader segmentReader = new SegmentReader(segmentInfo, schema, newSegmentDir, analyzerPoolManager, indexInputFactory());
                 segmentReaderMap.put(segmentId, segmentReader);
                 collectionContext.addSegmentInfo(segmentInfo);
                 long createTime = System.currentTimeMillis();
@@ -454,7 +641,8 @@ public class CollectionHandler {
     /*
     * 동적색인 pk update
     * */
-    private int applyPrimaryKeyToSegments(File pkFile, List<PrimaryKeyIndexReader> prevPkReaderList, List<BitSet> prevDeleteSetList) throws IOException {
+    private int applyPrimaryKeyToSegments(File pkFile, List<PrimaryKeyIndexReader> prevPkReaderList, List<PrimaryKeyBloomFilter> prevBloomFilterList,
+                                          List<BitSet> prevDeleteSetList) throws IOException {
 
         // 이전 모든 세그먼트를 통틀어 업데이트되고 삭제된 문서수.
         int updateDocumentSize = 0; // 이번 pk와 이전 pk가 동일할 경우
@@ -470,6 +658,11 @@ public class CollectionHandler {
                 // backward matching
                 int i = 0;
                 for (PrimaryKeyIndexReader pkReader : prevPkReaderList) {
+                    PrimaryKeyBloomFilter bloomFilter = prevBloomFilterList.get(i);
+                    if (bloomFilter != null && !bloomFilter.mightContain(buf)) {
+                        i++;
+                        continue;
+                    }
                     int localDocNo = pkReader.get(buf);
                     if (localDocNo != -1) {
                         BitSet deleteSet = prevDeleteSetList.get(i);
@@ -500,7 +693,7 @@ public class CollectionHandler {
     * 동적색인 delete 적용.
     * */
     private int applyDeleteIdSetToSegments(DeleteIdSet deleteIdSet, List<PrimaryKeyIndexReader> prevPkReaderList,
-                                           List<BitSet> prevDeleteSetList) throws IOException {
+                                           List<PrimaryKeyBloomFilter> prevBloomFilterList, List<BitSet> prevDeleteSetList) throws IOException {
 
         int deleteDocumentSize = 0;
 
@@ -522,6 +715,11 @@ public class CollectionHandler {
             //기존 색인 세그먼트들에서 찾아서 지운다.
             int i = 0;
             for (PrimaryKeyIndexReader pkReader : prevPkReaderList) {
+                PrimaryKeyBloomFilter bloomFilter = prevBloomFilterList.get(i);
+                if (bloomFilter != null && !bloomFilter.mightContain(buf)) {
+                    i++;
+                    continue;
+                }
                 int localDocNo = pkReader.get(buf);
                 if (localDocNo != -1) {
                     BitSet deleteSet = prevDeleteSetList.get(i);
@@ -590,6 +788,7 @@ public class CollectionHandler {
          */
 
         PrimaryKeyIndexReader pkReader = new PrimaryKeyIndexReader(segmentDir, IndexFileNames.primaryKeyMap);
+        PrimaryKeyBloomFilter bloomFilter = PrimaryKeyBloomFilter.load(segmentDir);
         BitSet deleteSet = new BitSet();
 
         // createdSegmentIdList 의 아이디를 가지고, 삭제를 확인한다. id.pk.lst 파일에 업데이트된 pk가 모두 들어있다.
@@ -605,6 +804,10 @@ public class CollectionHandler {
                     int limit = input.readVInt();
                     buf.limit(limit);
                     input.read(buf.array(), 0, limit);
+                    if (bloomFilter != null && !bloomFilter.mightContain(buf)) {
+                        buf.clear();
+                        continue;
+                    }
                     int localDocNo = pkReader.get(buf);
                     if (localDocNo != -1) {
                         if (!deleteSet.isSet(localDocNo)) {
@@ -648,8 +851,12 @@ public class CollectionHandler {
         deleteSet.save();
 
         segmentInfo.setId(segmentId);
-        SegmentReader segmentReader = new SegmentReader(segmentInfo, schema, newSegmentDir, analyzerPoolManager);
+        SegmentReader segmentReader = new SegmentReader(segmentInfo, schema, newSegmentDir, analyzerPoolManager, indexInputFactory());
         segmentReader.syncDeleteCountToInfo();
+        //머징된 세그먼트에도 NRT 세그먼트에 새 문서가 있는 이전 문서를 숨긴다.
+        for (SegmentReader nrtReader : nrtSegmentReaderList) {
+            hideNrtDocuments(nrtReader, Collections.singletonList(segmentReader));
+        }
         segmentReaderMap.put(segmentId, segmentReader);
 
         collectionContext.addSegmentInfo(segmentInfo);
@@ -795,6 +1002,13 @@ public class CollectionHandler {
 		return segmentReaderMap.size();
 	}
 
+	/**
+	 * NRT 세그먼트를 포함한 검색대상 세그먼트 갯수.
+	 */
+	public int searchableSegmentSize() {
+		return segmentReaderMap.size() + nrtSegmentReaderList.size();
+	}
+
 	public AnalyzerPool getAnalyzerPool(String analyzerId) {
 		return analyzerPoolManager.getPool(analyzerId);
 	}
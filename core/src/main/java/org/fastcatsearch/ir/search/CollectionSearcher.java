@@ -30,6 +30,10 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 public class CollectionSearcher implements Cloneable {
 	private static Logger logger = LoggerFactory.getLogger(CollectionSearcher.class);
@@ -42,7 +46,7 @@ public class CollectionSearcher implements Cloneable {
     private int bundleMemMaxCountLimit = 10 * 10000;
     private int bundleHashBucketSize = 100 * 10000;
 
-    private boolean isAborted;
+    private volatile boolean isAborted;
 
 	public CollectionSearcher(CollectionHandler collectionHandler) {
 		this.collectionId = collectionHandler.collectionId();
@@ -115,7 +119,8 @@ public class CollectionSearcher implements Cloneable {
     }
 	public GroupsData doGrouping(Query q) throws Exception {
 		
-		int segmentSize = collectionHandler.segmentSize();
+		Collection<SegmentReader> searchableSegmentReaders = collectionHandler.searchableSegmentReaders();
+		int segmentSize = searchableSegmentReaders.size();
 		if (segmentSize == 0) {
 			throw new SearchError(CoreErrorCode.COLLECTION_NOT_INDEXED, collectionId);
 		}
@@ -128,7 +133,7 @@ public class CollectionSearcher implements Cloneable {
 
 		if (segmentSize == 1) {
 			// 머징필요없음.
-            GroupHit groupHit = collectionHandler.getFirstSegmentSearcher().searchGroupHit(q);
+            GroupHit groupHit = searchableSegmentReaders.iterator().next().segmentSearcher().searchGroupHit(q);
             return groupHit.groupData();
 		} else {
 
@@ -137,7 +142,7 @@ public class CollectionSearcher implements Cloneable {
 				dataMerger = new GroupDataMerger(groups, segmentSize);
 			}
 
-            for(SegmentReader r : collectionHandler.segmentReaders()) {
+            for(SegmentReader r : searchableSegmentReaders) {
                 GroupHit groupHit = r.segmentSearcher().searchGroupHit(q);
                 if (dataMerger != null) {
                     dataMerger.put(groupHit.groupData());
@@ -173,7 +178,7 @@ public class CollectionSearcher implements Cloneable {
 	}
 	
 	public InternalSearchResult searchInternal(Query q, boolean forMerging, PkScoreList boostList) throws IRException, IOException, SettingException {
-		int segmentSize = collectionHandler.segmentSize();
+		int segmentSize = collectionHandler.searchableSegmentSize();
 		if (segmentSize == 0) {
 			throw new SearchError(CoreErrorCode.COLLECTION_NOT_INDEXED, collectionId);
 		}
@@ -181,8 +186,9 @@ public class CollectionSearcher implements Cloneable {
 		/*
 		 * 중요!! 레퍼런스를 복사하여 세그먼트가 검색도중 동적으로 삭제되어도 문제없도록 한다.
 		 * 2016-2-2 swsong
+		 * NRT 세그먼트도 함께 검색한다.
 		 */
-		TreeSet<SegmentReader> segmentReaders = new TreeSet<SegmentReader>(collectionHandler.segmentReaders());
+		TreeSet<SegmentReader> segmentReaders = new TreeSet<SegmentReader>(collectionHandler.searchableSegmentReaders());
 		segmentSize = segmentReaders.size();
 
 //		logger.debug("searchInternal incrementCount > {} ", q);
@@ -232,60 +238,56 @@ public class CollectionSearcher implements Cloneable {
 
 		try {
             segmentDocHitSetList = new BitSet[segmentSize];
-            Iterator<SegmentReader> iterator = segmentReaders.iterator();
-
-			for(int i = 0; iterator.hasNext(); i++) {
-
-                checkAborted();
+            SegmentHitResult[] segmentHitResultList = null;
+            ExecutorService executor = collectionHandler.segmentSearchExecutor();
+            if (executor != null && segmentSize > 1) {
+                segmentHitResultList = searchSegmentsParallel(executor, segmentReaders, q, boostList, schema, sortMaxSize, bundleKeySet, segmentDocHitSetList);
+            } else {
+                segmentHitResultList = new SegmentHitResult[segmentSize];
+                Iterator<SegmentReader> iterator = segmentReaders.iterator();
+                for(int i = 0; iterator.hasNext(); i++) {
+                    checkAborted();
+                    segmentDocHitSetList[i] = new BitSet();
+                    // 순차검색은 전체 ranker에 바로 넣는다.
+                    segmentHitResultList[i] = searchSegment(iterator.next(), q, boostList, ranker, bundleKeySet, segmentDocHitSetList[i]);
+                }
+            }
 
-				// segment 의 모든 결과를 보아야 중복체크가 가능하므로 reader를 받아오도록 한다.
-				HitReader hitReader = iterator.next().segmentSearcher().searchHitReader(q, boostList);
+			for (int i = 0; i < segmentSize; i++) {
+				SegmentHitResult segmentHitResult = segmentHitResultList[i];
 				//
 				//
 				//FIXME highlightInfo 계속 덮어쓰나?
 				//
 				if (highlightInfo == null) {
-					highlightInfo = hitReader.highlightInfo();
+					highlightInfo = segmentHitResult.highlightInfo;
 				}
 
-				segmentDocHitSetList[i] = new BitSet();
-				// posting data
-				HitElement e = null;
-				while ((e = hitReader.next()) != null) {
+				totalSize += segmentHitResult.totalSize;
 
-                    checkAborted();
-
-					if (e.getBundleKey() != null) {
-                        if(keySize == 0) {
-                            keySize = e.getBundleKey().length();
-                            bundleKeySet.setKeySize(keySize);
-                        }
-						segmentDocHitSetList[i].set(e.docNo());
-						if(bundleKeySet.add(e.getBundleKey())) {
-							totalSize++;
-						}
-					} else {
-						totalSize++;
+				if (segmentHitResult.ranker != null) {
+					//세그먼트별 상위 결과를 전체 ranker로 모은다.
+					HitElement e = null;
+					while ((e = segmentHitResult.ranker.pop()) != null) {
+						ranker.push(e);
 					}
-					ranker.push(e);
-//					logger.debug("heap insert hit > {}", e.docNo());
 				}
-				
+
 				// Put GroupResult
 				if (dataMerger != null) {
-					dataMerger.put(hitReader.makeGroupData());
+					dataMerger.put(segmentHitResult.groupData);
 				}
-				
-				if(hitReader.explanation() != null){
+
+				if(segmentHitResult.explanation != null){
 					if(explanationList == null){
 						explanationList = new ArrayList<Explanation>();
 					}
-					hitReader.explanation().setSegmentId(i);
-					hitReader.explanation().setCollectionId(collectionId);
-					explanationList.add(hitReader.explanation());
+					segmentHitResult.explanation.setSegmentId(i);
+					segmentHitResult.explanation.setCollectionId(collectionId);
+					explanationList.add(segmentHitResult.explanation);
 				}
 			}
-			
+
         } catch (FilterException e) {
             throw new IRException(e);
 		} catch (ClauseException e) {
@@ -346,6 +348,135 @@ public class CollectionSearcher implements Cloneable {
 		return new InternalSearchResult(collectionId, hitElementList, realSize, totalSize, groupData, highlightInfo, explanationList);
 	}
 	
+	/*
+	 * 하나의 세그먼트를 검색하여 결과를 ranker에 넣는다.
+	 * 병렬검색시에는 세그먼트별 ranker를 따로 사용하며, bundleKeySet만 세그먼트간에 공유된다.
+	 * */
+	private SegmentHitResult searchSegment(SegmentReader segmentReader, Query q, PkScoreList boostList, FixedMaxPriorityQueue<HitElement> ranker
+			, HybridHashSet bundleKeySet, BitSet segmentDocHitSet) throws ClauseException, IOException, IRException, FilterException {
+		// segment 의 모든 결과를 보아야 중복체크가 가능하므로 reader를 받아오도록 한다.
+		HitReader hitReader = segmentReader.segmentSearcher().searchHitReader(q, boostList);
+		SegmentHitResult result = new SegmentHitResult();
+		if (hitReader.isTopHitCollectable()) {
+			//묶음이 없으므로 전체갯수는 히트갯수와 같다. 상위 결과만 HitElement 로 만들어 ranker에 넣는다.
+			while (hitReader.collect()) {
+				checkAborted();
+			}
+			HitElement[] topHits = hitReader.topHitElements();
+			for (int i = 0; i < topHits.length; i++) {
+				ranker.push(topHits[i]);
+			}
+			result.totalSize = hitReader.totalCount();
+			result.groupData = hitReader.makeGroupData();
+			result.highlightInfo = hitReader.highlightInfo();
+			result.explanation = hitReader.explanation();
+			return result;
+		}
+		// posting data
+		HitElement e = null;
+		while ((e = hitReader.next()) != null) {
+
+			checkAborted();
+
+			if (e.getBundleKey() != null) {
+				segmentDocHitSet.set(e.docNo());
+				synchronized (bundleKeySet) {
+					if (bundleKeySet.getKeySize() == 0) {
+						bundleKeySet.setKeySize(e.getBundleKey().length());
+					}
+					if (bundleKeySet.add(e.getBundleKey())) {
+						result.totalSize++;
+					}
+				}
+			} else {
+				result.totalSize++;
+			}
+			ranker.push(e);
+//			logger.debug("heap insert hit > {}", e.docNo());
+		}
+		result.groupData = hitReader.makeGroupData();
+		result.highlightInfo = hitReader.highlightInfo();
+		result.explanation = hitReader.explanation();
+		return result;
+	}
+
+	/*
+	 * 세그먼트들을 쓰레드풀에서 동시에 검색한다.
+	 * 각 세그먼트는 sortMaxSize 만큼의 상위결과만 유지하므로, 모은 뒤 전체 ranker에서 다시 정렬하면 순차검색과 같은 결과가 된다.
+	 * */
+	private SegmentHitResult[] searchSegmentsParallel(ExecutorService executor, TreeSet<SegmentReader> segmentReaders, final Query q, final PkScoreList boostList
+			, final Schema schema, final int sortMaxSize, final HybridHashSet bundleKeySet, BitSet[] segmentDocHitSetList) throws ClauseException, IOException, IRException, FilterException {
+		int segmentSize = segmentReaders.size();
+		List<Future<SegmentHitResult>> futureList = new ArrayList<Future<SegmentHitResult>>(segmentSize);
+		SegmentHitResult[] segmentHitResultList = new SegmentHitResult[segmentSize];
+		try {
+			Iterator<SegmentReader> iterator = segmentReaders.iterator();
+			for (int i = 0; iterator.hasNext(); i++) {
+				final SegmentReader segmentReader = iterator.next();
+				final BitSet segmentDocHitSet = new BitSet();
+				segmentDocHitSetList[i] = segmentDocHitSet;
+				futureList.add(executor.submit(new Callable<SegmentHitResult>() {
+					@Override
+					public SegmentHitResult call() throws Exception {
+						checkAborted();
+						FixedMaxPriorityQueue<HitElement> segmentRanker = null;
+						Sorts sorts = q.getSorts();
+						if (sorts == null) {
+							segmentRanker = new DefaultRanker(sortMaxSize);
+						} else {
+							segmentRanker = sorts.createRanker(schema, sortMaxSize);
+						}
+						SegmentHitResult result = searchSegment(segmentReader, q, boostList, segmentRanker, bundleKeySet, segmentDocHitSet);
+						result.ranker = segmentRanker;
+						return result;
+					}
+				}));
+			}
+
+			for (int i = 0; i < segmentSize; i++) {
+				try {
+					segmentHitResultList[i] = futureList.get(i).get();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new SearchAbortError("Interrupted while segment search.");
+				} catch (ExecutionException e) {
+					Throwable cause = e.getCause();
+					if (cause instanceof RuntimeException) {
+						//SearchAbortError, SearchError 포함.
+						throw (RuntimeException) cause;
+					} else if (cause instanceof Error) {
+						throw (Error) cause;
+					} else if (cause instanceof ClauseException) {
+						throw (ClauseException) cause;
+					} else if (cause instanceof FilterException) {
+						throw (FilterException) cause;
+					} else if (cause instanceof IRException) {
+						throw (IRException) cause;
+					} else if (cause instanceof IOException) {
+						throw (IOException) cause;
+					}
+					throw new IRException(cause);
+				}
+			}
+		} finally {
+			//에러나 중단시 남은 세그먼트 검색은 취소한다.
+			for (Future<SegmentHitResult> future : futureList) {
+				if (!future.isDone()) {
+					future.cancel(true);
+				}
+			}
+		}
+		return segmentHitResultList;
+	}
+
+	private static class SegmentHitResult {
+		private FixedMaxPriorityQueue<HitElement> ranker;
+		private GroupsData groupData;
+		private HighlightInfo highlightInfo;
+		private Explanation explanation;
+		private int totalSize;
+	}
+
 	/*
 	 * 번들 문서를 찾아온다.
 	 * */
@@ -23,6 +23,7 @@ import java.util.Map;
 import org.fastcatsearch.ir.common.IRException;
 import org.fastcatsearch.ir.common.IndexFileNames;
 import org.fastcatsearch.ir.io.DataRef;
+import org.fastcatsearch.ir.io.IndexInputFactory;
 import org.fastcatsearch.ir.io.StreamInputRef;
 import org.fastcatsearch.ir.settings.FieldIndexSetting;
 import org.fastcatsearch.ir.settings.FieldSetting;
@@ -31,10 +32,17 @@ import org.fastcatsearch.ir.settings.FieldSetting;
 
 public class FieldIndexReader extends ReferenceableIndexReader {
 	
+	//숫자형 싱글밸류 필드의 doc values. 없으면 null. clone 간에 공유한다.
+	private NumericDocValues numericDocValues;
+	
 	public FieldIndexReader() { }
 	
 	
 	public FieldIndexReader(FieldIndexSetting fieldIndexSetting, Map<String, FieldSetting> fieldSettingMap, File dir) throws IOException, IRException{
+		this(fieldIndexSetting, fieldSettingMap, dir, IndexInputFactory.DEFAULT);
+	}
+	
+	public FieldIndexReader(FieldIndexSetting fieldIndexSetting, Map<String, FieldSetting> fieldSettingMap, File dir, IndexInputFactory indexInputFactory) throws IOException, IRException{
 		String id = fieldIndexSetting.getId();
 		String refId = fieldIndexSetting.getRef();
 		FieldSetting refFieldSetting = fieldSettingMap.get(refId);
@@ -48,8 +56,15 @@ public class FieldIndexReader extends ReferenceableIndexReader {
 			throw new IRException("필드색인은 고정길이필드이거나 field index size를 정해야 합니다.");
 		}
 			
-		init(id, refFieldSetting, dataFile, multiValueFile, dataSize);
+		init(id, refFieldSetting, dataFile, multiValueFile, dataSize, indexInputFactory);
 		
+		if(NumericDocValues.valueType(refFieldSetting) > 0){
+			numericDocValues = NumericDocValues.load(dir, id);
+		}
+	}
+	
+	public NumericDocValues numericDocValues(){
+		return numericDocValues;
 	}
 	
 
@@ -66,6 +81,7 @@ public class FieldIndexReader extends ReferenceableIndexReader {
 		}
 		reader.dataSize = dataSize;
 		reader.isMultiValue = isMultiValue;
+		reader.numericDocValues = numericDocValues;
 		return reader;
 	}
 	
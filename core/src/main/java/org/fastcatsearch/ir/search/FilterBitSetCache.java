@@ -0,0 +1,163 @@
+package org.fastcatsearch.ir.search;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.fastcatsearch.ir.common.IRException;
+import org.fastcatsearch.ir.filter.FilterException;
+import org.fastcatsearch.ir.io.BitSet;
+import org.fastcatsearch.ir.query.Filter;
+import org.fastcatsearch.ir.query.Filters;
+import org.fastcatsearch.ir.query.HitFilter;
+import org.fastcatsearch.ir.settings.Schema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 세그먼트별 필터결과 비트셋 캐시.
+ * 같은 필터(Filter.cacheKey)가 반복되면 필드색인을 다시 읽지 않고 비트셋을 검색절과 AND 하여 사용한다. (BitSetOperatedClause)
+ * 처음 보는 필터는 비트셋을 만들지 않고 기존처럼 검색결과에 대해 HitFilter 로 거르며, 같은 필터가 다시 오면 그때 비트셋을 만든다.
+ * 비트셋에는 삭제문서가 제외되어 있으므로, 세그먼트의 delete.set 이 바뀌면 invalidate() 로 모두 비운다.
+ *
+ * 비트셋은 노드 전체가 메모리 한도를 같이 쓰는 FilterBitSetCachePool 에 저장된다.
+ * */
+public class FilterBitSetCache {
+	private static Logger logger = LoggerFactory.getLogger(FilterBitSetCache.class);
+
+	private static final int BULK_SIZE = 100;
+	//비트셋을 만들기 위해 기억하는 최근 필터 갯수.
+	private static final int SEEN_KEY_SIZE = 1024;
+
+	private final FilterBitSetCachePool pool;
+	//한번 이상 요청된 필터.
+	private final LinkedHashMap<String, Boolean> seenKeys;
+	//invalidate 될때마다 증가한다. 만드는 도중 invalidate 된 비트셋은 넣지 않는다.
+	private int generation;
+
+	//pool 의 lock 안에서 변경된다.
+	private int size;
+	private long bytes;
+
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+
+	public FilterBitSetCache() {
+		this(FilterBitSetCachePool.getInstance());
+	}
+
+	public FilterBitSetCache(FilterBitSetCachePool pool) {
+		this.pool = pool;
+		seenKeys = new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+				return size() > SEEN_KEY_SIZE;
+			}
+		};
+	}
+
+	/**
+	 * 캐시되어 있거나 반복되어 새로 만든 필터의 비트셋들을 리턴한다.
+	 * 처음 요청된 필터는 비트셋을 만들지 않고 remainFilters 에 넣으므로 HitFilter 로 걸러야 한다.
+	 * */
+	public BitSet[] get(List<Filter> filterList, Schema schema, FieldIndexesReader fieldIndexesReader, BitSet deleteSet, int docCount, Filters remainFilters) throws IOException, IRException {
+		List<BitSet> bitSetList = new ArrayList<BitSet>(filterList.size());
+		for (int i = 0; i < filterList.size(); i++) {
+			Filter filter = filterList.get(i);
+			String key = filter.cacheKey();
+			BitSet bitSet = null;
+			boolean admitted;
+			int gen;
+			synchronized (this) {
+				bitSet = pool.get(this, key);
+				admitted = seenKeys.put(key, Boolean.TRUE) != null;
+				gen = generation;
+			}
+			if (bitSet != null) {
+				hitCount.incrementAndGet();
+				bitSetList.add(bitSet);
+				continue;
+			}
+			missCount.incrementAndGet();
+			if (!admitted) {
+				remainFilters.add(filter);
+				continue;
+			}
+			long st = System.nanoTime();
+			bitSet = build(filter, schema, fieldIndexesReader, deleteSet, docCount);
+			logger.debug("filter bitset built. filter[{}] docs[{}] {}ms", key, docCount, (System.nanoTime() - st) / 1000000);
+			put(key, bitSet, gen);
+			bitSetList.add(bitSet);
+		}
+		return bitSetList.toArray(new BitSet[bitSetList.size()]);
+	}
+
+	private BitSet build(Filter filter, Schema schema, FieldIndexesReader fieldIndexesReader, BitSet deleteSet, int docCount) throws IOException, IRException {
+		List<Filter> list = new ArrayList<Filter>(1);
+		list.add(filter);
+		HitFilter hitFilter = new HitFilter(list, schema, fieldIndexesReader, BULK_SIZE);
+		BitSet bitSet = new BitSet((docCount + 63) / 64);
+		try {
+			hitFilter.filtering(bitSet, deleteSet, docCount);
+		} catch (FilterException e) {
+			throw new IRException(e);
+		}
+		return bitSet;
+	}
+
+	private synchronized void put(String key, BitSet bitSet, int gen) {
+		if (gen != generation) {
+			return;
+		}
+		pool.put(this, key, bitSet);
+	}
+
+	/*
+	 * pool 에 비트셋이 들어가거나 빠질때 pool 의 lock 안에서 호출된다.
+	 * */
+	void added(long memorySize) {
+		size++;
+		bytes += memorySize;
+	}
+
+	void removed(long memorySize) {
+		size--;
+		bytes -= memorySize;
+	}
+
+	/**
+	 * delete.set 이 바뀌었거나 세그먼트가 닫힐때 호출한다.
+	 * */
+	public synchronized void invalidate() {
+		generation++;
+		pool.removeAll(this);
+	}
+
+	public int size() {
+		synchronized (pool) {
+			return size;
+		}
+	}
+
+	public long bytes() {
+		synchronized (pool) {
+			return bytes;
+		}
+	}
+
+	public long hitCount() {
+		return hitCount.get();
+	}
+
+	public long missCount() {
+		return missCount.get();
+	}
+
+	@Override
+	public String toString() {
+		return "[FilterBitSetCache] size[" + size() + "] bytes[" + bytes() + "] hit[" + hitCount() + "] miss[" + missCount() + "]";
+	}
+}
@@ -0,0 +1,156 @@
+package org.fastcatsearch.ir.search;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.fastcatsearch.ir.io.BitSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 노드의 모든 세그먼트가 같이 쓰는 필터 비트셋 LRU 저장소. (FilterBitSetCache)
+ * 비트셋 메모리 합이 maxBytes 를 넘으면 세그먼트에 상관없이 오래 사용하지 않은 것부터 제거한다.
+ * maxBytes 는 IRService 시작시 설정에서 읽어 setMaxBytes 로 지정한다.
+ * */
+public class FilterBitSetCachePool {
+	private static Logger logger = LoggerFactory.getLogger(FilterBitSetCachePool.class);
+
+	public static final long DEFAULT_MAX_BYTES = 256 * 1024 * 1024;
+
+	private static final FilterBitSetCachePool instance = new FilterBitSetCachePool(DEFAULT_MAX_BYTES);
+
+	private long maxBytes;
+	private final LinkedHashMap<EntryKey, BitSet> map;
+	private long bytes;
+
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+	private final AtomicLong evictionCount = new AtomicLong();
+
+	public static FilterBitSetCachePool getInstance() {
+		return instance;
+	}
+
+	public FilterBitSetCachePool(long maxBytes) {
+		this.maxBytes = maxBytes;
+		map = new LinkedHashMap<EntryKey, BitSet>(16, 0.75f, true);
+	}
+
+	public synchronized void setMaxBytes(long maxBytes) {
+		this.maxBytes = maxBytes;
+		logger.info("filter bitset cache max bytes = {}", maxBytes);
+		evict(null);
+	}
+
+	synchronized BitSet get(FilterBitSetCache owner, String key) {
+		BitSet bitSet = map.get(new EntryKey(owner, key));
+		if (bitSet != null) {
+			hitCount.incrementAndGet();
+		} else {
+			missCount.incrementAndGet();
+		}
+		return bitSet;
+	}
+
+	synchronized void put(FilterBitSetCache owner, String key, BitSet bitSet) {
+		long size = bitSet.memorySize();
+		if (size > maxBytes) {
+			return;
+		}
+		BitSet old = map.put(new EntryKey(owner, key), bitSet);
+		if (old != null) {
+			removed(owner, old);
+		}
+		bytes += size;
+		owner.added(size);
+		evict(bitSet);
+	}
+
+	/*
+	 * 세그먼트의 비트셋을 모두 제거한다. delete.set 이 바뀌거나 세그먼트가 닫힐때 호출된다.
+	 * */
+	synchronized void removeAll(FilterBitSetCache owner) {
+		Iterator<Map.Entry<EntryKey, BitSet>> iterator = map.entrySet().iterator();
+		while (iterator.hasNext()) {
+			Map.Entry<EntryKey, BitSet> entry = iterator.next();
+			if (entry.getKey().owner == owner) {
+				iterator.remove();
+				removed(owner, entry.getValue());
+			}
+		}
+	}
+
+	private void evict(BitSet keep) {
+		Iterator<Map.Entry<EntryKey, BitSet>> iterator = map.entrySet().iterator();
+		while (bytes > maxBytes && iterator.hasNext()) {
+			Map.Entry<EntryKey, BitSet> entry = iterator.next();
+			if (entry.getValue() == keep) {
+				continue;
+			}
+			iterator.remove();
+			removed(entry.getKey().owner, entry.getValue());
+			evictionCount.incrementAndGet();
+		}
+	}
+
+	private void removed(FilterBitSetCache owner, BitSet bitSet) {
+		long size = bitSet.memorySize();
+		bytes -= size;
+		owner.removed(size);
+	}
+
+	public synchronized int size() {
+		return map.size();
+	}
+
+	public synchronized long bytes() {
+		return bytes;
+	}
+
+	public synchronized long maxBytes() {
+		return maxBytes;
+	}
+
+	public long hitCount() {
+		return hitCount.get();
+	}
+
+	public long missCount() {
+		return missCount.get();
+	}
+
+	public long evictionCount() {
+		return evictionCount.get();
+	}
+
+	@Override
+	public String toString() {
+		return "[FilterBitSetCachePool] size[" + size() + "] bytes[" + bytes() + "/" + maxBytes() + "] hit[" + hitCount() + "] miss[" + missCount() + "] eviction[" + evictionCount() + "]";
+	}
+
+	private static class EntryKey {
+		private final FilterBitSetCache owner;
+		private final String key;
+
+		private EntryKey(FilterBitSetCache owner, String key) {
+			this.owner = owner;
+			this.key = key;
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(owner) * 31 + key.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof EntryKey)) {
+				return false;
+			}
+			EntryKey other = (EntryKey) obj;
+			return owner == other.owner && key.equals(other.key);
+		}
+	}
+}
@@ -27,6 +27,7 @@ import org.fastcatsearch.ir.document.PrimaryKeyIndexReader;
 import org.fastcatsearch.ir.io.DataRef;
 import org.fastcatsearch.ir.io.FixedDataInput;
 import org.fastcatsearch.ir.io.IOUtil;
+import org.fastcatsearch.ir.io.IndexInputFactory;
 import org.fastcatsearch.ir.io.SequencialDataInput;
 import org.fastcatsearch.ir.io.StreamInputRef;
 import org.fastcatsearch.ir.io.VariableDataInput;
@@ -49,6 +50,10 @@ public class GroupIndexReader extends ReferenceableIndexReader {
 	public GroupIndexReader() {}
 	
 	public GroupIndexReader(GroupIndexSetting groupIndexSetting, Map<String, FieldSetting> fieldSettingMap, File dir) throws IOException, IRException{
+		this(groupIndexSetting, fieldSettingMap, dir, IndexInputFactory.DEFAULT);
+	}
+	
+	public GroupIndexReader(GroupIndexSetting groupIndexSetting, Map<String, FieldSetting> fieldSettingMap, File dir, IndexInputFactory indexInputFactory) throws IOException, IRException{
 		String id = groupIndexSetting.getId();
 		String refId = groupIndexSetting.getRef();
 		FieldSetting refFieldSetting = fieldSettingMap.get(refId);
@@ -56,7 +61,7 @@ public class GroupIndexReader extends ReferenceableIndexReader {
 		File dataFile = new File(dir, IndexFileNames.getGroupIndexFileName(id));
 		File multiValueFile = new File(dir, IndexFileNames.getMultiValueFileName(IndexFileNames.getGroupIndexFileName(id)));
     	
-		init(id, refFieldSetting, dataFile, multiValueFile, IOUtil.SIZE_OF_INT);
+		init(id, refFieldSetting, dataFile, multiValueFile, IOUtil.SIZE_OF_INT, indexInputFactory);
 		
 		if(refFieldSetting.isVariableField()){
 			groupKeyInput = new VariableDataInput(dir, IndexFileNames.getGroupKeyFileName(id));
@@ -1,6 +1,8 @@
 package org.fastcatsearch.ir.search;
 
 import org.fastcatsearch.ir.common.IRException;
+import org.fastcatsearch.ir.field.HitField;
+import org.fastcatsearch.ir.field.ScoreField;
 import org.fastcatsearch.ir.filter.FilterException;
 import org.fastcatsearch.ir.group.GroupDataGenerator;
 import org.fastcatsearch.ir.group.GroupsData;
@@ -15,10 +17,16 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.io.StringWriter;
+import java.util.List;
 
 public class HitReader {
 	private static Logger logger = LoggerFactory.getLogger(HitReader.class);
 	
+	private static final int SORT_KEY_NONE = 0;
+	private static final int SORT_KEY_SCORE = 1;
+	private static final int SORT_KEY_HIT = 2;
+	private static final int SORT_KEY_DOC_VALUES = 3;
+	
 	private Schema schema;
     private SegmentReader segmentReader;
 	private String segmentId;
@@ -47,6 +55,12 @@ public class HitReader {
 	int nread;
 	int totalCount;
 	
+	//정렬조건이 단순한 경우 HitElement 를 만들지 않고 상위 N개만 수집한다.
+	private PrimitiveTopHitCollector topHitCollector;
+	private int sortKeyType;
+	private NumericDocValues sortDocValues;
+	private RankInfo[] rankInfoPool;
+	
 	
 	public HitReader(SegmentReader segmentReader, Metadata meta, Clause clause, Filters filters, Groups groups, Filters groupFilters, Sorts sorts, Bundle bundle, PkScoreList boostList) throws IOException, ClauseException, IRException {
 		
@@ -73,13 +87,28 @@ public class HitReader {
 			OperatedClause boostClause = new PkScoreOperatedClause("pk boost", boostList, segmentReader.newSearchIndexesReader());
 			operatedClause = new BoostOperatedClause(operatedClause, boostClause);
 		}
+		localDeleteSet = segmentReader.deleteSet();
 		// filter
 		if (filters != null) {
 			if(fieldIndexesReader == null){
 				fieldIndexesReader = segmentReader.newFieldIndexesReader();
 			}
+			//캐시가능한 필터는 세그먼트의 필터 비트셋을 검색절과 AND 하여 점수계산 전에 거른다.
+			List<Filter> cacheableFilterList = filters.getCacheableFilterList();
+			if (cacheableFilterList.size() > 0) {
+				//처음 요청된 필터는 비트셋 대신 HitFilter 로 거르도록 remainFilters 에 들어온다.
+				Filters remainFilters = filters.getUncacheableFilters();
+				BitSet[] bitSets = segmentReader.filterBitSetCache().get(cacheableFilterList, schema, fieldIndexesReader, localDeleteSet, docCount, remainFilters);
+				if (bitSets.length > 0) {
+					operatedClause = new AndOperatedClause(new BitSetOperatedClause(bitSets, docCount), operatedClause);
+				}
+				filters = remainFilters;
+				this.filters = filters;
+			}
 			//schema를 통해 field index setting을 알아야 필터링시 ignorecase등의 정보를 활용가능하다.
-			hitFilter = filters.getHitFilter(schema, fieldIndexesReader, BULK_SIZE);
+			if (filters.size() > 0) {
+				hitFilter = filters.getHitFilter(schema, fieldIndexesReader, BULK_SIZE);
+			}
 		}
 		
 		//group
@@ -110,7 +139,6 @@ public class HitReader {
 		}
 
 //		RankInfo[] rankInfoList = new RankInfo[BULK_SIZE];
-		localDeleteSet = segmentReader.deleteSet();
 
 
 		/**
@@ -134,6 +162,108 @@ public class HitReader {
 		
 		rankInfoList = new RankInfo[BULK_SIZE];
 		hitElementBuffer = new HitElement[BULK_SIZE];
+		
+		//묶음검색과 explain 은 히트별 HitElement 가 필요하다.
+		if (bundle == null && !isExplain) {
+			topHitCollector = newTopHitCollector(meta.start() + meta.rows() - 1, fieldIndexesReader);
+		}
+	}
+	
+	/*
+	 * 정렬조건이 없거나, 숫자형 정렬필드 하나(_SCORE, _HIT, doc values 가 있는 필드)일때만 수집기를 만든다.
+	 * */
+	private PrimitiveTopHitCollector newTopHitCollector(int sortMaxSize, FieldIndexesReader fieldIndexesReader) {
+		if (sorts == null || sorts.size() == 0) {
+			return new PrimitiveTopHitCollector(sortMaxSize);
+		}
+		if (sorts.size() > 1) {
+			return null;
+		}
+		Sort sort = sorts.getSortList().get(0);
+		if (sort.isShuffle()) {
+			return null;
+		}
+		String fieldId = sort.fieldIndexId();
+		if (schema.getFieldIndexSequence(fieldId) == -1) {
+			if (fieldId.equalsIgnoreCase(ScoreField.fieldName)) {
+				sortKeyType = SORT_KEY_SCORE;
+			} else if (fieldId.equalsIgnoreCase(HitField.fieldName)) {
+				sortKeyType = SORT_KEY_HIT;
+			} else {
+				return null;
+			}
+		} else {
+			sortDocValues = fieldIndexesReader.getNumericDocValues(fieldId);
+			if (sortDocValues == null) {
+				return null;
+			}
+			sortKeyType = SORT_KEY_DOC_VALUES;
+		}
+		return new PrimitiveTopHitCollector(sortMaxSize, true, sort.asc());
+	}
+	
+	/**
+	 * 상위 N개 수집기를 사용할수 있으면 true 이며, next() 대신 collect() 와 topHitElements() 를 사용한다.
+	 * */
+	public boolean isTopHitCollectable() {
+		return topHitCollector != null;
+	}
+	
+	/**
+	 * 다음 BULK_SIZE 만큼 검색하여 수집기에 넣는다. 남은 결과가 없으면 false 를 리턴한다.
+	 * RankInfo 는 재사용하며, HitElement 는 만들지 않는다.
+	 * */
+	public boolean collect() throws IOException, FilterException {
+		if (exausted) {
+			return false;
+		}
+		if (rankInfoPool == null) {
+			rankInfoPool = new RankInfo[BULK_SIZE];
+			for (int i = 0; i < BULK_SIZE; i++) {
+				rankInfoPool[i] = new RankInfo();
+			}
+		}
+		int n = read(true);
+		for (int i = 0; i < n; i++) {
+			RankInfo ri = rankInfoList[i];
+			topHitCollector.push(ri.docNo(), ri.score(), ri.hit(), ri.distance(), ri.filterMatchOrder(), sortKey(ri));
+		}
+		totalCount += n;
+		return !exausted;
+	}
+	
+	private long sortKey(RankInfo ri) {
+		switch (sortKeyType) {
+		case SORT_KEY_SCORE:
+			//SortGenerator 와 같이 float 바이트로 비교한다.
+			return Float.floatToIntBits(ri.score());
+		case SORT_KEY_HIT:
+			return ri.hit();
+		case SORT_KEY_DOC_VALUES:
+			return sortDocValues.rawBits(sortDocValues.get(ri.docNo()));
+		default:
+			return 0;
+		}
+	}
+	
+	/**
+	 * 수집된 상위 N개를 정렬순서대로 HitElement 로 만든다. 정렬데이터는 next() 로 읽을때와 같다.
+	 * */
+	public HitElement[] topHitElements() throws IOException {
+		int[] slots = topHitCollector.popSortedSlots();
+		RankInfo[] list = new RankInfo[slots.length];
+		for (int i = 0; i < slots.length; i++) {
+			int slot = slots[i];
+			list[i] = new RankInfo();
+			list[i].init(topHitCollector.docNo(slot), topHitCollector.score(slot), topHitCollector.hit(slot), topHitCollector.filterMatchOrder(slot));
+			list[i].distance(topHitCollector.distance(slot));
+		}
+		HitElement[] result = new HitElement[slots.length];
+		makeHitElements(list, result, slots.length);
+		for (int i = 0; i < result.length; i++) {
+			result[i].setSegmentId(segmentId);
+		}
+		return result;
 	}
 	
 	public HitElement next() throws IOException, FilterException {
@@ -151,12 +281,28 @@ public class HitReader {
 	
 	
 	private void fill() throws IOException, FilterException {
-		nread = 0;
+		nread = read(false);
+		makeHitElements(rankInfoList, hitElementBuffer, nread);
+		totalCount += nread;
+	}
+	
+	/*
+	 * 삭제문서와 필터를 거친 RankInfo 를 rankInfoList 에 읽고 그룹데이터를 모은다. 읽은 갯수를 리턴한다.
+	 * reuse 이면 rankInfoPool 의 객체를 재사용한다.
+	 * */
+	private int read(boolean reuse) throws IOException, FilterException {
+		int nread = 0;
 		while (!exausted) {
 			
 			// search and check delete documents
 			while (nread < BULK_SIZE) {
-				RankInfo rankInfo = new RankInfo(isExplain);
+				RankInfo rankInfo;
+				if (reuse) {
+					rankInfo = rankInfoPool[nread];
+					rankInfo.clear();
+				} else {
+					rankInfo = new RankInfo(isExplain);
+				}
 				if (operatedClause.next(rankInfo)) {
 					if (!localDeleteSet.isSet(rankInfo.docNo())) {
 						rankInfoList[nread] = rankInfo;
@@ -169,7 +315,7 @@ public class HitReader {
 			}
 			if (exausted) {
 				if(nread == 0) {
-					return;
+					return 0;
 				}else{
 					//fill 루프탈출.
 					break;
@@ -195,6 +341,10 @@ public class HitReader {
 			}
 		}
 		
+		return nread;
+	}
+	
+	private void makeHitElements(RankInfo[] rankInfoList, HitElement[] hitElementBuffer, int nread) throws IOException {
 		if (sorts == null || sorts == Sorts.DEFAULT_SORTS) {
 			//정렬없는 묶음검색의 경우.
 			if(sortGenerator != null) {
@@ -209,10 +359,6 @@ public class HitReader {
 		} else {
 			sortGenerator.getHitElement(rankInfoList, hitElementBuffer, nread);
 		}
-		
-		
-		totalCount += nread;
-		
 	}
 	
 	public int totalCount() { 
@@ -0,0 +1,234 @@
+package org.fastcatsearch.ir.search;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.fastcatsearch.ir.common.IndexFileNames;
+import org.fastcatsearch.ir.io.BufferedFileInput;
+import org.fastcatsearch.ir.io.IOUtil;
+import org.fastcatsearch.ir.io.IndexInput;
+import org.fastcatsearch.ir.settings.FieldSetting;
+
+/**
+ * 숫자형 싱글밸류 필드색인의 컬럼 데이터(doc values). 세그먼트 로딩시 메모리에 올리며, clone 간에 공유한다. (thread-safe)
+ * 값은 크기비교가 가능한 long 으로 변환되어 있으므로(float, double 포함) 바이트 비교없이 바로 비교할 수 있다.
+ *
+ * 블럭(BLOCK_SIZE 문서)마다 min, max 를 가지고 있어 범위필터에서 블럭단위로 전체포함/전체제외를 판단할 수 있다.
+ * 블럭내의 값은 (값 - min) 을 블럭별 비트수로 pack 하여 저장한다.
+ *
+ * field.필드명.dv
+ *     포맷 : int(값타입), int(블럭크기), { long(min), long(max), byte(비트수), { long(pack된 값) } }, int(문서갯수)
+ * */
+public class NumericDocValues {
+
+	public static final int TYPE_INT = 1;
+	public static final int TYPE_LONG = 2;
+	public static final int TYPE_FLOAT = 3;
+	public static final int TYPE_DOUBLE = 4;
+
+	public static final int BLOCK_SHIFT = 7;
+	public static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+
+	private final int valueType;
+	private final int docCount;
+	private final long[] blockMin;
+	private final long[] blockMax;
+	private final byte[] blockBits;
+	private final int[] blockOffset;
+	private final long[] packed;
+
+	private NumericDocValues(int valueType, int docCount, long[] blockMin, long[] blockMax, byte[] blockBits, int[] blockOffset, long[] packed) {
+		this.valueType = valueType;
+		this.docCount = docCount;
+		this.blockMin = blockMin;
+		this.blockMax = blockMax;
+		this.blockBits = blockBits;
+		this.blockOffset = blockOffset;
+		this.packed = packed;
+	}
+
+	/**
+	 * 파일이 없으면 null 을 리턴한다. 이전 세그먼트는 doc values 없이 필드색인을 사용한다.
+	 * */
+	public static NumericDocValues load(File dir, String indexId) throws IOException {
+		File f = new File(dir, IndexFileNames.getNumericDocValuesFileName(indexId));
+		if (!f.exists()) {
+			return null;
+		}
+		IndexInput input = new BufferedFileInput(f);
+		try {
+			input.seek(input.length() - IOUtil.SIZE_OF_INT);
+			int docCount = input.readInt();
+			input.seek(0);
+			int valueType = input.readInt();
+			int blockSize = input.readInt();
+			if (blockSize != BLOCK_SIZE) {
+				throw new IOException("Unsupported doc values block size " + blockSize + " : " + f.getAbsolutePath());
+			}
+			int blockCount = (docCount + BLOCK_SIZE - 1) >>> BLOCK_SHIFT;
+			long[] blockMin = new long[blockCount];
+			long[] blockMax = new long[blockCount];
+			byte[] blockBits = new byte[blockCount];
+			int[] blockOffset = new int[blockCount + 1];
+			int wordCount = (int) ((input.length() - 12 - blockCount * 17L) / IOUtil.SIZE_OF_LONG);
+			long[] packed = new long[wordCount];
+			int offset = 0;
+			for (int b = 0; b < blockCount; b++) {
+				blockMin[b] = input.readLong();
+				blockMax[b] = input.readLong();
+				blockBits[b] = input.readByte();
+				blockOffset[b] = offset;
+				int words = wordCount(Math.min(BLOCK_SIZE, docCount - (b << BLOCK_SHIFT)), blockBits[b]);
+				for (int i = 0; i < words; i++) {
+					packed[offset++] = input.readLong();
+				}
+			}
+			blockOffset[blockCount] = offset;
+			return new NumericDocValues(valueType, docCount, blockMin, blockMax, blockBits, blockOffset, packed);
+		} finally {
+			input.close();
+		}
+	}
+
+	protected static int wordCount(int count, int bits) {
+		return (int) (((long) count * bits + 63) >>> 6);
+	}
+
+	public long get(int docNo) {
+		int block = docNo >>> BLOCK_SHIFT;
+		int bits = blockBits[block];
+		if (bits == 0) {
+			return blockMin[block];
+		}
+		long bitPos = (long) (docNo & (BLOCK_SIZE - 1)) * bits;
+		int word = blockOffset[block] + (int) (bitPos >>> 6);
+		int shift = (int) (bitPos & 63);
+		long value = packed[word] >>> shift;
+		if (shift + bits > 64) {
+			value |= packed[word + 1] << (64 - shift);
+		}
+		if (bits < 64) {
+			value &= (1L << bits) - 1;
+		}
+		return blockMin[block] + value;
+	}
+
+	public int docCount() {
+		return docCount;
+	}
+
+	public int valueType() {
+		return valueType;
+	}
+
+	public int blockCount() {
+		return blockMin.length;
+	}
+
+	public long blockMin(int block) {
+		return blockMin[block];
+	}
+
+	public long blockMax(int block) {
+		return blockMax[block];
+	}
+
+	/**
+	 * 필드색인에 기록되는 바이트길이.
+	 * */
+	public int byteSize() {
+		return byteSize(valueType);
+	}
+
+	/**
+	 * 필드색인과 같은 바이트형식으로 기록한다. 정렬데이터(HitElement)에 사용된다.
+	 * */
+	public void writeBytes(long value, byte[] dest, int offset) {
+		writeBytes(value, valueType, dest, offset);
+	}
+
+	/**
+	 * writeBytes 로 기록되는 바이트를 부호있는 정수로 읽은 값. 정렬데이터의 바이트 비교(BytesRef.compareNumberTo)와 순서가 같다.
+	 * */
+	public long rawBits(long value) {
+		if (valueType == TYPE_FLOAT) {
+			int bits = (int) value;
+			return bits ^ ((bits >> 31) & 0x7fffffff);
+		} else if (valueType == TYPE_DOUBLE) {
+			return value ^ ((value >> 63) & 0x7fffffffffffffffL);
+		}
+		return value;
+	}
+
+	/**
+	 * doc values 를 만들수 있는 필드이면 값타입, 아니면 0.
+	 * */
+	public static int valueType(FieldSetting fieldSetting) {
+		if (fieldSetting == null || Boolean.TRUE.equals(fieldSetting.isMultiValue())) {
+			return 0;
+		}
+		switch (fieldSetting.getType()) {
+		case INT:
+			return TYPE_INT;
+		case LONG:
+		case DATETIME:
+			return TYPE_LONG;
+		case FLOAT:
+			return TYPE_FLOAT;
+		case DOUBLE:
+			return TYPE_DOUBLE;
+		default:
+			return 0;
+		}
+	}
+
+	public static int byteSize(int valueType) {
+		return valueType == TYPE_INT || valueType == TYPE_FLOAT ? IOUtil.SIZE_OF_INT : IOUtil.SIZE_OF_LONG;
+	}
+
+	/**
+	 * 필드색인의 바이트데이터를 크기비교 가능한 long 으로 바꾼다.
+	 * float, double 은 음수의 비트를 뒤집어 정수비교 순서가 실수 순서와 같게 만든다.
+	 * */
+	public static long toSortableLong(byte[] data, int offset, int valueType) {
+		switch (valueType) {
+		case TYPE_INT:
+			return IOUtil.readInt(data, offset);
+		case TYPE_FLOAT: {
+			int bits = IOUtil.readInt(data, offset);
+			return bits ^ ((bits >> 31) & 0x7fffffff);
+		}
+		case TYPE_DOUBLE: {
+			long bits = IOUtil.readLong(data, offset);
+			return bits ^ ((bits >> 63) & 0x7fffffffffffffffL);
+		}
+		default:
+			return IOUtil.readLong(data, offset);
+		}
+	}
+
+	public static void writeBytes(long value, int valueType, byte[] dest, int offset) {
+		if (valueType == TYPE_INT) {
+			writeInt((int) value, dest, offset);
+		} else if (valueType == TYPE_FLOAT) {
+			int bits = (int) value;
+			writeInt(bits ^ ((bits >> 31) & 0x7fffffff), dest, offset);
+		} else if (valueType == TYPE_DOUBLE) {
+			writeLong(value ^ ((value >> 63) & 0x7fffffffffffffffL), dest, offset);
+		} else {
+			writeLong(value, dest, offset);
+		}
+	}
+
+	private static void writeInt(int v, byte[] dest, int offset) {
+		dest[offset] = (byte) (v >>> 24);
+		dest[offset + 1] = (byte) (v >>> 16);
+		dest[offset + 2] = (byte) (v >>> 8);
+		dest[offset + 3] = (byte) v;
+	}
+
+	private static void writeLong(long v, byte[] dest, int offset) {
+		writeInt((int) (v >>> 32), dest, offset);
+		writeInt((int) v, dest, offset + 4);
+	}
+}
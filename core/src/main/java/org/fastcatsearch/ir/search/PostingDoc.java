@@ -1,9 +1,12 @@
 package org.fastcatsearch.ir.search;
 
 public class PostingDoc {
-	private int docNo;
-	private int tf;
-	private int[] positions;
+	protected int docNo;
+	protected int tf;
+	protected int[] positions;
+	
+	protected PostingDoc() {
+	}
 	
 	public PostingDoc(int docNo, int tf){
 		this(docNo, tf, null);
@@ -36,6 +39,10 @@ public class PostingDoc {
 		return positions;
 	}
 	
+	public boolean hasPositions(){
+		return positions != null;
+	}
+	
 	///prefix검색등 여러 termdoc이 하나의 단어에서 검색되었을때 사용된다.
 	public void addPositions(int[] positions){
 		//TODO 기존 position에 추가.
@@ -44,6 +51,7 @@ public class PostingDoc {
 	@Override
 	public String toString(){
 		String pos = ">>";
+		int[] positions = positions();
 		if(positions != null){
 			for (int i = 0; i < positions.length; i++) {
 				pos += positions[i];
@@ -20,6 +20,12 @@ public interface PostingReader {
 
 	public PostingDoc next() throws IOException;
 
+	/**
+	 * targetDocNo 이상인 첫 문서로 이동하여 리턴한다. 현재위치에서 최소 한 문서는 진행한다.
+	 * @return 더이상 문서가 없으면 null
+	 * */
+	public PostingDoc advance(int targetDocNo) throws IOException;
+
 	public void close();
 
 	public int termPosition();
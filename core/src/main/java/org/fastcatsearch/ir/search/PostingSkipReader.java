@@ -0,0 +1,105 @@
+package org.fastcatsearch.ir.search;
+
+import org.fastcatsearch.ir.common.IndexFileNames;
+import org.fastcatsearch.ir.io.BufferedFileInput;
+import org.fastcatsearch.ir.io.IndexInput;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * PostingSkipWriter 가 기록한 skip 정보를 메모리에 올려두고 단어별로 찾아준다.
+ * 읽기전용이므로 SearchIndexReader 의 clone 들이 공유한다.
+ * skip 파일이 없는 이전 세그먼트는 load 에서 null 을 리턴하며, 이 경우 포스팅은 순차로만 읽는다.
+ * */
+public class PostingSkipReader {
+
+	private int skipInterval;
+	private long[] postingPositionList;
+	private int[] entryStartList;
+	private int[] entryCountList;
+	private int[] docNoList;
+	private long[] positionList;
+
+	public static PostingSkipReader load(File dir, String indexId) throws IOException {
+		File skipFile = new File(dir, IndexFileNames.getSearchSkipFileName(indexId));
+		if (!skipFile.exists()) {
+			return null;
+		}
+		IndexInput skipInput = new BufferedFileInput(dir, IndexFileNames.getSearchSkipFileName(indexId));
+		try {
+			return new PostingSkipReader(skipInput);
+		} finally {
+			skipInput.close();
+		}
+	}
+
+	private PostingSkipReader(IndexInput skipInput) throws IOException {
+		skipInterval = skipInput.readInt();
+		int termCount = skipInput.readInt();
+		int entryCount = skipInput.readInt();
+		postingPositionList = new long[termCount];
+		entryStartList = new int[termCount];
+		entryCountList = new int[termCount];
+		docNoList = new int[entryCount];
+		positionList = new long[entryCount];
+
+		int entry = 0;
+		for (int i = 0; i < termCount; i++) {
+			postingPositionList[i] = skipInput.readLong();
+			int n = skipInput.readInt();
+			entryStartList[i] = entry;
+			entryCountList[i] = n;
+			for (int j = 0; j < n; j++, entry++) {
+				docNoList[entry] = skipInput.readInt();
+				positionList[entry] = skipInput.readLong();
+			}
+		}
+	}
+
+	public int skipInterval() {
+		return skipInterval;
+	}
+
+	/**
+	 * @return 포스팅 시작위치에 해당하는 단어의 순번. skip 정보가 없는 단어이면 -1.
+	 * */
+	public int find(long postingPosition) {
+		int low = 0;
+		int high = postingPositionList.length - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			long value = postingPositionList[mid];
+			if (value < postingPosition) {
+				low = mid + 1;
+			} else if (value > postingPosition) {
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -1;
+	}
+
+	public int entryStart(int termIndex) {
+		return entryStartList[termIndex];
+	}
+
+	public int entryCount(int termIndex) {
+		return entryCountList[termIndex];
+	}
+
+	/**
+	 * @return entry 블럭의 마지막 문서번호
+	 * */
+	public int docNo(int entry) {
+		return docNoList[entry];
+	}
+
+	/**
+	 * @return entry 블럭 다음 문서의 포스팅 파일위치
+	 * */
+	public long position(int entry) {
+		return positionList[entry];
+	}
+}
@@ -24,12 +24,14 @@ import java.util.List;
 
 import org.fastcatsearch.ir.common.IRException;
 import org.fastcatsearch.ir.common.IndexFileNames;
+import org.fastcatsearch.ir.document.PrimaryKeyBloomFilter;
 import org.fastcatsearch.ir.document.PrimaryKeyIndexReader;
 import org.fastcatsearch.ir.field.Field;
 import org.fastcatsearch.ir.field.FieldDataParseException;
 import org.fastcatsearch.ir.io.BytesDataOutput;
 import org.fastcatsearch.ir.io.CharVector;
 import org.fastcatsearch.ir.io.DataOutput;
+import org.fastcatsearch.ir.io.IndexInputFactory;
 import org.fastcatsearch.ir.query.Term;
 import org.fastcatsearch.ir.search.clause.OperatedClause;
 import org.fastcatsearch.ir.search.clause.TermOperatedClause;
@@ -48,11 +50,16 @@ public class PrimaryKeyIndexesReader implements Cloneable {
 	private FieldSetting[] pkFieldSettingList;
 
 	private PrimaryKeyIndexReader pkReader;
+	private PrimaryKeyBloomFilter bloomFilter; //없으면 null. clone 간에 공유한다.
 	
 	public PrimaryKeyIndexesReader() {
 	}
 
 	public PrimaryKeyIndexesReader(Schema schema, File dir) throws IOException, IRException {
+		this(schema, dir, IndexInputFactory.DEFAULT);
+	}
+
+	public PrimaryKeyIndexesReader(Schema schema, File dir, IndexInputFactory indexInputFactory) throws IOException, IRException {
 //		this(schema, dir, 0);
 //	}
 //
@@ -67,7 +74,8 @@ public class PrimaryKeyIndexesReader implements Cloneable {
 		}
 
 //		pkReader = new PrimaryKeyIndexReader(IndexFileNames.getRevisionDir(dir, revision), IndexFileNames.primaryKeyMap);
-		pkReader = new PrimaryKeyIndexReader(dir, IndexFileNames.primaryKeyMap);
+		pkReader = new PrimaryKeyIndexReader(dir, IndexFileNames.primaryKeyMap, indexInputFactory);
+		bloomFilter = PrimaryKeyBloomFilter.load(dir);
 	}
 
 	@Override
@@ -76,6 +84,7 @@ public class PrimaryKeyIndexesReader implements Cloneable {
 		PrimaryKeyIndexesReader reader = new PrimaryKeyIndexesReader();
 		reader.pkFieldSettingList = pkFieldSettingList;
 		reader.pkReader = pkReader.clone();
+		reader.bloomFilter = bloomFilter;
 		return reader;
 	}
 
@@ -118,7 +127,7 @@ public class PrimaryKeyIndexesReader implements Cloneable {
 				field.writeFixedDataTo(pkOutput);
 			}
 
-			docNo = pkReader.get(pkOutput.array(), 0, (int) pkOutput.position());
+			docNo = get(pkOutput.array(), 0, (int) pkOutput.position());
 			if (docNo != -1) {
 				termDocList[m] = new PostingDoc(docNo, 1);
 				m++;
@@ -170,7 +179,21 @@ public class PrimaryKeyIndexesReader implements Cloneable {
 			field.writeFixedDataTo(pkOutput);
 		}
 
-		return pkReader.get(pkOutput.array(), 0, (int) pkOutput.position());
+		return get(pkOutput.array(), 0, (int) pkOutput.position());
+	}
+
+	/**
+	 * bloom filter 에 없는 pk는 pk맵을 찾지 않는다.
+	 * */
+	public int get(byte[] data, int offset, int length) throws IOException {
+		if (bloomFilter != null && !bloomFilter.mightContain(data, offset, length)) {
+			return -1;
+		}
+		return pkReader.get(data, offset, length);
+	}
+
+	public PrimaryKeyBloomFilter bloomFilter() {
+		return bloomFilter;
 	}
 	
 	
@@ -0,0 +1,173 @@
+package org.fastcatsearch.ir.search;
+
+/**
+ * 정렬조건이 없거나(최신문서순) 숫자형 정렬필드 하나(_SCORE, _HIT, doc values 필드)일때 사용하는 세그먼트내 상위 N개 수집기.
+ * 히트마다 HitElement 와 정렬데이터 BytesRef 를 만들지 않고, 문서번호/점수/정렬키를 병렬 배열에 두고 고정크기 max heap 으로 상위 N개만 유지한다.
+ * HitElement 는 최종 상위 N개에 대해서만 만든다. (HitReader.topHitElements)
+ *
+ * 정렬순서는 DefaultRanker, HitRanker 와 같다.
+ * 정렬키는 정렬데이터 바이트를 부호있는 정수로 읽은 값이므로 NumericAscSortFunction, NumericDescSortFunction 의 바이트 비교와 순서가 같고,
+ * 키가 같으면 문서번호가 큰것(최신문서)이 우선이다. (HitElement.compareTo)
+ *
+ * heap 에는 슬롯번호만 넣고, 값 배열은 슬롯단위로 덮어쓴다.
+ * */
+public class PrimitiveTopHitCollector {
+
+	private final int maxSize;
+	private final boolean useKey;
+	private final boolean asc;
+
+	private final int[] docNos;
+	private final int[] scores;
+	private final int[] hits;
+	private final float[] distances;
+	private final int[] filterMatchOrders;
+	private final long[] keys;
+
+	//1부터 사용한다. root 가 가장 뒤에 오는 원소이다.
+	private final int[] heap;
+	private int size;
+	private int totalSize;
+
+	/**
+	 * 정렬키 없이 최신문서순으로 수집한다.
+	 * */
+	public PrimitiveTopHitCollector(int maxSize) {
+		this(maxSize, false, false);
+	}
+
+	public PrimitiveTopHitCollector(int maxSize, boolean useKey, boolean asc) {
+		this.maxSize = maxSize < 0 ? 0 : maxSize;
+		this.useKey = useKey;
+		this.asc = asc;
+		docNos = new int[this.maxSize];
+		scores = new int[this.maxSize];
+		hits = new int[this.maxSize];
+		distances = new float[this.maxSize];
+		filterMatchOrders = new int[this.maxSize];
+		keys = useKey ? new long[this.maxSize] : null;
+		heap = new int[this.maxSize + 1];
+	}
+
+	public void push(int docNo, int score, int hit, float distance, int filterMatchOrder, long key) {
+		totalSize++;
+		int slot;
+		if (size < maxSize) {
+			slot = size++;
+			heap[size] = slot;
+			set(slot, docNo, score, hit, distance, filterMatchOrder, key);
+			upHeap(size);
+		} else if (size > 0 && isAfter(heap[1], key, docNo)) {
+			//root 보다 앞서는 경우만 root 를 교체한다. 대부분은 여기서 바로 버려진다.
+			slot = heap[1];
+			set(slot, docNo, score, hit, distance, filterMatchOrder, key);
+			downHeap(1);
+		}
+	}
+
+	private void set(int slot, int docNo, int score, int hit, float distance, int filterMatchOrder, long key) {
+		docNos[slot] = docNo;
+		scores[slot] = score;
+		hits[slot] = hit;
+		distances[slot] = distance;
+		filterMatchOrders[slot] = filterMatchOrder;
+		if (useKey) {
+			keys[slot] = key;
+		}
+	}
+
+	/*
+	 * 슬롯의 원소가 (key, docNo) 보다 뒤에 오는지.
+	 * */
+	private boolean isAfter(int slot, long key, int docNo) {
+		if (useKey && keys[slot] != key) {
+			return asc ? keys[slot] > key : keys[slot] < key;
+		}
+		return docNos[slot] < docNo;
+	}
+
+	private boolean isAfter(int slot, int other) {
+		return isAfter(slot, useKey ? keys[other] : 0, docNos[other]);
+	}
+
+	private void upHeap(int idx) {
+		int node = heap[idx];
+		while (idx > 1) {
+			int parent = idx >>> 1;
+			if (!isAfter(node, heap[parent])) {
+				break;
+			}
+			heap[idx] = heap[parent];
+			idx = parent;
+		}
+		heap[idx] = node;
+	}
+
+	private void downHeap(int idx) {
+		int node = heap[idx];
+		int leafLimit = size >>> 1;
+		while (idx <= leafLimit) {
+			int child = idx << 1;
+			if (child < size && isAfter(heap[child + 1], heap[child])) {
+				child++;
+			}
+			if (!isAfter(heap[child], node)) {
+				break;
+			}
+			heap[idx] = heap[child];
+			idx = child;
+		}
+		heap[idx] = node;
+	}
+
+	/**
+	 * 수집된 원소의 슬롯번호를 앞서는 순서대로 리턴한다. 호출후에는 heap 이 비워진다.
+	 * */
+	public int[] popSortedSlots() {
+		int[] sorted = new int[size];
+		for (int i = sorted.length - 1; i >= 0; i--) {
+			sorted[i] = heap[1];
+			heap[1] = heap[size];
+			size--;
+			if (size > 0) {
+				downHeap(1);
+			}
+		}
+		return sorted;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * push 된 전체 갯수.
+	 * */
+	public int totalSize() {
+		return totalSize;
+	}
+
+	public int docNo(int slot) {
+		return docNos[slot];
+	}
+
+	public int score(int slot) {
+		return scores[slot];
+	}
+
+	public int hit(int slot) {
+		return hits[slot];
+	}
+
+	public float distance(int slot) {
+		return distances[slot];
+	}
+
+	public int filterMatchOrder(int slot) {
+		return filterMatchOrders[slot];
+	}
+
+	public long key(int slot) {
+		return useKey ? keys[slot] : 0;
+	}
+}
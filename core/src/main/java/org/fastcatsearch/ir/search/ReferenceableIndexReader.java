@@ -4,10 +4,10 @@ import java.io.File;
 import java.io.IOException;
 
 import org.fastcatsearch.ir.common.IRException;
-import org.fastcatsearch.ir.io.BufferedFileInput;
 import org.fastcatsearch.ir.io.DataRef;
 import org.fastcatsearch.ir.io.IOUtil;
 import org.fastcatsearch.ir.io.IndexInput;
+import org.fastcatsearch.ir.io.IndexInputFactory;
 import org.fastcatsearch.ir.io.StreamInputRef;
 import org.fastcatsearch.ir.settings.FieldSetting;
 import org.slf4j.Logger;
@@ -34,13 +34,17 @@ public abstract class ReferenceableIndexReader implements ReferenceableReader {
 	public ReferenceableIndexReader() {}
 	
 	public void init(String indexId, FieldSetting refFieldSetting, File dataFile, File multiValueFile, int dataSize) throws IOException, IRException{
+		init(indexId, refFieldSetting, dataFile, multiValueFile, dataSize, IndexInputFactory.DEFAULT);
+	}
+
+	public void init(String indexId, FieldSetting refFieldSetting, File dataFile, File multiValueFile, int dataSize, IndexInputFactory indexInputFactory) throws IOException, IRException{
 		this.indexId = indexId;
 		this.dataSize = dataSize;
-		dataInput = new BufferedFileInput(dataFile);
+		dataInput = indexInputFactory.open(dataFile);
     	
     	isMultiValue = refFieldSetting.isMultiValue();
     	if(isMultiValue){
-    		multiValueInput = new BufferedFileInput(multiValueFile);
+    		multiValueInput = indexInputFactory.open(multiValueFile);
     		dataRef = new StreamInputRef(multiValueInput, dataSize);
     	}else{
     		dataRef = new DataRef(dataSize);
@@ -28,13 +28,12 @@ import org.fastcatsearch.ir.common.IndexFileNames;
 import org.fastcatsearch.ir.index.IndexFieldOption;
 import org.fastcatsearch.ir.io.BufferedFileInput;
 import org.fastcatsearch.ir.io.CharVector;
-import org.fastcatsearch.ir.io.FixedMinHeap;
 import org.fastcatsearch.ir.io.IOUtil;
 import org.fastcatsearch.ir.io.IndexInput;
+import org.fastcatsearch.ir.io.IndexInputFactory;
 import org.fastcatsearch.ir.search.method.AbstractSearchMethod;
 import org.fastcatsearch.ir.search.method.SearchMethod;
 import org.fastcatsearch.ir.search.posting.PostingDocsMerger;
-import org.fastcatsearch.ir.search.posting.PostingDocsReader;
 import org.fastcatsearch.ir.settings.IndexSetting;
 import org.fastcatsearch.ir.settings.Schema;
 import org.slf4j.Logger;
@@ -51,6 +50,7 @@ public class SearchIndexReader implements Cloneable {
 	private IndexInput lexiconInput;
 	private Schema schema;
 	private MemoryLexicon memoryLexicon;
+	private PostingSkipReader postingSkipReader;
 	private long fileLimit;
 	private IndexFieldOption indexFieldOption;
 
@@ -62,6 +62,10 @@ public class SearchIndexReader implements Cloneable {
 	}
 
 	public SearchIndexReader(IndexSetting indexSetting, Schema schema, File dir, AnalyzerPool queryAnalyzerPool, int segmentDocumentCount) throws IOException, IRException {
+		this(indexSetting, schema, dir, queryAnalyzerPool, segmentDocumentCount, IndexInputFactory.DEFAULT);
+	}
+
+	public SearchIndexReader(IndexSetting indexSetting, Schema schema, File dir, AnalyzerPool queryAnalyzerPool, int segmentDocumentCount, IndexInputFactory indexInputFactory) throws IOException, IRException {
 //		this(indexSetting, schema, dir, 0, queryAnalyzerPool, segmentDocumentCount);
 //	}
 //
@@ -77,8 +81,8 @@ public class SearchIndexReader implements Cloneable {
 		try {
 //			postingInput = new BufferedFileInput(IndexFileNames.getRevisionDir(dir, revision) , IndexFileNames.getSearchPostingFileName(id));
 //			lexiconInput = new BufferedFileInput(IndexFileNames.getRevisionDir(dir, revision) , IndexFileNames.getSearchLexiconFileName(id));
-            postingInput = new BufferedFileInput(dir , IndexFileNames.getSearchPostingFileName(id));
-            lexiconInput = new BufferedFileInput(dir , IndexFileNames.getSearchLexiconFileName(id));
+            postingInput = indexInputFactory.open(dir , IndexFileNames.getSearchPostingFileName(id));
+            lexiconInput = indexInputFactory.open(dir , IndexFileNames.getSearchLexiconFileName(id));
 			
 			fileLimit = lexiconInput.length();
 			
@@ -116,7 +120,8 @@ public class SearchIndexReader implements Cloneable {
 			}
 		}
 		
-		
+		// skip 파일이 없는 세그먼트는 null.
+		postingSkipReader = PostingSkipReader.load(dir, id);
 	}
 
 	public String indexId(){
@@ -137,6 +142,7 @@ public class SearchIndexReader implements Cloneable {
 		reader.postingInput = postingInput.clone();
 		reader.lexiconInput = lexiconInput.clone();
 		reader.memoryLexicon = memoryLexicon;
+		reader.postingSkipReader = postingSkipReader;
 		reader.fileLimit = fileLimit;
 		reader.queryAnalyzerPool = queryAnalyzerPool;
 		reader.indexSetting = indexSetting;
@@ -146,7 +152,7 @@ public class SearchIndexReader implements Cloneable {
 		return reader;
 	}
 	
-	public PostingDocs getPosting(CharVector singleTerm) throws IOException {
+	public PostingReader getPosting(CharVector singleTerm) throws IOException {
 		if (memoryLexicon.size() == 0){
 			return null;
 		}
@@ -199,49 +205,14 @@ public class SearchIndexReader implements Cloneable {
 		return null;
 	}
 
-	private PostingDocs getTermDocs(CharVector singleTerm, long pos) throws IOException {
-		postingInput.seek(pos);
-		int len = postingInput.readVInt();
-		int count = postingInput.readInt();
-		int lastDocNo = postingInput.readInt();
-
-		PostingDoc[] termDocList = new PostingDoc[count];
-		logger.debug(">>>>> create PostingDoc array size {} = {} / {}MB", singleTerm, count, Runtime.getRuntime().totalMemory() / (1024 * 1024));
-
-		int prevId = -1;
-		int docId = -1;
-		for (int i = 0; i < count; i++) {
-			if (prevId >= 0) {
-				docId = postingInput.readVInt() + prevId + 1;
-			} else {
-				docId = postingInput.readVInt();
-			}
-			int tf = postingInput.readVInt();
-			int[] positions = null;
-			if (tf > 0 && indexFieldOption.isStorePosition()) {
-				int prevPosition = -1;
-				positions = new int[tf];
-				for (int j = 0; j < tf; j++) {
-					if (prevPosition >= 0) {
-						positions[j] = postingInput.readVInt() + prevPosition + 1;
-					} else {
-						positions[j] = postingInput.readVInt();
-					}
-					prevPosition = positions[j];
-
-				}
-
-			}
-//			logger.debug("getTermDocs {} >> {} : {} / {}", singleTerm, docId, tf, positions);
-
-			termDocList[i] = new PostingDoc(docId, tf, positions);
-			prevId = docId;
-
-		}
-		return new PostingDocs(singleTerm, termDocList, count);
+	/*
+	 * 포스팅을 미리 읽지 않고 스트림으로 읽는 reader를 리턴한다.
+	 * */
+	private PostingReader getTermDocs(CharVector singleTerm, long pos) throws IOException {
+		return new BufferedPostingReader(singleTerm, 0, 0, segmentDocumentCount, indexFieldOption, postingInput.clone(), pos, postingSkipReader);
 	}
 
-	protected PostingDocs getExtendedPosting(int indexFieldSequence, CharVector singleTerm) throws IOException {
+	protected PostingReader getExtendedPosting(int indexFieldSequence, CharVector singleTerm) throws IOException {
 
 		// SUFFIX SEARCH
 		if (singleTerm.array().length > 0 && singleTerm.array()[0] == '*') {
@@ -286,7 +257,7 @@ public class SearchIndexReader implements Cloneable {
 		return getPosting(singleTerm);
 	}
 
-	protected PostingDocs getPrefixPosting(CharVector singleTerm) throws IOException {
+	protected PostingReader getPrefixPosting(CharVector singleTerm) throws IOException {
 		if (memoryLexicon.size() == 0)
 			return null;
 
@@ -328,7 +299,7 @@ public class SearchIndexReader implements Cloneable {
 		return makeTermDocs(singleTerm, startPos, foundCount);
 	}
 
-	protected PostingDocs getSuffixPosting(CharVector singleTerm) throws IOException {
+	protected PostingReader getSuffixPosting(CharVector singleTerm) throws IOException {
 		if (memoryLexicon.size() == 0)
 			return null;
 
@@ -377,7 +348,7 @@ public class SearchIndexReader implements Cloneable {
 		return makeTermDocs(singleTerm, startPos, foundCount);
 	}
 
-	protected PostingDocs getRangePosting(CharVector startTerm, CharVector endTerm) throws IOException {
+	protected PostingReader getRangePosting(CharVector startTerm, CharVector endTerm) throws IOException {
 		if (memoryLexicon.size() == 0)
 			return null;
 		logger.debug("Range : {} ~ {}", startTerm, endTerm);
@@ -388,7 +359,7 @@ public class SearchIndexReader implements Cloneable {
 		cmpValid = compareKey(startTermChars, endTerm);
 		// ensure startTerm <= endTerm
 		if (cmpValid > 0) {
-			return new PostingDocs(startTerm, 0);
+			return new DataPostingReader(startTerm, 0, 0, null, 0, segmentDocumentCount);
 		}
 
 		/*
@@ -490,76 +461,26 @@ public class SearchIndexReader implements Cloneable {
 
 	}
 
-	// thread-unsafe! 호출하는 메서드에서 thread-safe하게 호출해야한다.
-	int mpseq = 0;
-
-	private PostingDocs makeTermDocs(CharVector term, long startPos, int foundCount) throws IOException {
+	/*
+	 * startPos 부터 연속된 foundCount 개 단어의 포스팅을 하나로 머징하여 읽는다.
+	 * */
+	private PostingReader makeTermDocs(CharVector term, long startPos, int foundCount) throws IOException {
 
 		if (foundCount > 0) {
-			FixedMinHeap<PostingDocsReader> heap = new FixedMinHeap<PostingDocsReader>(foundCount);
-			mpseq++;
+			List<PostingReader> postingReaderList = new ArrayList<PostingReader>(foundCount);
+			// 단어마다 버퍼를 가진 input 을 복제하지 않고 하나를 같이 쓰며 reader 가 읽을때마다 seek 한다.
+			IndexInput sharedInput = postingInput.clone();
 
 			long pos = startPos;
-			postingInput.seek(pos);
-
-			List<PostingDocs> termDocsList = new ArrayList<PostingDocs>(foundCount);
-
 			for (int c = 0; c < foundCount; c++) {
-				int prevId = -1;
-				// 위치정보를 가지고 포스팅을 읽는다.
-				int len = postingInput.readVInt();
-				int count = postingInput.readInt();
-				int lastDocNo = postingInput.readInt();
-
-				// logger.debug("prefix posting {} / {}", c, foundCount);
-				// logger.debug("prefix posting len = {}", len);
-				// logger.debug("prefix posting count = {}", count);
-				// logger.debug("prefix posting lastDocNo = {}", lastDocNo);
-
-				PostingDoc[] termDocList = new PostingDoc[count];
-
-				int docId = -1;
-
-				for (int i = 0; i < count; i++) {
-					if (prevId >= 0) {
-						docId = postingInput.readVInt() + prevId + 1;
-					} else {
-						docId = postingInput.readVInt();
-					}
-
-					int tf = postingInput.readVInt();
-
-					int[] positions = null;
-					if (indexFieldOption.isStorePosition()) {
-						int prevPosition = -1;
-						positions = new int[tf];
-						for (int j = 0; j < tf; j++) {
-							if (prevPosition >= 0) {
-								positions[j] = postingInput.readVInt() + prevPosition + 1;
-							} else {
-								positions[j] = postingInput.readVInt();
-							}
-							prevPosition = positions[j];
-						}
-
-					}
-
-					termDocList[i] = new PostingDoc(docId, tf, positions);
-
-					prevId = docId;
-
-				}
-
-				// TermDocsReader r = new TermDocsReader(new TermDocs(indexFieldSequence, term, termDocList, count));
-
-				termDocsList.add(new PostingDocs(term, termDocList, count));
-				// if (r.next()) {
-				// heap.push(r);
-				// }
-
-			}// for
+				// 다음 단어의 포스팅 위치. 데이터 길이는 길이 int 자신을 제외한 크기이다.
+				sharedInput.seek(pos);
+				int len = sharedInput.readInt();
+				postingReaderList.add(new BufferedPostingReader(term, 0, 0, segmentDocumentCount, indexFieldOption, sharedInput, pos, postingSkipReader, true));
+				pos += IOUtil.SIZE_OF_INT + len;
+			}
 
-			return new PostingDocsMerger(termDocsList).merge(term, 1024);
+			return new PostingDocsMerger(term, postingReaderList, segmentDocumentCount, sharedInput);
 		}
 		return null;
 	}
@@ -665,7 +586,7 @@ public class SearchIndexReader implements Cloneable {
 	}
 	public SearchMethod createSearchMethod(AbstractSearchMethod searchMethod){
 		//index input은 clone하여 각자 사용한다. 
-		searchMethod.init(this.memoryLexicon, this.lexiconInput.clone(), this.postingInput.clone(), this.indexFieldOption, this.segmentDocumentCount);
+		searchMethod.init(this.memoryLexicon, this.lexiconInput.clone(), this.postingInput.clone(), this.postingSkipReader, this.indexFieldOption, this.segmentDocumentCount);
 		return searchMethod;
 	}
 	
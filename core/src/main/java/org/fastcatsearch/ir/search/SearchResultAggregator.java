@@ -24,6 +24,9 @@ public class SearchResultAggregator {
 	
 	private Schema schema;
 	private Query q;
+	//add 로 머징중인 결과.
+	private InternalSearchResult mergedResult;
+	private int addCount;
 	
 	public SearchResultAggregator(Query q, Schema schema){
 		this.q = q;
@@ -41,94 +44,138 @@ public class SearchResultAggregator {
 			//머징할것이 없는 경우 그대로 리턴.
 			return resultList.get(0);
 		} else {
-			Groups groups = q.getGroups();
-			Sorts sorts = q.getSorts();
 			Metadata meta = q.getMeta();
-			int start = meta.start();
-			int rows = meta.rows();
-			int totalCount = 0;
-			int count = 0;
-			
-			GroupDataMerger dataMerger = null;
-			
-			if(groups != null){
-				dataMerger = new GroupDataMerger(groups, mergeSize);
+			return merge(resultList, meta.start(), meta.rows());
+		}
+		
+	}
+
+	/**
+	 * 도착한 결과를 바로 머징한다. start 를 적용하지 않고 앞에서부터 start + rows - 1 개를 유지하며,
+	 * 모든 결과를 넣은 뒤 result() 로 start 를 적용한 최종결과를 얻는다.
+	 * 결과는 머징용도(forMerging)로 검색된 것이어야 한다.
+	 * */
+	public void add(InternalSearchResult result) {
+		addCount++;
+		if (mergedResult == null) {
+			mergedResult = result;
+		} else {
+			Metadata meta = q.getMeta();
+			List<InternalSearchResult> list = new ArrayList<InternalSearchResult>(2);
+			list.add(mergedResult);
+			list.add(result);
+			mergedResult = merge(list, 1, meta.start() + meta.rows() - 1);
+		}
+	}
+
+	public int addCount() {
+		return addCount;
+	}
+
+	/**
+	 * add 로 머징한 결과에 start 를 적용한다. 넣은 결과가 없으면 null.
+	 * */
+	public InternalSearchResult result() {
+		if (mergedResult == null) {
+			return null;
+		}
+		Metadata meta = q.getMeta();
+		List<InternalSearchResult> list = new ArrayList<InternalSearchResult>(1);
+		list.add(mergedResult);
+		return merge(list, meta.start(), meta.rows());
+	}
+
+	/*
+	 * 각 결과의 hit 를 정렬기준으로 합쳐 start 번째부터 rows 개를 리턴한다. 그룹결과와 explain 도 합친다.
+	 * */
+	private InternalSearchResult merge(List<InternalSearchResult> resultList, int start, int rows) {
+		int mergeSize = resultList.size();
+		Groups groups = q.getGroups();
+		Sorts sorts = q.getSorts();
+		int totalCount = 0;
+		int count = 0;
+		
+		GroupDataMerger dataMerger = null;
+		
+		if(groups != null){
+			dataMerger = new GroupDataMerger(groups, mergeSize);
+		}
+		
+		//정렬을 다시한번 수행해서 top N을 뽑는다.
+		
+		FixedMinHeap<FixedHitReader> hitMerger = null;
+		
+		if(sorts != null){
+			try {
+				hitMerger = sorts.createMerger(schema, mergeSize);
+			} catch (IOException e) {
+				logger.error("Merger생성중 에러발생.", e);
+				return null;
 			}
+		}else{
+			hitMerger = new FixedMinHeap<FixedHitReader>(mergeSize);
+		}
+		
+		List<Explanation> explanationList = null;
+		for (int i = 0; i < resultList.size(); i++) {
+			InternalSearchResult result = resultList.get(i);
+			totalCount += result.getTotalCount();
+			FixedHitReader hitReader = result.getFixedHitReader();
 			
-			//정렬을 다시한번 수행해서 top N을 뽑는다.
-			
-			FixedMinHeap<FixedHitReader> hitMerger = null;
+			//posting data
+			if(hitReader.next()){
+				hitMerger.push(hitReader);
+			}
 			
-			if(sorts != null){
-				try {
-					hitMerger = sorts.createMerger(schema, mergeSize);
-				} catch (IOException e) {
-					logger.error("Merger생성중 에러발생.", e);
-					return null;
-				}
-			}else{
-				hitMerger = new FixedMinHeap<FixedHitReader>(mergeSize);
+			GroupsData groupData = result.getGroupsData();
+			if(groupData != null){
+				//Put GroupResult
+				dataMerger.put(groupData);
 			}
 			
-			List<Explanation> explanationList = null;
-			for (int i = 0; i < resultList.size(); i++) {
-				InternalSearchResult result = resultList.get(i);
-				totalCount += result.getTotalCount();
-				FixedHitReader hitReader = result.getFixedHitReader();
-				
-				//posting data
-				if(hitReader.next()){
-					hitMerger.push(hitReader);
-				}
-				
-				GroupsData groupData = result.getGroupsData();
-				if(groupData != null){
-					//Put GroupResult
-					dataMerger.put(groupData);
+			if(result.getExplanations() != null){
+				if(explanationList == null){
+					explanationList = new ArrayList<Explanation>();
 				}
-				
-				if(result.getExplanations() != null){
-					if(explanationList == null){
-						explanationList = new ArrayList<Explanation>();
-					}
-					for(Explanation exp : result.getExplanations()){
+				for(Explanation exp : result.getExplanations()){
+					//머징된 결과를 다시 머징할때는 노드정보가 없으므로 기존 정보를 유지한다.
+					if(result.getNodeId() != null){
 						exp.setNodeId(result.getNodeId());
-						explanationList.add(exp);
 					}
+					explanationList.add(exp);
 				}
 			}
-			
-			//각 shard의 결과들을 rankdata를 기준으로 재정렬한다.
-			FixedHitQueue totalHit = new FixedHitQueue(rows);
-			int c = 1;
-			
-			while(hitMerger.size() > 0){
-				FixedHitReader r = hitMerger.peek();
-				HitElement el = r.read();
-				if(c >= start){
-					totalHit.push(el);
-					count++;
-				}
-				c++;
-				
-				//결과가 만들어졌으면 일찍 끝낸다.
-				if(count == rows)
-					break;
-				
-				if(!r.next()){
-					//다 읽은 것은 버린다.
-					hitMerger.pop();
-				}
-				hitMerger.heapify();
+		}
+		
+		//각 shard의 결과들을 rankdata를 기준으로 재정렬한다.
+		FixedHitQueue totalHit = new FixedHitQueue(rows);
+		int c = 1;
+		
+		while(hitMerger.size() > 0){
+			FixedHitReader r = hitMerger.peek();
+			HitElement el = r.read();
+			if(c >= start){
+				totalHit.push(el);
+				count++;
 			}
+			c++;
+			
+			//결과가 만들어졌으면 일찍 끝낸다.
+			if(count == rows)
+				break;
 			
-			GroupsData groupData = null;
-			if(dataMerger != null){
-				groupData = dataMerger.merge();
+			if(!r.next()){
+				//다 읽은 것은 버린다.
+				hitMerger.pop();
 			}
-
-			return new InternalSearchResult(totalHit.getHitElementList(), count, totalCount, groupData, explanationList);
+			hitMerger.heapify();
 		}
 		
+		GroupsData groupData = null;
+		if(dataMerger != null){
+			groupData = dataMerger.merge();
+		}
+
+		return new InternalSearchResult(totalHit.getHitElementList(), count, totalCount, groupData, explanationList);
 	}
 }
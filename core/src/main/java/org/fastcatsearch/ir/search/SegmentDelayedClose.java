@@ -10,6 +10,10 @@ import java.util.concurrent.TimeUnit;
 
 /**
  * Created by swsong on 2016. 2. 24..
+ * 교체된 세그먼트 reader를 정해진 시간(기본 10초)이 지난후에 닫는다.
+ * 진행중인 검색을 추적하지 않으므로, 그보다 오래 걸리는 검색은 닫힌 reader 에서 IOException 을 받는다.
+ * mmap 으로 열린 세그먼트 파일은 읽을수 있는 clone 이 모두 사라진 후에 매핑을 해제하므로 읽던 메모리가 사라지지는 않는다.
+ * 아직 clone 이 남아있으면 해제가 미뤄지므로, 윈도우에서는 디렉토리 삭제가 실패할수 있으며 다음 로딩시 정리된다.
  */
 public class SegmentDelayedClose implements Delayed {
     private static Logger logger = LoggerFactory.getLogger(SegmentDelayedClose.class);
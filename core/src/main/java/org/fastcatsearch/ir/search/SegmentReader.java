@@ -22,7 +22,9 @@ import org.fastcatsearch.ir.common.IRException;
 import org.fastcatsearch.ir.common.IndexFileNames;
 import org.fastcatsearch.ir.config.DataInfo.SegmentInfo;
 import org.fastcatsearch.ir.document.DocumentReader;
+import org.fastcatsearch.ir.document.PrimaryKeyBloomFilter;
 import org.fastcatsearch.ir.io.BitSet;
+import org.fastcatsearch.ir.io.IndexInputFactory;
 import org.fastcatsearch.ir.settings.Schema;
 import org.fastcatsearch.ir.util.CloseableThreadLocal;
 import org.slf4j.Logger;
@@ -50,7 +52,12 @@ public class SegmentReader implements Comparable {
 	private FieldIndexesReader fieldIndexesReader;
 	private GroupIndexesReader groupIndexesReader;
 	private DocumentReader documentReader;
+	//검색에서 제외할 문서. delete.set 에 NRT 숨김문서를 합친 것이다.
 	private BitSet deleteSet;
+	private BitSet indexDeleteSet;
+	private BitSet nrtHiddenSet;
+	private PrimaryKeyBloomFilter primaryKeyBloomFilter;
+	private final FilterBitSetCache filterBitSetCache = new FilterBitSetCache();
 	private SegmentInfo segmentInfo;
 	private File segmentDir;
 
@@ -83,27 +90,59 @@ public class SegmentReader implements Comparable {
 	};
 	
 	public SegmentReader(SegmentInfo segmentInfo, Schema schema, File segmentDir, AnalyzerPoolManager analyzerPoolManager) throws IOException, IRException {
+		this(segmentInfo, schema, segmentDir, analyzerPoolManager, IndexInputFactory.DEFAULT);
+	}
+
+	/**
+	 * indexInputFactory 에 따라 세그먼트 파일을 mmap 으로 열수 있다.
+	 * close() 이후의 읽기는 IOException 이 발생하므로, 교체된 세그먼트는 SegmentDelayedClose 로 지연시켜 닫는다.
+	 * */
+	public SegmentReader(SegmentInfo segmentInfo, Schema schema, File segmentDir, AnalyzerPoolManager analyzerPoolManager, IndexInputFactory indexInputFactory) throws IOException, IRException {
     	this.segmentId = segmentInfo.getId();
         this.schema = schema;
 		this.segmentDir = segmentDir;
 		this.segmentInfo = segmentInfo;
 
-		this.documentReader = new DocumentReader(schema.schemaSetting(), segmentDir);
+		this.documentReader = new DocumentReader(schema.schemaSetting(), segmentDir, indexInputFactory);
 		int documentCount = documentReader.getDocumentCount();
         loadDeleteSet();
 
 		// reader들은 thread-safe하지 않다. clone해서 사용됨.
-        this.searchIndexesReader = new SearchIndexesReader(schema, segmentDir, analyzerPoolManager, documentCount);
+        this.searchIndexesReader = new SearchIndexesReader(schema, segmentDir, analyzerPoolManager, documentCount, indexInputFactory);
+		PrimaryKeyIndexesReader primaryKeyIndexesReader = searchIndexesReader.getPrimaryKeyIndexesReader();
+		if (primaryKeyIndexesReader != null) {
+			this.primaryKeyBloomFilter = primaryKeyIndexesReader.bloomFilter();
+		}
 		
 		//field index
-		this.fieldIndexesReader = new FieldIndexesReader(schema, segmentDir);
+		this.fieldIndexesReader = new FieldIndexesReader(schema, segmentDir, indexInputFactory);
 		
-        this.groupIndexesReader = new GroupIndexesReader(schema, segmentDir);
+        this.groupIndexesReader = new GroupIndexesReader(schema, segmentDir, indexInputFactory);
 	}
 
 	public void loadDeleteSet() throws IOException {
-		deleteSet = new BitSet(segmentDir, IndexFileNames.docDeleteSet);
-        logger.debug("DeleteCount = {}", deleteSet.getOnCount());
+		indexDeleteSet = new BitSet(segmentDir, IndexFileNames.docDeleteSet);
+		updateDeleteSet();
+        logger.debug("DeleteCount = {}", indexDeleteSet.getOnCount());
+	}
+
+	/**
+	 * NRT 세그먼트에 같은 PK 의 새 문서가 있어 검색에서 숨길 문서를 지정한다. delete.set 파일과 삭제문서수에는 반영하지 않는다.
+	 * null 이면 숨긴 문서를 되돌린다.
+	 * */
+	public void setNrtHiddenSet(BitSet nrtHiddenSet) {
+		this.nrtHiddenSet = nrtHiddenSet;
+		updateDeleteSet();
+	}
+
+	public BitSet nrtHiddenSet() {
+		return nrtHiddenSet;
+	}
+
+	private void updateDeleteSet() {
+		deleteSet = nrtHiddenSet != null ? indexDeleteSet.union(nrtHiddenSet) : indexDeleteSet;
+		//캐시된 필터 비트셋은 삭제문서를 제외한 것이므로 다시 만들어야 한다.
+		filterBitSetCache.invalidate();
 	}
 
 	public SegmentSearcher segmentSearcher(){
@@ -133,6 +172,20 @@ public class SegmentReader implements Comparable {
 	public BitSet deleteSet(){
 		return deleteSet;
 	}
+
+	/**
+	 * pk맵의 bloom filter. pk가 없거나 bloom filter 파일이 없는 세그먼트는 null.
+	 * */
+	public PrimaryKeyBloomFilter primaryKeyBloomFilter(){
+		return primaryKeyBloomFilter;
+	}
+	
+	/**
+	 * 세그먼트의 필터 비트셋 캐시. hit/miss 통계를 제공한다.
+	 * */
+	public FilterBitSetCache filterBitSetCache(){
+		return filterBitSetCache;
+	}
 	
 	public SearchIndexesReader newSearchIndexesReader(){
 		return searchIndexesReaderLocal.get();
@@ -151,10 +204,18 @@ public class SegmentReader implements Comparable {
 	}
 	
 	public void setDeleteSet(BitSet deleteSet) {
-		this.deleteSet = deleteSet;
+		this.indexDeleteSet = deleteSet;
+		updateDeleteSet();
 	}
 
 	public void close() throws IOException {
+		//노드 공용 캐시에서 이 세그먼트의 비트셋을 제거한다.
+		filterBitSetCache.invalidate();
+		//쓰레드별 clone 을 놓아주어야 mmap 매핑을 해제할수 있다. 검색중인 clone 은 검색이 끝나 GC 된후 해제된다.
+		documentReaderLocal.close();
+		searchIndexesReaderLocal.close();
+		fieldIndexesReaderLocal.close();
+		groupIndexesReaderLocal.close();
 		IOException exception = null; 
 		try{
 			searchIndexesReader.close();
@@ -187,7 +248,7 @@ public class SegmentReader implements Comparable {
 
     //세그먼트 추가에 의하여 deleteSet이 변경되었을때, info.xml 에 적용한다.
     public int syncDeleteCountToInfo() {
-        int deleteCount = deleteSet.getOnCount();
+        int deleteCount = indexDeleteSet.getOnCount();
         segmentInfo.setDeleteCount(deleteCount);
         return deleteCount;
     }
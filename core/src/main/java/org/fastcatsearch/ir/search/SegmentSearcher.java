@@ -19,6 +19,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.io.StringWriter;
+import java.util.List;
 
 /**
  * Single Thread로 동작한다.
@@ -93,13 +94,27 @@ public class SegmentSearcher {
 		} else {
 			operatedClause = clause.getOperatedClause(docCount, segmentReader.newSearchIndexesReader(), highlightInfo);
 		}
+		BitSet localDeleteSet = segmentReader.deleteSet();
 		// filter
 		if (filters != null) {
 			if(fieldIndexesReader == null){
 				fieldIndexesReader = segmentReader.newFieldIndexesReader();
 			}
+			//캐시가능한 필터는 세그먼트의 필터 비트셋을 검색절과 AND 하여 점수계산 전에 거른다.
+			List<Filter> cacheableFilterList = filters.getCacheableFilterList();
+			if (cacheableFilterList.size() > 0) {
+				//처음 요청된 필터는 비트셋 대신 HitFilter 로 거르도록 remainFilters 에 들어온다.
+				Filters remainFilters = filters.getUncacheableFilters();
+				BitSet[] bitSets = segmentReader.filterBitSetCache().get(cacheableFilterList, schema, fieldIndexesReader, localDeleteSet, docCount, remainFilters);
+				if (bitSets.length > 0) {
+					operatedClause = new AndOperatedClause(new BitSetOperatedClause(bitSets, docCount), operatedClause);
+				}
+				filters = remainFilters;
+			}
 			//schema를 통해 field index setting을 알아야 필터링시 ignorecase등의 정보를 활용가능하다.
-			hitFilter = filters.getHitFilter(schema, fieldIndexesReader, BULK_SIZE);
+			if (filters.size() > 0) {
+				hitFilter = filters.getHitFilter(schema, fieldIndexesReader, BULK_SIZE);
+			}
 		}
 
 		//group
@@ -116,7 +131,6 @@ public class SegmentSearcher {
 
 		RankInfo[] rankInfoList = new RankInfo[BULK_SIZE];
 		boolean exausted = false;
-		BitSet localDeleteSet = segmentReader.deleteSet();
 
 
 		/**
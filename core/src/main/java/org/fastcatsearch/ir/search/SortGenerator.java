@@ -49,6 +49,7 @@ public class SortGenerator {
 //	private int dataSize; //쿼리 소트필드들의 데이터길이 
 	private IndexRef<FieldIndexReader> indexRef;
 	private BytesRef[] dataList;
+	private NumericDocValues[] docValuesList; //doc values 가 있는 숫자형 정렬필드는 필드색인 대신 사용한다.
 	private int sortSize;//다중정렬갯수.
 	
 	public SortGenerator() throws IOException{
@@ -61,6 +62,7 @@ public class SortGenerator {
             this.fieldIndex = new int[sortSize];
             this.isAscending = new boolean[sortSize];
             this.dataList = new BytesRef[sortSize];
+            this.docValuesList = new NumericDocValues[sortSize];
 
             List<String> fieldIdList = new ArrayList<String>(sortSize);
             for (int i = 0; i < sortSize; i++) {
@@ -87,7 +89,8 @@ public class SortGenerator {
                     fieldIdList.add(null);
                 } else {
                     fieldIndex[i] = idx;
-                    fieldIdList.add(fieldId);
+                    docValuesList[i] = fieldIndexesReader.getNumericDocValues(fieldId);
+                    fieldIdList.add(docValuesList[i] == null ? fieldId : null);
 //				dataSize += schema.getFieldSetting(fieldId).getByteSize();
                 }
                 isAscending[i] = sort.asc();
@@ -98,7 +101,7 @@ public class SortGenerator {
             indexRef = fieldIndexesReader.selectIndexRef(fieldIdList.toArray(new String[0]));
             for (int sequence = 0; sequence < sortSize; sequence++) {
                 //데이터와 연결되어 있는 필드만 추가해준다.
-                if (fieldIndex[sequence] >= 0) {
+                if (fieldIndex[sequence] >= 0 && docValuesList[sequence] == null) {
                     dataList[sequence] = indexRef.getDataRef(sequence).bytesRef();
                 }
                 //score, hit 필드등은 여기서는 null이며, 아래 getHitElement 에서 읽을때 객체를 생성한다.
@@ -171,6 +174,11 @@ public class SortGenerator {
                 rankData[j] = new BytesRef(MatchOrderField.fieldSize);
                 IOUtil.writeInt(rankData[j], ri.filterMatchOrder());
                 rankData[j].flip();
+            } else if(docValuesList[j] != null) {
+				NumericDocValues docValues = docValuesList[j];
+				byte[] bytes = new byte[docValues.byteSize()];
+				docValues.writeBytes(docValues.get(ri.docNo()), bytes, 0);
+				rankData[j] = new BytesRef(bytes, 0, bytes.length);
             } else {
 //				BytesRef bytesRef = indexRef.getDataRef(j).bytesRef();
 //				rankData[j] = bytesRef.duplicate();
@@ -34,6 +34,25 @@ public class TermDocTreeReader {
 
 		return -1;
 	}
+
+	/*
+	 * targetDocNo 이상인 다음 문서로 이동한다.
+	 * */
+	public int advance(TermDocCollector termDocCollector, int targetDocNo) throws IOException {
+		
+		if(root == null){
+			return -1;
+		}
+		
+		int docNo = root.advance(targetDocNo);
+
+		if (docNo != -1) {
+			root.fill(termDocCollector);
+			return docNo;
+		}
+
+		return -1;
+	}
 	
 	class BigramTreeNode extends NodeReader {
 
@@ -83,6 +102,18 @@ public class TermDocTreeReader {
 			return -1;
 		}
 
+		@Override
+		public int advance(int targetDocNo) throws IOException {
+			//아직 리턴하지 않은 문서가 target 보다 작은 쪽만 건너뛰고, 작은 문서번호를 리턴한다.
+			if (docNo1 != -1 && docNo1 < targetDocNo) {
+				docNo1 = node1.advance(targetDocNo);
+			}
+			if (docNo2 != -1 && docNo2 < targetDocNo) {
+				docNo2 = node2.advance(targetDocNo);
+			}
+			return next();
+		}
+
 		@Override
 		public void fill(TermDocCollector termDocCollector) {
 			termDocCollector.addAll(tempTermDocCollector);
@@ -50,6 +50,14 @@ public class AllDocumentOperatedClause extends OperatedClause {
 		return false;
 	}
 
+	@Override
+	protected boolean advanceDoc(RankInfo rankInfo, int targetDocNo) {
+		if(targetDocNo > pos){
+			pos = targetDocNo;
+		}
+		return nextDoc(rankInfo);
+	}
+
 	@Override
 	public void close() {
 		
@@ -139,6 +139,14 @@ public class AnalyzedBooleanClause extends OperatedClause {
 		return operatedClause.next(rankInfo);
 	}
 
+	@Override
+	protected boolean advanceDoc(RankInfo rankInfo, int targetDocNo) throws IOException {
+		if (operatedClause == null) {
+			return false;
+		}
+		return operatedClause.advance(rankInfo, targetDocNo);
+	}
+
 	@Override
 	public void close() {
 		if (operatedClause != null) {
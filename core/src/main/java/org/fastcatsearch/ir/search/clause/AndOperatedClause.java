@@ -49,53 +49,64 @@ public class AndOperatedClause extends OperatedClause {
     }
 
     protected boolean nextDoc(RankInfo rankInfo) throws IOException {
-        while(true) {
-            if(needsPositions) {
-                docInfo1.clearOccurrence();
-                docInfo2.clearOccurrence();
-            }
-            hasNext1 = clause1.next(docInfo1);
-            hasNext2 = clause2.next(docInfo2);
-
-            if (hasNext1 && hasNext2) {
-                int doc1 = docInfo1.docNo();
-                int doc2 = docInfo2.docNo();
-                while (hasNext1 && hasNext2 && (doc1 != doc2)) {
-                    while (hasNext1 && (doc1 < doc2)) {
-                        if(needsPositions) {
-                            docInfo1.clearOccurrence();
-                        }
-                        hasNext1 = clause1.next(docInfo1);
-                        doc1 = docInfo1.docNo();
-                    }
-                    while (hasNext2 && (doc1 > doc2)) {
-                        if(needsPositions) {
-                            docInfo2.clearOccurrence();
-                        }
-                        hasNext2 = clause2.next(docInfo2);
-                        doc2 = docInfo2.docNo();
-                    }
-                }
+        if(needsPositions) {
+            docInfo1.clearOccurrence();
+            docInfo2.clearOccurrence();
+        }
+        hasNext1 = clause1.next(docInfo1);
+        if (!hasNext1) {
+            return false;
+        }
+        //절2는 절1의 문서까지 건너뛴다.
+        hasNext2 = clause2.advance(docInfo2, docInfo1.docNo());
+        return matchDoc(rankInfo);
+    }
 
-                if (hasNext1 && hasNext2 && (doc1 == doc2)) {
-
-                    rankInfo.explain(docInfo1);
-                    rankInfo.explain(docInfo2);
-                    if (needsPositions) {
-                        rankInfo.addTermOccurrencesList(docInfo1.getTermOccurrencesList());
-                        rankInfo.addTermOccurrencesList(docInfo2.getTermOccurrencesList());
-                    }
-                    //positions는 doc2(나중 텀)의 것 을 넣어준다.
-                    rankInfo.init(doc1, docInfo1.score() + docInfo2.score(), docInfo1.hit() + docInfo2.hit());
-                    return true;
-                }
+    @Override
+    protected boolean advanceDoc(RankInfo rankInfo, int targetDocNo) throws IOException {
+        if(needsPositions) {
+            docInfo1.clearOccurrence();
+            docInfo2.clearOccurrence();
+        }
+        hasNext1 = clause1.advance(docInfo1, targetDocNo);
+        if (!hasNext1) {
+            return false;
+        }
+        hasNext2 = clause2.advance(docInfo2, docInfo1.docNo());
+        return matchDoc(rankInfo);
+    }
 
-                return false;
+    /*
+     * 뒤쳐진 절을 앞선 절의 문서번호까지 advance 하면서 두 절이 같은 문서를 가리킬때까지 반복한다.
+     * */
+    private boolean matchDoc(RankInfo rankInfo) throws IOException {
+        while (hasNext1 && hasNext2) {
+            int doc1 = docInfo1.docNo();
+            int doc2 = docInfo2.docNo();
+            if (doc1 == doc2) {
+                rankInfo.explain(docInfo1);
+                rankInfo.explain(docInfo2);
+                if (needsPositions) {
+                    rankInfo.addTermOccurrencesList(docInfo1.getTermOccurrencesList());
+                    rankInfo.addTermOccurrencesList(docInfo2.getTermOccurrencesList());
+                }
+                //positions는 doc2(나중 텀)의 것 을 넣어준다.
+                rankInfo.init(doc1, docInfo1.score() + docInfo2.score(), docInfo1.hit() + docInfo2.hit());
+                return true;
+            } else if (doc1 < doc2) {
+                if(needsPositions) {
+                    docInfo1.clearOccurrence();
+                }
+                hasNext1 = clause1.advance(docInfo1, doc2);
             } else {
-                //절1과 절2중 하나라도 끝나면 AND 집합도 더이상 없는것이다.
-                return false;
+                if(needsPositions) {
+                    docInfo2.clearOccurrence();
+                }
+                hasNext2 = clause2.advance(docInfo2, doc1);
             }
         }
+        //절1과 절2중 하나라도 끝나면 AND 집합도 더이상 없는것이다.
+        return false;
     }
 
 
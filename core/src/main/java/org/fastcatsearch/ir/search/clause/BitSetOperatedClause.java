@@ -0,0 +1,86 @@
+package org.fastcatsearch.ir.search.clause;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import org.fastcatsearch.ir.io.BitSet;
+import org.fastcatsearch.ir.query.RankInfo;
+
+/**
+ * 비트셋들에 모두 포함된 문서를 리턴한다. 점수와 hit 는 0 이다.
+ * 캐시된 필터 비트셋을 검색절과 AND 하여 점수계산전에 문서를 걸러내는데 사용한다. (FilterBitSetCache)
+ * */
+public class BitSetOperatedClause extends OperatedClause {
+	private BitSet[] bitSets;
+	private int docCount;
+	private int pos;
+
+	public BitSetOperatedClause(BitSet[] bitSets, int docCount) {
+		super("FILTER");
+		this.bitSets = bitSets;
+		this.docCount = docCount;
+	}
+
+	@Override
+	protected boolean nextDoc(RankInfo rankInfo) {
+		return find(rankInfo, pos);
+	}
+
+	@Override
+	protected boolean advanceDoc(RankInfo rankInfo, int targetDocNo) {
+		return find(rankInfo, Math.max(pos, targetDocNo));
+	}
+
+	private boolean find(RankInfo rankInfo, int from) {
+		int docNo = bitSets[0].nextSetBit(from);
+		while (docNo >= 0 && docNo < docCount) {
+			boolean isInclude = true;
+			for (int i = 1; i < bitSets.length; i++) {
+				if (!bitSets[i].isSet(docNo)) {
+					isInclude = false;
+					break;
+				}
+			}
+			if (isInclude) {
+				if (isExplain()) {
+					rankInfo.explain(id, 0, "");
+				}
+				rankInfo.init(docNo, 0, 0);
+				pos = docNo + 1;
+				return true;
+			}
+			docNo = bitSets[0].nextSetBit(docNo + 1);
+		}
+		pos = docCount;
+		rankInfo.init(-1, -1);
+		return false;
+	}
+
+	@Override
+	public void close() {
+
+	}
+
+	@Override
+	protected void initClause(boolean explain) {
+	}
+
+	@Override
+	public void printTrace(Writer writer, int indent, int depth) throws IOException {
+		String indentSpace = "";
+		if(depth > 0){
+			for (int i = 0; i < (depth - 1) * indent; i++) {
+				indentSpace += " ";
+			}
+
+			for (int i = (depth - 1) * indent, p = 0; i < depth * indent; i++, p++) {
+				if(p == 0){
+					indentSpace += "|";
+				}else{
+					indentSpace += "-";
+				}
+			}
+		}
+		writer.append(indentSpace).append("[FILTER] bitset[").append(String.valueOf(bitSets.length)).append("]\n");
+	}
+}
@@ -41,31 +41,42 @@ public class BoostOperatedClause extends OperatedClause {
 	}
 
 	protected boolean nextDoc(RankInfo rankInfo) throws IOException {
+		if(mainClause.next(docInfo1)){
+			return boostDoc(rankInfo);
+		}
+		return false;
+	}
+
+	@Override
+	protected boolean advanceDoc(RankInfo rankInfo, int targetDocNo) throws IOException {
+		if(mainClause.advance(docInfo1, targetDocNo)){
+			return boostDoc(rankInfo);
+		}
+		return false;
+	}
+
+	/*
+	 * mainClause 의 현재문서에 boostClause 점수를 더한다.
+	 * */
+	private boolean boostDoc(RankInfo rankInfo) throws IOException {
+		int doc1 = docInfo1.docNo();
+		int newScore = docInfo1.score();
 		
-		int newScore = 0;
-		while(mainClause.next(docInfo1)){
-			int doc1 = docInfo1.docNo();
-			newScore = docInfo1.score();
-			
-			while(docInfo2.docNo() != -1 && docInfo2.docNo() < doc1){
-				if(!boostClause.next(docInfo2)){
-					//끝이면 탈출.
-					break;
-				}
-			}
-			
-			if(doc1 == docInfo2.docNo()){
-				newScore += docInfo2.score();
-				rankInfo.explain(docInfo2);
+		while(docInfo2.docNo() != -1 && docInfo2.docNo() < doc1){
+			if(!boostClause.next(docInfo2)){
+				//끝이면 탈출.
+				break;
 			}
-			
-			rankInfo.init(doc1, newScore);
-			rankInfo.explain(docInfo1);
-			return true; 
-			
 		}
 		
-		return false;
+		if(doc1 == docInfo2.docNo()){
+			newScore += docInfo2.score();
+			rankInfo.explain(docInfo2);
+		}
+		
+		rankInfo.init(doc1, newScore);
+		rankInfo.explain(docInfo1);
+		return true;
 	}
 	
 	@Override
@@ -74,6 +74,18 @@ public class MultiTermOperatedClause extends OperatedClause {
 	}
 
 	protected boolean nextDoc(RankInfo docInfo) throws IOException {
+		return readDoc(docInfo, -1);
+	}
+
+	@Override
+	protected boolean advanceDoc(RankInfo docInfo, int targetDocNo) throws IOException {
+		return readDoc(docInfo, targetDocNo);
+	}
+
+	/*
+	 * targetDocNo 가 0이상이면 첫 문서는 targetDocNo 이상으로 건너뛰어 읽는다.
+	 * */
+	private boolean readDoc(RankInfo docInfo, int targetDocNo) throws IOException {
 		if (termDocCollector == null) {
 			termDocCollector = new TermDocCollector(termCount);
 		}
@@ -84,7 +96,12 @@ public class MultiTermOperatedClause extends OperatedClause {
 
 			while (true) {
 				termDocCollector.clear();
-				docNo = termDocTreeReader.next(termDocCollector);
+				if (targetDocNo >= 0) {
+					docNo = termDocTreeReader.advance(termDocCollector, targetDocNo);
+					targetDocNo = -1;
+				} else {
+					docNo = termDocTreeReader.next(termDocCollector);
+				}
 				if (docNo == -1 || (((float) termDocCollector.size()) / ((float) termDocCollector.capasity()) > 0.7f)) {
 					break;
 				}
@@ -44,29 +44,21 @@ public class NotOperatedClause extends OperatedClause {
 			return false;
 		
 		int doc1 = docInfo1.docNo();
-		int doc2 = docInfo2.docNo();
-		int score1 = docInfo1.score();
-
-		do{
-			while(hasNext1 && hasNext2 && (doc1 == doc2)){
+		while(hasNext1 && hasNext2){
+			int doc2 = docInfo2.docNo();
+			if(doc2 < doc1){
+				//제외할 문서목록은 doc1 까지 건너뛴다.
+				hasNext2 = clause2.advance(docInfo2, doc1);
+			}else if(doc2 == doc1){
 				hasNext1 = clause1.next(docInfo1);
-				hasNext2 = clause2.next(docInfo2);
 				doc1 = docInfo1.docNo();
-				doc2 = docInfo2.docNo();
-				score1 = docInfo1.score();
-			}
-			
-			while(hasNext2 && (doc1 > doc2)){
-				hasNext2 = clause2.next(docInfo2);
-				doc2 = docInfo2.docNo();
+			}else{
+				break;
 			}
-			
-			//2012-02-03 문서리스트가 끝나, 번호가 -1이면 루프를 끝낸다.
-			//2014-6-17 swsong: -1로 셋팅되지 않은 경우도 있으므로, hasNext1가 false이면 루프를 끝내도록 수정.
-		} while(hasNext1 && hasNext2 && doc1 == doc2); 
-		
+		}
+		//2014-6-17 swsong: -1로 셋팅되지 않은 경우도 있으므로, hasNext1가 false이면 끝낸다.
 		if(hasNext1){
-			rankInfo.init(doc1, score1);
+			rankInfo.init(doc1, docInfo1.score());
 			rankInfo.explain(docInfo1);
 			hasNext1 = clause1.next(docInfo1);
 			return true;
@@ -74,7 +66,15 @@ public class NotOperatedClause extends OperatedClause {
 			rankInfo.init(-1, 0);
 			return false;
 		}
-		
+	}
+	
+	@Override
+	protected boolean advanceDoc(RankInfo rankInfo, int targetDocNo) throws IOException {
+		//docInfo1은 아직 리턴하지 않은 다음 문서이다.
+		if(hasNext1 && docInfo1.docNo() < targetDocNo){
+			hasNext1 = clause1.advance(docInfo1, targetDocNo);
+		}
+		return nextDoc(rankInfo);
 	}
 
 	@Override
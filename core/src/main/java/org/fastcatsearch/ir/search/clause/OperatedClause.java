@@ -102,6 +102,45 @@ public abstract class OperatedClause {
 	
 	protected abstract boolean nextDoc(RankInfo docInfo) throws IOException;
 	
+	/**
+	 * targetDocNo 이상인 첫 문서로 이동한다. 현재위치에서 최소 한 문서는 진행한다.
+	 * @param rankInfo
+	 * @param targetDocNo
+	 * @return RankInfo를 올바로 읽었는지 여부. 
+	 */
+	public boolean advance(RankInfo rankInfo, int targetDocNo) throws IOException {
+		
+		if(explanation != null){
+			rankInfo.reset();
+			long start = System.nanoTime();
+			if(advanceDoc(rankInfo, targetDocNo)){
+				explanation.addTime(System.nanoTime() - start);
+				explanation.addRow();
+				return true;
+			}else{
+				explanation.addTime(System.nanoTime() - start);
+				return false;
+			}
+		}else{
+			return advanceDoc(rankInfo, targetDocNo);
+		}
+	}
+	
+	/**
+	 * 기본구현은 nextDoc으로 순차 이동한다. 포스팅을 건너뛸 수 있는 절은 override 한다.
+	 */
+	protected boolean advanceDoc(RankInfo rankInfo, int targetDocNo) throws IOException {
+		while(nextDoc(rankInfo)){
+			if(rankInfo.docNo() >= targetDocNo){
+				return true;
+			}
+			//건너뛴 문서의 정보는 버린다.
+			rankInfo.clearOccurrence();
+			rankInfo.reset();
+		}
+		return false;
+	}
+	
 	public abstract void close();
 	
 	public String id(){
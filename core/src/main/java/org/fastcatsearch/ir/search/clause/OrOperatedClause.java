@@ -204,6 +204,26 @@ public class OrOperatedClause extends OperatedClause {
         return false;
     }
 
+    /*
+     * target 보다 앞선 절만 건너뛰고, 두 절 중 작은 문서를 리턴한다.
+     * */
+    @Override
+    protected boolean advanceDoc(RankInfo rankInfo, int targetDocNo) throws IOException {
+        if(hasNext1 && docInfo1.docNo() < targetDocNo){
+            if(needsPositions) {
+                docInfo1.clearOccurrence();
+            }
+            hasNext1 = clause1.advance(docInfo1, targetDocNo);
+        }
+        if(hasNext2 && docInfo2.docNo() < targetDocNo){
+            if(needsPositions) {
+                docInfo2.clearOccurrence();
+            }
+            hasNext2 = clause2.advance(docInfo2, targetDocNo);
+        }
+        return nextDoc(rankInfo);
+    }
+
     @Override
     public String toString(){
         return "["+getClass().getSimpleName()+"]"
@@ -169,6 +169,14 @@ public class PhraseClause extends OperatedClause {
         return operatedClause.next(rankInfo);
     }
 
+    @Override
+    protected boolean advanceDoc(RankInfo rankInfo, int targetDocNo) throws IOException {
+        if (operatedClause == null) {
+            return false;
+        }
+        return operatedClause.advance(rankInfo, targetDocNo);
+    }
+
     @Override
     public void close() {
         if (operatedClause != null) {
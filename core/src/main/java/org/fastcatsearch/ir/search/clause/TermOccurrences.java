@@ -1,5 +1,7 @@
 package org.fastcatsearch.ir.search.clause;
 
+import org.fastcatsearch.ir.search.PostingDoc;
+
 /**
  * Created by swsong on 2016. 2. 14..
  */
@@ -8,6 +10,7 @@ public class TermOccurrences {
     private String synonymOf;
     private int queryPosition;
     private int[] position;
+    private PostingDoc postingDoc;
 
     public TermOccurrences(String termString, String synonymOf, int queryPosition) {
         this.termString = termString;
@@ -17,6 +20,16 @@ public class TermOccurrences {
 
     public TermOccurrences withPosition(int[] position) {
         this.position = position;
+        this.postingDoc = null;
+        return this;
+    }
+
+    /**
+     * 출현위치는 getPosition() 을 호출할때 postingDoc 에서 읽는다. 위치정보를 사용하지 않는 검색에서는 배열을 만들지 않는다.
+     * */
+    public TermOccurrences withPosting(PostingDoc postingDoc) {
+        this.position = null;
+        this.postingDoc = postingDoc;
         return this;
     }
 
@@ -33,6 +46,9 @@ public class TermOccurrences {
     }
 
     public int[] getPosition() {
+        if (position == null && postingDoc != null) {
+            position = postingDoc.positions();
+        }
         return position;
     }
 
@@ -43,6 +59,7 @@ public class TermOccurrences {
             b.append("Syn[").append(synonymOf).append("] ");
         }
         b.append("Query[").append(queryPosition).append("] Pos[");
+        int[] position = getPosition();
         if(position != null) {
             for (int i = 0; i < position.length; i++) {
                 if (i > 0) {
@@ -65,26 +65,7 @@ public class TermOperatedClause extends OperatedClause {
             return false;
         }
         if (postingReader.hasNext()) {
-            PostingDoc postingDoc = postingReader.next();
-            int score = 0;
-
-            if(postingReader.weight() > 0) {
-                score = postingReader.weight();
-            } else if(postingReader.weight() == -1) {
-                float tf = 2.2f * postingDoc.tf() / (2.0f + postingDoc.tf());
-                float idf = (float) Math.log(documentCount / segmentDF);
-                score = (int) (tf * idf * SCORE_BASE);
-            }
-//            logger.debug("TermOP >> {} doc[{}] score[{}] hit[{}] pos[{}]", termString, postingDoc.docNo(), score, termString.length(), postingDoc.positions());
-//			rankInfo.init(postingDoc.docNo(), score, postingDoc.tf(), postingDoc.positions());
-            rankInfo.init(postingDoc.docNo(), score, termString.length() * 3);
-            rankInfo.addMatchSequence(termSequence);
-            if(postingDoc.positions() != null) {
-                rankInfo.addTermOccurrences(termOccurrence.withPosition(postingDoc.positions()));
-            }
-            if(isExplain()){
-                rankInfo.explain(id, score, postingReader.term().toString());
-            }
+            readPostingDoc(rankInfo, postingReader.next());
             return true;
         } else {
             rankInfo.setEmpty();
@@ -92,6 +73,45 @@ public class TermOperatedClause extends OperatedClause {
         }
     }
 
+    @Override
+    protected boolean advanceDoc(RankInfo rankInfo, int targetDocNo) throws IOException {
+        if (postingReader == null) {
+            rankInfo.setEmpty();
+            return false;
+        }
+        //skip 정보가 있으면 포스팅을 건너뛴다.
+        PostingDoc postingDoc = postingReader.advance(targetDocNo);
+        if (postingDoc != null) {
+            readPostingDoc(rankInfo, postingDoc);
+            return true;
+        } else {
+            rankInfo.setEmpty();
+            return false;
+        }
+    }
+
+    private void readPostingDoc(RankInfo rankInfo, PostingDoc postingDoc) {
+        int score = 0;
+
+        if(postingReader.weight() > 0) {
+            score = postingReader.weight();
+        } else if(postingReader.weight() == -1) {
+            float tf = 2.2f * postingDoc.tf() / (2.0f + postingDoc.tf());
+            float idf = (float) Math.log(documentCount / segmentDF);
+            score = (int) (tf * idf * SCORE_BASE);
+        }
+//        logger.debug("TermOP >> {} doc[{}] score[{}] hit[{}] pos[{}]", termString, postingDoc.docNo(), score, termString.length(), postingDoc.positions());
+//		rankInfo.init(postingDoc.docNo(), score, postingDoc.tf(), postingDoc.positions());
+        rankInfo.init(postingDoc.docNo(), score, termString.length() * 3);
+        rankInfo.addMatchSequence(termSequence);
+        if(postingDoc.hasPositions()) {
+            rankInfo.addTermOccurrences(termOccurrence.withPosting(postingDoc));
+        }
+        if(isExplain()){
+            rankInfo.explain(id, score, postingReader.term().toString());
+        }
+    }
+
     @Override
     public String toString() {
         if (postingReader != null) {
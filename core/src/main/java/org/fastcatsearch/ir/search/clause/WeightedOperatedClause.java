@@ -44,7 +44,19 @@ public class WeightedOperatedClause extends OperatedClause {
 	protected boolean nextDoc(RankInfo docInfo) throws IOException {
 		
 		hasNext1 = mainClause.next(docInfo1);
-		
+		return weightDoc(docInfo);
+	}
+
+	@Override
+	protected boolean advanceDoc(RankInfo docInfo, int targetDocNo) throws IOException {
+		hasNext1 = mainClause.advance(docInfo1, targetDocNo);
+		return weightDoc(docInfo);
+	}
+
+	/*
+	 * mainClause 의 현재문서에 weightClause 점수를 더한다.
+	 * */
+	private boolean weightDoc(RankInfo docInfo) throws IOException {
 		if (hasNext1) {
 			int doc1 = docInfo1.docNo();
 			int doc2 = docInfo2.docNo();
@@ -5,6 +5,7 @@ import org.fastcatsearch.ir.io.CharVector;
 import org.fastcatsearch.ir.io.IndexInput;
 import org.fastcatsearch.ir.search.MemoryLexicon;
 import org.fastcatsearch.ir.search.PostingReader;
+import org.fastcatsearch.ir.search.PostingSkipReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -18,6 +19,8 @@ public abstract class AbstractSearchMethod implements SearchMethod {
 	
 	protected IndexInput postingInput;
 	
+	protected PostingSkipReader postingSkipReader;
+	
 	protected MemoryLexicon memoryLexicon;
 
 	protected IndexFieldOption indexFieldOption;
@@ -30,9 +33,14 @@ public abstract class AbstractSearchMethod implements SearchMethod {
 	}
 
 	public void init(MemoryLexicon memoryLexicon, IndexInput lexiconInput, IndexInput postingInput, IndexFieldOption indexFieldOption, int segmentDocumentCount) {
+		init(memoryLexicon, lexiconInput, postingInput, null, indexFieldOption, segmentDocumentCount);
+	}
+	
+	public void init(MemoryLexicon memoryLexicon, IndexInput lexiconInput, IndexInput postingInput, PostingSkipReader postingSkipReader, IndexFieldOption indexFieldOption, int segmentDocumentCount) {
 		this.memoryLexicon = memoryLexicon;
 		this.lexiconInput = lexiconInput;
 		this.postingInput = postingInput;
+		this.postingSkipReader = postingSkipReader;
 		this.indexFieldOption = indexFieldOption;
 		this.segmentDocumentCount = segmentDocumentCount;
 		
@@ -58,7 +58,7 @@ public class NormalSearchMethod extends AbstractSearchMethod {
 			throw e;
 		}
 		if (inputOffset >= 0) {
-			return new BufferedPostingReader(term, termPosition, weight, segmentDocumentCount, indexFieldOption, postingInput, inputOffset);
+			return new BufferedPostingReader(term, termPosition, weight, segmentDocumentCount, indexFieldOption, postingInput, inputOffset, postingSkipReader);
 		}
 
 		return null;
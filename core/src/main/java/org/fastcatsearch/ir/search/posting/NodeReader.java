@@ -12,6 +12,17 @@ public abstract class NodeReader {
 	// 다음 문서번호.
 	public abstract int next() throws IOException;
 
+	// targetDocNo 이상인 다음 문서번호. 기본구현은 next로 순차 이동한다.
+	public int advance(int targetDocNo) throws IOException {
+		int docNo = -1;
+		while ((docNo = next()) != -1) {
+			if (docNo >= targetDocNo) {
+				return docNo;
+			}
+		}
+		return -1;
+	}
+
 	// 채워준다.
 	public abstract void fill(TermDocCollector termDocCollector);
 
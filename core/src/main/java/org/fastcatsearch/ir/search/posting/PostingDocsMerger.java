@@ -1,57 +1,141 @@
 package org.fastcatsearch.ir.search.posting;
 
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 
 import org.fastcatsearch.ir.io.CharVector;
 import org.fastcatsearch.ir.io.FixedMinHeap;
+import org.fastcatsearch.ir.io.IndexInput;
+import org.fastcatsearch.ir.search.AbstractPostingReader;
 import org.fastcatsearch.ir.search.PostingDoc;
-import org.fastcatsearch.ir.search.PostingDocs;
-
-public class PostingDocsMerger {
-	
-	private FixedMinHeap<PostingDocsReader> heap;
-
-	public PostingDocsMerger(List<PostingDocs> termDocsList) {
-		heap = new FixedMinHeap<PostingDocsReader>(termDocsList.size());
-		for (PostingDocs termDocs : termDocsList) {
-			PostingDocsReader r = termDocs.getReader();
-			if (r.next()) {
-				heap.push(r);
+import org.fastcatsearch.ir.search.PostingReader;
+
+/**
+ * prefix, range 검색등 여러 단어의 포스팅을 문서번호순으로 머징하여 하나의 단어처럼 읽는다.
+ * 전체 포스팅을 메모리에 만들지 않고 각 reader 에서 필요한 만큼만 읽는다.
+ * 같은 문서는 tf를 합치고 출현위치를 정렬하여 합친다.
+ * */
+public class PostingDocsMerger extends AbstractPostingReader {
+
+	private FixedMinHeap<MergeEntry> heap;
+	private List<PostingReader> postingReaderList;
+	// reader 들이 같이 쓰는 input. close 시 닫는다.
+	private IndexInput sharedInput;
+	private int size;
+
+	private MergedPostingDoc mergedDoc;
+	private int[] positionBuffer;
+
+	public PostingDocsMerger(CharVector term, List<PostingReader> postingReaderList, int documentCount) throws IOException {
+		this(term, postingReaderList, documentCount, null);
+	}
+
+	public PostingDocsMerger(CharVector term, List<PostingReader> postingReaderList, int documentCount, IndexInput sharedInput) throws IOException {
+		super(term, 0, 0, documentCount);
+		this.postingReaderList = postingReaderList;
+		this.sharedInput = sharedInput;
+		heap = new FixedMinHeap<MergeEntry>(postingReaderList.size());
+		for (PostingReader postingReader : postingReaderList) {
+			size += postingReader.size();
+			if (postingReader.hasNext()) {
+				heap.push(new MergeEntry(postingReader, postingReader.next()));
 			}
 		}
+		mergedDoc = new MergedPostingDoc();
+		positionBuffer = new int[16];
 	}
 
-	//initSize : 예상되는 termdoc 의 갯수.
-	//TODO 차후에 reader로 변경하여 메모리 사용을 줄이도록한다.
-	public PostingDocs merge(CharVector term, int initSize) {
-		PostingDocs termDocs = new PostingDocs(term, initSize);
-		PostingDoc prevTermDoc = null;
-		while (heap.size() > 0) {
-			PostingDocsReader r = heap.peek();
-			PostingDoc postingDoc = r.read();
-			if (prevTermDoc != null && postingDoc.docNo() != prevTermDoc.docNo()) {
-				termDocs.addPostingDoc(prevTermDoc);
-			}
+	/**
+	 * 머징전 문서갯수의 합. 중복문서가 있으면 실제 문서수보다 크다.
+	 * */
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean hasNext() throws IOException {
+		return heap.size() > 0;
+	}
 
-			if (prevTermDoc != null) {
-				// tf머지.
-				prevTermDoc.addTf(postingDoc.tf());
-				// positions 머지.
-				prevTermDoc.addPositions(postingDoc.positions());
+	@Override
+	public PostingDoc next() throws IOException {
+		MergeEntry entry = heap.peek();
+		if (entry == null) {
+			return null;
+		}
+
+		int docNo = entry.postingDoc.docNo();
+		int tf = 0;
+		int positionSize = 0;
+		while (entry != null && entry.postingDoc.docNo() == docNo) {
+			PostingDoc postingDoc = entry.postingDoc;
+			tf += postingDoc.tf();
+			if (postingDoc.hasPositions()) {
+				int[] positions = postingDoc.positions();
+				if (positionSize + positions.length > positionBuffer.length) {
+					positionBuffer = Arrays.copyOf(positionBuffer, Math.max(positionBuffer.length * 2, positionSize + positions.length));
+				}
+				System.arraycopy(positions, 0, positionBuffer, positionSize, positions.length);
+				positionSize += positions.length;
 			}
-			if (!r.next()) {
+
+			// reader의 PostingDoc은 재사용되므로 값을 읽은 후에 진행한다.
+			if (entry.postingReader.hasNext()) {
+				entry.postingDoc = entry.postingReader.next();
+				heap.heapify();
+			} else {
 				// 다 읽은 것은 버린다.
 				heap.pop();
 			}
-			heap.heapify();
+			entry = heap.peek();
+		}
 
-			prevTermDoc = postingDoc;
+		int[] positions = null;
+		if (positionSize > 0) {
+			positions = Arrays.copyOf(positionBuffer, positionSize);
+			Arrays.sort(positions);
 		}
+		return mergedDoc.init(docNo, tf, positions);
+	}
 
-		termDocs.addPostingDoc(prevTermDoc);
-		
-		return termDocs;
-		
+	@Override
+	public void close() {
+		for (PostingReader postingReader : postingReaderList) {
+			postingReader.close();
+		}
+		if (sharedInput != null) {
+			try {
+				sharedInput.close();
+			} catch (IOException e) {
+				// ignore
+			}
+		}
+	}
+
+	private static class MergedPostingDoc extends PostingDoc {
+		private PostingDoc init(int docNo, int tf, int[] positions) {
+			this.docNo = docNo;
+			this.tf = tf;
+			this.positions = positions;
+			return this;
+		}
+	}
+
+	private static class MergeEntry implements Comparable<MergeEntry> {
+		private PostingReader postingReader;
+		private PostingDoc postingDoc;
+
+		public MergeEntry(PostingReader postingReader, PostingDoc postingDoc) {
+			this.postingReader = postingReader;
+			this.postingDoc = postingDoc;
+		}
+
+		@Override
+		public int compareTo(MergeEntry o) {
+			return postingDoc.docNo() - o.postingDoc.docNo();
+		}
 	}
 
 }
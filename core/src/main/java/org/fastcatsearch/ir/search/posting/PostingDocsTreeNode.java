@@ -31,6 +31,17 @@ public class PostingDocsTreeNode extends NodeReader {
 		}
 	}
 
+	@Override
+	public int advance(int targetDocNo) throws IOException {
+		//skip 정보가 있으면 포스팅을 건너뛴다.
+		postingDoc = postingReader.advance(targetDocNo);
+		if(postingDoc != null){
+			return postingDoc.docNo();
+		}else{
+			return -1;
+		}
+	}
+
 	@Override
 	public void fill(TermDocCollector termDocCollector) {
 		termDocCollector.add(postingReader.term(), postingDoc, postingReader.termPosition(), isSynonym);
@@ -58,11 +58,11 @@ import org.slf4j.LoggerFactory;
 
 public class CloseableThreadLocal<T> implements Closeable {
 	static Logger logger = LoggerFactory.getLogger(CloseableThreadLocal.class);
-  private ThreadLocal<WeakReference<T>> t = new ThreadLocal<WeakReference<T>>();
+  private volatile ThreadLocal<WeakReference<T>> t = new ThreadLocal<WeakReference<T>>();
 
   // Use a WeakHashMap so that if a Thread exits and is
   // GC'able, its entry may be removed:
-  private Map<Thread,T> hardRefs = new WeakHashMap<Thread,T>();
+  private volatile Map<Thread,T> hardRefs = new WeakHashMap<Thread,T>();
   
   // Increase this to decrease frequency of purging in get:
   private static int PURGE_MULTIPLIER = 20;
@@ -78,6 +78,11 @@ public class CloseableThreadLocal<T> implements Closeable {
   }
   
   public T get() {
+    ThreadLocal<WeakReference<T>> t = this.t;
+    if (t == null) {
+      // close 이후에는 저장하지 않고 새로 만들어 돌려준다.
+      return initialValue();
+    }
     WeakReference<T> weakRef = t.get();
     if (weakRef == null) {
       T iv = initialValue();
@@ -95,6 +100,11 @@ public class CloseableThreadLocal<T> implements Closeable {
   }
 
   public void set(T object) {
+    ThreadLocal<WeakReference<T>> t = this.t;
+    Map<Thread,T> hardRefs = this.hardRefs;
+    if (t == null || hardRefs == null) {
+      return;
+    }
 
     t.set(new WeakReference<T>(object));
 
@@ -112,6 +122,10 @@ public class CloseableThreadLocal<T> implements Closeable {
 
   // Purge dead threads
   private void purge() {
+    Map<Thread,T> hardRefs = this.hardRefs;
+    if (hardRefs == null) {
+      return;
+    }
     synchronized(hardRefs) {
       int stillAliveCount = 0;
       for (Iterator<Thread> it = hardRefs.keySet().iterator(); it.hasNext();) {
@@ -0,0 +1,197 @@
+package org.fastcatsearch.ir.document;
+
+import org.apache.commons.io.FileUtils;
+import org.fastcatsearch.ir.common.IndexFileNames;
+import org.fastcatsearch.ir.io.BitSet;
+import org.fastcatsearch.ir.io.BufferedFileInput;
+import org.fastcatsearch.ir.io.BytesBuffer;
+import org.fastcatsearch.ir.io.IndexInput;
+import org.fastcatsearch.ir.merge.MergingSegment;
+import org.fastcatsearch.ir.settings.FieldSetting;
+import org.fastcatsearch.ir.settings.SchemaSetting;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class DocumentBlockFormatTest {
+
+	private static final int DOC_COUNT = 3000;
+
+	private File dir;
+	private List<FieldSetting> fields;
+
+	@Before
+	public void setUp() throws IOException {
+		dir = File.createTempFile("document-block", "");
+		dir.delete();
+		dir.mkdirs();
+		fields = new ArrayList<FieldSetting>();
+		fields.add(new FieldSetting("ID", "아이디", FieldSetting.Type.LONG));
+		fields.add(new FieldSetting("TITLE", "제목", FieldSetting.Type.STRING));
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		FileUtils.deleteDirectory(dir);
+	}
+
+	@Test
+	public void testWriteRead() throws Exception {
+		File blockDir = write("block", 4096, 0, DOC_COUNT);
+		File deflateDir = write("deflate", 0, 0, DOC_COUNT);
+		assertTrue(DocumentFormat.read(blockDir).isBlock());
+		assertFalse(DocumentFormat.read(deflateDir).isBlock());
+		//이전 세그먼트처럼 포맷파일이 없으면 문서별 압축포맷이다.
+		new File(deflateDir, IndexFileNames.docFormat).delete();
+		assertEquals(DocumentFormat.VERSION_DEFLATE, DocumentFormat.read(deflateDir).version());
+		assertTrue(new File(blockDir, IndexFileNames.docStored).length() < new File(deflateDir, IndexFileNames.docStored).length());
+
+		DocumentReader blockReader = new DocumentReader(schemaSetting(), blockDir);
+		DocumentReader deflateReader = new DocumentReader(schemaSetting(), deflateDir);
+		try {
+			assertEquals(DOC_COUNT, blockReader.getDocumentCount());
+			for (int docNo = DOC_COUNT - 1; docNo >= 0; docNo -= 7) {
+				assertDocument(docNo, blockReader.readDocument(docNo));
+				assertDocument(docNo, deflateReader.readDocument(docNo));
+			}
+			DocumentReader clone = blockReader.clone();
+			assertDocument(10, clone.readDocument(10));
+			assertDocument(11, clone.readDocument(11));
+			clone.close();
+			//같은 블럭의 문서는 캐시된 블럭을 사용한다.
+			assertTrue(blockReader.blockCache().hitCount() > 0);
+			assertNull(blockReader.readDocument(DOC_COUNT));
+		} finally {
+			blockReader.close();
+			deflateReader.close();
+		}
+	}
+
+	/*
+	 * 압축블럭을 읽는 버퍼는 큰 블럭을 만나면 키운 후 계속 사용하고, 세그먼트를 닫으면 캐시된 블럭이 제거된다.
+	 * */
+	@Test
+	public void testBlockBufferAndCacheRelease() throws Exception {
+		File blockDir = write("block", 16 * 1024, 0, DOC_COUNT);
+		IndexInput docInput = new BufferedFileInput(blockDir, IndexFileNames.docStored);
+		IndexInput positionInput = new BufferedFileInput(blockDir, IndexFileNames.docPosition);
+		try {
+			BytesBuffer buffer = new BytesBuffer(16);
+			long blockPosition = DocumentFormat.blockPosition(positionInput.readLong());
+			DocumentBlock.read(docInput, blockPosition, buffer);
+			byte[] grown = buffer.bytes;
+			assertTrue(grown.length > 16);
+			DocumentBlock.read(docInput, blockPosition, buffer);
+			assertSame(grown, buffer.bytes);
+		} finally {
+			docInput.close();
+			positionInput.close();
+		}
+
+		DocumentBlockCache cache = DocumentBlockCache.getInstance();
+		int size = cache.size();
+		DocumentReader reader = new DocumentReader(schemaSetting(), blockDir);
+		assertDocument(0, reader.readDocument(0));
+		assertEquals(size + 1, cache.size());
+		reader.close();
+		assertEquals(size, cache.size());
+	}
+
+	/*
+	 * 색인중인 세그먼트에서 아직 기록하지 않은 블럭의 문서도 읽을수 있어야 한다.
+	 * */
+	@Test
+	public void testWriterReadDocument() throws Exception {
+		File segmentDir = new File(dir, "writer");
+		segmentDir.mkdirs();
+		DocumentWriter writer = new DocumentWriter(fields, segmentDir, 1024);
+		try {
+			for (int id = 0; id < 200; id++) {
+				writer.write(createDocument(id));
+			}
+			assertDocument(3, writer.readDocument(3));
+			assertDocument(199, writer.readDocument(199));
+		} finally {
+			writer.close();
+		}
+	}
+
+	@Test
+	public void testMerge() throws Exception {
+		File dir1 = write("seg1", 0, 0, 500);
+		File dir2 = write("seg2", 2048, 500, 700);
+		BitSet deleteSet = new BitSet(dir1, IndexFileNames.docDeleteSet);
+		for (int docNo = 0; docNo < 500; docNo += 3) {
+			deleteSet.set(docNo);
+		}
+		deleteSet.save();
+		new BitSet(dir2, IndexFileNames.docDeleteSet).save();
+
+		List<Integer> expectedIds = new ArrayList<Integer>();
+		for (int id = 0; id < 1200; id++) {
+			if (id >= 500 || id % 3 != 0) {
+				expectedIds.add(id);
+			}
+		}
+		for (int blockSize : new int[] { 0, 8192 }) {
+			File mergedDir = new File(dir, "merged" + blockSize);
+			mergedDir.mkdirs();
+			DocumentMerger merger = new DocumentMerger(mergedDir, blockSize);
+			try {
+				assertEquals(expectedIds.size(), merger.merge(MergingSegment.load(dir1, dir2)));
+			} finally {
+				merger.close();
+			}
+			assertEquals(blockSize > 0, DocumentFormat.read(mergedDir).isBlock());
+			DocumentReader reader = new DocumentReader(schemaSetting(), mergedDir);
+			try {
+				assertEquals(expectedIds.size(), reader.getDocumentCount());
+				for (int docNo = 0; docNo < expectedIds.size(); docNo++) {
+					assertDocument(expectedIds.get(docNo), reader.readDocument(docNo));
+				}
+			} finally {
+				reader.close();
+			}
+		}
+	}
+
+	private File write(String name, int blockSize, int startId, int count) throws Exception {
+		File segmentDir = new File(dir, name);
+		segmentDir.mkdirs();
+		DocumentWriter writer = new DocumentWriter(fields, segmentDir, blockSize);
+		try {
+			for (int id = startId; id < startId + count; id++) {
+				writer.write(createDocument(id));
+			}
+		} finally {
+			writer.close();
+		}
+		return segmentDir;
+	}
+
+	private Document createDocument(int id) throws Exception {
+		Document document = new Document(2);
+		document.add(fields.get(0).createIndexableField(Integer.toString(id)));
+		document.add(fields.get(1).createIndexableField("문서 제목 document title " + id + (id % 5 == 0 ? " 긴 내용이 반복됩니다." : "")));
+		return document;
+	}
+
+	private void assertDocument(int id, Document document) {
+		assertNotNull(document);
+		assertEquals(Integer.toString(id), document.get(0).toString());
+		assertEquals("문서 제목 document title " + id + (id % 5 == 0 ? " 긴 내용이 반복됩니다." : ""), document.get(1).toString());
+	}
+
+	private SchemaSetting schemaSetting() {
+		SchemaSetting setting = new SchemaSetting();
+		setting.setFieldSettingList(fields);
+		return setting;
+	}
+}
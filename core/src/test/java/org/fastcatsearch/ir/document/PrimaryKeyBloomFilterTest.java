@@ -0,0 +1,68 @@
+package org.fastcatsearch.ir.document;
+
+import org.fastcatsearch.ir.io.BytesBuffer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class PrimaryKeyBloomFilterTest {
+
+	private File dir;
+
+	@Before
+	public void setUp() throws IOException {
+		dir = File.createTempFile("pk-bloom", "");
+		dir.delete();
+		dir.mkdirs();
+	}
+
+	@After
+	public void tearDown() {
+		File[] files = dir.listFiles();
+		if (files != null) {
+			for (File f : files) {
+				f.delete();
+			}
+		}
+		dir.delete();
+	}
+
+	@Test
+	public void testContainAndFalsePositive() throws IOException {
+		int count = 100000;
+		PrimaryKeyBloomFilter bloomFilter = new PrimaryKeyBloomFilter(count);
+		for (int i = 0; i < count; i++) {
+			bloomFilter.add(key("doc-" + i));
+		}
+		bloomFilter.save(dir);
+
+		PrimaryKeyBloomFilter loaded = PrimaryKeyBloomFilter.load(dir);
+		for (int i = 0; i < count; i++) {
+			assertTrue(bloomFilter.mightContain(key("doc-" + i)));
+			assertTrue(loaded.mightContain(key("doc-" + i)));
+		}
+
+		//없는 키의 오탐율은 약 1% 이다.
+		int falsePositive = 0;
+		for (int i = count; i < count * 2; i++) {
+			if (loaded.mightContain(key("doc-" + i))) {
+				falsePositive++;
+			}
+		}
+		assertTrue("false positive " + falsePositive, falsePositive < count * 3 / 100);
+	}
+
+	@Test
+	public void testLoadWithoutFile() throws IOException {
+		assertNull(PrimaryKeyBloomFilter.load(dir));
+	}
+
+	private BytesBuffer key(String id) {
+		return new BytesBuffer(id.getBytes());
+	}
+}
@@ -22,6 +22,7 @@ import org.fastcatsearch.ir.io.DataRef;
 import org.fastcatsearch.ir.query.Filter;
 import org.fastcatsearch.ir.query.RankInfo;
 import org.fastcatsearch.ir.search.FieldIndexReader;
+import org.fastcatsearch.ir.search.NumericDocValues;
 import org.fastcatsearch.ir.settings.FieldIndexSetting;
 import org.fastcatsearch.ir.settings.FieldSetting;
 import org.fastcatsearch.ir.settings.FieldSetting.Type;
@@ -265,4 +266,34 @@ public class FilterTest {
 		
 		assertEquals(actual, filterResult);
 	}
+
+	/*
+	 * filtering(RankInfo, long) 을 구현하지 않은 필터는 doc values 값을 필드색인 바이트로 바꾸어 비교한다.
+	 * */
+	@Test
+	public void testDocValuesFallback() throws FilterException {
+		final List<Object> values = new ArrayList<Object>();
+		FieldSetting fieldSetting = new FieldSetting("price", "", Type.DOUBLE);
+		FieldIndexSetting fieldIndexSetting = new FieldIndexSetting("price", "price", "price", fieldSetting.getSize(), false);
+		Filter filter = new Filter("price", Filter.MATCH, "1");
+		FilterFunction func = new FilterFunction(filter, fieldIndexSetting, fieldSetting, false) {
+			@Override
+			public boolean filtering(RankInfo rankInfo, DataRef dataRef) {
+				values.add(dataRef.getValue());
+				return true;
+			}
+
+			@Override
+			public boolean prepareNumericDocValues(int valueType) {
+				return true;
+			}
+		};
+		assertTrue(func.useNumericDocValues(NumericDocValues.TYPE_DOUBLE));
+		byte[] data = new byte[8];
+		for (double value : new double[] { -12.5, 0, 3.25 }) {
+			NumericDocValues.writeBytes(Double.doubleToLongBits(value), NumericDocValues.TYPE_LONG, data, 0);
+			assertTrue(func.filtering(new RankInfo(), NumericDocValues.toSortableLong(data, 0, NumericDocValues.TYPE_DOUBLE)));
+		}
+		assertEquals(Arrays.asList(new Object[] { -12.5, 0.0, 3.25 }), values);
+	}
 }
@@ -0,0 +1,138 @@
+package org.fastcatsearch.ir.group;
+
+import org.fastcatsearch.ir.group.value.DoubleGroupingValue;
+import org.fastcatsearch.ir.group.value.FloatGroupingValue;
+import org.fastcatsearch.ir.group.value.IntGroupingValue;
+import org.fastcatsearch.ir.group.value.LongGroupingValue;
+import org.fastcatsearch.ir.io.DataRef;
+import org.fastcatsearch.ir.settings.FieldSetting.Type;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class GroupAccumulatorTest {
+
+	private static final int KEY_SIZE = 500000;
+
+	private static final GroupFunctionType[] FUNCTION_TYPES = new GroupFunctionType[] { GroupFunctionType.SUM, GroupFunctionType.MIN,
+			GroupFunctionType.MAX, GroupFunctionType.FIRST, GroupFunctionType.LAST };
+
+	@Test
+	public void testKeyTracker() {
+		GroupKeyTracker tracker = new GroupKeyTracker(KEY_SIZE);
+		assertTrue(tracker.add(499999));
+		assertTrue(tracker.add(3));
+		assertFalse(tracker.add(499999));
+		for (int k = 100; k < 200; k++) {
+			tracker.add(k);
+		}
+		assertEquals(102, tracker.size());
+		assertEquals(499999, tracker.key(0));
+		assertEquals(3, tracker.key(1));
+		assertTrue(tracker.contains(150));
+		assertFalse(tracker.contains(200));
+	}
+
+	@Test
+	public void testCount() {
+		GroupAccumulator accumulator = GroupAccumulator.create(GroupFunctionType.COUNT, null, KEY_SIZE);
+		accumulator.increment(7);
+		accumulator.increment(7);
+		accumulator.increment(KEY_SIZE - 1);
+		assertEquals(2, accumulator.value(7).get());
+		assertEquals(1, accumulator.value(KEY_SIZE - 1).get());
+		assertNull(accumulator.value(8));
+		assertTrue(accumulator.value(7) instanceof IntGroupingValue);
+		//대상필드가 없는 sum 등은 만들지 않는다.
+		assertNull(GroupAccumulator.create(GroupFunctionType.SUM, null, KEY_SIZE));
+	}
+
+	/*
+	 * 이전처럼 키별 GroupingValue 에 boxed 값을 넣었을때와 결과가 같아야 한다.
+	 * */
+	@Test
+	public void testSameAsGroupingValue() {
+		Random random = new Random(1);
+		for (Type fieldType : new Type[] { Type.INT, Type.LONG, Type.FLOAT, Type.DOUBLE }) {
+			for (GroupFunctionType functionType : FUNCTION_TYPES) {
+				int keySize = 50;
+				GroupAccumulator accumulator = GroupAccumulator.create(functionType, fieldType, keySize);
+				GroupingValue[] expected = new GroupingValue[keySize];
+				for (int i = 0; i < 2000; i++) {
+					//앞쪽 키만 사용하여 값이 없는 키도 생기게 한다.
+					int groupNo = random.nextInt(keySize - 10);
+					DataRef dataRef = new DataRef(8);
+					Object value = write(dataRef, fieldType, random);
+					accumulator.add(groupNo, dataRef);
+					if (expected[groupNo] == null) {
+						expected[groupNo] = newGroupingValue(fieldType, functionType);
+					}
+					expected[groupNo].addValue(value);
+				}
+				for (int groupNo = 0; groupNo < keySize; groupNo++) {
+					GroupingValue actual = accumulator.value(groupNo);
+					if (expected[groupNo] == null) {
+						assertNull(actual);
+					} else {
+						assertEquals(fieldType + " " + functionType, expected[groupNo].getClass(), actual.getClass());
+						assertEquals(fieldType + " " + functionType, expected[groupNo].get(), actual.get());
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testString() {
+		GroupAccumulator accumulator = GroupAccumulator.create(GroupFunctionType.FIRST, Type.ASTRING, KEY_SIZE);
+		DataRef dataRef = new DataRef(8);
+		dataRef.setType(Type.ASTRING);
+		setBytes(dataRef, "abc\0\0".getBytes());
+		accumulator.add(10, dataRef);
+		setBytes(dataRef, "def".getBytes());
+		accumulator.add(10, dataRef);
+		assertEquals("abc", accumulator.value(10).get());
+		assertNull(accumulator.value(11));
+	}
+
+	private void setBytes(DataRef dataRef, byte[] bytes) {
+		dataRef.bytesRef().bytes = bytes;
+		dataRef.bytesRef().length = bytes.length;
+	}
+
+	private Object write(DataRef dataRef, Type fieldType, Random random) {
+		ByteBuffer buffer = ByteBuffer.wrap(dataRef.bytesRef().bytes);
+		if (fieldType == Type.INT) {
+			int v = random.nextInt();
+			buffer.putInt(v);
+			return v;
+		} else if (fieldType == Type.LONG) {
+			long v = random.nextLong();
+			buffer.putLong(v);
+			return v;
+		} else if (fieldType == Type.FLOAT) {
+			float v = random.nextFloat() * 1000 - 500;
+			buffer.putInt(Float.floatToIntBits(v));
+			return v;
+		} else {
+			double v = random.nextDouble() * 1000 - 500;
+			buffer.putLong(Double.doubleToLongBits(v));
+			return v;
+		}
+	}
+
+	private GroupingValue newGroupingValue(Type fieldType, GroupFunctionType functionType) {
+		if (fieldType == Type.INT) {
+			return new IntGroupingValue(functionType);
+		} else if (fieldType == Type.LONG) {
+			return new LongGroupingValue(functionType);
+		} else if (fieldType == Type.FLOAT) {
+			return new FloatGroupingValue(functionType);
+		} else {
+			return new DoubleGroupingValue(functionType);
+		}
+	}
+}
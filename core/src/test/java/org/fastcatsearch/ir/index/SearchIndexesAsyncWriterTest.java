@@ -0,0 +1,208 @@
+package org.fastcatsearch.ir.index;
+
+import org.apache.commons.io.FileUtils;
+import org.fastcatsearch.ir.analysis.AnalyzerPoolManager;
+import org.fastcatsearch.ir.analysis.DefaultAnalyzerFactory;
+import org.fastcatsearch.ir.analysis.PrimaryWordAnalyzer;
+import org.fastcatsearch.ir.common.IRException;
+import org.fastcatsearch.ir.common.IndexFileNames;
+import org.fastcatsearch.ir.config.DataInfo;
+import org.fastcatsearch.ir.config.IndexConfig;
+import org.fastcatsearch.ir.document.Document;
+import org.fastcatsearch.ir.index.async.IndexWriteTaskPool;
+import org.fastcatsearch.ir.settings.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class SearchIndexesAsyncWriterTest {
+
+	private static final int DOC_COUNT = 5000;
+
+	private File dir;
+	private Schema schema;
+	private AnalyzerPoolManager analyzerPoolManager;
+	private SegmentWriter lastWriter;
+
+	@Before
+	public void setUp() throws Exception {
+		dir = File.createTempFile("search-async", "");
+		dir.delete();
+		dir.mkdirs();
+		schema = new Schema(createSchemaSetting());
+		analyzerPoolManager = new AnalyzerPoolManager();
+		analyzerPoolManager.registerAnalyzer("PRIMARY", new DefaultAnalyzerFactory(PrimaryWordAnalyzer.class));
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		FileUtils.deleteDirectory(dir);
+	}
+
+	/*
+	 * 색인필드를 병렬로 색인해도 순차 색인과 같은 파일이 만들어져야 한다. 작업메모리를 작게 하여 중간 flush 도 확인한다.
+	 * */
+	@Test
+	public void testSameAsSequential() throws Exception {
+		File sequentialDir = write("sequential", 0, 0, 64 * 1024);
+		File parallelDir = write("parallel", 3, 2, 64 * 1024);
+		File perFieldDir = write("perfield", 100, 0, 64 * 1024);
+
+		String[] names = sequentialDir.list();
+		Arrays.sort(names);
+		String[] parallelNames = parallelDir.list();
+		Arrays.sort(parallelNames);
+		assertArrayEquals(names, parallelNames);
+		for (String name : names) {
+			assertTrue(name, FileUtils.contentEquals(new File(sequentialDir, name), new File(parallelDir, name)));
+			assertTrue(name, FileUtils.contentEquals(new File(sequentialDir, name), new File(perFieldDir, name)));
+		}
+	}
+
+	/*
+	 * 여러번 flush 한 임시파일을 필드별로 동시에 머징해도, flush 없이 한번에 기록한 색인과 같아야 한다.
+	 * */
+	@Test
+	public void testConcurrentMerge() throws Exception {
+		File singleRunDir = write("single", 0, 0, 64 * 1024 * 1024);
+		File mergedDir = write("merged", 0, 3, 64 * 1024);
+		for (String indexId : new String[] { "TITLE", "BODY", "CATEGORY", "TITLE_BODY" }) {
+			for (String name : new String[] { IndexFileNames.getSearchLexiconFileName(indexId), IndexFileNames.getSearchIndexFileName(indexId),
+					IndexFileNames.getSearchPostingFileName(indexId), IndexFileNames.getSearchSkipFileName(indexId) }) {
+				assertTrue(name, FileUtils.contentEquals(new File(singleRunDir, name), new File(mergedDir, name)));
+			}
+		}
+
+		IndexWriteInfoList writeInfoList = new IndexWriteInfoList();
+		lastWriter.getIndexWriteInfo(writeInfoList);
+		int searchInfoCount = 0;
+		for (IndexWriteInfo writeInfo : writeInfoList) {
+			if (writeInfo.phaseTimeMap() != null) {
+				searchInfoCount++;
+				assertTrue(writeInfo.getPhaseTime(IndexWriteInfo.PHASE_ANALYZE) >= 0);
+				assertTrue(writeInfo.getPhaseTime(IndexWriteInfo.PHASE_FLUSH) >= 0);
+				assertTrue(writeInfo.getPhaseTime(IndexWriteInfo.PHASE_MERGE) >= 0);
+				assertEquals(new File(mergedDir, writeInfo.filename()).length(), writeInfo.limit());
+			}
+		}
+		assertEquals(4, searchInfoCount);
+	}
+
+	@Test
+	public void testWriterError() throws Exception {
+		final AtomicInteger writeCount = new AtomicInteger();
+		SingleIndexWriter okWriter = new TestIndexWriter(writeCount, -1);
+		SingleIndexWriter errorWriter = new TestIndexWriter(writeCount, 5);
+		IndexWriteTaskPool pool = new IndexWriteTaskPool("test", new SingleIndexWriter[] { okWriter, errorWriter }, 2, 2);
+		assertEquals(2, pool.poolSize());
+		try {
+			for (int docNo = 0; docNo < 100; docNo++) {
+				pool.write(new Document(0), docNo);
+			}
+			pool.waitUntilDone();
+			fail();
+		} catch (IRException e) {
+			assertEquals("error #5", e.getMessage());
+		}
+		try {
+			pool.finish();
+			fail();
+		} catch (IRException e) {
+			//종료시에도 에러를 알려준다.
+		}
+	}
+
+	private File write(String name, int threads, int mergeThreads, int workMemorySize) throws Exception {
+		File segmentDir = new File(dir, name);
+		IndexConfig indexConfig = new IndexConfig();
+		indexConfig.setIndexTermInterval(4);
+		indexConfig.setIndexWorkBucketSize(256);
+		indexConfig.setIndexWorkMemorySize(workMemorySize);
+		indexConfig.setPkBucketSize(1024);
+		indexConfig.setPkTermInterval(4);
+		indexConfig.setIndexFieldThreads(threads);
+		indexConfig.setIndexFieldQueueSize(16);
+		indexConfig.setIndexMergeThreads(mergeThreads);
+
+		SegmentWriter writer = new SegmentWriter(schema, segmentDir, new DataInfo.SegmentInfo("a0"), indexConfig, analyzerPoolManager);
+		try {
+			for (int id = 0; id < DOC_COUNT; id++) {
+				Document document = new Document(4);
+				document.add(schema.fieldSettingMap().get("ID").createIndexableField(Integer.toString(id)));
+				document.add(schema.fieldSettingMap().get("TITLE").createIndexableField("title" + (id % 13) + " word" + (id % 101) + " t" + id));
+				document.add(schema.fieldSettingMap().get("BODY").createIndexableField("body" + (id % 7) + " b" + (id % 503) + " common"));
+				document.add(schema.fieldSettingMap().get("CATEGORY").createIndexableField("cat" + (id % 11)));
+				writer.addDocument(document);
+			}
+		} finally {
+			writer.close();
+		}
+		lastWriter = writer;
+		return segmentDir;
+	}
+
+	private SchemaSetting createSchemaSetting() {
+		SchemaSetting setting = new SchemaSetting();
+		List<FieldSetting> fieldSettingList = new ArrayList<FieldSetting>();
+		fieldSettingList.add(new FieldSetting("ID", "아이디", FieldSetting.Type.LONG));
+		fieldSettingList.add(new FieldSetting("TITLE", "제목", FieldSetting.Type.STRING));
+		fieldSettingList.add(new FieldSetting("BODY", "내용", FieldSetting.Type.STRING));
+		fieldSettingList.add(new FieldSetting("CATEGORY", "카테고리", FieldSetting.Type.ASTRING));
+		setting.setFieldSettingList(fieldSettingList);
+		setting.setPrimaryKeySetting(new PrimaryKeySetting("ID"));
+
+		List<IndexSetting> indexSettingList = new ArrayList<IndexSetting>();
+		indexSettingList.add(createIndexSetting("TITLE", "TITLE"));
+		indexSettingList.add(createIndexSetting("BODY", "BODY"));
+		indexSettingList.add(createIndexSetting("CATEGORY", "CATEGORY"));
+		indexSettingList.add(createIndexSetting("TITLE_BODY", "TITLE", "BODY"));
+		setting.setIndexSettingList(indexSettingList);
+		setting.setFieldIndexSettingList(new ArrayList<FieldIndexSetting>());
+		setting.setGroupIndexSettingList(new ArrayList<GroupIndexSetting>());
+		return setting;
+	}
+
+	private IndexSetting createIndexSetting(String id, String... fieldIds) {
+		IndexSetting indexSetting = new IndexSetting(id, "primary");
+		indexSetting.setFieldList(new ArrayList<IndexRefSetting>());
+		for (String fieldId : fieldIds) {
+			indexSetting.getFieldList().add(new IndexRefSetting(fieldId, "primary"));
+		}
+		return indexSetting;
+	}
+
+	private static class TestIndexWriter implements SingleIndexWriter {
+		private AtomicInteger writeCount;
+		private int errorDocNo;
+
+		public TestIndexWriter(AtomicInteger writeCount, int errorDocNo) {
+			this.writeCount = writeCount;
+			this.errorDocNo = errorDocNo;
+		}
+
+		@Override
+		public void write(Document doc, int docNo) throws IRException, IOException {
+			if (docNo == errorDocNo) {
+				throw new IRException("error #" + docNo);
+			}
+			writeCount.incrementAndGet();
+		}
+
+		@Override
+		public void flush() throws IRException {
+		}
+
+		@Override
+		public void close() throws IRException, IOException {
+		}
+	}
+}
@@ -47,6 +47,19 @@ public class BitSetTest extends TestCase {
 			assertTrue(set.isSet(number));
 		}
 	}
+	public void testUnion(){
+		BitSet a = new BitSet();
+		a.set(3);
+		BitSet b = new BitSet();
+		b.set(1000);
+		BitSet u = a.union(b);
+		assertTrue(u.isSet(3));
+		assertTrue(u.isSet(1000));
+		assertEquals(2, u.getOnCount());
+		//원래 비트셋은 바뀌지 않는다.
+		assertFalse(a.isSet(1000));
+		assertFalse(b.isSet(3));
+	}
 	public void test2() throws IOException{
 		File segmentDir = new File("/Users/swsong/search/fastcat_basic/collection/news/data/1");
 		int revision = 45;
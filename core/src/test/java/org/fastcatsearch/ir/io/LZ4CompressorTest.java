@@ -0,0 +1,68 @@
+package org.fastcatsearch.ir.io;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LZ4CompressorTest {
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		Random random = new Random(1);
+		LZ4Compressor compressor = new LZ4Compressor();
+		int[] lengths = new int[] { 0, 1, 5, 12, 13, 14, 100, 1000, 65536, 300000 };
+		for (int length : lengths) {
+			//반복이 많은 데이터, 랜덤 데이터, 같은 바이트가 이어지는 데이터.
+			for (int kind = 0; kind < 3; kind++) {
+				byte[] src = new byte[length];
+				for (int i = 0; i < length; i++) {
+					if (kind == 0) {
+						src[i] = (byte) ("document title body " + (i / 97)).charAt(i % 20);
+					} else if (kind == 1) {
+						src[i] = (byte) random.nextInt();
+					} else {
+						src[i] = (byte) (i < length / 2 ? 'a' : 'b');
+					}
+				}
+				assertRoundTrip(compressor, src, kind == 0 || kind == 2);
+			}
+		}
+	}
+
+	@Test
+	public void testOffset() throws IOException {
+		LZ4Compressor compressor = new LZ4Compressor();
+		byte[] src = "xxxxabcabcabcabcabcabcabcabcabcabc1234567890abcabcabc".getBytes();
+		byte[] dest = new byte[LZ4Compressor.maxCompressedLength(src.length) + 7];
+		int compressedLength = compressor.compress(src, 4, src.length - 4, dest, 7);
+		byte[] restored = new byte[src.length + 3];
+		int n = LZ4Compressor.decompress(dest, 7, compressedLength, restored, 3, src.length - 4);
+		assertEquals(src.length - 4, n);
+		assertArrayEquals(Arrays.copyOfRange(src, 4, src.length), Arrays.copyOfRange(restored, 3, 3 + n));
+	}
+
+	@Test(expected = IOException.class)
+	public void testMalformed() throws IOException {
+		byte[] src = new byte[1000];
+		byte[] dest = new byte[LZ4Compressor.maxCompressedLength(src.length)];
+		int compressedLength = new LZ4Compressor().compress(src, 0, src.length, dest, 0);
+		//풀린 길이가 공간보다 크면 실패해야 한다.
+		LZ4Compressor.decompress(dest, 0, compressedLength, new byte[500], 0, 500);
+	}
+
+	private void assertRoundTrip(LZ4Compressor compressor, byte[] src, boolean compressible) throws IOException {
+		byte[] dest = new byte[LZ4Compressor.maxCompressedLength(src.length)];
+		int compressedLength = compressor.compress(src, 0, src.length, dest, 0);
+		if (compressible && src.length > 1000) {
+			assertTrue(compressedLength < src.length / 2);
+		}
+		byte[] restored = new byte[src.length];
+		int n = LZ4Compressor.decompress(dest, 0, compressedLength, restored, 0, restored.length);
+		assertEquals(src.length, n);
+		assertArrayEquals(src, restored);
+	}
+}
@@ -0,0 +1,146 @@
+package org.fastcatsearch.ir.io;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class MMapIndexInputTest {
+
+	private File file;
+
+	@Before
+	public void setUp() throws IOException {
+		file = File.createTempFile("mmap-input", ".data");
+		IndexOutput output = new BufferedFileOutput(file);
+		try {
+			for (int i = 0; i < 10000; i++) {
+				output.writeInt(i);
+				output.writeVInt(i * 31);
+				output.writeLong(i * 1000000007L);
+				output.writeByte((byte) i);
+			}
+		} finally {
+			output.close();
+		}
+	}
+
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+
+	/*
+	 * 작은 chunk 로 매핑하여 chunk 경계에 걸친 값도 BufferedFileInput 과 같게 읽는지 확인한다.
+	 * */
+	@Test
+	public void testReadAcrossChunk() throws IOException {
+		MMapIndexInput input = new MMapIndexInput(file, 7);
+		BufferedFileInput expected = new BufferedFileInput(file);
+		try {
+			assertEquals(expected.length(), input.length());
+			for (int i = 0; i < 10000; i++) {
+				assertEquals(expected.readInt(), input.readInt());
+				assertEquals(expected.readVInt(), input.readVInt());
+				assertEquals(expected.readLong(), input.readLong());
+				assertEquals(expected.readByte(), input.readByte());
+				assertEquals(expected.position(), input.position());
+			}
+
+			byte[] a = new byte[1000];
+			byte[] b = new byte[1000];
+			input.seek(12345);
+			expected.seek(12345);
+			input.readBytes(a, 0, a.length);
+			expected.readBytes(b, 0, b.length);
+			assertArrayEquals(b, a);
+
+			input.seek(input.length());
+			assertEquals(input.length(), input.position());
+		} finally {
+			input.close();
+			expected.close();
+		}
+	}
+
+	@Test
+	public void testClone() throws IOException {
+		MMapIndexInput input = new MMapIndexInput(file, 10);
+		assertEquals(0, input.readInt());
+		long position = input.position();
+		IndexInput clone = input.clone();
+		assertEquals(0, clone.readVInt());
+		assertEquals(0, input.readVInt());
+
+		clone.seek(0);
+		assertEquals(0, clone.readInt());
+		assertEquals(position + 1, input.position());
+
+		//원본을 닫으면 clone 도 더이상 seek 하거나 읽을수 없다.
+		input.close();
+		try {
+			clone.seek(0);
+			fail();
+		} catch (IOException e) {
+			//ok
+		}
+		try {
+			clone.readInt();
+			fail();
+		} catch (IOException e) {
+			//ok
+		}
+		try {
+			clone.readBytes(new byte[4], 0, 4);
+			fail();
+		} catch (IOException e) {
+			//ok
+		}
+	}
+
+	@Test
+	public void testReleaseAfterLastClone() throws IOException {
+		MMapIndexInput input = new MMapIndexInput(file, 10);
+		IndexInput clone = input.clone();
+		IndexInput clone2 = clone.clone();
+		assertEquals(0, clone2.readInt());
+
+		//읽을수 있는 clone 이 남아있으면 원본을 닫아도 매핑을 해제하지 않는다.
+		input.close();
+		assertFalse(input.isReleased());
+		clone.close();
+		assertFalse(input.isReleased());
+
+		//마지막 clone 을 닫으면 해제된다.
+		clone2.close();
+		assertTrue(input.isReleased());
+		try {
+			clone2.readInt();
+			fail();
+		} catch (IOException e) {
+			//ok
+		}
+	}
+
+	@Test
+	public void testCloseCloneBeforeOriginal() throws IOException {
+		MMapIndexInput input = new MMapIndexInput(file, 10);
+		IndexInput clone = input.clone();
+		clone.close();
+		//닫힌 clone 은 원본이 열려있어도 읽을수 없다.
+		try {
+			clone.readInt();
+			fail();
+		} catch (IOException e) {
+			//ok
+		}
+		assertEquals(0, input.readInt());
+		assertFalse(input.isReleased());
+		input.close();
+		assertTrue(input.isReleased());
+	}
+}
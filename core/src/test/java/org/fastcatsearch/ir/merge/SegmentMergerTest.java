@@ -1,11 +1,25 @@
 package org.fastcatsearch.ir.merge;
 
 import org.apache.commons.io.FileUtils;
-import org.fastcatsearch.ir.document.*;
+import org.fastcatsearch.ir.analysis.AnalyzerPoolManager;
+import org.fastcatsearch.ir.analysis.DefaultAnalyzerFactory;
+import org.fastcatsearch.ir.analysis.PrimaryWordAnalyzer;
+import org.fastcatsearch.ir.common.IRException;
+import org.fastcatsearch.ir.common.IndexFileNames;
+import org.fastcatsearch.ir.config.DataInfo;
+import org.fastcatsearch.ir.config.IndexConfig;
+import org.fastcatsearch.ir.document.Document;
+import org.fastcatsearch.ir.index.SegmentWriter;
+import org.fastcatsearch.ir.io.BitSet;
+import org.fastcatsearch.ir.settings.*;
 import org.junit.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
 
 /**
  * Created by swsong on 2015. 11. 22..
@@ -24,12 +38,156 @@ public class SegmentMergerTest {
         SegmentMerger merger = null;
 
         try {
-            merger = new SegmentMerger(newSegmentDir);
-            merger.merge(segment1Dir, segment2Dir);
+            merger = new SegmentMerger(new Schema(createSchemaSetting()), newSegmentDir, new IndexConfig());
+            merger.merge(new DataInfo.SegmentInfo("a2"), segment1Dir, segment2Dir);
         } finally {
             if(merger != null) {
                 merger.close();
             }
         }
     }
+
+    /*
+     * 삭제문서가 있는 두 세그먼트를 머징한 결과는 살아있는 문서만 다시 색인한 세그먼트와 파일이 같아야 한다.
+     * */
+    @Test
+    public void testMergeEqualsReindex() throws IOException, IRException {
+        File baseDir = File.createTempFile("segment-merge", "");
+        baseDir.delete();
+        try {
+            Schema schema = new Schema(createSchemaSetting());
+            IndexConfig indexConfig = createIndexConfig();
+            AnalyzerPoolManager analyzerPoolManager = new AnalyzerPoolManager();
+            analyzerPoolManager.registerAnalyzer("PRIMARY", new DefaultAnalyzerFactory(PrimaryWordAnalyzer.class));
+
+            File segment1Dir = new File(baseDir, "a0");
+            File segment2Dir = new File(baseDir, "a1");
+            List<Document> aliveList = new ArrayList<Document>();
+            //1번 세그먼트의 10~19 는 2번 세그먼트에서 업데이트되어 삭제된다.
+            writeSegment(schema, segment1Dir, indexConfig, analyzerPoolManager, ids(0, 300), 7, 10, 20, aliveList);
+            int[] updateIds = ids(10, 10);
+            int[] newIds = ids(300, 400);
+            int[] segment2Ids = new int[updateIds.length + newIds.length];
+            System.arraycopy(updateIds, 0, segment2Ids, 0, updateIds.length);
+            System.arraycopy(newIds, 0, segment2Ids, updateIds.length, newIds.length);
+            writeSegment(schema, segment2Dir, indexConfig, analyzerPoolManager, segment2Ids, 5, 0, 0, aliveList);
+
+            File expectedDir = new File(baseDir, "expected");
+            SegmentWriter writer = new SegmentWriter(schema, expectedDir, new DataInfo.SegmentInfo("expected"), indexConfig, analyzerPoolManager);
+            for (Document document : aliveList) {
+                writer.addDocument(document);
+            }
+            writer.close();
+
+            File mergedDir = new File(baseDir, "a2");
+            SegmentMerger merger = new SegmentMerger(schema, mergedDir, indexConfig);
+            DataInfo.SegmentInfo segmentInfo = merger.merge(new DataInfo.SegmentInfo("a2"), segment1Dir, segment2Dir);
+            merger.close();
+
+            assertEquals(aliveList.size(), segmentInfo.getDocumentCount());
+            assertEquals(0, segmentInfo.getDeleteCount());
+            //skip 블럭이 생길만큼 문서가 있어야 한다.
+            assertTrue(new File(mergedDir, IndexFileNames.getSearchSkipFileName("TITLE")).length() > 12);
+            String[] fileNames = expectedDir.list();
+            assertTrue(fileNames.length > 0);
+            for (String fileName : fileNames) {
+                File mergedFile = new File(mergedDir, fileName);
+                assertTrue(fileName, mergedFile.exists());
+                assertTrue(fileName, FileUtils.contentEquals(new File(expectedDir, fileName), mergedFile));
+            }
+        } finally {
+            FileUtils.deleteDirectory(baseDir);
+        }
+    }
+
+    private int[] ids(int start, int count) {
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = start + i;
+        }
+        return ids;
+    }
+
+    /*
+     * ids 문서를 기록하고, docNo % deleteMod == 0 이거나 [deleteFrom, deleteTo) 범위의 id 를 삭제한다.
+     * */
+    private void writeSegment(Schema schema, File dir, IndexConfig indexConfig, AnalyzerPoolManager analyzerPoolManager, int[] ids,
+                              int deleteMod, int deleteFrom, int deleteTo, List<Document> aliveList) throws IOException, IRException {
+        SegmentWriter writer = new SegmentWriter(schema, dir, new DataInfo.SegmentInfo(dir.getName()), indexConfig, analyzerPoolManager);
+        List<Integer> deleteList = new ArrayList<Integer>();
+        for (int id : ids) {
+            Document document = createDocument(schema, id);
+            int docNo = writer.addDocument(document);
+            if (docNo % deleteMod == 0 || (id >= deleteFrom && id < deleteTo)) {
+                deleteList.add(docNo);
+            } else {
+                aliveList.add(createDocument(schema, id));
+            }
+        }
+        writer.close();
+
+        BitSet deleteSet = new BitSet(dir, IndexFileNames.docDeleteSet);
+        for (int docNo : deleteList) {
+            deleteSet.set(docNo);
+        }
+        deleteSet.save();
+    }
+
+    private Document createDocument(Schema schema, int id) throws IOException {
+        try {
+            Document document = new Document(4);
+            document.add(schema.fieldSettingMap().get("ID").createIndexableField(Integer.toString(id)));
+            document.add(schema.fieldSettingMap().get("TITLE").createIndexableField("w" + (id % 13) + " w" + (id % 7) + " x" + id + " w" + (id % 3)));
+            document.add(schema.fieldSettingMap().get("CATEGORY").createIndexableField("cat" + (id % 11)));
+            document.add(schema.fieldSettingMap().get("TAGS").createIndexableField(id % 4 == 0 ? "" : "t" + (id % 5) + ",t" + (id % 9), ","));
+            return document;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    private SchemaSetting createSchemaSetting() {
+        SchemaSetting setting = new SchemaSetting();
+        List<FieldSetting> fieldSettingList = new ArrayList<FieldSetting>();
+        fieldSettingList.add(new FieldSetting("ID", "아이디", FieldSetting.Type.LONG));
+        fieldSettingList.add(new FieldSetting("TITLE", "제목", FieldSetting.Type.STRING));
+        fieldSettingList.add(new FieldSetting("CATEGORY", "카테고리", FieldSetting.Type.ASTRING));
+        FieldSetting fieldSetting = new FieldSetting("TAGS", "태그", FieldSetting.Type.ASTRING);
+        fieldSetting.setSize(10);
+        fieldSetting.setMultiValue(true);
+        fieldSettingList.add(fieldSetting);
+        setting.setFieldSettingList(fieldSettingList);
+
+        setting.setPrimaryKeySetting(new PrimaryKeySetting("ID"));
+
+        List<IndexSetting> indexSettingList = new ArrayList<IndexSetting>();
+        IndexSetting indexSetting = new IndexSetting("TITLE", "primary");
+        indexSetting.setStorePosition(true);
+        indexSetting.setFieldList(new ArrayList<IndexRefSetting>());
+        indexSetting.getFieldList().add(new IndexRefSetting("TITLE", "primary"));
+        indexSettingList.add(indexSetting);
+        setting.setIndexSettingList(indexSettingList);
+
+        List<FieldIndexSetting> fieldIndexSettingList = new ArrayList<FieldIndexSetting>();
+        fieldIndexSettingList.add(new FieldIndexSetting("CATEGORY", "CATEGORY", "CATEGORY", 8, false));
+        fieldIndexSettingList.add(new FieldIndexSetting("TAGS", "TAGS", "TAGS"));
+        fieldIndexSettingList.add(new FieldIndexSetting("ID", "ID", "ID"));
+        setting.setFieldIndexSettingList(fieldIndexSettingList);
+
+        List<GroupIndexSetting> groupIndexSettingList = new ArrayList<GroupIndexSetting>();
+        groupIndexSettingList.add(new GroupIndexSetting("CATEGORY", "CATEGORY", "CATEGORY"));
+        groupIndexSettingList.add(new GroupIndexSetting("TAGS", "TAGS", "TAGS"));
+        setting.setGroupIndexSettingList(groupIndexSettingList);
+        return setting;
+    }
+
+    private IndexConfig createIndexConfig() {
+        IndexConfig config = new IndexConfig();
+        config.setIndexTermInterval(4);
+        config.setIndexWorkBucketSize(256);
+        config.setIndexWorkMemorySize(1024 * 1024);
+        config.setPkBucketSize(1024);
+        config.setPkTermInterval(4);
+        return config;
+    }
 }
@@ -0,0 +1,95 @@
+package org.fastcatsearch.ir.search;
+
+import org.fastcatsearch.ir.common.IndexFileNames;
+import org.fastcatsearch.ir.io.BufferedFileInput;
+import org.fastcatsearch.ir.io.IndexInput;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * 기존처럼 전체 포스팅을 PostingDoc 배열로 디코딩하는 방식과 BufferedPostingReader 스트림 방식의 처리시간과 할당량을 비교한다.
+ * 단위테스트에는 포함되지 않으며 main 으로 실행한다. 포스팅 파일은 BufferedPostingReaderTest 의 것을 사용한다.
+ * */
+public class BufferedPostingReaderBenchmark {
+	private static final Logger logger = LoggerFactory.getLogger(BufferedPostingReaderBenchmark.class);
+
+	private static final int DOC_COUNT = 1000000;
+	private static final int ROUND = 3;
+
+	public static void main(String[] args) throws IOException {
+		BufferedPostingReaderTest fixture = new BufferedPostingReaderTest();
+		fixture.setUp();
+		try {
+			new BufferedPostingReaderBenchmark().run(fixture);
+		} finally {
+			fixture.tearDown();
+		}
+	}
+
+	private void run(BufferedPostingReaderTest fixture) throws IOException {
+		int[] docs = fixture.makeDocs(DOC_COUNT, 0, 2);
+		long[] positions = fixture.writePosting(new int[][] { docs });
+		IndexInput postingInput = new BufferedFileInput(fixture.dir, IndexFileNames.getSearchPostingFileName(BufferedPostingReaderTest.INDEX_ID));
+		try {
+			for (int round = 0; round < ROUND; round++) {
+				long st = System.nanoTime();
+				long alloc = allocatedBytes();
+				long sum = 0;
+				PostingDoc[] list = readAll(postingInput.clone(), positions[0]);
+				for (PostingDoc doc : list) {
+					sum += doc.docNo() + doc.positions()[0];
+				}
+				long eagerAlloc = allocatedBytes() - alloc;
+				long eagerTime = System.nanoTime() - st;
+
+				st = System.nanoTime();
+				alloc = allocatedBytes();
+				long sum2 = 0;
+				BufferedPostingReader reader = fixture.newReader(postingInput, positions[0]);
+				while (reader.hasNext()) {
+					PostingDoc doc = reader.next();
+					sum2 += doc.docNo() + doc.tf() - 1;
+				}
+				long streamAlloc = allocatedBytes() - alloc;
+				long streamTime = System.nanoTime() - st;
+				logger.info("round {} eager {}ms {}KB / stream {}ms {}KB (checksum {}, {})", round, eagerTime / 1000000, eagerAlloc / 1024, streamTime / 1000000, streamAlloc / 1024, sum, sum2);
+			}
+		} finally {
+			postingInput.close();
+		}
+	}
+
+	private long allocatedBytes() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return 0;
+	}
+
+	private PostingDoc[] readAll(IndexInput postingInput, long pos) throws IOException {
+		postingInput.seek(pos);
+		postingInput.readInt();
+		int count = postingInput.readInt();
+		postingInput.readInt();
+		PostingDoc[] list = new PostingDoc[count];
+		int prevId = -1;
+		for (int i = 0; i < count; i++) {
+			int docId = prevId >= 0 ? postingInput.readVInt() + prevId + 1 : postingInput.readVInt();
+			int tf = postingInput.readVInt();
+			int[] p = new int[tf];
+			int prevPosition = -1;
+			for (int j = 0; j < tf; j++) {
+				p[j] = prevPosition >= 0 ? postingInput.readVInt() + prevPosition + 1 : postingInput.readVInt();
+				prevPosition = p[j];
+			}
+			list[i] = new PostingDoc(docId, tf, p);
+			prevId = docId;
+		}
+		return list;
+	}
+}
@@ -0,0 +1,170 @@
+package org.fastcatsearch.ir.search;
+
+import org.fastcatsearch.ir.common.IndexFileNames;
+import org.fastcatsearch.ir.index.IndexFieldOption;
+import org.fastcatsearch.ir.io.BufferedFileInput;
+import org.fastcatsearch.ir.io.BufferedFileOutput;
+import org.fastcatsearch.ir.io.CharVector;
+import org.fastcatsearch.ir.io.IndexInput;
+import org.fastcatsearch.ir.io.IndexOutput;
+import org.fastcatsearch.ir.search.posting.PostingDocsMerger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+import static org.junit.Assert.*;
+
+public class BufferedPostingReaderTest {
+
+	static final String INDEX_ID = "body";
+
+	File dir;
+
+	@Before
+	public void setUp() throws IOException {
+		dir = File.createTempFile("posting-reader", "");
+		dir.delete();
+		dir.mkdirs();
+	}
+
+	@After
+	public void tearDown() {
+		File[] files = dir.listFiles();
+		if (files != null) {
+			for (File f : files) {
+				f.delete();
+			}
+		}
+		dir.delete();
+	}
+
+	@Test
+	public void testStreamRead() throws IOException {
+		int[] docs = makeDocs(1000, 0, 3);
+		long[] positions = writePosting(new int[][] { docs });
+		IndexInput postingInput = new BufferedFileInput(dir, IndexFileNames.getSearchPostingFileName(INDEX_ID));
+		try {
+			BufferedPostingReader reader = newReader(postingInput, positions[0]);
+			assertEquals(docs.length, reader.size());
+			int i = 0;
+			while (reader.hasNext()) {
+				PostingDoc doc = reader.next();
+				assertEquals(docs[i], doc.docNo());
+				assertEquals(tf(docs[i]), doc.tf());
+				assertTrue(doc.hasPositions());
+				int[] p = doc.positions();
+				assertEquals(doc.tf(), p.length);
+				for (int j = 0; j < p.length; j++) {
+					assertEquals(docs[i] + j * 2, p[j]);
+				}
+				i++;
+			}
+			assertEquals(docs.length, i);
+		} finally {
+			postingInput.close();
+		}
+	}
+
+	@Test
+	public void testMerge() throws IOException {
+		assertMerge(false);
+	}
+
+	@Test
+	public void testMergeSharedInput() throws IOException {
+		assertMerge(true);
+	}
+
+	private void assertMerge(boolean sharedInput) throws IOException {
+		int[][] postings = new int[][] { makeDocs(500, 0, 4), makeDocs(300, 1, 7), makeDocs(700, 2, 2) };
+		long[] positions = writePosting(postings);
+		TreeMap<Integer, Integer> expected = new TreeMap<Integer, Integer>();
+		for (int[] docs : postings) {
+			for (int docNo : docs) {
+				Integer tf = expected.get(docNo);
+				expected.put(docNo, (tf != null ? tf : 0) + tf(docNo));
+			}
+		}
+
+		IndexInput postingInput = new BufferedFileInput(dir, IndexFileNames.getSearchPostingFileName(INDEX_ID));
+		try {
+			List<PostingReader> readerList = new ArrayList<PostingReader>();
+			IndexInput input = sharedInput ? postingInput.clone() : null;
+			for (long position : positions) {
+				if (sharedInput) {
+					readerList.add(new BufferedPostingReader(new CharVector("a"), 0, 0, 10000, new IndexFieldOption(IndexFieldOption.STORE_POSITION), input, position, null, true));
+				} else {
+					readerList.add(newReader(postingInput, position));
+				}
+			}
+			PostingDocsMerger merger = new PostingDocsMerger(new CharVector("a*"), readerList, 10000, input);
+			for (Integer docNo : expected.keySet()) {
+				assertTrue(merger.hasNext());
+				PostingDoc doc = merger.next();
+				assertEquals(docNo.intValue(), doc.docNo());
+				assertEquals(expected.get(docNo).intValue(), doc.tf());
+				assertEquals(doc.tf(), doc.positions().length);
+			}
+			assertFalse(merger.hasNext());
+			merger.close();
+		} finally {
+			postingInput.close();
+		}
+	}
+
+	BufferedPostingReader newReader(IndexInput postingInput, long position) {
+		return new BufferedPostingReader(new CharVector("a"), 0, 0, 10000, new IndexFieldOption(IndexFieldOption.STORE_POSITION), postingInput.clone(), position);
+	}
+
+	private int tf(int docNo) {
+		return docNo % 3 + 1;
+	}
+
+	/*
+	 * 문서마다 tf 는 docNo % 3 + 1, 출현위치는 docNo 부터 2씩 증가.
+	 * */
+	long[] writePosting(int[][] postings) throws IOException {
+		IndexOutput postingOutput = new BufferedFileOutput(dir, IndexFileNames.getSearchPostingFileName(INDEX_ID));
+		long[] positions = new long[postings.length];
+		try {
+			postingOutput.writeInt(IndexFieldOption.STORE_POSITION);
+			for (int t = 0; t < postings.length; t++) {
+				int[] docs = postings[t];
+				positions[t] = postingOutput.position();
+				postingOutput.writeInt(0);
+				postingOutput.writeInt(docs.length);
+				postingOutput.writeInt(docs[docs.length - 1]);
+				int prevDocNo = -1;
+				for (int docNo : docs) {
+					postingOutput.writeVInt(prevDocNo >= 0 ? docNo - prevDocNo - 1 : docNo);
+					int tf = tf(docNo);
+					postingOutput.writeVInt(tf);
+					int prevPosition = -1;
+					for (int j = 0; j < tf; j++) {
+						int position = docNo + j * 2;
+						postingOutput.writeVInt(prevPosition >= 0 ? position - prevPosition - 1 : position);
+						prevPosition = position;
+					}
+					prevDocNo = docNo;
+				}
+			}
+		} finally {
+			postingOutput.close();
+		}
+		return positions;
+	}
+
+	int[] makeDocs(int count, int start, int gap) {
+		int[] docs = new int[count];
+		for (int i = 0; i < count; i++) {
+			docs[i] = start + i * gap;
+		}
+		return docs;
+	}
+}
@@ -0,0 +1,268 @@
+package org.fastcatsearch.ir.search;
+
+import org.apache.commons.io.FileUtils;
+import org.fastcatsearch.ir.analysis.AnalyzerPoolManager;
+import org.fastcatsearch.ir.analysis.DefaultAnalyzerFactory;
+import org.fastcatsearch.ir.analysis.PrimaryWordAnalyzer;
+import org.fastcatsearch.ir.common.IRException;
+import org.fastcatsearch.ir.common.IndexFileNames;
+import org.fastcatsearch.ir.config.DataInfo;
+import org.fastcatsearch.ir.config.IndexConfig;
+import org.fastcatsearch.ir.document.Document;
+import org.fastcatsearch.ir.index.SegmentWriter;
+import org.fastcatsearch.ir.io.BitSet;
+import org.fastcatsearch.ir.query.Filter;
+import org.fastcatsearch.ir.query.Filters;
+import org.fastcatsearch.ir.query.HitFilter;
+import org.fastcatsearch.ir.query.RankInfo;
+import org.fastcatsearch.ir.search.clause.AllDocumentOperatedClause;
+import org.fastcatsearch.ir.search.clause.AndOperatedClause;
+import org.fastcatsearch.ir.search.clause.BitSetOperatedClause;
+import org.fastcatsearch.ir.search.clause.OperatedClause;
+import org.fastcatsearch.ir.settings.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class FilterBitSetCacheTest {
+
+	private static final int DOC_COUNT = 1000;
+
+	private File dir;
+	private Schema schema;
+	private SegmentReader segmentReader;
+
+	@Before
+	public void setUp() throws Exception {
+		dir = File.createTempFile("filter-cache", "");
+		dir.delete();
+		schema = new Schema(createSchemaSetting());
+		AnalyzerPoolManager analyzerPoolManager = new AnalyzerPoolManager();
+		analyzerPoolManager.registerAnalyzer("PRIMARY", new DefaultAnalyzerFactory(PrimaryWordAnalyzer.class));
+		IndexConfig indexConfig = new IndexConfig();
+		indexConfig.setIndexTermInterval(4);
+		indexConfig.setIndexWorkBucketSize(256);
+		indexConfig.setIndexWorkMemorySize(1024 * 1024);
+		indexConfig.setPkBucketSize(1024);
+		indexConfig.setPkTermInterval(4);
+
+		DataInfo.SegmentInfo segmentInfo = new DataInfo.SegmentInfo("a0");
+		SegmentWriter writer = new SegmentWriter(schema, dir, segmentInfo, indexConfig, analyzerPoolManager);
+		for (int id = 0; id < DOC_COUNT; id++) {
+			Document document = new Document(4);
+			document.add(schema.fieldSettingMap().get("ID").createIndexableField(Integer.toString(id)));
+			document.add(schema.fieldSettingMap().get("TITLE").createIndexableField("w" + (id % 3)));
+			document.add(schema.fieldSettingMap().get("CATEGORY").createIndexableField("cat" + (id % 11)));
+			document.add(schema.fieldSettingMap().get("PRICE").createIndexableField(Integer.toString(price(id))));
+			writer.addDocument(document);
+		}
+		writer.close();
+
+		BitSet deleteSet = new BitSet(dir, IndexFileNames.docDeleteSet);
+		for (int docNo = 0; docNo < DOC_COUNT; docNo += 7) {
+			deleteSet.set(docNo);
+		}
+		deleteSet.save();
+		segmentReader = new SegmentReader(segmentInfo, schema, dir, analyzerPoolManager);
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		if (segmentReader != null) {
+			segmentReader.close();
+		}
+		FileUtils.deleteDirectory(dir);
+	}
+
+	/*
+	 * 캐시된 비트셋으로 거른 결과가 HitFilter 로 거른 결과와 같은지 확인한다.
+	 * */
+	@Test
+	public void testSameAsHitFilter() throws Exception {
+		Filters filters = new Filters();
+		filters.add(new Filter("category", Filter.MATCH, new String[0], new String[] { "cat3", "cat5" }));
+		filters.add(new Filter("category", Filter.SECTION, "cat2", "cat6"));
+		assertEquals(2, filters.getCacheableFilterList().size());
+		assertEquals(0, filters.getUncacheableFilters().size());
+
+		List<Integer> expected = new ArrayList<Integer>();
+		HitFilter hitFilter = filters.getHitFilter(schema, segmentReader.newFieldIndexesReader(), 100);
+		for (int docNo = 0; docNo < DOC_COUNT; docNo++) {
+			if (segmentReader.deleteSet().isSet(docNo)) {
+				continue;
+			}
+			RankInfo[] rankInfoList = new RankInfo[] { new RankInfo() };
+			rankInfoList[0].init(docNo, 0);
+			if (hitFilter.filtering(rankInfoList, 1) == 1) {
+				expected.add(docNo);
+			}
+		}
+		assertTrue(expected.size() > 0);
+
+		FilterBitSetCache cache = segmentReader.filterBitSetCache();
+		//처음 요청된 필터는 비트셋을 만들지 않고 돌려준다.
+		Filters remainFilters = new Filters();
+		BitSet[] firstBitSets = cache.get(filters.getCacheableFilterList(), schema, segmentReader.newFieldIndexesReader(), segmentReader.deleteSet(), DOC_COUNT, remainFilters);
+		assertEquals(0, firstBitSets.length);
+		assertEquals(2, remainFilters.size());
+		assertEquals(0, cache.size());
+
+		for (int round = 0; round < 2; round++) {
+			remainFilters = new Filters();
+			BitSet[] bitSets = cache.get(filters.getCacheableFilterList(), schema, segmentReader.newFieldIndexesReader(), segmentReader.deleteSet(), DOC_COUNT, remainFilters);
+			assertEquals(2, bitSets.length);
+			assertEquals(0, remainFilters.size());
+			OperatedClause clause = new AndOperatedClause(new BitSetOperatedClause(bitSets, DOC_COUNT), new AllDocumentOperatedClause(DOC_COUNT));
+			clause.init();
+			List<Integer> actual = new ArrayList<Integer>();
+			RankInfo rankInfo = new RankInfo();
+			while (clause.next(rankInfo)) {
+				assertEquals(1, rankInfo.hit());
+				actual.add(rankInfo.docNo());
+			}
+			assertEquals(expected, actual);
+		}
+		assertEquals(4, cache.missCount());
+		assertEquals(2, cache.hitCount());
+		assertEquals(2, cache.size());
+
+		//삭제문서가 바뀌면 비운다.
+		segmentReader.loadDeleteSet();
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.bytes());
+	}
+
+	/*
+	 * 숫자필드 범위필터는 doc values 의 블럭 min, max 와 값으로 거른다. 앞쪽 문서는 가격이 정렬되어 있어 블럭단위로 판단된다.
+	 * */
+	@Test
+	public void testNumericSection() throws Exception {
+		assertNotNull(segmentReader.newFieldIndexesReader().getNumericDocValues("PRICE"));
+		Filters filters = new Filters();
+		filters.add(new Filter("price", Filter.SECTION, new String[0], new String[] { "-100", "700" }, new String[] { "50", "720" }));
+
+		List<Integer> expected = new ArrayList<Integer>();
+		for (int docNo = 0; docNo < DOC_COUNT; docNo++) {
+			int price = price(docNo);
+			if (!segmentReader.deleteSet().isSet(docNo) && ((price >= -100 && price <= 50) || (price >= 700 && price <= 720))) {
+				expected.add(docNo);
+			}
+		}
+		assertTrue(expected.size() > 0);
+
+		FilterBitSetCache cache = segmentReader.filterBitSetCache();
+		cache.get(filters.getCacheableFilterList(), schema, segmentReader.newFieldIndexesReader(), segmentReader.deleteSet(), DOC_COUNT, new Filters());
+		BitSet[] bitSets = cache.get(filters.getCacheableFilterList(), schema, segmentReader.newFieldIndexesReader(), segmentReader.deleteSet(), DOC_COUNT, new Filters());
+		List<Integer> actual = new ArrayList<Integer>();
+		for (int docNo = bitSets[0].nextSetBit(0); docNo >= 0; docNo = bitSets[0].nextSetBit(docNo + 1)) {
+			actual.add(docNo);
+		}
+		assertEquals(expected, actual);
+
+		//HitFilter 의 문서별 비교도 같아야 한다.
+		HitFilter hitFilter = filters.getHitFilter(schema, segmentReader.newFieldIndexesReader(), 100);
+		actual.clear();
+		for (int docNo = 0; docNo < DOC_COUNT; docNo++) {
+			RankInfo[] rankInfoList = new RankInfo[] { new RankInfo() };
+			rankInfoList[0].init(docNo, 0);
+			if (!segmentReader.deleteSet().isSet(docNo) && hitFilter.filtering(rankInfoList, 1) == 1) {
+				actual.add(docNo);
+			}
+		}
+		assertEquals(expected, actual);
+	}
+
+	/*
+	 * 앞쪽 절반은 오름차순, 뒤쪽은 음수를 포함해 섞인 값.
+	 * */
+	private int price(int id) {
+		return id < DOC_COUNT / 2 ? id * 2 - 200 : (id * 37) % 1000 - 300;
+	}
+
+	/*
+	 * 여러 세그먼트가 하나의 pool 메모리 한도를 같이 쓰며, 한도를 넘으면 오래된 비트셋부터 제거된다.
+	 * */
+	@Test
+	public void testPoolEviction() {
+		BitSet bitSet = new BitSet(16);
+		long size = bitSet.memorySize();
+		FilterBitSetCachePool pool = new FilterBitSetCachePool(size * 2);
+		FilterBitSetCache cache1 = new FilterBitSetCache(pool);
+		FilterBitSetCache cache2 = new FilterBitSetCache(pool);
+		pool.put(cache1, "a", bitSet);
+		pool.put(cache2, "a", new BitSet(16));
+		assertEquals(2, pool.size());
+		assertNotNull(pool.get(cache1, "a"));
+
+		pool.put(cache2, "b", new BitSet(16));
+		assertEquals(2, pool.size());
+		assertEquals(1, pool.evictionCount());
+		assertNull(pool.get(cache2, "a"));
+		assertEquals(1, cache1.size());
+		assertEquals(1, cache2.size());
+
+		cache1.invalidate();
+		assertEquals(1, pool.size());
+		assertEquals(0, cache1.bytes());
+		assertEquals(size, pool.bytes());
+	}
+
+	@Test
+	public void testUncacheableFilter() {
+		Filters filters = new Filters();
+		filters.add(new Filter("category", Filter.MATCH, "cat1"));
+		filters.add(new Filter("category", Filter.MATCH_BOOST, "cat1", 100));
+		assertEquals(1, filters.getCacheableFilterList().size());
+		assertEquals(1, filters.getUncacheableFilters().size());
+		assertFalse(new Filter("category", Filter.MATCH, "cat1").cacheKey().equals(new Filter("category", Filter.MATCH, "cat1;").cacheKey()));
+	}
+
+	@Test
+	public void testNextSetBit() {
+		BitSet bitSet = new BitSet(4);
+		int[] bits = new int[] { 0, 1, 63, 64, 130, 255 };
+		for (int bit : bits) {
+			bitSet.set(bit);
+		}
+		int from = 0;
+		for (int bit : bits) {
+			from = bitSet.nextSetBit(from);
+			assertEquals(bit, from);
+			from++;
+		}
+		assertEquals(-1, bitSet.nextSetBit(from));
+		assertEquals(-1, bitSet.nextSetBit(1000));
+	}
+
+	private SchemaSetting createSchemaSetting() {
+		SchemaSetting setting = new SchemaSetting();
+		List<FieldSetting> fieldSettingList = new ArrayList<FieldSetting>();
+		fieldSettingList.add(new FieldSetting("ID", "아이디", FieldSetting.Type.LONG));
+		fieldSettingList.add(new FieldSetting("TITLE", "제목", FieldSetting.Type.STRING));
+		fieldSettingList.add(new FieldSetting("CATEGORY", "카테고리", FieldSetting.Type.ASTRING));
+		fieldSettingList.add(new FieldSetting("PRICE", "가격", FieldSetting.Type.INT));
+		setting.setFieldSettingList(fieldSettingList);
+		setting.setPrimaryKeySetting(new PrimaryKeySetting("ID"));
+
+		List<IndexSetting> indexSettingList = new ArrayList<IndexSetting>();
+		IndexSetting indexSetting = new IndexSetting("TITLE", "primary");
+		indexSetting.setFieldList(new ArrayList<IndexRefSetting>());
+		indexSetting.getFieldList().add(new IndexRefSetting("TITLE", "primary"));
+		indexSettingList.add(indexSetting);
+		setting.setIndexSettingList(indexSettingList);
+
+		List<FieldIndexSetting> fieldIndexSettingList = new ArrayList<FieldIndexSetting>();
+		fieldIndexSettingList.add(new FieldIndexSetting("CATEGORY", "CATEGORY", "CATEGORY", 8, false));
+		fieldIndexSettingList.add(new FieldIndexSetting("PRICE", "PRICE", "PRICE"));
+		setting.setFieldIndexSettingList(fieldIndexSettingList);
+		setting.setGroupIndexSettingList(new ArrayList<GroupIndexSetting>());
+		return setting;
+	}
+}
@@ -0,0 +1,114 @@
+package org.fastcatsearch.ir.search;
+
+import org.fastcatsearch.ir.index.NumericDocValuesWriter;
+import org.fastcatsearch.ir.io.BytesDataOutput;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class NumericDocValuesTest {
+
+	private File dir;
+
+	@Before
+	public void setUp() throws IOException {
+		dir = File.createTempFile("doc-values", "");
+		dir.delete();
+		dir.mkdirs();
+	}
+
+	@After
+	public void tearDown() {
+		File[] files = dir.listFiles();
+		if (files != null) {
+			for (File f : files) {
+				f.delete();
+			}
+		}
+		dir.delete();
+	}
+
+	@Test
+	public void testLong() throws IOException {
+		Random random = new Random(1);
+		long[] values = new long[1000];
+		for (int i = 0; i < values.length; i++) {
+			//블럭마다 값의 범위를 다르게 하여 비트수가 달라지도록 한다.
+			int block = i / NumericDocValues.BLOCK_SIZE;
+			if (block == 0) {
+				values[i] = 7;
+			} else if (block == 1) {
+				values[i] = Long.MIN_VALUE + random.nextInt(3);
+			} else if (block == 2) {
+				values[i] = random.nextLong();
+			} else {
+				values[i] = random.nextInt(100000) - 50000;
+			}
+		}
+		BytesDataOutput output = new BytesDataOutput(8);
+		NumericDocValuesWriter writer = new NumericDocValuesWriter(dir, "L", NumericDocValues.TYPE_LONG);
+		for (long value : values) {
+			output.reset();
+			output.writeLong(value);
+			writer.add(output.array(), 0);
+		}
+		writer.close();
+
+		NumericDocValues docValues = NumericDocValues.load(dir, "L");
+		assertEquals(values.length, docValues.docCount());
+		assertEquals((values.length + NumericDocValues.BLOCK_SIZE - 1) / NumericDocValues.BLOCK_SIZE, docValues.blockCount());
+		for (int i = 0; i < values.length; i++) {
+			assertEquals(values[i], docValues.get(i));
+			int block = i / NumericDocValues.BLOCK_SIZE;
+			assertTrue(docValues.blockMin(block) <= values[i] && values[i] <= docValues.blockMax(block));
+		}
+		byte[] bytes = new byte[8];
+		docValues.writeBytes(docValues.get(300), bytes, 0);
+		output.reset();
+		output.writeLong(values[300]);
+		for (int k = 0; k < 8; k++) {
+			assertEquals(output.array()[k], bytes[k]);
+		}
+	}
+
+	/*
+	 * 실수는 음수를 포함해도 크기순서가 유지되어야 하고, 다시 원래 바이트로 돌릴수 있어야 한다.
+	 * */
+	@Test
+	public void testFloatOrder() throws IOException {
+		float[] values = new float[] { -1000.5f, -1.25f, -0.0f, 0.0f, 0.5f, 3.75f, 1e10f };
+		BytesDataOutput output = new BytesDataOutput(4);
+		NumericDocValuesWriter writer = new NumericDocValuesWriter(dir, "F", NumericDocValues.TYPE_FLOAT);
+		for (float value : values) {
+			output.reset();
+			output.writeFloat(value);
+			writer.add(output.array(), 0);
+		}
+		writer.close();
+
+		NumericDocValues docValues = NumericDocValues.load(dir, "F");
+		byte[] bytes = new byte[4];
+		for (int i = 0; i < values.length; i++) {
+			if (i > 0) {
+				assertTrue(docValues.get(i - 1) <= docValues.get(i));
+			}
+			docValues.writeBytes(docValues.get(i), bytes, 0);
+			output.reset();
+			output.writeFloat(values[i]);
+			for (int k = 0; k < 4; k++) {
+				assertEquals(output.array()[k], bytes[k]);
+			}
+		}
+	}
+
+	@Test
+	public void testLoadWithoutFile() throws IOException {
+		assertNull(NumericDocValues.load(dir, "NONE"));
+	}
+}
@@ -0,0 +1,182 @@
+package org.fastcatsearch.ir.search;
+
+import org.fastcatsearch.ir.common.IndexFileNames;
+import org.fastcatsearch.ir.index.IndexFieldOption;
+import org.fastcatsearch.ir.index.PostingSkipWriter;
+import org.fastcatsearch.ir.io.BufferedFileInput;
+import org.fastcatsearch.ir.io.BufferedFileOutput;
+import org.fastcatsearch.ir.io.CharVector;
+import org.fastcatsearch.ir.io.IndexInput;
+import org.fastcatsearch.ir.io.IndexOutput;
+import org.fastcatsearch.ir.query.RankInfo;
+import org.fastcatsearch.ir.search.clause.AndOperatedClause;
+import org.fastcatsearch.ir.search.clause.NotOperatedClause;
+import org.fastcatsearch.ir.search.clause.TermOperatedClause;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PostingSkipReaderTest {
+
+	private static final String INDEX_ID = "title";
+
+	private File dir;
+	private Random r = new Random(System.currentTimeMillis());
+
+	@Before
+	public void setUp() throws IOException {
+		dir = File.createTempFile("posting-skip", "");
+		dir.delete();
+		dir.mkdirs();
+	}
+
+	@After
+	public void tearDown() {
+		File[] files = dir.listFiles();
+		if (files != null) {
+			for (File f : files) {
+				f.delete();
+			}
+		}
+		dir.delete();
+	}
+
+	@Test
+	public void testAdvance() throws IOException {
+		int[][] postings = new int[][] { makeDocs(1000, 10), makeDocs(50, 200), makeDocs(5000, 3) };
+		long[] positions = writePosting(postings, true);
+
+		PostingSkipReader skipReader = PostingSkipReader.load(dir, INDEX_ID);
+		assertNotNull(skipReader);
+		//50개 문서의 단어는 skip 정보가 없다.
+		assertTrue(skipReader.find(positions[0]) >= 0);
+		assertEquals(-1, skipReader.find(positions[1]));
+		assertTrue(skipReader.find(positions[2]) >= 0);
+
+		IndexInput postingInput = new BufferedFileInput(dir, IndexFileNames.getSearchPostingFileName(INDEX_ID));
+		try {
+			for (int t = 0; t < postings.length; t++) {
+				int[] docs = postings[t];
+				BufferedPostingReader reader = new BufferedPostingReader(new CharVector("t"), 0, 0, docs[docs.length - 1], new IndexFieldOption(IndexFieldOption.STORE_POSITION), postingInput.clone(), positions[t], skipReader);
+				int target = 0;
+				while (true) {
+					target += r.nextInt(300) + 1;
+					PostingDoc doc = reader.advance(target);
+					int expected = lowerBound(docs, target);
+					if (expected < 0) {
+						assertNull(doc);
+						break;
+					}
+					assertNotNull(doc);
+					assertEquals(expected, doc.docNo());
+					assertEquals(1, doc.tf());
+					assertEquals(expected % 7, doc.positions()[0]);
+					target = doc.docNo();
+				}
+			}
+		} finally {
+			postingInput.close();
+		}
+	}
+
+	@Test
+	public void testAndNot() throws IOException {
+		int[][] postings = new int[][] { makeDocs(3000, 5), makeDocs(300, 40), makeDocs(1000, 10) };
+		long[] positions = writePosting(postings, false);
+		PostingSkipReader skipReader = PostingSkipReader.load(dir, INDEX_ID);
+		IndexInput postingInput = new BufferedFileInput(dir, IndexFileNames.getSearchPostingFileName(INDEX_ID));
+		try {
+			AndOperatedClause andClause = new AndOperatedClause(termClause(postingInput, positions[0], skipReader), termClause(postingInput, positions[1], skipReader));
+			NotOperatedClause notClause = new NotOperatedClause(andClause, termClause(postingInput, positions[2], skipReader));
+			notClause.init();
+
+			List<Integer> expected = new ArrayList<Integer>();
+			for (int docNo : postings[0]) {
+				if (contains(postings[1], docNo) && !contains(postings[2], docNo)) {
+					expected.add(docNo);
+				}
+			}
+			List<Integer> result = new ArrayList<Integer>();
+			RankInfo rankInfo = new RankInfo();
+			while (notClause.next(rankInfo)) {
+				result.add(rankInfo.docNo());
+			}
+			assertEquals(expected, result);
+		} finally {
+			postingInput.close();
+		}
+	}
+
+	private TermOperatedClause termClause(IndexInput postingInput, long position, PostingSkipReader skipReader) throws IOException {
+		BufferedPostingReader reader = new BufferedPostingReader(new CharVector("t"), 0, 1, 100000, new IndexFieldOption(0), postingInput.clone(), position, skipReader);
+		return new TermOperatedClause(INDEX_ID, "t", reader);
+	}
+
+	/*
+	 * 포스팅파일과 skip 파일을 직접 기록한다. 위치정보는 docNo % 7 하나만 기록.
+	 * */
+	private long[] writePosting(int[][] postings, boolean storePosition) throws IOException {
+		IndexOutput postingOutput = new BufferedFileOutput(dir, IndexFileNames.getSearchPostingFileName(INDEX_ID));
+		PostingSkipWriter skipWriter = new PostingSkipWriter(dir, INDEX_ID);
+		long[] positions = new long[postings.length];
+		try {
+			postingOutput.writeInt(storePosition ? IndexFieldOption.STORE_POSITION : 0);
+			for (int t = 0; t < postings.length; t++) {
+				int[] docs = postings[t];
+				long postingPosition = postingOutput.position();
+				positions[t] = postingPosition;
+				postingOutput.writeInt(0);
+				postingOutput.writeInt(docs.length);
+				postingOutput.writeInt(docs[docs.length - 1]);
+				skipWriter.startTerm(postingPosition);
+				int prevDocNo = -1;
+				for (int docNo : docs) {
+					postingOutput.writeVInt(prevDocNo >= 0 ? docNo - prevDocNo - 1 : docNo);
+					postingOutput.writeVInt(1);
+					if (storePosition) {
+						postingOutput.writeVInt(docNo % 7);
+					}
+					prevDocNo = docNo;
+					skipWriter.addDoc(docNo, postingOutput.position());
+				}
+				skipWriter.endTerm();
+			}
+		} finally {
+			postingOutput.close();
+			skipWriter.close();
+		}
+		return positions;
+	}
+
+	private int[] makeDocs(int count, int maxGap) {
+		int[] docs = new int[count];
+		int prev = -1;
+		for (int i = 0; i < count; i++) {
+			docs[i] = prev + 1 + r.nextInt(maxGap);
+			prev = docs[i];
+		}
+		return docs;
+	}
+
+	private int lowerBound(int[] docs, int target) {
+		for (int docNo : docs) {
+			if (docNo >= target) {
+				return docNo;
+			}
+		}
+		return -1;
+	}
+
+	private boolean contains(int[] docs, int docNo) {
+		return Arrays.binarySearch(docs, docNo) >= 0;
+	}
+}
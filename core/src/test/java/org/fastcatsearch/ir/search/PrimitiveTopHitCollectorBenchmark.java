@@ -0,0 +1,68 @@
+package org.fastcatsearch.ir.search;
+
+import org.apache.lucene.util.BytesRef;
+import org.fastcatsearch.ir.query.Sort;
+import org.fastcatsearch.ir.settings.Schema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 1000만 히트를 점수 정렬로 상위 100개를 뽑을때 히트마다 HitElement 를 만들어 HitRanker 에 넣는 방식과
+ * PrimitiveTopHitCollector 의 처리시간, 할당량을 비교한다.
+ * 단위테스트에는 포함되지 않으며 main 으로 실행한다.
+ * */
+public class PrimitiveTopHitCollectorBenchmark {
+	private static final Logger logger = LoggerFactory.getLogger(PrimitiveTopHitCollectorBenchmark.class);
+
+	private static final int HIT_COUNT = 10000000;
+	private static final int TOP_N = 100;
+	private static final int ROUND = 3;
+
+	public static void main(String[] args) throws Exception {
+		new PrimitiveTopHitCollectorBenchmark().run();
+	}
+
+	private void run() throws Exception {
+		List<Sort> sortList = new ArrayList<Sort>();
+		sortList.add(new Sort("_SCORE", false));
+		Random random = new Random(3);
+		int[] scores = new int[HIT_COUNT];
+		for (int i = 0; i < scores.length; i++) {
+			scores[i] = random.nextInt(100000);
+		}
+		for (int round = 0; round < ROUND; round++) {
+			long st = System.nanoTime();
+			long alloc = allocatedBytes();
+			HitRanker ranker = new HitRanker(sortList, new Schema(PrimitiveTopHitCollectorTest.createSchemaSetting()), TOP_N);
+			for (int docNo = 0; docNo < scores.length; docNo++) {
+				ranker.push(new HitElement(docNo, scores[docNo], 1, new BytesRef[] { PrimitiveTopHitCollectorTest.scoreBytes(scores[docNo]) }, null));
+			}
+			long rankerAlloc = allocatedBytes() - alloc;
+			long rankerTime = System.nanoTime() - st;
+
+			st = System.nanoTime();
+			alloc = allocatedBytes();
+			PrimitiveTopHitCollector collector = new PrimitiveTopHitCollector(TOP_N, true, false);
+			for (int docNo = 0; docNo < scores.length; docNo++) {
+				collector.push(docNo, scores[docNo], 1, 0, 0, Float.floatToIntBits(scores[docNo]));
+			}
+			long collectorAlloc = allocatedBytes() - alloc;
+			long collectorTime = System.nanoTime() - st;
+			logger.info("round {} ranker {}ms {}KB / primitive {}ms {}KB (size {}, {})", round, rankerTime / 1000000, rankerAlloc / 1024, collectorTime / 1000000, collectorAlloc / 1024, ranker.size(), collector.size());
+		}
+	}
+
+	private long allocatedBytes() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return 0;
+	}
+}
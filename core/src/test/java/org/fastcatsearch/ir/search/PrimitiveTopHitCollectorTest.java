@@ -0,0 +1,168 @@
+package org.fastcatsearch.ir.search;
+
+import org.apache.commons.io.FileUtils;
+import org.fastcatsearch.ir.analysis.AnalyzerPoolManager;
+import org.fastcatsearch.ir.analysis.DefaultAnalyzerFactory;
+import org.fastcatsearch.ir.analysis.PrimaryWordAnalyzer;
+import org.fastcatsearch.ir.config.DataInfo;
+import org.fastcatsearch.ir.config.IndexConfig;
+import org.fastcatsearch.ir.document.Document;
+import org.fastcatsearch.ir.index.SegmentWriter;
+import org.fastcatsearch.ir.io.FixedMaxPriorityQueue;
+import org.fastcatsearch.ir.io.IOUtil;
+import org.fastcatsearch.ir.query.Metadata;
+import org.fastcatsearch.ir.query.Sort;
+import org.fastcatsearch.ir.query.Sorts;
+import org.fastcatsearch.ir.settings.*;
+import org.apache.lucene.util.BytesRef;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PrimitiveTopHitCollectorTest {
+
+	/*
+	 * 점수 정렬(동점이 많음)에서 HitRanker 와 같은 순서로 상위 N개를 뽑는지 확인한다.
+	 * */
+	@Test
+	public void testSameAsHitRanker() throws Exception {
+		Random random = new Random(1);
+		for (int round = 0; round < 2; round++) {
+			boolean asc = round == 0;
+			List<Sort> sortList = new ArrayList<Sort>();
+			sortList.add(new Sort("_SCORE", asc));
+			HitRanker ranker = new HitRanker(sortList, new Schema(createSchemaSetting()), 50);
+			PrimitiveTopHitCollector collector = new PrimitiveTopHitCollector(50, true, asc);
+			for (int docNo = 0; docNo < 10000; docNo++) {
+				int score = random.nextInt(30) - 5;
+				ranker.push(new HitElement(docNo, score, 1, new BytesRef[] { scoreBytes(score) }, null));
+				collector.push(docNo, score, 1, 0, 0, Float.floatToIntBits(score));
+			}
+			assertSameOrder(ranker, collector);
+		}
+	}
+
+	@Test
+	public void testSameAsDefaultRanker() {
+		DefaultRanker ranker = new DefaultRanker(20);
+		PrimitiveTopHitCollector collector = new PrimitiveTopHitCollector(20);
+		Random random = new Random(2);
+		for (int i = 0; i < 1000; i++) {
+			int docNo = random.nextInt(1000000);
+			ranker.push(new HitElement(docNo, 0, 1, null));
+			collector.push(docNo, 0, 1, 0, 0, 0);
+		}
+		assertSameOrder(ranker, collector);
+		assertEquals(1000, collector.totalSize());
+	}
+
+	@Test
+	public void testEmpty() {
+		PrimitiveTopHitCollector collector = new PrimitiveTopHitCollector(0, true, false);
+		collector.push(1, 1, 1, 0, 0, 1);
+		assertEquals(0, collector.size());
+		assertEquals(1, collector.totalSize());
+		assertEquals(0, collector.popSortedSlots().length);
+	}
+
+	/*
+	 * doc values 정렬필드로 세그먼트를 검색할때 수집기의 결과가 기존 next() 와 ranker 결과와 같은지 확인한다.
+	 * */
+	@Test
+	public void testHitReader() throws Exception {
+		File dir = File.createTempFile("top-hit", "");
+		dir.delete();
+		try {
+			Schema schema = new Schema(createSchemaSetting());
+			AnalyzerPoolManager analyzerPoolManager = new AnalyzerPoolManager();
+			analyzerPoolManager.registerAnalyzer("PRIMARY", new DefaultAnalyzerFactory(PrimaryWordAnalyzer.class));
+			IndexConfig indexConfig = new IndexConfig();
+			indexConfig.setIndexTermInterval(4);
+			indexConfig.setIndexWorkBucketSize(256);
+			indexConfig.setIndexWorkMemorySize(1024 * 1024);
+			indexConfig.setPkBucketSize(1024);
+			indexConfig.setPkTermInterval(4);
+			DataInfo.SegmentInfo segmentInfo = new DataInfo.SegmentInfo("a0");
+			SegmentWriter writer = new SegmentWriter(schema, dir, segmentInfo, indexConfig, analyzerPoolManager);
+			for (int id = 0; id < 1000; id++) {
+				Document document = new Document(2);
+				document.add(schema.fieldSettingMap().get("ID").createIndexableField(Integer.toString(id)));
+				document.add(schema.fieldSettingMap().get("PRICE").createIndexableField(Float.toString(((id * 37) % 101) - 50.5f)));
+				writer.addDocument(document);
+			}
+			writer.close();
+			SegmentReader segmentReader = new SegmentReader(segmentInfo, schema, dir, analyzerPoolManager);
+			try {
+				for (int round = 0; round < 2; round++) {
+					Sorts sorts = new Sorts();
+					sorts.add(new Sort("PRICE", round == 0));
+					Metadata meta = new Metadata(1, 30);
+
+					HitReader hitReader = new HitReader(segmentReader, meta, null, null, null, null, sorts, null, null);
+					HitRanker ranker = sorts.createRanker(schema, 30);
+					HitElement e = null;
+					while ((e = hitReader.next()) != null) {
+						ranker.push(e);
+					}
+
+					HitReader collectReader = new HitReader(segmentReader, meta, null, null, null, null, sorts, null, null);
+					assertTrue(collectReader.isTopHitCollectable());
+					while (collectReader.collect()) {
+					}
+					assertEquals(hitReader.totalCount(), collectReader.totalCount());
+					HitElement[] topHits = collectReader.topHitElements();
+					Object[] expected = ranker.getSortedList();
+					assertEquals(expected.length, topHits.length);
+					for (int i = 0; i < topHits.length; i++) {
+						HitElement expectedHit = (HitElement) expected[i];
+						assertEquals(expectedHit.docNo(), topHits[i].docNo());
+						assertTrue(expectedHit.rankData(0).bytesEquals(topHits[i].rankData(0)));
+						assertEquals("a0", topHits[i].segmentId());
+					}
+				}
+			} finally {
+				segmentReader.close();
+			}
+		} finally {
+			FileUtils.deleteDirectory(dir);
+		}
+	}
+
+	private void assertSameOrder(FixedMaxPriorityQueue<HitElement> ranker, PrimitiveTopHitCollector collector) {
+		Object[] expected = ranker.getSortedList();
+		int[] slots = collector.popSortedSlots();
+		assertEquals(expected.length, slots.length);
+		for (int i = 0; i < slots.length; i++) {
+			HitElement e = (HitElement) expected[i];
+			assertEquals(e.docNo(), collector.docNo(slots[i]));
+			assertEquals(e.score(), collector.score(slots[i]));
+		}
+	}
+
+	static BytesRef scoreBytes(int score) {
+		BytesRef bytesRef = new BytesRef(IOUtil.SIZE_OF_INT);
+		IOUtil.writeInt(bytesRef, Float.floatToIntBits(score));
+		bytesRef.flip();
+		return bytesRef;
+	}
+
+	static SchemaSetting createSchemaSetting() {
+		SchemaSetting setting = new SchemaSetting();
+		List<FieldSetting> fieldSettingList = new ArrayList<FieldSetting>();
+		fieldSettingList.add(new FieldSetting("ID", "아이디", FieldSetting.Type.LONG));
+		fieldSettingList.add(new FieldSetting("PRICE", "가격", FieldSetting.Type.FLOAT));
+		setting.setFieldSettingList(fieldSettingList);
+		setting.setPrimaryKeySetting(new PrimaryKeySetting("ID"));
+		setting.setIndexSettingList(new ArrayList<IndexSetting>());
+		List<FieldIndexSetting> fieldIndexSettingList = new ArrayList<FieldIndexSetting>();
+		fieldIndexSettingList.add(new FieldIndexSetting("PRICE", "PRICE", "PRICE"));
+		setting.setFieldIndexSettingList(fieldIndexSettingList);
+		setting.setGroupIndexSettingList(new ArrayList<GroupIndexSetting>());
+		return setting;
+	}
+}
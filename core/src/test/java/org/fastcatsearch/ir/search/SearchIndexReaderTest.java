@@ -53,22 +53,22 @@ public class SearchIndexReaderTest extends TestCase{
 		int fieldNum = 0;
 		CharVector term = new CharVector("티셔츠");//나시 , 티셔츠, 남방 
 		
-		PostingDocs termDocs = reader.getPosting(term);
+		PostingReader postingReader = reader.getPosting(term);
 		
-		if(termDocs == null){
+		if(postingReader == null){
 			System.out.println("검색실패 !");
 			
 		}else{
-			int count = termDocs.count();
-			PostingDoc[] postingDocList = termDocs.postingDocList();
-//			int[] docs =  termDocs.docs();
-//			int[] tfs = termDocs.tfs();
-			for(int i=0;i<count;i++){
-				PostingDoc postingDoc = postingDocList[i];
+			int count = postingReader.size();
+			int i = 0;
+			while(postingReader.hasNext()){
+				PostingDoc postingDoc = postingReader.next();
 				if(i < 10 || i > count - 10){
 					System.out.print("("+postingDoc.docNo()+":"+postingDoc.tf()+"), ");
 				}
+				i++;
 			}
+			postingReader.close();
 		}
 		System.out.println("");
 		System.out.println("totalMem = "+Runtime.getRuntime().totalMemory());
@@ -91,65 +91,34 @@ public class SearchIndexReaderTest extends TestCase{
 		CharVector term1 = new CharVector("티셔츠");//나시 , 티셔츠, 남방 
 		CharVector term2 = new CharVector("바지");
 		
-		PostingDocs termDocs1 = reader.getPosting(term1);
-		PostingDocs termDocs2 = reader.getPosting(term2);
+		PostingReader postingReader1 = reader.getPosting(term1);
+		PostingReader postingReader2 = reader.getPosting(term2);
 		
 		
 		//AND 검색에서는 하나라도 검색결과가 없다면 검색실패이다.
-		if(termDocs1 == null || termDocs2 == null){
+		if(postingReader1 == null || postingReader2 == null){
 			System.out.println("검색실패 !");
 			
 		}else{
 			
-			PostingDoc[] termDocList1 = termDocs1.postingDocList();
-			PostingDoc[] termDocList2 = termDocs2.postingDocList();
-			
-			
-//			int[] docs1 =  termDocs1.docs();
-//			int[] tfs1 = termDocs1.tfs();
-//			
-//			int[] docs2 =  termDocs2.docs();
-//			int[] tfs2 = termDocs2.tfs();
-			
-			int idx1 = 0;
-			int idx2 = 0;
 			int count = 0;
 			
 			System.out.println("== AND ==");
-			while(true){
-				if(termDocList1[idx1].docNo() == termDocList2[idx2].docNo()){
-					System.out.println(termDocList1[idx1].docNo()+":"+(termDocList1[idx1].tf() + termDocList2[idx2].tf()));
-					idx1++;
-					idx2++;
+			PostingDoc doc1 = postingReader1.next();
+			while(doc1 != null){
+				int docNo1 = doc1.docNo();
+				int tf1 = doc1.tf();
+				PostingDoc doc2 = postingReader2.advance(docNo1);
+				if(doc2 == null){
+					break;
+				}
+				if(doc2.docNo() == docNo1){
+					System.out.println(docNo1+":"+(tf1 + doc2.tf()));
 					count++;
-					
-				}else if(termDocList1[idx1].docNo() < termDocList2[idx2].docNo()){
-					idx1++;
+					doc1 = postingReader1.next();
 				}else{
-					idx2++;
+					doc1 = postingReader1.advance(doc2.docNo());
 				}
-				
-				if(idx1 == termDocList1.length)
-					break;
-				
-				if(idx2 == termDocList2.length)
-					break;
-				
-			}
-			
-			System.out.println("---------");
-			
-			//나머지 뿌려주기 
-			for(;idx1 < termDocList1.length;idx1++){
-				System.out.println(termDocList1[idx1].docNo()+":"+termDocList1[idx1].tf());
-				count++;
-			}
-			
-			System.out.println("---------");
-			
-			for(;idx2 < termDocList2.length;idx2++){
-				System.out.println(termDocList2[idx2].docNo()+":"+termDocList2[idx2].tf());
-				count++;
 			}
 			
 			System.out.println("총결과수  = "+count);
@@ -0,0 +1,60 @@
+package org.fastcatsearch.ir.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.fastcatsearch.ir.query.InternalSearchResult;
+import org.fastcatsearch.ir.query.Query;
+import org.junit.Test;
+
+public class SearchResultAggregatorTest {
+
+	private InternalSearchResult makeResult(String collectionId, int count, int totalCount) {
+		HitElement[] rows = new HitElement[count];
+		for (int i = 0; i < count; i++) {
+			rows[i] = new HitElement("0", i, 100 - i, 1, null, null);
+		}
+		return new InternalSearchResult(collectionId, rows, count, totalCount, null, null, null);
+	}
+
+	private Query makeQuery(int start, int rows) {
+		Query q = new Query();
+		q.getMeta().setStart(start);
+		q.getMeta().setRows(rows);
+		return q;
+	}
+
+	/*
+	 * 도착하는대로 머징한 결과는 한번에 머징한 결과와 갯수가 같다.
+	 * */
+	@Test
+	public void testAdd() {
+		SearchResultAggregator aggregator = new SearchResultAggregator(makeQuery(3, 4), null);
+		assertNull(aggregator.result());
+		aggregator.add(makeResult("a", 6, 10));
+		aggregator.add(makeResult("b", 6, 20));
+		aggregator.add(makeResult("c", 2, 2));
+		assertEquals(3, aggregator.addCount());
+		InternalSearchResult result = aggregator.result();
+		assertEquals(32, result.getTotalCount());
+		assertEquals(4, result.getCount());
+		//중간결과가 잘리지 않아야 한다. start + rows - 1 개까지 유지한다.
+		SearchResultAggregator aggregator2 = new SearchResultAggregator(makeQuery(5, 10), null);
+		aggregator2.add(makeResult("a", 14, 14));
+		aggregator2.add(makeResult("b", 14, 14));
+		assertEquals(10, aggregator2.result().getCount());
+	}
+
+	/*
+	 * 결과가 하나만 도착해도 start 를 적용한다.
+	 * */
+	@Test
+	public void testAddOne() {
+		SearchResultAggregator aggregator = new SearchResultAggregator(makeQuery(3, 4), null);
+		aggregator.add(makeResult("a", 5, 5));
+		InternalSearchResult result = aggregator.result();
+		assertEquals(3, result.getCount());
+		assertEquals(5, result.getTotalCount());
+		assertEquals(2, result.getHitElementList()[0].docNo());
+	}
+}
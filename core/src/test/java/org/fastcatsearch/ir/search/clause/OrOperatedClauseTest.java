@@ -75,6 +75,30 @@ public class OrOperatedClauseTest extends TestCase{
 		}
 	}
 	
+	public void testAdvance() throws IOException {
+		int[] docs1 = new int[]{2,5,7,20,31};
+		int[] docs2 = new int[]{3,8,9,25,31,40};
+		
+		OrOperatedClause orClause = new OrOperatedClause(new UserOperatedClause(docs1.length, docs1, null), new UserOperatedClause(docs2.length, docs2, null));
+		orClause.init();
+		
+		RankInfo docInfo = new RankInfo();
+		assertTrue(orClause.next(docInfo));
+		assertEquals(2, docInfo.docNo());
+		//두 절 모두 건너뛰고 작은 문서를 리턴한다.
+		assertTrue(orClause.advance(docInfo, 8));
+		assertEquals(8, docInfo.docNo());
+		assertTrue(orClause.next(docInfo));
+		assertEquals(9, docInfo.docNo());
+		assertTrue(orClause.advance(docInfo, 21));
+		assertEquals(25, docInfo.docNo());
+		assertTrue(orClause.advance(docInfo, 26));
+		assertEquals(31, docInfo.docNo());
+		assertTrue(orClause.next(docInfo));
+		assertEquals(40, docInfo.docNo());
+		assertFalse(orClause.advance(docInfo, 41));
+	}
+	
 	private Random r = new Random(System.currentTimeMillis());
 	
 	private void makeDocs(int count, int[] docs){
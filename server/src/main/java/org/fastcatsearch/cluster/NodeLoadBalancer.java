@@ -2,6 +2,7 @@ package org.fastcatsearch.cluster;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -11,6 +12,8 @@ import org.slf4j.LoggerFactory;
 
 /**
  * id 마다 long값을 유지하여 round-robin방식으로 다음 노드를 선택해준다.
+ * NodeResponseStats 가 주어지면 active 노드중 임의의 두 노드를 골라 응답시간과 처리중인 요청수로 계산한 비용이 작은 노드를 선택한다(power of two choices).
+ * GC 나 머징으로 느려진 노드는 비용이 커져서 요청을 덜 받게 된다.
  * */
 public class NodeLoadBalancer {
 	protected static Logger logger = LoggerFactory.getLogger(NodeLoadBalancer.class);
@@ -18,9 +21,18 @@ public class NodeLoadBalancer {
 	private Map<String, List<Node>> map;
 	//컬렉션별로 seq를 유지하면 동일 노드에 여러 컬렉션을 한번에 검색하게 되므로, 이 방법은 사용하지 않는다.
 	private AtomicLong rrSequence; //round robin 시퀀스.
+	private NodeResponseStats responseStats;
+	private Random random;
+
 	public NodeLoadBalancer() {
+		this(null);
+	}
+
+	public NodeLoadBalancer(NodeResponseStats responseStats) {
 		map = new ConcurrentHashMap<String, List<Node>>();
 		rrSequence = new AtomicLong();
+		this.responseStats = responseStats;
+		random = new Random();
 	}
 
 	public void update(String id, List<Node> list) {
@@ -47,6 +59,12 @@ public class NodeLoadBalancer {
 			return null;
 		}
 		int length = list.size();
+		if(responseStats != null && length > 1) {
+			Node selectedNode = selectByCost(list, (int) (seq % length));
+			if(selectedNode != null) {
+				return selectedNode;
+			}
+		}
 		//width만큼 돌면서 노드를 찾는다.
 		for (int i = 0; i < length; i++) {
 			int index = (int) (seq++ % length);
@@ -64,4 +82,61 @@ public class NodeLoadBalancer {
 
 	}
 
+	/*
+	 * start 부터 active 노드 하나와, 그 뒤에서 임의로 고른 active 노드 하나를 비교하여 비용이 작은 노드를 리턴한다.
+	 * active 노드가 없으면 null.
+	 * */
+	private Node selectByCost(List<Node> list, int start) {
+		int length = list.size();
+		Node first = null;
+		int firstIndex = -1;
+		for (int i = 0; i < length; i++) {
+			int index = (start + i) % length;
+			if (list.get(index).isActive()) {
+				first = list.get(index);
+				firstIndex = index;
+				break;
+			}
+		}
+		if (first == null) {
+			return null;
+		}
+		Node second = null;
+		int offset = 1 + random.nextInt(length - 1);
+		for (int i = 0; i < length - 1; i++) {
+			Node node = list.get((firstIndex + offset + i) % length);
+			if (node != first && node.isActive()) {
+				second = node;
+				break;
+			}
+		}
+		if (second == null) {
+			return first;
+		}
+		return responseStats.cost(second) < responseStats.cost(first) ? second : first;
+	}
+
+	/**
+	 * hedged 요청을 보낼 노드. exclude 를 제외한 active 노드중 비용이 가장 작은 노드를 리턴하며, 없으면 null.
+	 * */
+	public Node getAlternativeNode(String id, Node exclude) {
+		List<Node> list = map.get(id);
+		if (list == null) {
+			return null;
+		}
+		Node selectedNode = null;
+		double selectedCost = 0;
+		for (Node node : list) {
+			if (node == null || !node.isActive() || node.equals(exclude)) {
+				continue;
+			}
+			double cost = responseStats != null ? responseStats.cost(node) : 0;
+			if (selectedNode == null || cost < selectedCost) {
+				selectedNode = node;
+				selectedCost = cost;
+			}
+		}
+		return selectedNode;
+	}
+
 }
@@ -0,0 +1,127 @@
+package org.fastcatsearch.cluster;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.fastcatsearch.control.ResultFuture;
+import org.fastcatsearch.job.Job;
+import org.fastcatsearch.job.internal.InternalDocumentSearchJob;
+import org.fastcatsearch.job.internal.InternalGroupSearchJob;
+import org.fastcatsearch.job.internal.InternalSearchJob;
+
+/**
+ * 노드별 검색요청의 응답시간 통계.
+ * 응답시간의 지수가중이동평균(EWMA)과 처리중인 요청수, 최근 응답시간 샘플을 유지하여
+ * 로드밸런서의 노드선택과 hedged 요청의 대기시간 계산에 사용한다.
+ * 응답시간이 크게 다른 색인, 관리 작업은 기록하지 않고 검색작업만 기록한다.
+ * */
+public class NodeResponseStats {
+
+	//EWMA 에 새 응답시간을 반영하는 비율.
+	private static final double ALPHA = 0.3;
+	//요청이 없는 동안 EWMA 를 반으로 줄이는 시간(ms). 느렸던 노드도 시간이 지나면 다시 선택되어 통계가 갱신된다.
+	private static final long DECAY_HALF_LIFE = 5000;
+	//최근 응답시간 샘플 갯수.
+	private static final int SAMPLE_SIZE = 128;
+	//percentile 을 계산하기 위한 최소 샘플 갯수.
+	private static final int MIN_SAMPLE_SIZE = 20;
+
+	private final ConcurrentMap<String, NodeStat> statMap = new ConcurrentHashMap<String, NodeStat>();
+
+	public static boolean isTracked(Job job) {
+		return job instanceof InternalSearchJob || job instanceof InternalGroupSearchJob || job instanceof InternalDocumentSearchJob;
+	}
+
+	/**
+	 * 요청을 보낼때 호출한다. 리턴된 listener 는 요청이 끝나면 응답시간을 기록한다.
+	 * */
+	public ResultFuture.CompletionListener requestStarted(Node node) {
+		final NodeStat stat = stat(node);
+		stat.inFlight.incrementAndGet();
+		return new ResultFuture.CompletionListener() {
+			@Override
+			public void onComplete(boolean isSuccess, long elapsedTime) {
+				stat.inFlight.decrementAndGet();
+				stat.add(elapsedTime, isSuccess);
+			}
+		};
+	}
+
+	/**
+	 * 노드선택 비용. 평균응답시간에 처리중인 요청수를 곱한다. 작을수록 좋다.
+	 * */
+	public double cost(Node node) {
+		NodeStat stat = stat(node);
+		return stat.ewma() * (Math.max(0, stat.inFlight.get()) + 1);
+	}
+
+	/**
+	 * 최근 응답시간의 percentile(ms). 샘플이 부족하면 -1 을 리턴한다.
+	 * */
+	public long percentile(Node node, int percent) {
+		return stat(node).percentile(percent);
+	}
+
+	public NodeStat stat(Node node) {
+		NodeStat stat = statMap.get(node.id());
+		if (stat == null) {
+			NodeStat newStat = new NodeStat();
+			stat = statMap.putIfAbsent(node.id(), newStat);
+			if (stat == null) {
+				stat = newStat;
+			}
+		}
+		return stat;
+	}
+
+	public static class NodeStat {
+		private final AtomicInteger inFlight = new AtomicInteger();
+		private final long[] samples = new long[SAMPLE_SIZE];
+		private int sampleCount;
+		private int samplePos;
+		private double ewma;
+		private long lastUpdateTime;
+
+		private synchronized void add(long elapsedTime, boolean isSuccess) {
+			double value = elapsedTime;
+			if (!isSuccess) {
+				//바로 실패한 노드가 빠른 노드로 보이지 않도록 평균의 두배 이상으로 기록한다.
+				value = Math.max(value, ewma * 2 + 1);
+			}
+			ewma = sampleCount == 0 ? value : ewma + ALPHA * (value - ewma);
+			lastUpdateTime = System.currentTimeMillis();
+			samples[samplePos] = (long) value;
+			samplePos = (samplePos + 1) % SAMPLE_SIZE;
+			if (sampleCount < SAMPLE_SIZE) {
+				sampleCount++;
+			}
+		}
+
+		public synchronized double ewma() {
+			if (sampleCount == 0) {
+				return 0;
+			}
+			long idleTime = System.currentTimeMillis() - lastUpdateTime;
+			if (idleTime > DECAY_HALF_LIFE) {
+				return ewma * Math.pow(0.5, (double) idleTime / DECAY_HALF_LIFE);
+			}
+			return ewma;
+		}
+
+		public int inFlight() {
+			return inFlight.get();
+		}
+
+		public synchronized long percentile(int percent) {
+			if (sampleCount < MIN_SAMPLE_SIZE) {
+				return -1;
+			}
+			long[] sorted = Arrays.copyOf(samples, sampleCount);
+			Arrays.sort(sorted);
+			int index = (int) Math.ceil(sampleCount * percent / 100.0) - 1;
+			return sorted[Math.max(0, Math.min(sampleCount - 1, index))];
+		}
+	}
+}
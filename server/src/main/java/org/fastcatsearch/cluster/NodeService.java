@@ -31,6 +31,10 @@ public class NodeService extends AbstractService implements NodeLoadBalancable {
 	private static NodeLoadBalancer loadBalancer;
 	
 	private TransportModule transportModule;
+	private NodeResponseStats responseStats;
+	private boolean isHedgeEnabled;
+	private int hedgePercentile;
+	private long hedgeMinDelay;
 	private Node myNode;
 	private Node masterNode;
 	private Map<String, Node> nodeMap;
@@ -89,6 +93,8 @@ public class NodeService extends AbstractService implements NodeLoadBalancable {
 		if (!transportModule.load()) {
 			throw new FastcatSearchException("ERR-00305");
 		}
+		responseStats = new NodeResponseStats();
+		transportModule.setResponseStats(responseStats);
 
 		NodeHandshakeJob nodeHandshakeJob = new NodeHandshakeJob(myNode.id(), servicePort);
 
@@ -105,7 +111,17 @@ public class NodeService extends AbstractService implements NodeLoadBalancable {
 			}
 		}
 
-		loadBalancer = new NodeLoadBalancer();
+		//adaptive : 응답시간과 처리중인 요청수로 노드선택, round_robin : 순서대로 선택.
+		String loadBalanceStrategy = settings.getString("load_balance", "adaptive");
+		if ("round_robin".equalsIgnoreCase(loadBalanceStrategy)) {
+			loadBalancer = new NodeLoadBalancer();
+		} else {
+			loadBalancer = new NodeLoadBalancer(responseStats);
+		}
+		isHedgeEnabled = settings.getBoolean("hedge.enabled", false);
+		hedgePercentile = settings.getInt("hedge.percentile", 95);
+		hedgeMinDelay = settings.getLong("hedge.min_delay", 20);
+		logger.info("Node load balance[{}] hedge[{}] percentile[{}] min_delay[{}]", loadBalanceStrategy, isHedgeEnabled, hedgePercentile, hedgeMinDelay);
 		
 		return true;
 	}
@@ -180,7 +196,11 @@ public class NodeService extends AbstractService implements NodeLoadBalancable {
 		}
 		
 		if (node.equals(myNode)) {
-			return JobService.getInstance().offer(job);
+			ResultFuture resultFuture = JobService.getInstance().offer(job);
+			if (resultFuture != null && responseStats != null && NodeResponseStats.isTracked(job)) {
+				resultFuture.addCompletionListener(responseStats.requestStarted(node));
+			}
+			return resultFuture;
 		}
 		try {
 			return transportModule.sendRequest(node, job);
@@ -240,6 +260,32 @@ public class NodeService extends AbstractService implements NodeLoadBalancable {
 		return node;
 	}
 	
+	/**
+	 * hedged 요청을 보내기까지 기다릴 시간(ms). 노드의 최근 응답시간 percentile 이며 hedge.min_delay 보다 작지 않다.
+	 * hedge 가 꺼져있거나 응답시간 샘플이 부족하면 -1 을 리턴한다.
+	 * */
+	public long getHedgeDelay(Node node) {
+		if (!isHedgeEnabled || node == null || responseStats == null) {
+			return -1;
+		}
+		long delay = responseStats.percentile(node, hedgePercentile);
+		if (delay < 0) {
+			return -1;
+		}
+		return Math.max(delay, hedgeMinDelay);
+	}
+
+	/**
+	 * exclude 외에 같은 컬렉션을 가진 노드중 hedged 요청을 보낼 노드. 없으면 null.
+	 * */
+	public Node getHedgeNode(String collectionId, Node exclude) {
+		return loadBalancer.getAlternativeNode(collectionId, exclude);
+	}
+
+	public NodeResponseStats responseStats() {
+		return responseStats;
+	}
+
 	/**
 	 * FIXME:노드 정지 및 삭제에 대한 기능이 들어있지 않음.
 	 * @param nodeListSettings
@@ -0,0 +1,61 @@
+package org.fastcatsearch.common;
+
+import java.util.Arrays;
+
+/**
+ * 검색시점의 컬렉션별 캐시세대.
+ * 검색전에 만들어 캐시조회와 저장에 함께 사용하며, 세대가 바뀐 컬렉션의 캐시결과는 사용하지 않는다.
+ * */
+public class QueryCacheGeneration {
+
+	private final String[] collectionIdList;
+	private final long[] generationList;
+
+	public QueryCacheGeneration(String[] collectionIdList, long[] generationList) {
+		this.collectionIdList = collectionIdList;
+		this.generationList = generationList;
+	}
+
+	public String[] collectionIdList() {
+		return collectionIdList;
+	}
+
+	public long[] generationList() {
+		return generationList;
+	}
+
+	public boolean contains(String collectionId) {
+		for (String id : collectionIdList) {
+			if (id.equals(collectionId)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (!(obj instanceof QueryCacheGeneration)) {
+			return false;
+		}
+		QueryCacheGeneration other = (QueryCacheGeneration) obj;
+		return Arrays.equals(collectionIdList, other.collectionIdList) && Arrays.equals(generationList, other.generationList);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(collectionIdList) * 31 + Arrays.hashCode(generationList);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < collectionIdList.length; i++) {
+			if (i > 0) {
+				sb.append(",");
+			}
+			sb.append(collectionIdList[i]).append("#").append(generationList[i]);
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,55 @@
+package org.fastcatsearch.common;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 노드의 컬렉션별 캐시세대 테이블.
+ * 색인으로 컬렉션의 세그먼트가 바뀌면 세대를 올려, 이전 세대에서 만든 캐시결과가 더이상 사용되지 않게 한다.
+ * */
+public class QueryCacheGenerationTable {
+
+	private final ConcurrentMap<String, AtomicLong> generationMap = new ConcurrentHashMap<String, AtomicLong>();
+
+	/**
+	 * 컬렉션(콤마로 여러개 가능)들의 현재 세대.
+	 * */
+	public QueryCacheGeneration current(String collectionIds) {
+		String[] collectionIdList = collectionIds.split(",");
+		long[] generationList = new long[collectionIdList.length];
+		for (int i = 0; i < collectionIdList.length; i++) {
+			collectionIdList[i] = collectionIdList[i].trim();
+			generationList[i] = generation(collectionIdList[i]);
+		}
+		return new QueryCacheGeneration(collectionIdList, generationList);
+	}
+
+	public boolean isCurrent(QueryCacheGeneration cacheGeneration) {
+		String[] collectionIdList = cacheGeneration.collectionIdList();
+		long[] generationList = cacheGeneration.generationList();
+		for (int i = 0; i < collectionIdList.length; i++) {
+			if (generation(collectionIdList[i]) != generationList[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public long generation(String collectionId) {
+		AtomicLong generation = generationMap.get(collectionId);
+		return generation != null ? generation.get() : 0;
+	}
+
+	public long increment(String collectionId) {
+		AtomicLong generation = generationMap.get(collectionId);
+		if (generation == null) {
+			AtomicLong newGeneration = new AtomicLong();
+			generation = generationMap.putIfAbsent(collectionId, newGeneration);
+			if (generation == null) {
+				generation = newGeneration;
+			}
+		}
+		return generation.incrementAndGet();
+	}
+}
@@ -15,48 +15,142 @@ import org.fastcatsearch.env.Environment;
 import org.fastcatsearch.module.AbstractModule;
 import org.fastcatsearch.module.ModuleException;
 import org.fastcatsearch.settings.Settings;
-import org.fastcatsearch.util.LRUCache;
+import org.fastcatsearch.util.CacheWeigher;
+import org.fastcatsearch.util.TinyLFUCache;
 
 /**
+ * 검색결과 캐시.
+ * 결과의 추정 메모리크기(search-cache-max-bytes)와 갯수(search-cache-size)로 제한하며, 자주 요청되는 질의의 결과를 우선 남긴다.
+ * QueryCacheGeneration 과 함께 넣은 결과는 해당 컬렉션의 세대가 바뀌면 사용되지 않고, invalidate 로 제거된다.
  * */
 public class QueryCacheModule<K, V> extends AbstractModule {
 
-	private LRUCache<K, V> lruCache;
+	private String name;
+	private TinyLFUCache<K, CachedValue<V>> cache;
+	private QueryCacheGenerationTable generationTable;
 	
 	public QueryCacheModule(Environment environment, Settings settings) {
+		this(environment, settings, "query", new QueryCacheGenerationTable());
+	}
+
+	public QueryCacheModule(Environment environment, Settings settings, String name, QueryCacheGenerationTable generationTable) {
 		super(environment, settings);
+		this.name = name;
+		this.generationTable = generationTable;
 	}
     private int maxCacheSize;
+    private long maxCacheBytes;
+    private int stripeCount;
 
 	@Override
 	protected boolean doLoad() throws ModuleException {
         maxCacheSize = settings.getInt("search-cache-size", 1000);
+        maxCacheBytes = settings.getByteSize("search-cache-max-bytes", 32 * 1024 * 1024);
+        stripeCount = settings.getInt("search-cache-stripes", 16);
         reset();
 		return true;
 	}
 
 	@Override
 	protected boolean doUnload() {
-		lruCache.close();
+		cache.clear();
 		return true;
 	}
 
     public void reset() {
-        LRUCache<K, V> oldLruCache = this.lruCache;
-        lruCache = new LRUCache<K, V>(maxCacheSize);
-        if(oldLruCache != null) {
-            oldLruCache.close();
+        TinyLFUCache<K, CachedValue<V>> oldCache = this.cache;
+        cache = new TinyLFUCache<K, CachedValue<V>>(maxCacheBytes, maxCacheSize, stripeCount, new CachedValueWeigher<V>());
+        if(oldCache != null) {
+            oldCache.clear();
         }
     }
 	public void put(K key, V value) {
-		lruCache.put(key, value);
+		put(key, value, null);
+	}
+
+	/**
+	 * 검색전에 얻은 세대와 함께 결과를 넣는다. 검색중에 세대가 바뀌었다면 넣지 않는다.
+	 * */
+	public void put(K key, V value, QueryCacheGeneration cacheGeneration) {
+		if (value == null) {
+			return;
+		}
+		if (cacheGeneration != null && !generationTable.isCurrent(cacheGeneration)) {
+			return;
+		}
+		cache.put(key, new CachedValue<V>(value, cacheGeneration));
 	}
 
 	public V get(K key) {
-		return lruCache.get(key);
+		CachedValue<V> cachedValue = cache.get(key);
+		return cachedValue != null ? cachedValue.value : null;
+	}
+
+	/**
+	 * 같은 세대에서 만들어진 결과만 리턴한다.
+	 * */
+	public V get(K key, QueryCacheGeneration cacheGeneration) {
+		CachedValue<V> cachedValue = cache.get(key);
+		if (cachedValue == null) {
+			return null;
+		}
+		if (cachedValue.cacheGeneration != null && !cachedValue.cacheGeneration.equals(cacheGeneration)) {
+			return null;
+		}
+		return cachedValue.value;
+	}
+
+	/**
+	 * 컬렉션의 현재 세대. 컬렉션이 없으면 null 이며, 이때는 세대와 상관없이 캐시한다.
+	 * */
+	public QueryCacheGeneration generation(String collectionIds) {
+		if (collectionIds == null) {
+			return null;
+		}
+		return generationTable.current(collectionIds);
+	}
+
+	/**
+	 * 컬렉션의 세대가 바뀌었으므로, 이 컬렉션을 포함한 결과를 제거한다. 제거한 갯수를 리턴한다.
+	 * */
+	public int invalidate(final String collectionId) {
+		return cache.removeAll(new TinyLFUCache.EntryFilter<K, CachedValue<V>>() {
+			@Override
+			public boolean accept(K key, CachedValue<V> cachedValue) {
+				return cachedValue.cacheGeneration != null && cachedValue.cacheGeneration.contains(collectionId);
+			}
+		});
 	}
 
 	public int size() {
-		return lruCache.size();
+		return cache.size();
+	}
+
+	public String name() {
+		return name;
+	}
+
+	/**
+	 * 통계용 캐시. reset 되면 새 캐시로 바뀌므로 통계도 초기화된다.
+	 * */
+	public TinyLFUCache<K, ?> cache() {
+		return cache;
+	}
+
+	static class CachedValue<V> {
+		final V value;
+		final QueryCacheGeneration cacheGeneration;
+
+		CachedValue(V value, QueryCacheGeneration cacheGeneration) {
+			this.value = value;
+			this.cacheGeneration = cacheGeneration;
+		}
+	}
+
+	static class CachedValueWeigher<V> implements CacheWeigher<CachedValue<V>> {
+		@Override
+		public long weigh(CachedValue<V> cachedValue) {
+			return QueryCacheWeigher.estimate(cachedValue.value);
+		}
 	}
 }
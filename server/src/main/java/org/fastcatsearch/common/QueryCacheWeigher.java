@@ -0,0 +1,137 @@
+package org.fastcatsearch.common;
+
+import java.util.List;
+
+import org.fastcatsearch.ir.group.GroupEntry;
+import org.fastcatsearch.ir.group.GroupEntryList;
+import org.fastcatsearch.ir.group.GroupResult;
+import org.fastcatsearch.ir.group.GroupResults;
+import org.fastcatsearch.ir.group.GroupsData;
+import org.fastcatsearch.ir.query.Result;
+import org.fastcatsearch.ir.query.Row;
+import org.fastcatsearch.util.CacheWeigher;
+
+/**
+ * 검색결과 캐시값의 메모리 크기를 추정한다.
+ * 직렬화된 결과(byte[])는 배열 길이를 그대로 쓴다.
+ * 정확한 크기가 아니라 결과끼리 비교할수 있는 정도의 근사값이며, 문자열 길이와 배열 갯수로 계산한다.
+ * */
+public class QueryCacheWeigher<V> implements CacheWeigher<V> {
+
+	private static final long OBJECT_SIZE = 16;
+	private static final long REFERENCE_SIZE = 8;
+	//GroupingValue 하나의 추정 크기.
+	private static final long GROUPING_VALUE_SIZE = 32;
+	//알수없는 타입의 추정 크기.
+	private static final long DEFAULT_SIZE = 1024;
+
+	@Override
+	public long weigh(V value) {
+		return estimate(value);
+	}
+
+	public static long estimate(Object value) {
+		if (value == null) {
+			return 0;
+		} else if (value instanceof Result) {
+			return estimateResult((Result) value);
+		} else if (value instanceof GroupResults) {
+			return estimateGroupResults((GroupResults) value);
+		} else if (value instanceof GroupsData) {
+			return estimateGroupsData((GroupsData) value);
+		} else if (value instanceof String) {
+			return estimateString((String) value);
+		} else if (value instanceof byte[]) {
+			return OBJECT_SIZE + ((byte[]) value).length;
+		}
+		return DEFAULT_SIZE;
+	}
+
+	private static long estimateResult(Result result) {
+		long size = OBJECT_SIZE * 4;
+		size += estimateRows(result.getData());
+		Row[][] bundleRows = result.getBundleData();
+		if (bundleRows != null) {
+			for (Row[] rows : bundleRows) {
+				size += estimateRows(rows);
+			}
+		}
+		String[] fieldNameList = result.getFieldNameList();
+		if (fieldNameList != null) {
+			for (String fieldName : fieldNameList) {
+				size += estimateString(fieldName);
+			}
+		}
+		size += estimateGroupResults(result.getGroupResult());
+		return size;
+	}
+
+	private static long estimateRows(Row[] rows) {
+		if (rows == null) {
+			return 0;
+		}
+		long size = OBJECT_SIZE + REFERENCE_SIZE * rows.length;
+		for (Row row : rows) {
+			if (row == null) {
+				continue;
+			}
+			size += OBJECT_SIZE * 2;
+			for (int i = 0; i < row.getFieldCount(); i++) {
+				char[] data = row.get(i);
+				size += OBJECT_SIZE + REFERENCE_SIZE + (data != null ? data.length * 2 : 0);
+			}
+		}
+		return size;
+	}
+
+	private static long estimateGroupResults(GroupResults groupResults) {
+		if (groupResults == null) {
+			return 0;
+		}
+		long size = OBJECT_SIZE;
+		GroupResult[] groupResultList = groupResults.groupResultList();
+		if (groupResultList != null) {
+			for (GroupResult groupResult : groupResultList) {
+				if (groupResult == null) {
+					continue;
+				}
+				size += OBJECT_SIZE * 2;
+				for (int i = 0; i < groupResult.size(); i++) {
+					size += estimateGroupEntry(groupResult.getEntry(i));
+				}
+			}
+		}
+		return size;
+	}
+
+	private static long estimateGroupsData(GroupsData groupsData) {
+		long size = OBJECT_SIZE;
+		List<GroupEntryList> list = groupsData.list();
+		if (list != null) {
+			for (GroupEntryList entryList : list) {
+				if (entryList == null) {
+					continue;
+				}
+				size += OBJECT_SIZE * 2;
+				for (int i = 0; i < entryList.size(); i++) {
+					size += estimateGroupEntry(entryList.getEntry(i));
+				}
+			}
+		}
+		return size;
+	}
+
+	private static long estimateGroupEntry(GroupEntry entry) {
+		if (entry == null) {
+			return REFERENCE_SIZE;
+		}
+		return OBJECT_SIZE + REFERENCE_SIZE + estimateString(entry.key) + GROUPING_VALUE_SIZE * entry.size();
+	}
+
+	private static long estimateString(String value) {
+		if (value == null) {
+			return 0;
+		}
+		return OBJECT_SIZE * 2 + value.length() * 2;
+	}
+}
@@ -0,0 +1,65 @@
+package org.fastcatsearch.common;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.fastcatsearch.common.io.Streamable;
+import org.fastcatsearch.ir.io.BytesDataInput;
+import org.fastcatsearch.ir.io.BytesDataOutput;
+import org.fastcatsearch.ir.query.Query;
+import org.fastcatsearch.query.QueryMap;
+import org.fastcatsearch.query.QueryParser;
+
+/**
+ * 데이터노드의 shard 검색결과(InternalSearchResult, GroupsData) 캐시를 위한 키와 값 변환.
+ *
+ * 키는 랭킹에 영향을 주는 파라미터만 이름순으로 정렬하여 만든다. fl(가져올 필드)과 ht(하이라이트 태그)는
+ * 문서를 가져올때만 쓰이므로 제외하여, 보여주는 방식만 다른 요청은 같은 결과를 사용한다.
+ * 값은 직렬화된 byte 배열로 넣는다. 머징시 GroupEntry 를 그대로 합치므로 객체를 공유하면 캐시된 결과가 바뀌기 때문이다.
+ * */
+public class ShardResultCacheUtils {
+
+	public static final String TYPE_SEARCH = "search";
+	public static final String TYPE_GROUP = "group";
+
+	/**
+	 * 캐시 키를 만든다. 대소문자만 다른 같은 파라미터가 있어 어느값이 쓰일지 모르면 null 을 리턴하며, 이때는 캐시하지 않는다.
+	 * */
+	public static String makeKey(String type, QueryMap queryMap, boolean forMerging) {
+		Map<String, String> normalizedMap = new TreeMap<String, String>();
+		QueryParser queryParser = QueryParser.getInstance();
+		for (Map.Entry<String, String> entry : queryMap.entrySet()) {
+			Query.EL el = queryParser.detectElement(entry.getKey());
+			if (el == null || el == Query.EL.fl || el == Query.EL.ht || entry.getValue() == null) {
+				continue;
+			}
+			String value = entry.getValue().trim();
+			if (value.length() == 0) {
+				continue;
+			}
+			if (normalizedMap.put(el.name(), value) != null) {
+				return null;
+			}
+		}
+		StringBuilder sb = new StringBuilder();
+		sb.append(type).append(':').append(queryMap.collectionId()).append(':').append(forMerging);
+		for (Map.Entry<String, String> entry : normalizedMap.entrySet()) {
+			sb.append('&').append(entry.getKey()).append('=').append(entry.getValue());
+		}
+		return sb.toString();
+	}
+
+	public static byte[] toBytes(Streamable streamable) throws IOException {
+		BytesDataOutput output = new BytesDataOutput(1024);
+		streamable.writeTo(output);
+		byte[] data = new byte[(int) output.position()];
+		System.arraycopy(output.array(), 0, data, 0, data.length);
+		return data;
+	}
+
+	public static <T extends Streamable> T fromBytes(byte[] data, T streamable) throws IOException {
+		streamable.readFrom(new BytesDataInput(data, 0, data.length));
+		return streamable;
+	}
+}
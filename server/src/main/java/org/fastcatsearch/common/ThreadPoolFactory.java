@@ -26,6 +26,18 @@ public class ThreadPoolFactory {
                 60L, TimeUnit.SECONDS,
                 new SynchronousQueue<Runnable>(), new DefaultThreadFactory(poolName, true));
 	}
+	/**
+	 * 스레드수와 대기큐 크기가 모두 제한된 풀. 대기큐가 가득차면 RejectedExecutionException 을 던진다.
+	 * queueSize 가 0 이하이면 대기큐 없이 바로 거부한다.
+	 * */
+	public static ThreadPoolExecutor newBoundedDaemonThreadPool(String poolName, int poolSize, int queueSize){
+		BlockingQueue<Runnable> workQueue = queueSize > 0 ? new ArrayBlockingQueue<Runnable>(queueSize) : new SynchronousQueue<Runnable>();
+		ThreadPoolExecutor executor = new JobThreadPoolExecutor(poolSize, poolSize,
+                60L, TimeUnit.SECONDS,
+                workQueue, new DefaultThreadFactory(poolName, true), new ThreadPoolExecutor.AbortPolicy());
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
 	public static ScheduledThreadPoolExecutor newScheduledThreadPool(String poolName){
 		return new ScheduledThreadPoolExecutor(0, new DefaultThreadFactory(poolName, false));
 	}
@@ -0,0 +1,136 @@
+package org.fastcatsearch.control;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.fastcatsearch.common.ThreadPoolFactory;
+import org.fastcatsearch.job.Job;
+
+/**
+ * JobService 의 작업 실행 레인.
+ * 레인마다 스레드수와 대기큐 크기가 제한된 스레드풀을 가지며, 대기큐가 가득차면 작업을 기다리게 하지 않고 바로 거부한다.
+ * poolSize 가 0 이하이면 제한없는 cached 풀을 사용한다.
+ * 작업이 큐에서 기다린 시간과 거부된 작업수를 통계로 모은다.
+ * */
+public class JobExecutorLane {
+
+	private final String name;
+	private final int poolSize;
+	private final int queueSize;
+	private final ThreadPoolExecutor executor;
+
+	private final AtomicLong executeCount = new AtomicLong();
+	private final AtomicLong rejectCount = new AtomicLong();
+	private final AtomicLong totalWaitTime = new AtomicLong();
+	private final AtomicLong maxWaitTime = new AtomicLong();
+
+	public JobExecutorLane(String name, int poolSize, int queueSize) {
+		this.name = name;
+		this.poolSize = poolSize;
+		this.queueSize = queueSize;
+		String poolName = "JobService." + name;
+		if (poolSize > 0) {
+			executor = ThreadPoolFactory.newBoundedDaemonThreadPool(poolName, poolSize, queueSize);
+		} else {
+			executor = ThreadPoolFactory.newUnlimitedCachedDaemonThreadPool(poolName);
+		}
+	}
+
+	public String name() {
+		return name;
+	}
+
+	public ThreadPoolExecutor executor() {
+		return executor;
+	}
+
+	/**
+	 * 작업을 실행큐에 넣는다. 처리허용량을 넘으면 RejectedExecutionException 을 던진다.
+	 * */
+	public void execute(Job job) throws RejectedExecutionException {
+		try {
+			executor.execute(new QueuedJob(job));
+		} catch (RejectedExecutionException e) {
+			rejectCount.incrementAndGet();
+			throw e;
+		}
+	}
+
+	public void shutdownNow() {
+		executor.shutdownNow();
+	}
+
+	public long executeCount() {
+		return executeCount.get();
+	}
+
+	public long rejectCount() {
+		return rejectCount.get();
+	}
+
+	/**
+	 * 큐대기 평균시간(ms)
+	 * */
+	public double averageWaitTime() {
+		long count = executeCount.get();
+		return count > 0 ? totalWaitTime.get() / 1000000.0 / count : 0;
+	}
+
+	/**
+	 * 큐대기 최대시간(ms)
+	 * */
+	public double maxWaitTime() {
+		return maxWaitTime.get() / 1000000.0;
+	}
+
+	public Map<String, String> stats() {
+		Map<String, String> stats = new LinkedHashMap<String, String>();
+		stats.put("PoolSize", Integer.toString(executor.getPoolSize()));
+		stats.put("MaximumPoolSize", Integer.toString(poolSize > 0 ? poolSize : executor.getMaximumPoolSize()));
+		stats.put("ActiveCount", Integer.toString(executor.getActiveCount()));
+		stats.put("QueueSize", Integer.toString(executor.getQueue().size()));
+		stats.put("MaximumQueueSize", Integer.toString(poolSize > 0 ? queueSize : 0));
+		stats.put("CompletedTaskCount", Long.toString(executor.getCompletedTaskCount()));
+		stats.put("ExecuteCount", Long.toString(executeCount.get()));
+		stats.put("RejectCount", Long.toString(rejectCount.get()));
+		stats.put("AverageQueueWaitTime", String.format("%.3f", averageWaitTime()));
+		stats.put("MaxQueueWaitTime", String.format("%.3f", maxWaitTime()));
+		return stats;
+	}
+
+	private void recordWaitTime(long waitTime) {
+		executeCount.incrementAndGet();
+		totalWaitTime.addAndGet(waitTime);
+		long max = maxWaitTime.get();
+		while (waitTime > max && !maxWaitTime.compareAndSet(max, waitTime)) {
+			max = maxWaitTime.get();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "[JobExecutorLane] " + name + " pool[" + (poolSize > 0 ? poolSize : "unlimited") + "] queue[" + queueSize + "]";
+	}
+
+	/*
+	 * 큐에 들어간 시각을 기억하였다가 실행시작시 대기시간을 기록한다.
+	 * */
+	class QueuedJob implements Runnable {
+		private final Job job;
+		private final long queuedTime;
+
+		public QueuedJob(Job job) {
+			this.job = job;
+			this.queuedTime = System.nanoTime();
+		}
+
+		@Override
+		public void run() {
+			recordWaitTime(System.nanoTime() - queuedTime);
+			job.run();
+		}
+	}
+}
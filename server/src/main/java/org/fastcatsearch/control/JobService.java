@@ -13,6 +13,7 @@ package org.fastcatsearch.control;
 
 import java.util.Collection;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.BlockingQueue;
@@ -22,7 +23,6 @@ import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.atomic.AtomicLong;
 
-import org.fastcatsearch.common.ThreadPoolFactory;
 import org.fastcatsearch.env.Environment;
 import org.fastcatsearch.exception.FastcatSearchException;
 import org.fastcatsearch.job.Job;
@@ -30,6 +30,15 @@ import org.fastcatsearch.job.PriorityScheduledJob;
 import org.fastcatsearch.job.ScheduledJob;
 import org.fastcatsearch.job.ScheduledJobEntry;
 import org.fastcatsearch.job.indexing.IndexingJob;
+import org.fastcatsearch.job.internal.InternalDocumentSearchJob;
+import org.fastcatsearch.job.internal.InternalGroupSearchJob;
+import org.fastcatsearch.job.internal.InternalSearchJob;
+import org.fastcatsearch.job.internal.InternalSearchLongTestJob;
+import org.fastcatsearch.job.search.ClusterGroupSearchJob;
+import org.fastcatsearch.job.search.ClusterSearchJob;
+import org.fastcatsearch.job.search.ClusterSearchLongTestJob;
+import org.fastcatsearch.job.search.DocumentSearchJob;
+import org.fastcatsearch.job.search.GroupSearchJob;
 import org.fastcatsearch.service.AbstractService;
 import org.fastcatsearch.service.ServiceManager;
 import org.fastcatsearch.settings.Settings;
@@ -37,6 +46,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
+ * 작업은 종류별 레인(JobExecutorLane)에서 실행된다.
+ * search : 세그먼트를 직접 검색하는 작업. 스레드마다 세그먼트 reader 복제본을 가지므로 스레드수를 제한한다.
+ * document : 문서 가져오기 작업.
+ * cluster : 여러 노드로 검색을 보내고 결과를 기다리는 작업. search 레인 작업을 기다리므로 같은 레인에 두면 서로 막힐수 있다.
+ * indexing : 색인작업. 거부되면 문서가 유실되므로 기본으로 제한하지 않는다.
+ * management : 그외 관리작업. 작업안에서 다른 작업을 기다리는 경우가 많아 제한하지 않는다.
+ * 제한된 레인의 대기큐가 가득차면 작업은 ExecutorMaxCapacityExceedException 결과로 바로 끝난다.
  * 
  * @author sangwook.song
  * 
@@ -52,13 +68,25 @@ public class JobService extends AbstractService implements JobExecutor {
 	private Map<Long, Job> runningJobList;
 	private AtomicLong jobIdIncrement;
 
+	public static final String LANE_SEARCH = "search";
+	public static final String LANE_DOCUMENT = "document";
+	public static final String LANE_CLUSTER = "cluster";
+	public static final String LANE_INDEXING = "indexing";
+	public static final String LANE_MANAGEMENT = "management";
+	private static final String INDEXING_JOB_PACKAGE = IndexingJob.class.getPackage().getName() + ".";
+
 	private ThreadPoolExecutor jobExecutor;
+	private Map<String, JobExecutorLane> laneMap;
+	private JobExecutorLane searchLane;
+	private JobExecutorLane documentLane;
+	private JobExecutorLane clusterLane;
+	private JobExecutorLane indexingLane;
+	private JobExecutorLane managementLane;
 
 	private JobConsumer worker;
 	private SequencialJobWorker sequencialJobWorker;
 	private IndexingMutex indexingMutex;
 //	private boolean useJobScheduler;
-	private int executorMaxPoolSize;
 	private static JobService instance;
 	private ConcurrentHashMap<String, ScheduledJob> scheduleMap; 
 
@@ -82,14 +110,16 @@ public class JobService extends AbstractService implements JobExecutor {
 		sequencialJobQueue = new LinkedBlockingQueue<Job>();
 		indexingMutex = new IndexingMutex();
 
-//		executorMaxPoolSize = settings.getInt("pool.max");
-
-		// int indexJobMaxSize = 100;
-		// int searchJobMaxSize = 100;
-		// int otherJobMaxSize = 100;
-
-//		jobExecutor = ThreadPoolFactory.newCachedThreadPool("JobService.jobExecutor", executorMaxPoolSize);
-		jobExecutor = ThreadPoolFactory.newUnlimitedCachedDaemonThreadPool("JobService.jobExecutor");
+		int processors = Runtime.getRuntime().availableProcessors();
+		laneMap = new LinkedHashMap<String, JobExecutorLane>();
+		searchLane = createLane(LANE_SEARCH, Math.max(8, processors * 2), 500);
+		documentLane = createLane(LANE_DOCUMENT, Math.max(8, processors * 2), 500);
+		clusterLane = createLane(LANE_CLUSTER, 200, 200);
+		//색인작업은 다른 색인작업을 기다리는 경우가 많고, 거부되면 문서 배치가 유실되므로 기본으로 제한하지 않는다.
+		//pool_size 를 지정할 경우 스레드가 모두 기다리는 작업으로 차지되지 않도록 queue_size 를 충분히 준다.
+		indexingLane = createLane(LANE_INDEXING, 0, 0);
+		managementLane = createLane(LANE_MANAGEMENT, 0, 0);
+		jobExecutor = managementLane.executor();
 
 		worker = new JobConsumer();
 		worker.start();
@@ -109,7 +139,9 @@ public class JobService extends AbstractService implements JobExecutor {
 		jobQueue.clear();
 		sequencialJobQueue.clear();
 		runningJobList.clear();
-		jobExecutor.shutdownNow();
+		for (JobExecutorLane lane : laneMap.values()) {
+			lane.shutdownNow();
+		}
 		
 		for(ScheduledJob job : scheduleMap.values()){
 			job.cancel();
@@ -164,10 +196,47 @@ public class JobService extends AbstractService implements JobExecutor {
 		return indexingMutex.getIndexingList();
 	}
 
+	/**
+	 * 관리작업 레인의 실행풀.
+	 * */
 	public ThreadPoolExecutor getJobExecutor() {
 		return jobExecutor;
 	}
 
+	public Collection<JobExecutorLane> getLanes() {
+		return laneMap.values();
+	}
+
+	public JobExecutorLane getLane(String name) {
+		return laneMap.get(name);
+	}
+
+	private JobExecutorLane createLane(String name, int defaultPoolSize, int defaultQueueSize) {
+		int poolSize = settings.getInt(name + ".pool_size", defaultPoolSize);
+		int queueSize = settings.getInt(name + ".queue_size", defaultQueueSize);
+		JobExecutorLane lane = new JobExecutorLane(name, poolSize, queueSize);
+		laneMap.put(name, lane);
+		logger.info("Job lane created {}", lane);
+		return lane;
+	}
+
+	/**
+	 * 작업이 실행될 레인을 찾는다.
+	 * */
+	protected JobExecutorLane laneOf(Job job) {
+		if (job instanceof InternalSearchJob || job instanceof InternalGroupSearchJob || job instanceof InternalSearchLongTestJob
+				|| job instanceof GroupSearchJob) {
+			return searchLane;
+		} else if (job instanceof InternalDocumentSearchJob || job instanceof DocumentSearchJob) {
+			return documentLane;
+		} else if (job instanceof ClusterSearchJob || job instanceof ClusterGroupSearchJob || job instanceof ClusterSearchLongTestJob) {
+			return clusterLane;
+		} else if (job instanceof IndexingJob || job.getClass().getName().startsWith(INDEXING_JOB_PACKAGE)) {
+			return indexingLane;
+		}
+		return managementLane;
+	}
+
 	/**
 	 * 순차적인 작업을 실행할때 호출한다. 도착한 순서대로 앞의 작업이 모두 끝나야 다음작업이 실행된다.
 	 * */
@@ -315,17 +384,18 @@ public class JobService extends AbstractService implements JobExecutor {
 		public void run() {
 			while (!Thread.interrupted()) {
 				Job job = null;
+				JobExecutorLane lane = null;
 				try {
 					job = jobQueue.take();
+					lane = laneOf(job);
 					runningJobList.put(job.getId(), job);
-					jobExecutor.execute(job);
+					lane.execute(job);
 				} catch (InterruptedException e) {
 					logger.debug(this.getClass().getName() + " is interrupted.");
 				} catch (RejectedExecutionException e) {
-					// jobExecutor rejecthandler가 abortpolicy의 경우
-					// RejectedExecutionException을 던지게 되어있다.
-					logger.error("처리허용량을 초과하여 작업이 거부되었습니다. max.pool = {}, job={}", executorMaxPoolSize, job);
-					result(job, new ExecutorMaxCapacityExceedException("처리허용량을 초과하여 작업이 거부되었습니다. max.pool =" + executorMaxPoolSize), false);
+					// 레인의 대기큐가 가득찬 경우. 기다리지 않고 바로 거부결과를 돌려준다.
+					logger.error("처리허용량을 초과하여 작업이 거부되었습니다. lane = {}, job={}", lane, job);
+					result(job, new ExecutorMaxCapacityExceedException("처리허용량을 초과하여 작업이 거부되었습니다. lane = " + lane.name()), false);
 
 				} catch (Throwable e) {
 					logger.error("", e);
@@ -21,6 +21,8 @@ import org.fastcatsearch.job.search.ClusterSearchJob;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
@@ -37,6 +39,15 @@ public class ResultFuture {
 	private static NullResult NULL_RESULT = new NullResult();
 	private Job job;
 	private static class NullResult { }
+
+	//결과도착 또는 타임아웃으로 요청이 끝났을때 한번씩 호출된다. 노드별 응답시간 통계와 결과도착 알림에 사용한다.
+	private List<CompletionListener> completionListenerList;
+	private boolean isFinished;
+	private boolean isFinishedSuccess;
+
+	public static interface CompletionListener {
+		public void onComplete(boolean isSuccess, long elapsedTime);
+	}
 	
 	/**
 	 * 실패 결과.
@@ -44,6 +55,8 @@ public class ResultFuture {
 	public ResultFuture() {
 		requestId = -1;
 		result = NULL_RESULT;
+		startTime = System.currentTimeMillis();
+		isFinished = true;
 	}
 
     public ResultFuture(long requestId, Map<Long, ? extends ResultFuture> resultFutureMap) {
@@ -60,11 +73,61 @@ public class ResultFuture {
 	public long getElapsedTimeMilis(){
 		return System.currentTimeMillis() - startTime;
 	}
+
+	/**
+	 * 이미 끝난 요청이면 바로 호출된다.
+	 * */
+	public void addCompletionListener(CompletionListener completionListener) {
+		synchronized (this) {
+			if (!isFinished) {
+				if (completionListenerList == null) {
+					completionListenerList = new ArrayList<CompletionListener>(2);
+				}
+				completionListenerList.add(completionListener);
+				return;
+			}
+		}
+		completionListener.onComplete(isFinishedSuccess, getElapsedTimeMilis());
+	}
+
+	private void finish(boolean isSuccess) {
+		List<CompletionListener> listenerList = null;
+		synchronized (this) {
+			if (isFinished) {
+				return;
+			}
+			isFinished = true;
+			isFinishedSuccess = isSuccess;
+			listenerList = completionListenerList;
+			completionListenerList = null;
+		}
+		if (listenerList != null) {
+			long elapsedTime = getElapsedTimeMilis();
+			for (CompletionListener listener : listenerList) {
+				listener.onComplete(isSuccess, elapsedTime);
+			}
+		}
+	}
+
+	/**
+	 * 결과를 더이상 기다리지 않는다. 타임아웃과 같이 처리한다.
+	 * */
+	public void expire() {
+		if (resultFutureMap != null) {
+			resultFutureMap.remove(requestId);
+		}
+		if (job != null && job.isForceAbortWhenTimeout()) {
+			job.abortJob();
+		}
+		finish(false);
+	}
+
 	public void putNullFail() {
 		this.isSuccess = false;
 		try {
 			queue.put(NULL_RESULT);
 		} catch (InterruptedException ignore) { }
+		finish(false);
 	}
 	
 	public void put(Object result, boolean isSuccess) {
@@ -76,6 +139,8 @@ public class ResultFuture {
 				queue.put(result);
 			}
 		} catch (InterruptedException ignore) { }
+		//listener 에서 바로 결과를 꺼낼수 있도록 큐에 넣은 뒤에 알린다.
+		finish(isSuccess);
 	}
 	
 	public boolean isSuccess(){
@@ -135,6 +200,7 @@ public class ResultFuture {
 			if(remainMilisecondTime > 0){
 				Object result = queue.poll(remainMilisecondTime, TimeUnit.MILLISECONDS);
 				if(result == null){
+                    finish(false);
                     if(job != null && job.isForceAbortWhenTimeout()) {
                         job.abortJob();
                     }
@@ -154,6 +220,7 @@ public class ResultFuture {
 				if(result == null){
 					//시간초과에 따른 제거일수도 있으므로, 
 					resultFutureMap.remove(requestId);
+					finish(false);
                     if(job != null && job.isForceAbortWhenTimeout()) {
                         job.abortJob();
                     }
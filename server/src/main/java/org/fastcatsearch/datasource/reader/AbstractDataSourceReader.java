@@ -27,6 +27,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.LinkedList;
 import java.util.List;
 
 /**
@@ -35,6 +36,7 @@ import java.util.List;
  * DataSourceReader는 SingleSourceReader를 받아서 처리한다.
  * SingleSourceReader는 field별 데이터를 셋팅한뒤, modify 까지 수행후 document를 만들어서 최종리턴을 한다.
  * 내부 SingleSourceReader 가 여러개이면 멀티소스리더같이 동작하게 된다.
+ * convertThreads 가 2이상이면 읽은 데이터를 청크로 묶어 여러 쓰레드에서 document 로 변환하고, 읽은 순서대로 돌려준다.
  * */
 public abstract class AbstractDataSourceReader<DataType> implements DataSourceReader {
 
@@ -48,6 +50,10 @@ public abstract class AbstractDataSourceReader<DataType> implements DataSourceRe
 	private int readerPos;
 	private SingleSourceReader<DataType> currentReader;
 
+	private static final int CONVERT_CHUNK_SIZE = 500;
+	private ParallelChunkProcessor<DataType, Document> documentProcessor;
+	private LinkedList<Document> documentBuffer;
+
 	// DataSourceConfig안에는 SingleSourceConfig가 여러개 들어있다.
 	public AbstractDataSourceReader(SchemaSetting schemaSetting) throws IRException {
 		fieldSettingList = schemaSetting.getFieldSettingList();
@@ -90,7 +96,35 @@ public abstract class AbstractDataSourceReader<DataType> implements DataSourceRe
 	public void init() throws IRException, IOException {
 		nextReader();
 	}
+
+	/**
+	 * document 변환 쓰레드수를 지정한다. 2미만이면 호출한 쓰레드에서 변환한다.
+	 * 데이터 읽기와 SourceModifier 는 항상 호출한 쓰레드에서 수행한다.
+	 * */
+	public void setConvertThreads(int convertThreads) {
+		if (convertThreads > 1 && documentProcessor == null) {
+			documentProcessor = new ParallelChunkProcessor<DataType, Document>("document-converter", convertThreads) {
+				@Override
+				protected Document process(DataType element) throws Exception {
+					if (element == null) {
+						return null;
+					}
+					return createDocument(element);
+				}
+			};
+			documentBuffer = new LinkedList<Document>();
+			logger.info("Convert documents with {} threads.", convertThreads);
+		}
+	}
+
 	public boolean hasNext() throws IRException {
+		if (documentProcessor != null) {
+			return documentBuffer.size() > 0 || fillDocuments();
+		}
+		return hasNextElement();
+	}
+
+	private boolean hasNextElement() throws IRException {
 		try {
 			while (true) {
 				if (currentReader == null) {
@@ -113,12 +147,50 @@ public abstract class AbstractDataSourceReader<DataType> implements DataSourceRe
 	}
 
 	public Document nextDocument() throws IRException, IOException {
+		if (documentProcessor != null) {
+			if (documentBuffer.size() == 0 && !fillDocuments()) {
+				return null;
+			}
+			return documentBuffer.removeFirst();
+		}
 		return createDocument(currentReader.nextElement());
 	}
 
+	/*
+	 * 변환쓰레드가 쉬지 않도록 청크를 넣어두고, 가장 먼저 넣은 청크의 변환결과를 documentBuffer 에 채운다.
+	 * */
+	private boolean fillDocuments() throws IRException {
+		try {
+			while (documentBuffer.size() == 0) {
+				while (!documentProcessor.isFull() && hasNextElement()) {
+					List<DataType> chunk = new ArrayList<DataType>(CONVERT_CHUNK_SIZE);
+					while (chunk.size() < CONVERT_CHUNK_SIZE && hasNextElement()) {
+						chunk.add(currentReader.nextElement());
+					}
+					documentProcessor.submit(chunk);
+				}
+				List<Document> documents = documentProcessor.take();
+				if (documents == null) {
+					return false;
+				}
+				documentBuffer.addAll(documents);
+			}
+			return true;
+		} catch (IRException e) {
+			close();
+			throw e;
+		} catch (Throwable e) {
+			close();
+			throw new IRException(e);
+		}
+	}
+
 	protected abstract Document createDocument(DataType nextElement) throws IRException;
 
 	public void close() {
+		if (documentProcessor != null) {
+			documentProcessor.shutdown();
+		}
 		for (SingleSourceReader<DataType> reader : singleSourceReaderList) {
 			try {
 				if (reader != null) {
@@ -5,6 +5,7 @@ import org.fastcatsearch.ir.common.IRException;
 import org.fastcatsearch.ir.config.SingleSourceConfig;
 
 import java.io.*;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -14,6 +15,7 @@ import java.util.zip.GZIPInputStream;
  * 파일기반의 소스데이터를 읽어들이는 Abstract Reader이다.
  * GZip으로 압축되어 있다면 자동으로 풀면서 읽어들이고, 압축되지 있지 않은 데이터는 그대로 읽어들인다.
  * 하위 클래스에서는 parse()를 구현하여 어떻게 문서를 읽어들이는지를 정의하도록 한다.
+ * 한줄이 한문서인 경우 parseLine()도 구현하면, parseThreads 가 2이상일때 줄을 청크로 나누어 여러 쓰레드에서 파싱한다.
  * */
 public abstract class AbstractFileReader extends SingleSourceReader<Map<String,Object>> implements FileFilter {
 
@@ -24,7 +26,9 @@ public abstract class AbstractFileReader extends SingleSourceReader<Map<String,O
     protected List<String> filePaths;
     protected BufferedReader reader;
     private static final int DEFAULT_BUFFER_SIZE = 100;
+    private static final int PARSE_CHUNK_SIZE = 1000;
     private int readCount;
+    private ParallelChunkProcessor<String, Map<String, Object>> lineProcessor;
 
 	public AbstractFileReader() {
 		super();
@@ -58,6 +62,16 @@ public abstract class AbstractFileReader extends SingleSourceReader<Map<String,O
             }
         }
         readCount = 0;
+        int parseThreads = getConfigInt("parseThreads", 1);
+        if(parseThreads > 1 && isLineParser()) {
+            lineProcessor = new ParallelChunkProcessor<String, Map<String, Object>>("file-parser", parseThreads) {
+                @Override
+                protected Map<String, Object> process(String line) throws Exception {
+                    return parseLine(line);
+                }
+            };
+            logger.info("Parse file with {} threads.", parseThreads);
+        }
 	}
 	
 	@Override
@@ -70,6 +84,8 @@ public abstract class AbstractFileReader extends SingleSourceReader<Map<String,O
                 , SourceReaderParameter.TYPE_NUMBER, true, String.valueOf(DEFAULT_BUFFER_SIZE)));
         registerParameter(new SourceReaderParameter("limitSize", "Limit Size", "Read documents within limit size."
                 , SourceReaderParameter.TYPE_NUMBER, false, ""));
+        registerParameter(new SourceReaderParameter("parseThreads", "Parse Threads", "Number of threads parsing lines. Used when larger than 1 and the reader supports line parsing."
+                , SourceReaderParameter.TYPE_NUMBER, false, "1"));
 	}
 
 	@Override
@@ -92,6 +108,10 @@ public abstract class AbstractFileReader extends SingleSourceReader<Map<String,O
 	}
 
 	private void fill() throws IRException {
+		if(lineProcessor != null) {
+			fillParallel();
+			return;
+		}
 		while (true) {
 			if(reader != null) {
 				try {
@@ -102,8 +122,11 @@ public abstract class AbstractFileReader extends SingleSourceReader<Map<String,O
                         return;
                     }
 					Map<String, Object> record = parse(reader);
-                    items.addLast(record);
-                    readCount++;
+                    //빈줄이나 파싱할 수 없는 줄은 건너뛴다.
+                    if(record != null) {
+                        items.addLast(record);
+                        readCount++;
+                    }
 				} catch(IOException e) {
 					//get next reader..
 					try {
@@ -112,41 +135,107 @@ public abstract class AbstractFileReader extends SingleSourceReader<Map<String,O
 					reader = null;
 				}
 			} else {
-				while (filePaths.size() > 0) {
-					String path = filePaths.remove(0);
-                    File f = new File(path);
-                    if(!f.exists()) {
-                        //파일이 없으면 continue
-                        logger.error(String.format("File not exists : %s", f.getAbsolutePath()));
-                        continue;
-                    }
-					try {
-                        if(isGZipped(f)) {
-                            reader = new BufferedReader((new InputStreamReader(new GZIPInputStream(new FileInputStream(f)), encoding)));
-                        } else {
-                            reader = new BufferedReader(new InputStreamReader(new FileInputStream(f), encoding));
-                        }
-						initReader(reader);
-                        break;
-					} catch (IOException ex) {
-						logger.error("", ex);
-                        if(reader != null) {
-                            try {
-                                reader.close();
-                            } catch (IOException ignore) {
-                            }
-                            reader = null;
-                        }
-					}
-				}
                 //파일이 더 이상 없으면 끝낸다.
-                if(reader == null) {
+                if(!openNextReader()) {
                     break;
                 }
 			}
 		}
 	}
 
+	/*
+	* 줄을 청크로 읽어 파싱쓰레드에 넘기고, 파싱된 결과를 순서대로 items 에 넣는다.
+	* initReader()가 파일별 상태를 바꿀 수 있으므로, 이전 파일의 청크가 모두 처리된 뒤에 다음 파일을 연다.
+	* */
+	private void fillParallel() throws IRException {
+		while (items.size() == 0) {
+			if(limitSize > 0 && readCount >= limitSize) {
+				return;
+			}
+			while (!lineProcessor.isFull()) {
+				if(reader == null) {
+					if(!lineProcessor.isEmpty() || !openNextReader()) {
+						break;
+					}
+				}
+				List<String> chunk = readLineChunk();
+				if(chunk.size() > 0) {
+					lineProcessor.submit(chunk);
+				}
+			}
+			List<Map<String, Object>> records = lineProcessor.take();
+			if(records == null) {
+				//더이상 읽을 파일이 없다.
+				return;
+			}
+			for (Map<String, Object> record : records) {
+				if(limitSize > 0 && readCount >= limitSize) {
+					break;
+				}
+				items.addLast(record);
+				readCount++;
+			}
+		}
+	}
+
+	/*
+	* 현재 파일에서 최대 PARSE_CHUNK_SIZE 줄을 읽는다. 파일 끝에 다다르면 reader 를 닫는다.
+	* */
+	private List<String> readLineChunk() {
+		List<String> chunk = new ArrayList<String>(PARSE_CHUNK_SIZE);
+		while (chunk.size() < PARSE_CHUNK_SIZE) {
+			String line = null;
+			try {
+				line = reader.readLine();
+			} catch (IOException e) {
+				logger.error("", e);
+			}
+			if(line == null) {
+				try {
+					reader.close();
+				} catch (IOException ignore) { }
+				reader = null;
+				break;
+			}
+			chunk.add(line);
+		}
+		return chunk;
+	}
+
+	/*
+	* 다음 파일을 열어 reader 를 준비한다. 더이상 파일이 없으면 false.
+	* */
+	private boolean openNextReader() throws IRException {
+		while (filePaths.size() > 0) {
+			String path = filePaths.remove(0);
+            File f = new File(path);
+            if(!f.exists()) {
+                //파일이 없으면 continue
+                logger.error(String.format("File not exists : %s", f.getAbsolutePath()));
+                continue;
+            }
+			try {
+                if(isGZipped(f)) {
+                    reader = new BufferedReader((new InputStreamReader(new GZIPInputStream(new FileInputStream(f)), encoding)));
+                } else {
+                    reader = new BufferedReader(new InputStreamReader(new FileInputStream(f), encoding));
+                }
+				initReader(reader);
+                return true;
+			} catch (IOException ex) {
+				logger.error("", ex);
+                if(reader != null) {
+                    try {
+                        reader.close();
+                    } catch (IOException ignore) {
+                    }
+                    reader = null;
+                }
+			}
+		}
+		return false;
+	}
+
 
 	/*
 	* 읽은 데이터를 리턴한다.
@@ -154,11 +243,30 @@ public abstract class AbstractFileReader extends SingleSourceReader<Map<String,O
 	* */
 	protected abstract Map<String, Object> parse(BufferedReader reader) throws IRException, IOException;
 
+	/*
+	* 한줄을 문서로 파싱한다. 여러 쓰레드에서 동시에 호출되므로 파일별 상태 외의 공유상태를 바꾸지 않아야 한다.
+	* 문서가 아니거나 파싱할 수 없는 줄이면 null 을 리턴한다.
+	* */
+	protected Map<String, Object> parseLine(String line) throws IRException {
+		throw new UnsupportedOperationException();
+	}
+
+	/*
+	* parseLine()을 구현했다면 true 를 리턴한다.
+	* */
+	protected boolean isLineParser() {
+		return false;
+	}
+
 	protected abstract void initReader(BufferedReader reader) throws IRException, IOException;
 
 	@Override
 	public void close() throws IRException {
 		super.close();
+		if(lineProcessor != null) {
+			lineProcessor.shutdown();
+			lineProcessor = null;
+		}
 		if(reader != null) {
 			try {
 				reader.close();
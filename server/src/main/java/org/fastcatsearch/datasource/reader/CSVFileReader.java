@@ -51,25 +51,39 @@ public class CSVFileReader extends AbstractFileReader {
     protected Map<String, Object> parse(BufferedReader reader) throws IRException, IOException {
         String line = null;
         while ((line = reader.readLine()) != null) {
-            Map<String, Object> record = new HashMap<String, Object>();
-            try {
-                String[] els = line.split(",");
-
-                for (int i = 0; i < fieldIndexList.size(); i++) {
-                    Integer index = fieldIndexList.get(i);
-                    if (index != -1) {
-                        record.put(fieldNameList.get(i), els[index]);
-                    }
-                }
-                //정상이면 리턴.
+            Map<String, Object> record = parseLine(line);
+            //정상이면 리턴.
+            if (record != null) {
                 return record;
-            }catch(Exception e) {
-                logger.error("parsing error : line= " + line, e);
             }
         }
         throw new IOException("EOF");
     }
 
+    @Override
+    protected Map<String, Object> parseLine(String line) throws IRException {
+        Map<String, Object> record = new HashMap<String, Object>();
+        try {
+            String[] els = line.split(",");
+
+            for (int i = 0; i < fieldIndexList.size(); i++) {
+                Integer index = fieldIndexList.get(i);
+                if (index != -1) {
+                    record.put(fieldNameList.get(i), els[index]);
+                }
+            }
+            return record;
+        }catch(Exception e) {
+            logger.error("parsing error : line= " + line, e);
+        }
+        return null;
+    }
+
+    @Override
+    protected boolean isLineParser() {
+        return true;
+    }
+
     @Override
     protected void initReader(BufferedReader reader) throws IRException, IOException {
         String headerLine = reader.readLine();
@@ -34,6 +34,11 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.io.FileUtils;
 import org.fastcatsearch.datasource.SourceModifier;
@@ -61,6 +66,9 @@ public class DBReader extends SingleSourceReader<Map<String, Object>> {
 
 	private static final String LOB_BINARY = "LOB_BINARY";
 	private static final String LOB_STRING = "LOB_STRING";
+	private static final String PARTITION_START = "${partition_start}";
+	private static final String PARTITION_END = "${partition_end}";
+	private static final PartitionRow PARTITION_END_ROW = new PartitionRow(null, null);
 	private static Logger logger = LoggerFactory.getLogger(DBReader.class);
 	private int BULK_SIZE;
 
@@ -78,7 +86,17 @@ public class DBReader extends SingleSourceReader<Map<String, Object>> {
 	
 	private boolean useBlobFile;
 	
-	private boolean isClosed;
+	private volatile boolean isClosed;
+
+	//파티션 읽기. 파티션 갯수가 2이상이면 키 범위별로 나누어 여러 쓰레드에서 동시에 읽는다.
+	private int partitionCount;
+	private List<PartitionReader> partitionReaderList;
+	private BlockingQueue<PartitionRow> partitionQueue;
+	private int runningPartitionCount;
+	private PartitionRow nextPartitionRow;
+	private List<File> lastPartitionTmpFile;
+	private volatile boolean isPartitionStopped;
+	private volatile Throwable partitionError;
 
 	public DBReader() {
 		super();
@@ -108,6 +126,12 @@ public class DBReader extends SingleSourceReader<Map<String, Object>> {
 				, SourceReaderParameter.TYPE_TEXT, false, null));
 		registerParameter(new SourceReaderParameter("useBlobFile", "LOB as File", "Using *LOB ( CLOB / NCLOB / BLOB ) as File. <br/> ( You must handle it in Source-Modifier )"
 				, SourceReaderParameter.TYPE_CHECK, false, "false"));
+		registerParameter(new SourceReaderParameter("partitionCount", "Partition Count"
+				, "Number of concurrent readers. If this value is larger than 1, Data SQL is executed for each partition range using ${partition_start} and ${partition_end}."
+				, SourceReaderParameter.TYPE_NUMBER, false, "1"));
+		registerParameter(new SourceReaderParameter("partitionSQL", "Partition SQL"
+				, "Query for partition ranges. If it returns one row of (MIN, MAX) numeric key, the range is split into Partition Count ranges. If it returns rows of (START, END), each row is a partition. Data SQL should read rows where START <= key < END."
+				, SourceReaderParameter.TYPE_TEXT, false, null));
 	}
 	
 	@Override
@@ -122,18 +146,8 @@ public class DBReader extends SingleSourceReader<Map<String, Object>> {
 		tmpFile = new ArrayList<File>();
 
 		dataSet = new Map[BULK_SIZE];
-		String jdbcSourceId = getConfigString("jdbcSourceId");
-		JDBCSourceInfo jdbcSourceInfo = null;
-		
-		IRService irService = ServiceManager.getInstance().getService(IRService.class);
-		
-		List<JDBCSourceInfo> jdbcSourceInfoList = irService.getJDBCSourceConfig().getJdbcSourceInfoList();
-		for(JDBCSourceInfo info : jdbcSourceInfoList){
-			if(info.getId().equals(jdbcSourceId)){
-				jdbcSourceInfo = info;
-				break;
-			}
-		}
+		partitionCount = getConfigInt("partitionCount", 1);
+		JDBCSourceInfo jdbcSourceInfo = findJDBCSourceInfo(getConfigString("jdbcSourceId"));
 		
 		try {
 			con = getConnection(jdbcSourceInfo);
@@ -179,23 +193,13 @@ public class DBReader extends SingleSourceReader<Map<String, Object>> {
 			} else {
 				logger.debug("Data query = {}", dataSQL);
 			}
-			
-			int fetchSize = getConfigInt("fetchSize");
-			if (fetchSize < 0){
-				//in mysql, fetch data row by row 
-				pstmt = con.prepareStatement(q(dataSQL), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
-				pstmt.setFetchSize(Integer.MIN_VALUE);
-			} else {
-				pstmt = con.prepareStatement(q(dataSQL));
-				if (fetchSize > 0){
-					pstmt.setFetchSize(fetchSize);
-				}
-			}
 
-			if(maxRows > 0){
-				pstmt.setMaxRows(maxRows);
+			if (partitionCount > 1) {
+				startPartitionReaders(jdbcSourceInfo, q(dataSQL));
+				return;
 			}
 			
+			pstmt = prepareDataStatement(con, q(dataSQL));
 			r = pstmt.executeQuery();
 
 			ResultSetMetaData rsMetadata = r.getMetaData();
@@ -207,12 +211,152 @@ public class DBReader extends SingleSourceReader<Map<String, Object>> {
 				logger.info("Column-{} [{}]:[{}]", new Object[] { i + 1, columnName[i], typeName });
 			}
 		} catch (Exception e) {
+			stopPartitionReaders();
 			closeConnection();
 
 			throw new IRException(e);
 		}
 	}
 
+	protected JDBCSourceInfo findJDBCSourceInfo(String jdbcSourceId) {
+		IRService irService = ServiceManager.getInstance().getService(IRService.class);
+		List<JDBCSourceInfo> jdbcSourceInfoList = irService.getJDBCSourceConfig().getJdbcSourceInfoList();
+		for(JDBCSourceInfo info : jdbcSourceInfoList){
+			if(info.getId().equals(jdbcSourceId)){
+				return info;
+			}
+		}
+		return null;
+	}
+
+	private PreparedStatement prepareDataStatement(Connection con, String sql) throws SQLException {
+		PreparedStatement pstmt = null;
+		int fetchSize = getConfigInt("fetchSize");
+		if (fetchSize < 0){
+			//in mysql, fetch data row by row 
+			pstmt = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			pstmt.setFetchSize(Integer.MIN_VALUE);
+		} else {
+			pstmt = con.prepareStatement(sql);
+			if (fetchSize > 0){
+				pstmt.setFetchSize(fetchSize);
+			}
+		}
+
+		if(maxRows > 0){
+			pstmt.setMaxRows(maxRows);
+		}
+		return pstmt;
+	}
+
+	/*
+	 * 파티션 범위를 구하고 파티션 갯수만큼 쓰레드를 띄워 범위별로 읽는다.
+	 * 쓰레드마다 별도의 커넥션을 사용하고, 읽은 레코드는 partitionQueue 에 넣는다.
+	 */
+	private void startPartitionReaders(JDBCSourceInfo jdbcSourceInfo, String dataSQL) throws IRException, SQLException {
+		if (dataSQL.indexOf(PARTITION_START) == -1 || dataSQL.indexOf(PARTITION_END) == -1) {
+			throw new IRException("Data query sql must have " + PARTITION_START + " and " + PARTITION_END + " for partition reading!");
+		}
+		String partitionSQL = getConfigString("partitionSQL");
+		if (partitionSQL == null || partitionSQL.length() == 0) {
+			throw new IRException("Partition query sql is empty!");
+		}
+		List<long[]> rangeList = new ArrayList<long[]>();
+		PreparedStatement rangePstmt = null;
+		ResultSet rs = null;
+		try {
+			rangePstmt = con.prepareStatement(q(partitionSQL));
+			rs = rangePstmt.executeQuery();
+			while (rs.next()) {
+				rangeList.add(new long[] { rs.getLong(1), rs.getLong(2) });
+			}
+		} finally {
+			if(rs != null){
+				try{
+					rs.close();
+				} catch (Exception e) { }
+			}
+			if(rangePstmt != null){
+				try{
+					rangePstmt.close();
+				} catch (Exception e) { }
+			}
+		}
+		if (rangeList.size() == 1) {
+			//MIN, MAX 로 보고 나눈다.
+			long[] minMax = rangeList.get(0);
+			rangeList = splitRange(minMax[0], minMax[1], partitionCount);
+		}
+
+		ConcurrentLinkedQueue<long[]> rangeQueue = new ConcurrentLinkedQueue<long[]>(rangeList);
+		int threadCount = Math.min(partitionCount, rangeList.size());
+		partitionQueue = new ArrayBlockingQueue<PartitionRow>(Math.max(BULK_SIZE, 1) * Math.max(threadCount, 1));
+		partitionReaderList = new ArrayList<PartitionReader>(threadCount);
+		runningPartitionCount = threadCount;
+		logger.info("DB partition reading. ranges[{}] threads[{}]", rangeList.size(), threadCount);
+		//모든 스레드가 공유하는 완료된 범위수.
+		AtomicInteger doneRangeCount = new AtomicInteger();
+		for (int i = 0; i < threadCount; i++) {
+			PartitionReader partitionReader = new PartitionReader(i, jdbcSourceInfo, dataSQL, rangeQueue, doneRangeCount, rangeList.size());
+			partitionReaderList.add(partitionReader);
+			partitionReader.start();
+		}
+	}
+
+	/**
+	 * min 부터 max 까지(max 포함)를 count 개의 [start, end) 범위로 나눈다.
+	 */
+	public static List<long[]> splitRange(long min, long max, int count) {
+		List<long[]> rangeList = new ArrayList<long[]>(count);
+		if (max < min) {
+			return rangeList;
+		}
+		long total = max - min + 1;
+		long step = Math.max(1, (total + count - 1) / count);
+		for (long start = min; start <= max; start += step) {
+			long end = Math.min(start + step, max + 1);
+			rangeList.add(new long[] { start, end });
+			if (end > max) {
+				break;
+			}
+		}
+		return rangeList;
+	}
+
+	private void stopPartitionReaders() {
+		if (partitionReaderList == null) {
+			return;
+		}
+		isPartitionStopped = true;
+		for (PartitionReader partitionReader : partitionReaderList) {
+			partitionReader.interrupt();
+		}
+		for (PartitionReader partitionReader : partitionReaderList) {
+			try {
+				partitionReader.join(10000);
+			} catch (InterruptedException ignore) {
+			}
+			logger.info("DB partition reader-{} has read {} docs in {} ranges", partitionReader.seq, partitionReader.readCount, partitionReader.rangeCount);
+		}
+		//가져가지 않은 레코드의 임시파일을 지운다.
+		if (lastPartitionTmpFile != null) {
+			tmpFile.addAll(lastPartitionTmpFile);
+			lastPartitionTmpFile = null;
+		}
+		if (nextPartitionRow != null && nextPartitionRow.tmpFileList != null) {
+			tmpFile.addAll(nextPartitionRow.tmpFileList);
+		}
+		nextPartitionRow = null;
+		PartitionRow row = null;
+		while ((row = partitionQueue.poll()) != null) {
+			if (row.tmpFileList != null) {
+				tmpFile.addAll(row.tmpFileList);
+			}
+		}
+		deleteTmpLob();
+		partitionReaderList = null;
+	}
+
 	private Connection getConnection(JDBCSourceInfo jdbcSourceInfo) throws IRException, SQLException {
 		Connection con = null;
 		logger.debug(">>>>>>>>>>>>>> jdbcSourceInfo > {}", jdbcSourceInfo);
@@ -255,6 +399,7 @@ public class DBReader extends SingleSourceReader<Map<String, Object>> {
 	public void close() throws IRException {
 		if(!isClosed) {
 			logger.info("DBReader has read {} docs", totalCnt);
+			stopPartitionReaders();
 			deleteTmpLob();
 			try {
 				doAfterQuery();
@@ -318,6 +463,9 @@ public class DBReader extends SingleSourceReader<Map<String, Object>> {
 
 	@Override
 	public boolean hasNext() throws IRException {
+		if (partitionReaderList != null) {
+			return hasNextPartitionRow();
+		}
 		if (readCount >= bulkCount) {
 			fill();
 
@@ -331,6 +479,16 @@ public class DBReader extends SingleSourceReader<Map<String, Object>> {
 
 	@Override
 	protected final Map<String, Object> next() throws IRException {
+		if (partitionReaderList != null) {
+			if (!hasNextPartitionRow()) {
+				return null;
+			}
+			PartitionRow row = nextPartitionRow;
+			nextPartitionRow = null;
+			lastPartitionTmpFile = row.tmpFileList;
+			totalCnt++;
+			return row.data;
+		}
 		if (readCount >= bulkCount) {
 			fill();
 			if (bulkCount == 0)
@@ -343,6 +501,48 @@ public class DBReader extends SingleSourceReader<Map<String, Object>> {
 	byte[] data = new byte[16 * 1024];
 	int totalCnt = 0;
 
+	/*
+	 * 파티션 쓰레드들이 넣은 다음 레코드를 준비한다. 모든 파티션을 다 읽었으면 false.
+	 */
+	private boolean hasNextPartitionRow() throws IRException {
+		if (nextPartitionRow != null) {
+			return true;
+		}
+		//이전 레코드의 임시파일은 이미 처리되었으므로 지운다.
+		if (lastPartitionTmpFile != null) {
+			tmpFile.addAll(lastPartitionTmpFile);
+			lastPartitionTmpFile = null;
+			deleteTmpLob();
+		}
+		if (maxRows > 0 && totalCnt >= maxRows) {
+			return false;
+		}
+		while (runningPartitionCount > 0) {
+			if (partitionError != null) {
+				throw new IRException(partitionError);
+			}
+			PartitionRow row = null;
+			try {
+				row = partitionQueue.poll(1, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				throw new IRException(e);
+			}
+			if (row == null) {
+				continue;
+			}
+			if (row == PARTITION_END_ROW) {
+				runningPartitionCount--;
+				continue;
+			}
+			nextPartitionRow = row;
+			return true;
+		}
+		if (partitionError != null) {
+			throw new IRException(partitionError);
+		}
+		return false;
+	}
+
 	private void fill() throws IRException {
 		
 		bulkCount = 0;
@@ -358,77 +558,7 @@ public class DBReader extends SingleSourceReader<Map<String, Object>> {
 			}
 			while (r.next()) {
 
-				Map<String, Object> keyValueMap = new HashMap<String, Object>();
-				
-				for (int i = 0; i < columnCount; i++) {
-					int columnIdx = i + 1;
-					int type = rsMeta.getColumnType(columnIdx);
-					
-					String str = "";
-
-					String lobType = null;
-					if (type == Types.BLOB || type == Types.BINARY || type == Types.LONGVARBINARY || type == Types.VARBINARY
-							|| type == Types.JAVA_OBJECT) {
-						lobType = LOB_BINARY;
-					} else if (type == Types.CLOB || type == Types.NCLOB || type == Types.SQLXML || type == Types.LONGVARCHAR || type == Types.LONGNVARCHAR) {
-						lobType = LOB_STRING;
-					}
-					
-					if(lobType == null) {
-						str = r.getString(columnIdx);
-					
-						if(str != null) {
-							keyValueMap.put(columnName[i], str);
-						} else {
-							// 파싱할 수 없는 자료형 이거나 정말 NULL 값인 경우
-							keyValueMap.put(columnName[i], "");
-						}
-					} else {
-						File file = null;
-						
-						if(lobType == LOB_BINARY) {
-							// logger.debug("Column-"+columnIdx+" is BLOB!");
-							// BLOB일 경우 스트림으로 받는다.
-							ByteArrayOutputStream buffer = null;
-							try {
-								if(!useBlobFile) {
-									buffer = new ByteArrayOutputStream();
-								}
-								file = readTmpBlob(i, columnIdx, rsMeta, buffer);
-								if(useBlobFile) {
-									keyValueMap.put(columnName[i], file);
-								} else {
-									keyValueMap.put(columnName[i], buffer.toByteArray());
-								}
-							} finally {
-								if (buffer != null) {
-									try {
-										buffer.close();
-									} catch (IOException ignore) {
-									}
-								}
-							}
-						} else if(lobType == LOB_STRING) {
-							StringBuilder sb = null;
-							if(!useBlobFile) {
-								sb = new StringBuilder();
-							}
-							file = readTmpClob(i, columnIdx, rsMeta, sb);
-							if(useBlobFile) {
-								keyValueMap.put(columnName[i], file);
-							} else {
-								keyValueMap.put(columnName[i], sb.toString());
-							}
-						}
-						
-						//다음 레코드 진행시 지우도록 한다.
-						if(file!=null) {
-							tmpFile.add(file);
-						}
-					}
-				}
-
-				dataSet[bulkCount] = keyValueMap;
+				dataSet[bulkCount] = readRow(r, rsMeta, columnName, data, tmpFile);
 				bulkCount++;
 				totalCnt++;
 
@@ -462,8 +592,85 @@ public class DBReader extends SingleSourceReader<Map<String, Object>> {
 			throw new IRException(e);
 		}
 	}
+
+	/*
+	 * 현재 레코드를 읽는다. LOB 임시파일은 tmpFileList 에 넣어 다음 레코드 진행시 지우도록 한다.
+	 */
+	private Map<String, Object> readRow(ResultSet r, ResultSetMetaData rsMeta, String[] columnName, byte[] data, List<File> tmpFileList) throws IRException, SQLException {
+		int columnCount = columnName.length;
+		Map<String, Object> keyValueMap = new HashMap<String, Object>();
+		
+		for (int i = 0; i < columnCount; i++) {
+			int columnIdx = i + 1;
+			int type = rsMeta.getColumnType(columnIdx);
+			
+			String str = "";
+
+			String lobType = null;
+			if (type == Types.BLOB || type == Types.BINARY || type == Types.LONGVARBINARY || type == Types.VARBINARY
+					|| type == Types.JAVA_OBJECT) {
+				lobType = LOB_BINARY;
+			} else if (type == Types.CLOB || type == Types.NCLOB || type == Types.SQLXML || type == Types.LONGVARCHAR || type == Types.LONGNVARCHAR) {
+				lobType = LOB_STRING;
+			}
+			
+			if(lobType == null) {
+				str = r.getString(columnIdx);
+			
+				if(str != null) {
+					keyValueMap.put(columnName[i], str);
+				} else {
+					// 파싱할 수 없는 자료형 이거나 정말 NULL 값인 경우
+					keyValueMap.put(columnName[i], "");
+				}
+			} else {
+				File file = null;
+				
+				if(lobType == LOB_BINARY) {
+					// logger.debug("Column-"+columnIdx+" is BLOB!");
+					// BLOB일 경우 스트림으로 받는다.
+					ByteArrayOutputStream buffer = null;
+					try {
+						if(!useBlobFile) {
+							buffer = new ByteArrayOutputStream();
+						}
+						file = readTmpBlob(r, i, columnIdx, rsMeta, buffer, data);
+						if(useBlobFile) {
+							keyValueMap.put(columnName[i], file);
+						} else {
+							keyValueMap.put(columnName[i], buffer.toByteArray());
+						}
+					} finally {
+						if (buffer != null) {
+							try {
+								buffer.close();
+							} catch (IOException ignore) {
+							}
+						}
+					}
+				} else if(lobType == LOB_STRING) {
+					StringBuilder sb = null;
+					if(!useBlobFile) {
+						sb = new StringBuilder();
+					}
+					file = readTmpClob(r, i, columnIdx, rsMeta, sb);
+					if(useBlobFile) {
+						keyValueMap.put(columnName[i], file);
+					} else {
+						keyValueMap.put(columnName[i], sb.toString());
+					}
+				}
+				
+				//다음 레코드 진행시 지우도록 한다.
+				if(file!=null) {
+					tmpFileList.add(file);
+				}
+			}
+		}
+		return keyValueMap;
+	}
 	
-	private File readTmpBlob(int columnInx, int columnNo, ResultSetMetaData rsMeta, OutputStream buffer) throws IRException, SQLException {
+	private File readTmpBlob(ResultSet r, int columnInx, int columnNo, ResultSetMetaData rsMeta, OutputStream buffer, byte[] data) throws IRException, SQLException {
 		File file = null;
 		FileOutputStream os = null;
 		InputStream is = null;
@@ -507,7 +714,7 @@ public class DBReader extends SingleSourceReader<Map<String, Object>> {
 		return file;
 	}
 
-	private File readTmpClob (int columnInx, int columnNo, ResultSetMetaData rsMeta, StringBuilder buffer) throws IRException, SQLException {
+	private File readTmpClob (ResultSet r, int columnInx, int columnNo, ResultSetMetaData rsMeta, StringBuilder buffer) throws IRException, SQLException {
 		File file = null;
 		BufferedWriter os = null;
 		BufferedReader is = null;
@@ -682,4 +889,128 @@ public class DBReader extends SingleSourceReader<Map<String, Object>> {
 		}
 		return null;
 	}
+
+	private static class PartitionRow {
+		private Map<String, Object> data;
+		private List<File> tmpFileList;
+
+		public PartitionRow(Map<String, Object> data, List<File> tmpFileList) {
+			this.data = data;
+			this.tmpFileList = tmpFileList;
+		}
+	}
+
+	/*
+	 * 파티션 범위를 하나씩 가져와 별도 커넥션으로 읽어 partitionQueue 에 넣는다.
+	 * 범위를 모두 읽으면 종료표시를 넣는다.
+	 */
+	private class PartitionReader extends Thread {
+		private int seq;
+		private JDBCSourceInfo jdbcSourceInfo;
+		private String dataSQL;
+		private ConcurrentLinkedQueue<long[]> rangeQueue;
+		private AtomicInteger doneRangeCount;
+		private int totalRangeCount;
+		private volatile int readCount;
+		private volatile int rangeCount;
+		private byte[] data = new byte[16 * 1024];
+
+		public PartitionReader(int seq, JDBCSourceInfo jdbcSourceInfo, String dataSQL, ConcurrentLinkedQueue<long[]> rangeQueue, AtomicInteger doneRangeCount, int totalRangeCount) {
+			super("DBPartitionReader-" + seq);
+			setDaemon(true);
+			this.seq = seq;
+			this.jdbcSourceInfo = jdbcSourceInfo;
+			this.dataSQL = dataSQL;
+			this.rangeQueue = rangeQueue;
+			this.doneRangeCount = doneRangeCount;
+			this.totalRangeCount = totalRangeCount;
+		}
+
+		@Override
+		public void run() {
+			Connection partitionCon = null;
+			try {
+				partitionCon = getConnection(jdbcSourceInfo);
+				long[] range = null;
+				while (!isPartitionStopped && (range = rangeQueue.poll()) != null) {
+					readPartition(partitionCon, range);
+					rangeCount++;
+				}
+			} catch (Throwable e) {
+				if (!isPartitionStopped) {
+					logger.error("DB partition reader-" + seq + " error", e);
+					partitionError = e;
+				}
+			} finally {
+				if (partitionCon != null) {
+					try {
+						partitionCon.close();
+					} catch (SQLException ignore) { }
+				}
+				putRow(PARTITION_END_ROW);
+			}
+		}
+
+		private void readPartition(Connection partitionCon, long[] range) throws IRException, SQLException {
+			String sql = dataSQL.replace(PARTITION_START, String.valueOf(range[0])).replace(PARTITION_END, String.valueOf(range[1]));
+			long startTime = System.currentTimeMillis();
+			int partitionReadCount = 0;
+			PreparedStatement partitionPstmt = null;
+			ResultSet rs = null;
+			try {
+				partitionPstmt = prepareDataStatement(partitionCon, sql);
+				rs = partitionPstmt.executeQuery();
+				ResultSetMetaData rsMeta = rs.getMetaData();
+				String[] columnNames = new String[rsMeta.getColumnCount()];
+				for (int i = 0; i < columnNames.length; i++) {
+					columnNames[i] = rsMeta.getColumnLabel(i + 1).toUpperCase();
+				}
+				while (!isPartitionStopped && rs.next()) {
+					List<File> tmpFileList = new ArrayList<File>(0);
+					Map<String, Object> row = readRow(rs, rsMeta, columnNames, data, tmpFileList);
+					if (!putRow(new PartitionRow(row, tmpFileList))) {
+						break;
+					}
+					partitionReadCount++;
+					readCount++;
+					if (partitionReadCount % 10000 == 0) {
+						logger.info("DB partition reader-{} range[{} ~ {}) read {} docs", seq, range[0], range[1], partitionReadCount);
+					}
+				}
+			} finally {
+				if (rs != null) {
+					try {
+						rs.close();
+					} catch (SQLException ignore) { }
+				}
+				if (partitionPstmt != null) {
+					try {
+						partitionPstmt.close();
+					} catch (SQLException ignore) { }
+				}
+			}
+			logger.info("DB partition reader-{} range[{} ~ {}) done. {} docs, {} ms. ({}/{} ranges)", seq, range[0], range[1], partitionReadCount, System.currentTimeMillis() - startTime, doneRangeCount.incrementAndGet(), totalRangeCount);
+		}
+
+		/*
+		 * 큐가 가득 차면 기다린다. 중지되었으면 false.
+		 */
+		private boolean putRow(PartitionRow row) {
+			while (!isPartitionStopped) {
+				try {
+					if (partitionQueue.offer(row, 1, TimeUnit.SECONDS)) {
+						return true;
+					}
+				} catch (InterruptedException e) {
+					//중지여부를 다시 확인한다.
+				}
+			}
+			if (row.tmpFileList != null) {
+				for (File file : row.tmpFileList) {
+					file.delete();
+				}
+			}
+			return false;
+		}
+	}
 }
@@ -19,15 +19,19 @@ import java.util.Map;
 @SourceReader(name = "JSON_LIST_FILE")
 public class JSONListFileReader extends AbstractFileReader {
 
-    private JSONParser jsonParser;
+    //JSONParser 는 쓰레드에 안전하지 않으므로 파싱쓰레드마다 따로 사용한다.
+    private ThreadLocal<JSONParser> jsonParser = new ThreadLocal<JSONParser>() {
+        @Override
+        protected JSONParser initialValue() {
+            return new JSONParser();
+        }
+    };
 
     public JSONListFileReader() {
-        jsonParser = new JSONParser();
     }
 
     public JSONListFileReader(String collectionId, File filePath, SingleSourceConfig singleSourceConfig, SourceModifier sourceModifier, String lastIndexTime) throws IRException {
         super(collectionId, filePath, singleSourceConfig, sourceModifier, lastIndexTime);
-        jsonParser = new JSONParser();
     }
 
     @Override
@@ -36,18 +40,28 @@ public class JSONListFileReader extends AbstractFileReader {
         if (line == null) {
             throw new IOException("EOF");
         }
+        return parseLine(line);
+    }
+
+    @Override
+    protected Map<String, Object> parseLine(String line) throws IRException {
         line = line.trim();
         if (line.length() == 0) {
             return null;
         }
         try {
-            return jsonParser.parse(line);
+            return jsonParser.get().parse(line);
         } catch (ParseException e) {
             logger.error("error while convert json to map : " + line, e);
         }
         return null;
     }
 
+    @Override
+    protected boolean isLineParser() {
+        return true;
+    }
+
     @Override
     protected void initReader(BufferedReader reader) throws IRException, IOException {
         //do nothing
@@ -0,0 +1,92 @@
+package org.fastcatsearch.datasource.reader;
+
+import org.fastcatsearch.common.ThreadPoolFactory;
+import org.fastcatsearch.ir.common.IRException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 입력을 청크 단위로 쓰레드풀에서 처리하고, 결과는 넣은 순서대로 돌려준다.
+ * 순서가 유지되므로 같은 PK 문서의 선후관계는 바뀌지 않는다.
+ * submit / take 는 하나의 쓰레드에서 호출해야 하며, shutdown 은 처리중인 쓰레드에서 호출해도 된다.
+ * */
+public abstract class ParallelChunkProcessor<I, O> {
+
+	private ThreadPoolExecutor executor;
+	private ConcurrentLinkedQueue<Future<List<O>>> pendingList;
+	private int maxPending;
+
+	public ParallelChunkProcessor(String name, int threadCount) {
+		//처리중인 청크 외에 쓰레드당 하나씩 더 대기시켜 쓰레드가 놀지 않도록 한다.
+		maxPending = threadCount * 2;
+		executor = ThreadPoolFactory.newBoundedDaemonThreadPool(name, threadCount, maxPending);
+		pendingList = new ConcurrentLinkedQueue<Future<List<O>>>();
+	}
+
+	/*
+	 * 항목 하나를 처리한다. 결과가 null 이면 버린다.
+	 * */
+	protected abstract O process(I item) throws Exception;
+
+	public boolean isFull() {
+		return pendingList.size() >= maxPending;
+	}
+
+	public boolean isEmpty() {
+		return pendingList.isEmpty();
+	}
+
+	public void submit(final List<I> chunk) {
+		pendingList.offer(executor.submit(new Callable<List<O>>() {
+			@Override
+			public List<O> call() throws Exception {
+				List<O> result = new ArrayList<O>(chunk.size());
+				for (I item : chunk) {
+					O output = process(item);
+					if (output != null) {
+						result.add(output);
+					}
+				}
+				return result;
+			}
+		}));
+	}
+
+	/**
+	 * 가장 먼저 넣은 청크의 결과를 기다려 받는다. 대기중인 청크가 없으면 null.
+	 * */
+	public List<O> take() throws IRException {
+		Future<List<O>> future = pendingList.poll();
+		if (future == null) {
+			return null;
+		}
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			throw new IRException(e);
+		} catch (CancellationException e) {
+			throw new IRException("Chunk processing is canceled.");
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IRException) {
+				throw (IRException) cause;
+			}
+			throw new IRException(cause);
+		}
+	}
+
+	public void shutdown() {
+		Future<List<O>> future = null;
+		while ((future = pendingList.poll()) != null) {
+			future.cancel(true);
+		}
+		executor.shutdownNow();
+	}
+}
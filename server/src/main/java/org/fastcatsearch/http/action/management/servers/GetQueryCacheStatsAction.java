@@ -0,0 +1,85 @@
+package org.fastcatsearch.http.action.management.servers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.fastcatsearch.cluster.ClusterUtils;
+import org.fastcatsearch.cluster.Node;
+import org.fastcatsearch.cluster.NodeJobResult;
+import org.fastcatsearch.cluster.NodeService;
+import org.fastcatsearch.http.ActionAuthority;
+import org.fastcatsearch.http.ActionAuthorityLevel;
+import org.fastcatsearch.http.ActionMapping;
+import org.fastcatsearch.http.action.ActionRequest;
+import org.fastcatsearch.http.action.ActionResponse;
+import org.fastcatsearch.http.action.AuthAction;
+import org.fastcatsearch.job.management.GetQueryCacheStatsJob;
+import org.fastcatsearch.job.management.GetQueryCacheStatsJob.CacheStats;
+import org.fastcatsearch.job.management.GetQueryCacheStatsJob.QueryCacheStatsInfo;
+import org.fastcatsearch.service.ServiceManager;
+import org.fastcatsearch.util.ResponseWriter;
+import org.fastcatsearch.util.ResultWriterException;
+
+/**
+ * 노드별 검색결과 캐시 통계.
+ * nodeId가 존재하면 하나의 데이터만 리턴하고 없으면 모든 노드의 데이터리턴.
+ * */
+@ActionMapping(value = "/management/servers/query-cache-stats", authority = ActionAuthority.Servers, authorityLevel = ActionAuthorityLevel.READABLE)
+public class GetQueryCacheStatsAction extends AuthAction {
+
+	@Override
+	public void doAuthAction(ActionRequest request, ActionResponse response) throws Exception {
+
+		String nodeId = request.getParameter("nodeId");
+
+		NodeService nodeService = ServiceManager.getInstance().getService(NodeService.class);
+		ResponseWriter responseWriter = getDefaultResponseWriter(response.getWriter());
+
+		List<Node> nodeList = nodeService.getNodeArrayList();
+		if(nodeId != null && nodeId.length() > 0){
+			List<Node> list = new ArrayList<Node>();
+			for(Node node : nodeList){
+				if(node.id().equals(nodeId)){
+					list.add(node);
+				}
+			}
+			nodeList = list;
+		}
+
+		responseWriter.object();
+		GetQueryCacheStatsJob job = new GetQueryCacheStatsJob();
+		NodeJobResult[] nodeJobResult = ClusterUtils.sendJobToNodeList(job, nodeService, nodeList, true);
+		for(NodeJobResult jobResult : nodeJobResult) {
+			if(jobResult.isSuccess()){
+				Node node = jobResult.node();
+				Object result = jobResult.result();
+				if(result != null){
+					writeCacheStats((QueryCacheStatsInfo) result, node, responseWriter);
+				}
+			}
+		}
+		responseWriter.endObject();
+		responseWriter.done();
+	}
+
+	private void writeCacheStats(QueryCacheStatsInfo info, Node node, ResponseWriter responseWriter) throws ResultWriterException {
+		responseWriter.key(node.id()).object()
+		.key("nodeName").value(node.name())
+		.key("caches").array();
+		for(CacheStats stats : info.getCacheStatsList()) {
+			responseWriter.object()
+			.key("name").value(stats.name)
+			.key("size").value(stats.size)
+			.key("maxSize").value(stats.maxSize)
+			.key("weight").value(stats.weight)
+			.key("maxWeight").value(stats.maxWeight)
+			.key("hitCount").value(stats.hitCount)
+			.key("missCount").value(stats.missCount)
+			.key("hitRatio").value(stats.hitRatio())
+			.key("evictionCount").value(stats.evictionCount)
+			.key("rejectCount").value(stats.rejectCount)
+			.endObject();
+		}
+		responseWriter.endArray().endObject();
+	}
+}
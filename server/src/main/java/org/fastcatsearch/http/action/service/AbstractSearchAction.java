@@ -1,5 +1,6 @@
 package org.fastcatsearch.http.action.service;
 
+import org.fastcatsearch.control.ExecutorMaxCapacityExceedException;
 import org.fastcatsearch.control.JobService;
 import org.fastcatsearch.control.ResultFuture;
 import org.fastcatsearch.error.SearchError;
@@ -106,6 +107,11 @@ public abstract class AbstractSearchAction extends ServiceAction {
 			requestLogger.info("end request id:{}",requestId);
 		}
 
+		if(obj instanceof ExecutorMaxCapacityExceedException) {
+			//처리허용량 초과로 거부된 검색은 재시도할수 있도록 503 으로 응답한다.
+			response.setStatus(HttpResponseStatus.SERVICE_UNAVAILABLE);
+		}
+
 		if(obj instanceof Exception) {
 			Exception e = (Exception) obj;
 			String paramString = null;
@@ -43,7 +43,13 @@ public class JSONRequestReader {
         if (line.length() == 0) {
             return null;
         }
+        return readMapDocument(line);
+    }
 
+    /**
+     * "타입 JSON" 형태의 한 줄을 읽는다. JSON 에러시 null을 리턴한다.
+     */
+    public MapDocument readMapDocument(String line) {
         char type = line.charAt(0);
         String document = line.substring(2);
         try {
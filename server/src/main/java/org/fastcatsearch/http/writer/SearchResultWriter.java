@@ -53,8 +53,12 @@ public class SearchResultWriter extends AbstractSearchResultWriter {
 			.key("time").value(Formatter.getFormatTime(searchTime))
 			.key("start").value(result.getStart())
 			.key("total_count").value(result.getTotalCount())
-			.key("count").value(result.getCount())
-			.key("field_count").value(fieldNames.length)
+			.key("count").value(result.getCount());
+			if (result.isPartial()) {
+				//일부 노드의 결과가 제한시간안에 오지 않아 빠졌다.
+				resultWriter.key("partial").value(true);
+			}
+			resultWriter.key("field_count").value(fieldNames.length)
 			.key("fieldname_list")
 			.array("name");
 
@@ -0,0 +1,392 @@
+package org.fastcatsearch.ir;
+
+import org.apache.commons.io.FileUtils;
+import org.fastcatsearch.ir.common.IRException;
+import org.fastcatsearch.ir.common.SettingException;
+import org.fastcatsearch.ir.config.DataInfo;
+import org.fastcatsearch.ir.io.BufferedFileInput;
+import org.fastcatsearch.ir.io.BufferedFileOutput;
+import org.fastcatsearch.ir.io.IndexInputFactory;
+import org.fastcatsearch.ir.search.CollectionHandler;
+import org.fastcatsearch.ir.search.SegmentReader;
+import org.fastcatsearch.ir.util.Formatter;
+import org.fastcatsearch.job.indexing.IndexingStopException;
+import org.fastcatsearch.job.indexing.NodeApplySegmentJob;
+import org.fastcatsearch.job.indexing.NodeIndexDocumentFileJob;
+import org.fastcatsearch.service.ServiceManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 동적색인 추가문서를 메모리에 모아두고 NRT 세그먼트로 만들어 바로 검색되도록 한다.
+ *
+ * refresh 할때마다 아직 색인하지 않은 문서묶음만 작은 NRT 세그먼트로 만들어 추가한다.
+ * 마지막 세그먼트가 앞 세그먼트보다 크거나 같아지면 두 세그먼트의 문서묶음으로 다시 만들어 합치므로,
+ * NRT 세그먼트 수와 문서당 재분석 횟수는 모아둔 문서묶음 수의 log 정도로 유지된다.
+ * 같은 PK의 이전 문서는 CollectionHandler 가 검색에서 숨기고, flush 되어 일반 세그먼트가 될때 삭제처리된다.
+ * 모아둔 크기나 시간이 기준을 넘으면 flush 하여 일반 세그먼트로 적용하고 버퍼를 비운다.
+ * NRT 세그먼트는 컬렉션 정보에 기록되지 않으므로, 받은 문서는 버퍼파일에도 기록해두었다가 재시작시 다시 읽어들인다.
+ * 색인중 에러가 난 문서묶음만 버퍼에서 버리고, 그 밖의 에러는 버퍼를 유지한채 다음 주기에 다시 시도한다.
+ */
+public class CollectionNRTIndexer {
+    private static final Logger logger = LoggerFactory.getLogger(CollectionNRTIndexer.class);
+    protected static Logger indexingLogger = LoggerFactory.getLogger("INDEXING_LOG");
+
+    //NRT 세그먼트는 작고 곧 교체되므로 mmap 하지 않고 파일로 읽는다.
+    private static final IndexInputFactory NRT_INPUT_FACTORY = IndexInputFactory.DEFAULT;
+    //NRT 세그먼트 id. 일반 세그먼트 id(a0 ~ zz) 보다 뒤에 정렬되도록 한다. 세그먼트 id 순서로 최신 세그먼트를 구분한다.
+    private static final String SEGMENT_ID_PREFIX = "zz-";
+
+    private String collectionId;
+    private File bufferFile;
+    private long flushSize;
+    private long flushPeriod;
+
+    private List<DocumentBatch> batchList;
+    private int bufferCount;
+    private long bufferSize;
+    private long bufferStartTime;
+
+    //검색중인 NRT 세그먼트. 먼저 만든 순서이다.
+    private List<NRTSegment> segmentList;
+    //NRT 세그먼트로 색인한 문서묶음 수.
+    private int indexedBatchCount;
+    private CollectionHandler segmentHandler;
+    private long segmentSequence;
+    //색인중 에러가 난 문서묶음 번호. 없으면 -1.
+    private int failedBatch = -1;
+
+    public CollectionNRTIndexer(String collectionId, File bufferFile, long flushSize, long flushPeriod) {
+        this.collectionId = collectionId;
+        this.bufferFile = bufferFile;
+        this.flushSize = flushSize;
+        this.flushPeriod = flushPeriod;
+        batchList = new ArrayList<DocumentBatch>();
+        segmentList = new ArrayList<NRTSegment>();
+    }
+
+    /**
+     * flush 되지 않은 이전 버퍼파일이 있다면 읽어들인다.
+     */
+    public synchronized void load() throws IOException {
+        if (!bufferFile.exists()) {
+            return;
+        }
+        BufferedFileInput input = new BufferedFileInput(bufferFile);
+        try {
+            while (input.position() < input.length()) {
+                DocumentBatch batch = new DocumentBatch();
+                batch.readFrom(input);
+                addBuffer(batch);
+            }
+        } finally {
+            input.close();
+        }
+        logger.info("[{}] Load NRT buffer count[{}] size[{}]", collectionId, bufferCount, Formatter.getFormatSize(bufferSize));
+    }
+
+    public synchronized int count() {
+        return bufferCount;
+    }
+
+    /**
+     * 추가문서만 들어있는 문서묶음을 버퍼에 넣는다. 검색되려면 refresh 해야 한다.
+     */
+    public synchronized void add(DocumentBatch batch) throws IOException {
+        BufferedFileOutput output = new BufferedFileOutput(bufferFile, true);
+        try {
+            batch.writeTo(output);
+        } finally {
+            output.close();
+        }
+        addBuffer(batch);
+    }
+
+    private void addBuffer(DocumentBatch batch) {
+        if (bufferCount == 0) {
+            bufferStartTime = System.currentTimeMillis();
+        }
+        batchList.add(batch);
+        bufferCount += batch.count();
+        bufferSize += batch.dataLength();
+    }
+
+    public synchronized boolean isFlushDue() {
+        return bufferCount > 0 && (bufferSize >= flushSize || System.currentTimeMillis() - bufferStartTime >= flushPeriod);
+    }
+
+    /**
+     * 아직 색인하지 않은 문서묶음을 NRT 세그먼트로 만들어 추가한다. flush 할때가 되었으면 flush 한다.
+     * 에러가 발생하면 색인하지 못한 문서묶음만 버리고, 나머지는 다음 refresh 에서 다시 색인한다.
+     */
+    public synchronized void refresh() throws IRException {
+        if (isFlushDue()) {
+            flush();
+            return;
+        }
+        CollectionHandler collectionHandler = collectionHandler();
+        if (bufferCount == 0 || collectionHandler == null) {
+            return;
+        }
+        if (!isSegmentLoaded(collectionHandler)) {
+            //컬렉션이 다시 로딩되어 NRT 세그먼트가 없어졌으면 처음부터 다시 만든다.
+            segmentList.clear();
+            indexedBatchCount = 0;
+        }
+        if (indexedBatchCount == batchList.size()) {
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        List<NRTSegment> newSegmentList = new ArrayList<NRTSegment>(segmentList);
+        try {
+            NRTSegment segment = buildSegment(collectionHandler, indexedBatchCount, batchList.size());
+            if (segment != null) {
+                newSegmentList.add(segment);
+            }
+            while (newSegmentList.size() >= 2) {
+                NRTSegment last = newSegmentList.get(newSegmentList.size() - 1);
+                NRTSegment prev = newSegmentList.get(newSegmentList.size() - 2);
+                if (last.count < prev.count) {
+                    break;
+                }
+                NRTSegment merged = buildSegment(collectionHandler, prev.fromBatch, last.toBatch);
+                newSegmentList.remove(newSegmentList.size() - 1);
+                newSegmentList.remove(newSegmentList.size() - 1);
+                //아직 검색에 쓰이지 않은 세그먼트는 바로 지운다. 검색중인 세그먼트는 CollectionHandler 가 지연삭제한다.
+                closeUnusedSegment(prev);
+                closeUnusedSegment(last);
+                if (merged != null) {
+                    newSegmentList.add(merged);
+                }
+            }
+            List<SegmentReader> readerList = new ArrayList<SegmentReader>(newSegmentList.size());
+            for (NRTSegment s : newSegmentList) {
+                readerList.add(s.reader);
+            }
+            collectionHandler.setNrtSegmentReaders(readerList);
+            segmentList = newSegmentList;
+            segmentHandler = collectionHandler;
+            indexedBatchCount = batchList.size();
+            logger.debug("[{}] NRT Segment Refreshed. segments[{}] docs[{}] Elapsed[{}]", collectionId, segmentList.size(), bufferCount, Formatter.getFormatTime(System.currentTimeMillis() - startTime));
+        } catch (Exception e) {
+            for (NRTSegment s : newSegmentList) {
+                closeUnusedSegment(s);
+            }
+            handleError("refresh", e);
+            throw new IRException(e);
+        }
+    }
+
+    /**
+     * 모아둔 문서를 일반 세그먼트로 적용하고 NRT 세그먼트를 제거한다. 적용한 문서가 있으면 true.
+     * 에러가 발생하면 색인하지 못한 문서묶음만 버리고, 버퍼는 유지하여 다음 주기에 다시 flush 한다.
+     */
+    public synchronized boolean flush() throws IRException {
+        CollectionHandler collectionHandler = collectionHandler();
+        if (bufferCount == 0 || collectionHandler == null) {
+            return false;
+        }
+        long startTime = System.currentTimeMillis();
+        CollectionDynamicIndexer indexer = null;
+        boolean isApplied = false;
+        try {
+            //일반 동적색인과 같은 임시 id 로 만들며, 적용할때 컬렉션 세그먼트 id 로 바뀐다.
+            indexer = new CollectionDynamicIndexer(String.valueOf(System.nanoTime()), collectionHandler);
+            DataInfo.SegmentInfo segmentInfo = indexDocuments(indexer, collectionHandler, 0, batchList.size());
+            int totalLiveDocs = NodeApplySegmentJob.applySegment(collectionHandler, segmentInfo, indexer.getSegmentDir(), indexer.getDeleteIdSet());
+            isApplied = true;
+            clearBuffer();
+            collectionHandler.setNrtSegmentReaders(new ArrayList<SegmentReader>());
+            indexingLogger.info("[{}] NRT Segment Flushed. Inserts[{}] Elapsed[{}] TotalLive[{}]", collectionId, segmentInfo.getDocumentCount(), Formatter.getFormatTime(System.currentTimeMillis() - startTime), totalLiveDocs);
+            return true;
+        } catch (Exception e) {
+            if (indexer != null && !isApplied) {
+                FileUtils.deleteQuietly(indexer.getSegmentDir());
+            }
+            handleError("flush", e);
+            throw new IRException(e);
+        }
+    }
+
+    /**
+     * 주기적으로 호출되어, flush 할때가 되었거나 NRT 세그먼트가 없는 컬렉션에 다시 만들어준다.
+     * 컬렉션이 다시 로딩되면 NRT 세그먼트가 없어지므로 여기서 복구된다. 변경이 있으면 true.
+     */
+    public synchronized boolean checkRefresh() throws IRException {
+        if (bufferCount == 0) {
+            return false;
+        }
+        if (isFlushDue()) {
+            return flush();
+        }
+        CollectionHandler collectionHandler = collectionHandler();
+        if (collectionHandler != null && (!isSegmentLoaded(collectionHandler) || indexedBatchCount < batchList.size())) {
+            refresh();
+            return true;
+        }
+        return false;
+    }
+
+    /*
+     * 만든 NRT 세그먼트가 컬렉션에 그대로 있는지 여부.
+     */
+    private boolean isSegmentLoaded(CollectionHandler collectionHandler) {
+        if (segmentList.isEmpty()) {
+            return collectionHandler == segmentHandler || indexedBatchCount == 0;
+        }
+        return collectionHandler == segmentHandler && collectionHandler.nrtSegmentReaders().contains(segmentList.get(0).reader);
+    }
+
+    /*
+     * fromBatch 부터 toBatch 전까지의 문서묶음으로 NRT 세그먼트를 만든다. 살아있는 문서가 없으면 null.
+     */
+    private NRTSegment buildSegment(CollectionHandler collectionHandler, int fromBatch, int toBatch) throws IRException, IOException, SettingException, IndexingStopException {
+        CollectionDynamicIndexer indexer = new CollectionDynamicIndexer(nextSegmentId(collectionHandler), collectionHandler);
+        boolean isBuilt = false;
+        try {
+            DataInfo.SegmentInfo segmentInfo = indexDocuments(indexer, collectionHandler, fromBatch, toBatch);
+            if (segmentInfo.getLiveCount() <= 0) {
+                return null;
+            }
+            SegmentReader segmentReader = new SegmentReader(segmentInfo, collectionHandler.schema(), indexer.getSegmentDir(), collectionHandler.analyzerPoolManager(), NRT_INPUT_FACTORY);
+            isBuilt = true;
+            return new NRTSegment(segmentReader, fromBatch, toBatch, segmentInfo.getDocumentCount());
+        } finally {
+            if (!isBuilt) {
+                FileUtils.deleteQuietly(indexer.getSegmentDir());
+            }
+        }
+    }
+
+    private DataInfo.SegmentInfo indexDocuments(CollectionDynamicIndexer indexer, CollectionHandler collectionHandler, int fromBatch, int toBatch) throws IRException, IOException, SettingException, IndexingStopException {
+        DataInfo.SegmentInfo segmentInfo = null;
+        try {
+            for (int i = fromBatch; i < toBatch; i++) {
+                boolean isIndexed = false;
+                try {
+                    NodeIndexDocumentFileJob.indexDocuments(indexer, batchList.get(i));
+                    isIndexed = true;
+                } finally {
+                    if (!isIndexed) {
+                        failedBatch = i;
+                    }
+                }
+            }
+        } finally {
+            segmentInfo = NodeIndexDocumentFileJob.closeIndexer(indexer, collectionHandler);
+        }
+        return segmentInfo;
+    }
+
+    /*
+     * 재시작하면 순번이 처음부터 시작하므로, 이미 있는 디렉토리의 id 는 건너뛴다.
+     */
+    private String nextSegmentId(CollectionHandler collectionHandler) {
+        String segmentId = null;
+        do {
+            segmentId = SEGMENT_ID_PREFIX + String.format("%010d", ++segmentSequence);
+        } while (collectionHandler.collectionContext().indexFilePaths().file(segmentId).exists());
+        return segmentId;
+    }
+
+    private void closeUnusedSegment(NRTSegment segment) {
+        if (segmentList.contains(segment)) {
+            return;
+        }
+        try {
+            segment.reader.closeAndDelete();
+        } catch (IOException e) {
+            logger.error("[" + collectionId + "] error while close nrt segment " + segment.reader.segmentInfo().getId(), e);
+        }
+    }
+
+    /*
+     * 색인하지 못한 문서묶음이 있으면 버퍼와 버퍼파일에서 그 묶음만 버린다. 그 밖의 에러는 버퍼를 그대로 두어 다시 시도하도록 한다.
+     */
+    private void handleError(String action, Exception e) {
+        if (failedBatch < 0) {
+            logger.error("[" + collectionId + "] NRT " + action + " error! Keep " + bufferCount + " documents and retry.", e);
+            return;
+        }
+        int batchNo = failedBatch;
+        failedBatch = -1;
+        DocumentBatch batch = batchList.remove(batchNo);
+        logger.error("[" + collectionId + "] NRT " + action + " error! Discard " + batch.count() + " documents of failed batch.", e);
+        bufferCount -= batch.count();
+        bufferSize -= batch.dataLength();
+        if (batchNo < indexedBatchCount) {
+            //검색중인 NRT 세그먼트에 들어있던 묶음이면 남은 묶음으로 다시 만든다.
+            CollectionHandler collectionHandler = collectionHandler();
+            if (collectionHandler != null) {
+                try {
+                    collectionHandler.setNrtSegmentReaders(new ArrayList<SegmentReader>());
+                } catch (IOException ie) {
+                    logger.error("[" + collectionId + "] error while remove NRT segments", ie);
+                }
+            }
+            segmentList.clear();
+            indexedBatchCount = 0;
+        }
+        try {
+            writeBufferFile();
+        } catch (IOException ie) {
+            logger.error("[" + collectionId + "] error while rewrite NRT buffer", ie);
+        }
+    }
+
+    /*
+     * 남은 문서묶음으로 버퍼파일을 다시 쓴다.
+     */
+    private void writeBufferFile() throws IOException {
+        if (batchList.isEmpty()) {
+            FileUtils.deleteQuietly(bufferFile);
+            return;
+        }
+        File tmpFile = new File(bufferFile.getPath() + ".tmp");
+        BufferedFileOutput output = new BufferedFileOutput(tmpFile);
+        try {
+            for (DocumentBatch batch : batchList) {
+                batch.writeTo(output);
+            }
+        } finally {
+            output.close();
+        }
+        FileUtils.deleteQuietly(bufferFile);
+        if (!tmpFile.renameTo(bufferFile)) {
+            throw new IOException("Cannot rename " + tmpFile + " to " + bufferFile);
+        }
+    }
+
+    private void clearBuffer() {
+        batchList.clear();
+        segmentList.clear();
+        indexedBatchCount = 0;
+        bufferCount = 0;
+        bufferSize = 0;
+        FileUtils.deleteQuietly(bufferFile);
+    }
+
+    private CollectionHandler collectionHandler() {
+        IRService irService = ServiceManager.getInstance().getService(IRService.class);
+        return irService.collectionHandler(collectionId);
+    }
+
+    private static class NRTSegment {
+        private SegmentReader reader;
+        private int fromBatch;
+        private int toBatch;
+        private int count;
+
+        private NRTSegment(SegmentReader reader, int fromBatch, int toBatch, int count) {
+            this.reader = reader;
+            this.fromBatch = fromBatch;
+            this.toBatch = toBatch;
+            this.count = count;
+        }
+    }
+}
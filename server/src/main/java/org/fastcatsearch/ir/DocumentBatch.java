@@ -0,0 +1,84 @@
+package org.fastcatsearch.ir;
+
+import org.fastcatsearch.common.io.Streamable;
+import org.fastcatsearch.ir.io.DataInput;
+import org.fastcatsearch.ir.io.DataOutput;
+
+import java.io.IOException;
+
+/**
+ * 동적색인시 노드로 전달하는 문서묶음.
+ * JSON 문자열 대신 문서별 타입과 필드값을 길이가 앞에 붙은 바이너리로 기록한다. DocumentBatchWriter 로 만들고 DocumentBatchReader 로 읽는다.
+ *
+ * 블럭 : [VInt 원본길이][VInt 저장길이][저장데이터] 가 반복된다. 압축하면 블럭마다 LZ4 로 압축하여 받는쪽에서 블럭단위로 풀어 읽는다.
+ * 문서 : [byte 타입][VInt 필드수]([String 필드명][GenericValue 값])*
+ */
+public class DocumentBatch implements Streamable {
+    private int count;
+    private boolean isCompressed;
+    private boolean isInsertOnly;
+    private byte[] data;
+    private int dataLength;
+
+    public DocumentBatch() {
+    }
+
+    public DocumentBatch(int count, boolean isCompressed, boolean isInsertOnly, byte[] data, int dataLength) {
+        this.count = count;
+        this.isCompressed = isCompressed;
+        this.isInsertOnly = isInsertOnly;
+        this.data = data;
+        this.dataLength = dataLength;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public boolean isCompressed() {
+        return isCompressed;
+    }
+
+    /**
+     * 추가문서만 들어있는지 여부. 수정, 삭제문서가 하나라도 있으면 false.
+     */
+    public boolean isInsertOnly() {
+        return isInsertOnly;
+    }
+
+    public byte[] data() {
+        return data;
+    }
+
+    public int dataLength() {
+        return dataLength;
+    }
+
+    public DocumentBatchReader reader() {
+        return new DocumentBatchReader(this);
+    }
+
+    @Override
+    public String toString() {
+        return "[DocumentBatch] count[" + count + "] size[" + dataLength + "] compressed[" + isCompressed + "] insertOnly[" + isInsertOnly + "]";
+    }
+
+    @Override
+    public void readFrom(DataInput input) throws IOException {
+        count = input.readVInt();
+        isCompressed = input.readBoolean();
+        isInsertOnly = input.readBoolean();
+        dataLength = input.readVInt();
+        data = new byte[dataLength];
+        input.readBytes(data, 0, dataLength);
+    }
+
+    @Override
+    public void writeTo(DataOutput output) throws IOException {
+        output.writeVInt(count);
+        output.writeBoolean(isCompressed);
+        output.writeBoolean(isInsertOnly);
+        output.writeVInt(dataLength);
+        output.writeBytes(data, 0, dataLength);
+    }
+}
@@ -0,0 +1,66 @@
+package org.fastcatsearch.ir;
+
+import org.fastcatsearch.http.action.service.indexing.MapDocument;
+import org.fastcatsearch.ir.io.BytesDataInput;
+import org.fastcatsearch.ir.io.LZ4Compressor;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * DocumentBatch 의 문서를 차례로 읽는다. 압축된 블럭은 읽을 차례에 하나씩 푼다.
+ */
+public class DocumentBatchReader {
+
+    private DocumentBatch batch;
+    private BytesDataInput batchInput;
+    private BytesDataInput blockInput;
+    private byte[] blockBuffer;
+
+    public DocumentBatchReader(DocumentBatch batch) {
+        this.batch = batch;
+        batchInput = new BytesDataInput(batch.data(), 0, batch.dataLength());
+    }
+
+    /**
+     * 다음 문서. 더이상 없으면 null.
+     */
+    public MapDocument readAsMapDocument() throws IOException {
+        if (blockInput == null || blockInput.pos >= blockInput.limit) {
+            if (!nextBlock()) {
+                return null;
+            }
+        }
+        char type = (char) blockInput.readByte();
+        int fieldSize = blockInput.readVInt();
+        Map<String, Object> sourceMap = new HashMap<String, Object>(fieldSize * 2);
+        for (int i = 0; i < fieldSize; i++) {
+            String key = blockInput.readString();
+            sourceMap.put(key, blockInput.readGenericValue());
+        }
+        return new MapDocument(type, sourceMap);
+    }
+
+    private boolean nextBlock() throws IOException {
+        if (batchInput.pos >= batchInput.limit) {
+            return false;
+        }
+        int rawLength = batchInput.readVInt();
+        int storedLength = batchInput.readVInt();
+        if (batch.isCompressed()) {
+            if (blockBuffer == null || blockBuffer.length < rawLength) {
+                blockBuffer = new byte[rawLength];
+            }
+            int length = LZ4Compressor.decompress(batchInput.array, batchInput.pos, storedLength, blockBuffer, 0, rawLength);
+            if (length != rawLength) {
+                throw new IOException("Broken document block. expected " + rawLength + " but " + length);
+            }
+            blockInput = new BytesDataInput(blockBuffer, 0, rawLength);
+        } else {
+            blockInput = new BytesDataInput(batchInput.array, batchInput.pos, storedLength);
+        }
+        batchInput.pos += storedLength;
+        return true;
+    }
+}
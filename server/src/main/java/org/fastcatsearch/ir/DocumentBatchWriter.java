@@ -0,0 +1,124 @@
+package org.fastcatsearch.ir;
+
+import org.fastcatsearch.http.action.service.indexing.IndexDocumentsAction;
+import org.fastcatsearch.ir.io.BytesDataOutput;
+import org.fastcatsearch.ir.io.LZ4Compressor;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+
+/**
+ * 문서를 DocumentBatch 의 바이너리 형식으로 기록한다.
+ * 블럭크기를 넘으면 블럭을 닫고, 압축옵션이 있으면 블럭별로 압축하여 원본 전체를 메모리에 두지 않는다.
+ */
+public class DocumentBatchWriter {
+
+    public static final int BLOCK_SIZE = 256 * 1024;
+
+    private boolean isCompress;
+    private BytesDataOutput blockOutput;
+    private BytesDataOutput output;
+    private LZ4Compressor compressor;
+    private byte[] compressBuffer;
+    private int count;
+    private long size;
+    private boolean isInsertOnly = true;
+
+    public DocumentBatchWriter(boolean isCompress) {
+        this.isCompress = isCompress;
+        blockOutput = new BytesDataOutput(BLOCK_SIZE + 1024);
+        output = new BytesDataOutput(BLOCK_SIZE);
+        if (isCompress) {
+            compressor = new LZ4Compressor();
+        }
+    }
+
+    /**
+     * 문서 하나를 추가한다. type 은 IndexDocumentsAction 의 문서타입이다.
+     */
+    public void add(char type, Map<String, Object> source) throws IOException {
+        long prevPosition = blockOutput.position();
+        blockOutput.writeByte((byte) type);
+        blockOutput.writeVInt(source.size());
+        for (Map.Entry<String, Object> entry : source.entrySet()) {
+            blockOutput.writeString(entry.getKey());
+            blockOutput.writeGenericValue(toWritableValue(entry.getValue()));
+        }
+        if (type != IndexDocumentsAction.INSERT_TYPE.charAt(0)) {
+            isInsertOnly = false;
+        }
+        count++;
+        size += blockOutput.position() - prevPosition;
+        if (blockOutput.position() >= BLOCK_SIZE) {
+            flushBlock();
+        }
+    }
+
+    public int count() {
+        return count;
+    }
+
+    /**
+     * 압축전 기록된 크기.
+     */
+    public long size() {
+        return size;
+    }
+
+    public DocumentBatch toBatch() throws IOException {
+        flushBlock();
+        return new DocumentBatch(count, isCompress, isInsertOnly, output.array(), (int) output.position());
+    }
+
+    private void flushBlock() throws IOException {
+        int rawLength = (int) blockOutput.position();
+        if (rawLength == 0) {
+            return;
+        }
+        byte[] block = blockOutput.array();
+        output.writeVInt(rawLength);
+        if (isCompress) {
+            int maxLength = LZ4Compressor.maxCompressedLength(rawLength);
+            if (compressBuffer == null || compressBuffer.length < maxLength) {
+                compressBuffer = new byte[maxLength];
+            }
+            int compressedLength = compressor.compress(block, 0, rawLength, compressBuffer, 0);
+            output.writeVInt(compressedLength);
+            output.writeBytes(compressBuffer, 0, compressedLength);
+        } else {
+            output.writeVInt(rawLength);
+            output.writeBytes(block, 0, rawLength);
+        }
+        blockOutput.reset();
+    }
+
+    /*
+     * GenericValue 로 기록할수 없는 숫자형(BigInteger, BigDecimal)은 문자열로 바꾼다.
+     */
+    private static Object toWritableValue(Object value) {
+        if (value instanceof BigInteger || value instanceof BigDecimal) {
+            return value.toString();
+        } else if (value instanceof List) {
+            ListIterator<Object> iterator = ((List<Object>) value).listIterator();
+            while (iterator.hasNext()) {
+                Object o = iterator.next();
+                Object writable = toWritableValue(o);
+                if (writable != o) {
+                    iterator.set(writable);
+                }
+            }
+        } else if (value instanceof Map) {
+            for (Map.Entry<String, Object> entry : ((Map<String, Object>) value).entrySet()) {
+                Object writable = toWritableValue(entry.getValue());
+                if (writable != entry.getValue()) {
+                    entry.setValue(writable);
+                }
+            }
+        }
+        return value;
+    }
+}
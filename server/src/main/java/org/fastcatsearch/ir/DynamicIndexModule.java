@@ -34,9 +34,14 @@ public class DynamicIndexModule extends AbstractModule {
     private long indexFileMaxSize;
     private long mergePeriod;
     private long indexingPeriod;
+    private boolean isSegmentReplication;
+    private boolean isBatchCompress;
+    private boolean isNRT;
 
     private IndexMergeScheduleWorker indexMergeScheduleWorker;
     private IndexFireScheduleWorker indexFireScheduleWorker;
+    private CollectionNRTIndexer nrtIndexer;
+    private NRTFlushScheduleWorker nrtFlushScheduleWorker;
 
 
     public DynamicIndexModule(Environment environment, Settings settings, String collectionId) {
@@ -50,8 +55,25 @@ public class DynamicIndexModule extends AbstractModule {
         indexFileMaxSize = settings.getLong("indexing.dynamic.max_log_size_MB", 20L) * 1000 * 1000; //최소 20MB를 모아서 보낸다.
         mergePeriod = settings.getInt("indexing.dynamic.merge_period_SEC", 5) * 1000; //5초마다.
         indexingPeriod = settings.getInt("indexing.dynamic.indexing_period_SEC", 1) * 1000; //1초마다.
-        logger.debug("[{}] DynamicIndexModule flushPeriodInSeconds[{}] indexFileMaxCount[{}] indexFileMaxSize[{}] mergePeriod[{}] indexingPeriod[{}]",
-                collectionId, flushPeriodInSeconds, indexFileMaxCount, indexFileMaxSize, mergePeriod, indexingPeriod);
+        //segment 이면 색인노드에서 만든 세그먼트를 다른 노드로 전송하고, document 이면 모든 노드가 문서를 각자 색인한다.
+        isSegmentReplication = "segment".equalsIgnoreCase(settings.getString("indexing.dynamic.replication", "document"));
+        isBatchCompress = settings.getBoolean("indexing.dynamic.batch_compress", true);
+        //NRT 이면 추가문서를 NRT 세그먼트로 바로 검색되게 하고, 모아서 일반 세그먼트로 만든다. 문서 반영방식(document)에서만 사용한다.
+        isNRT = settings.getBoolean("indexing.dynamic.nrt", false);
+        if (isNRT && isSegmentReplication) {
+            logger.warn("[{}] NRT is not supported with segment replication. NRT is disabled.", collectionId);
+            isNRT = false;
+        }
+        if (isNRT) {
+            indexingPeriod = settings.getInt("indexing.dynamic.nrt.indexing_period_MS", 200);
+            long nrtFlushSize = settings.getLong("indexing.dynamic.nrt.flush_size_MB", 10L) * 1000 * 1000;
+            long nrtFlushPeriod = settings.getInt("indexing.dynamic.nrt.flush_period_SEC", 30) * 1000L;
+            File nrtBufferFile = new File(environment.filePaths().collectionFilePaths(collectionId).file(), "nrt.buffer");
+            nrtIndexer = new CollectionNRTIndexer(collectionId, nrtBufferFile, nrtFlushSize, nrtFlushPeriod);
+            logger.debug("[{}] NRT flushSize[{}] flushPeriod[{}]", collectionId, nrtFlushSize, nrtFlushPeriod);
+        }
+        logger.debug("[{}] DynamicIndexModule flushPeriodInSeconds[{}] indexFileMaxCount[{}] indexFileMaxSize[{}] mergePeriod[{}] indexingPeriod[{}] segmentReplication[{}] batchCompress[{}] nrt[{}]",
+                collectionId, flushPeriodInSeconds, indexFileMaxCount, indexFileMaxSize, mergePeriod, indexingPeriod, isSegmentReplication, isBatchCompress, isNRT);
 
         indexMergeScheduleWorker = new IndexMergeScheduleWorker(collectionId, mergePeriod);
         indexMergeScheduleWorker.setDaemon(true);
@@ -66,6 +88,15 @@ public class DynamicIndexModule extends AbstractModule {
         }
         indexMergeScheduleWorker.start();
         logger.info("[{}] Index Merger start scheduling!", collectionId);
+        if (nrtIndexer != null) {
+            try {
+                nrtIndexer.load();
+            } catch (IOException e) {
+                logger.error("[" + collectionId + "] error while load NRT buffer", e);
+            }
+            nrtFlushScheduleWorker = new NRTFlushScheduleWorker(collectionId, nrtIndexer, 1000);
+            nrtFlushScheduleWorker.start();
+        }
         logger.info("[{}] To be indexed files = {}", collectionId, dataLogger.getQueueSize());
         return true;
     }
@@ -80,10 +111,20 @@ public class DynamicIndexModule extends AbstractModule {
             indexFireScheduleWorker.requestCancel();
         }
         indexMergeScheduleWorker.requestCancel();
+        if (nrtFlushScheduleWorker != null) {
+            nrtFlushScheduleWorker.requestCancel();
+        }
 
         return true;
     }
 
+    /**
+     * NRT 설정이 없으면 null.
+     */
+    public CollectionNRTIndexer nrtIndexer() {
+        return nrtIndexer;
+    }
+
     public boolean isIndexingScheduled() {
         return indexFireScheduleWorker != null && !stopIndexingFlagFile.exists();
 
@@ -105,7 +146,7 @@ public class DynamicIndexModule extends AbstractModule {
 
     public boolean startIndexingSchedule() {
         if(indexFireScheduleWorker == null) {
-            indexFireScheduleWorker = new IndexFireScheduleWorker(collectionId, dataLogger.getFileQueue(), indexingPeriod, indexFileMaxCount, indexFileMaxSize);
+            indexFireScheduleWorker = new IndexFireScheduleWorker(collectionId, dataLogger.getFileQueue(), indexingPeriod, indexFileMaxCount, indexFileMaxSize, isSegmentReplication, isBatchCompress);
             indexFireScheduleWorker.setDaemon(true);
             indexFireScheduleWorker.start();
             stopIndexingFlagFile.delete();
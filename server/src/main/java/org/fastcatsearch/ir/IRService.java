@@ -14,6 +14,7 @@ package org.fastcatsearch.ir;
 import org.apache.commons.io.FileUtils;
 import org.fastcatsearch.alert.ClusterAlertService;
 import org.fastcatsearch.cluster.NodeLoadBalancable;
+import org.fastcatsearch.common.QueryCacheGenerationTable;
 import org.fastcatsearch.common.QueryCacheModule;
 import org.fastcatsearch.common.ThreadPoolFactory;
 import org.fastcatsearch.control.JobService;
@@ -30,7 +31,9 @@ import org.fastcatsearch.ir.group.GroupResults;
 import org.fastcatsearch.ir.group.GroupsData;
 import org.fastcatsearch.ir.query.InternalSearchResult;
 import org.fastcatsearch.ir.query.Result;
+import org.fastcatsearch.ir.document.DocumentBlockCache;
 import org.fastcatsearch.ir.search.CollectionHandler;
+import org.fastcatsearch.ir.search.FilterBitSetCachePool;
 import org.fastcatsearch.ir.search.SegmentDelayedClose;
 import org.fastcatsearch.ir.settings.AnalyzerSetting;
 import org.fastcatsearch.job.PriorityScheduledJob;
@@ -70,6 +73,8 @@ public class IRService extends AbstractService {
 	private QueryCacheModule<String, GroupResults> groupingCache;
 	private QueryCacheModule<String, GroupsData> groupingDataCache;
 	private QueryCacheModule<String, Result> documentCache;
+	private QueryCacheModule<String, byte[]> shardResultCache;
+	private QueryCacheGenerationTable queryCacheGenerationTable;
 	private CollectionsConfig collectionsConfig;
 	private JDBCSourceConfig jdbcSourceConfig;
 	private JDBCSupportConfig jdbcSupportConfig;
@@ -151,6 +156,10 @@ public class IRService extends AbstractService {
 
 		dataNodeCollectionIdSet = new HashSet<String>();
         segmentDelayCloseQueue = new DelayQueue<SegmentDelayedClose>();
+        //노드의 모든 세그먼트가 같이 쓰는 필터 비트셋 캐시 메모리 한도.
+        FilterBitSetCachePool.getInstance().setMaxBytes(settings.getByteSize("filter-bitset-cache-max-bytes", FilterBitSetCachePool.DEFAULT_MAX_BYTES));
+        //노드의 모든 세그먼트가 같이 쓰는 저장문서 블럭 캐시 메모리 한도.
+        DocumentBlockCache.getInstance().setMaxBytes(settings.getByteSize("document-block-cache-max-bytes", DocumentBlockCache.DEFAULT_MAX_BYTES));
 
 		List<Collection> collectionList = collectionsConfig.getCollectionList();
 		for (int collectionInx = 0 ; collectionInx < collectionList.size(); collectionInx++) {
@@ -171,15 +180,18 @@ public class IRService extends AbstractService {
 			ClusterAlertService.getInstance().alert(e);
 		}
 
-		searchCache = new QueryCacheModule<String, Result>(environment, settings);
-		groupingCache = new QueryCacheModule<String, GroupResults>(environment, settings);
-		groupingDataCache = new QueryCacheModule<String, GroupsData>(environment, settings);
-		documentCache = new QueryCacheModule<String, Result>(environment, settings);
+		queryCacheGenerationTable = new QueryCacheGenerationTable();
+		searchCache = new QueryCacheModule<String, Result>(environment, settings, "search", queryCacheGenerationTable);
+		groupingCache = new QueryCacheModule<String, GroupResults>(environment, settings, "grouping", queryCacheGenerationTable);
+		groupingDataCache = new QueryCacheModule<String, GroupsData>(environment, settings, "groupingData", queryCacheGenerationTable);
+		documentCache = new QueryCacheModule<String, Result>(environment, settings, "document", queryCacheGenerationTable);
+		shardResultCache = new QueryCacheModule<String, byte[]>(environment, settings, "shardResult", queryCacheGenerationTable);
 		try {
 			searchCache.load();
 			groupingCache.load();
 			groupingDataCache.load();
 			documentCache.load();
+			shardResultCache.load();
 		} catch (ModuleException e) {
 			ClusterAlertService.getInstance().alert(e);
 			throw new FastcatSearchException("ERR-00320");
@@ -447,6 +459,7 @@ public class IRService extends AbstractService {
 		groupingCache.unload();
 		groupingDataCache.unload();
 		documentCache.unload();
+		shardResultCache.unload();
 
 		collectionHandlerMap.clear();
 		return true;
@@ -472,6 +485,35 @@ public class IRService extends AbstractService {
 		return documentCache;
 	}
 
+	/**
+	 * 데이터노드의 shard 검색결과 캐시. 값은 직렬화된 InternalSearchResult 또는 GroupsData 이다.
+	 * */
+	public QueryCacheModule<String, byte[]> shardResultCache() {
+		return shardResultCache;
+	}
+
+	/**
+	 * 컬렉션의 세그먼트가 바뀌었을때 호출한다. 세대를 올리고 이 컬렉션의 캐시결과만 제거한다.
+	 * */
+	public void invalidateQueryCache(String collectionId) {
+		long generation = queryCacheGenerationTable.increment(collectionId);
+		int removeCount = 0;
+		for (QueryCacheModule<String, ?> queryCache : queryCacheList()) {
+			removeCount += queryCache.invalidate(collectionId);
+		}
+		logger.debug("[{}] query cache invalidated. generation[{}] removed[{}]", collectionId, generation, removeCount);
+	}
+
+	public List<QueryCacheModule<String, ?>> queryCacheList() {
+		List<QueryCacheModule<String, ?>> list = new ArrayList<QueryCacheModule<String, ?>>(5);
+		list.add(searchCache);
+		list.add(groupingCache);
+		list.add(groupingDataCache);
+		list.add(documentCache);
+		list.add(shardResultCache);
+		return list;
+	}
+
 	public void registerLoadBanlancer(NodeLoadBalancable nodeLoadBalancable) {
 		// 차후 검색시 로드밸런싱에 대비하여 먼저 collectionId로 node들을 등록해놓는다.
 		for (Collection collection : getCollectionList()) {
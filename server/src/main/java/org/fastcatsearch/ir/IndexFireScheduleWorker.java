@@ -5,8 +5,12 @@ import org.fastcatsearch.cluster.ClusterUtils;
 import org.fastcatsearch.cluster.Node;
 import org.fastcatsearch.cluster.NodeJobResult;
 import org.fastcatsearch.cluster.NodeService;
+import org.fastcatsearch.control.ResultFuture;
+import org.fastcatsearch.http.action.service.indexing.JSONRequestReader;
+import org.fastcatsearch.http.action.service.indexing.MapDocument;
 import org.fastcatsearch.ir.config.CollectionContext;
 import org.fastcatsearch.job.indexing.NodeIndexDocumentFileJob;
+import org.fastcatsearch.job.indexing.NodeIndexDocumentSegmentJob;
 import org.fastcatsearch.service.ServiceManager;
 import org.fastcatsearch.util.TimeBaseRollingDocumentLogger.LogFileStatus;
 import org.slf4j.Logger;
@@ -30,18 +34,29 @@ public class IndexFireScheduleWorker extends Thread {
     private int indexFileMaxCount; //동적색인 전달시 최대 문서집합 갯수.
     private long indexFileMaxSize; //동적색인 전달시 최대 문서집합 사이즈
     private long indexingPeriod;
+    private int readRetryCount; //쓰고 있는 로그파일에서 다음 문서를 기다리는 횟수. 250ms 단위.
+    private boolean isSegmentReplication; //색인노드에서 만든 세그먼트를 다른 노드로 전송할지 여부.
+    private boolean isBatchCompress; //문서묶음을 LZ4로 압축하여 전송할지 여부.
     private BufferedReader currentReader;
     private LogFileStatus currentFileStatus;
 
     private StringBuilder remnant; //쪼개진 json의 일부 
 
     public IndexFireScheduleWorker(String collectionId, BlockingQueue<LogFileStatus> fileQueue, long indexingPeriod, int indexFileMaxCount, long indexFileMaxSize) {
+        this(collectionId, fileQueue, indexingPeriod, indexFileMaxCount, indexFileMaxSize, false, true);
+    }
+
+    public IndexFireScheduleWorker(String collectionId, BlockingQueue<LogFileStatus> fileQueue, long indexingPeriod, int indexFileMaxCount, long indexFileMaxSize, boolean isSegmentReplication, boolean isBatchCompress) {
         super("IndexFireScheduler-" + collectionId);
         this.collectionId = collectionId;
         this.fileQueue = fileQueue;
         this.indexingPeriod = indexingPeriod;
+        //NRT 처럼 전송주기가 짧으면 문서를 오래 기다리지 않고 바로 보낸다.
+        this.readRetryCount = (int) Math.max(1, Math.min(4, indexingPeriod / 250));
         this.indexFileMaxCount = indexFileMaxCount;
         this.indexFileMaxSize = indexFileMaxSize;
+        this.isSegmentReplication = isSegmentReplication;
+        this.isBatchCompress = isBatchCompress;
     }
 
     public void requestCancel() {
@@ -57,11 +72,13 @@ public class IndexFireScheduleWorker extends Thread {
     }
 
 
-    public String makeDocuments(List<File> toBeDeleted) {
+    /**
+     * 색인로그를 읽으면서 바로 문서묶음에 기록한다. JSON은 여기서 한번만 파싱하고 전송받은 노드는 바이너리를 바로 읽는다.
+     */
+    public DocumentBatch makeDocuments(List<File> toBeDeleted) {
 
-        long totalSize = 0;
-        int count = 0;
-        StringBuilder documentsBuilder = null;
+        DocumentBatchWriter batchWriter = null;
+        JSONRequestReader jsonReader = new JSONRequestReader();
 
         try {
             while (!isCanceled) {
@@ -71,9 +88,9 @@ public class IndexFireScheduleWorker extends Thread {
 
                     if (logFileStatus == null) {
                         //더이상 들어온 파일이 없다면 만들어둔 문서만 보낸다.
-                        if (documentsBuilder != null && documentsBuilder.length() > 0) {
-                            logger.debug("[{}] sendDocuments2 count[{}] size[{}]", collectionId, count, org.fastcatsearch.ir.util.Formatter.getFormatSize(totalSize));
-                            return documentsBuilder.toString();
+                        if (batchWriter != null && batchWriter.count() > 0) {
+                            logger.debug("[{}] sendDocuments2 count[{}] size[{}]", collectionId, batchWriter.count(), org.fastcatsearch.ir.util.Formatter.getFormatSize(batchWriter.size()));
+                            return batchWriter.toBatch();
                         } else {
                             return null;
                         }
@@ -113,10 +130,10 @@ public class IndexFireScheduleWorker extends Thread {
                             } catch (InterruptedException ignore) {
                             }
 
-                            if (tryCount >= 4) {
-                                if (documentsBuilder != null && documentsBuilder.length() > 0) {
-                                    logger.debug("[{}] sendDocuments3 count[{}] size[{}]", collectionId, count, org.fastcatsearch.ir.util.Formatter.getFormatSize(totalSize));
-                                    return documentsBuilder.toString();
+                            if (tryCount >= readRetryCount) {
+                                if (batchWriter != null && batchWriter.count() > 0) {
+                                    logger.debug("[{}] sendDocuments3 count[{}] size[{}]", collectionId, batchWriter.count(), org.fastcatsearch.ir.util.Formatter.getFormatSize(batchWriter.size()));
+                                    return batchWriter.toBatch();
                                 }
                             }
                         }
@@ -141,18 +158,21 @@ public class IndexFireScheduleWorker extends Thread {
                             }
                         }
 
-                        if (documentsBuilder == null) {
-                            documentsBuilder = new StringBuilder();
+                        MapDocument document = jsonReader.readMapDocument(docRequest.trim());
+                        if (document == null) {
+                            //깨진 문서는 버린다.
+                            continue;
                         }
-                        documentsBuilder.append(docRequest).append('\n');
-                        totalSize += (docRequest.length() + 1) * 2;
-                        count++;
+                        if (batchWriter == null) {
+                            batchWriter = new DocumentBatchWriter(isBatchCompress);
+                        }
+                        batchWriter.add(document.getType(), document.getSourceMap());
                         //0으로 만들어 주니 너무 많이 길어진다.
 //                        tryCount = 0;
                         //보낼 사이즈가 찼다면..
-                        if ((indexFileMaxSize > 0 && totalSize >= indexFileMaxSize) || (indexFileMaxCount > 0 && count >= indexFileMaxCount)) {
-                            logger.debug("[{}] sendDocuments1 count[{}] size[{}]", collectionId, count, org.fastcatsearch.ir.util.Formatter.getFormatSize(totalSize));
-                            return documentsBuilder.toString();
+                        if ((indexFileMaxSize > 0 && batchWriter.size() >= indexFileMaxSize) || (indexFileMaxCount > 0 && batchWriter.count() >= indexFileMaxCount)) {
+                            logger.debug("[{}] sendDocuments1 count[{}] size[{}]", collectionId, batchWriter.count(), org.fastcatsearch.ir.util.Formatter.getFormatSize(batchWriter.size()));
+                            return batchWriter.toBatch();
                         }
                     }
                 }//while
@@ -173,7 +193,7 @@ public class IndexFireScheduleWorker extends Thread {
         while (!isCanceled) {
             try {
                 toBeDeletedFiles.clear();
-                String documents = makeDocuments(toBeDeletedFiles);
+                DocumentBatch documents = makeDocuments(toBeDeletedFiles);
                 if (documents != null) {
                     sendDocuments(documents);
                 }
@@ -194,7 +214,7 @@ public class IndexFireScheduleWorker extends Thread {
         logger.info("[{}] {} is terminated!", collectionId, getClass().getName());
     }
 
-    private void sendDocuments(String documents) {
+    private void sendDocuments(DocumentBatch documents) {
         NodeService nodeService = ServiceManager.getInstance().getService(NodeService.class);
         IRService irService = ServiceManager.getInstance().getService(IRService.class);
         CollectionContext collectionContext = irService.collectionContext(collectionId);
@@ -206,6 +226,9 @@ public class IndexFireScheduleWorker extends Thread {
         List<Node> nodeList = new ArrayList<Node>(nodeService.getNodeById(nodeIdList));
 
         String documentId = String.valueOf(System.nanoTime());
+        if (isSegmentReplication && sendSegment(nodeService, collectionContext.collectionConfig().getIndexNode(), nodeIdList, documentId, documents)) {
+            return;
+        }
         NodeIndexDocumentFileJob indexFileDocumentJob = new NodeIndexDocumentFileJob(collectionId, documentId, documents);
         long st = System.nanoTime();
         NodeJobResult[] nodeResultList = ClusterUtils.sendJobToNodeList(indexFileDocumentJob, nodeService, nodeList, true);
@@ -216,4 +239,27 @@ public class IndexFireScheduleWorker extends Thread {
         }
     }
 
+    /*
+     * 색인노드에서 세그먼트를 만들어 나머지 노드로 전송하도록 한다. 색인노드에 보내지 못하면 false를 리턴한다.
+     */
+    private boolean sendSegment(NodeService nodeService, String indexNodeId, List<String> nodeIdList, String documentId, DocumentBatch documents) {
+        Node indexNode = nodeService.getNodeById(indexNodeId);
+        if (indexNode == null || !(indexNode.isActive() || nodeService.isMyNode(indexNode))) {
+            logger.warn("[{}] Index node {} is not active. Send documents to all nodes.", collectionId, indexNodeId);
+            return false;
+        }
+        List<String> replicaNodeIdList = new ArrayList<String>(nodeIdList);
+        replicaNodeIdList.remove(indexNodeId);
+        NodeIndexDocumentSegmentJob indexDocumentSegmentJob = new NodeIndexDocumentSegmentJob(collectionId, documentId, documents, replicaNodeIdList);
+        long st = System.nanoTime();
+        ResultFuture resultFuture = nodeService.sendRequest(indexNode, indexDocumentSegmentJob);
+        if (resultFuture == null) {
+            logger.warn("[{}] Cannot send segment indexing request to {}. Send documents to all nodes.", collectionId, indexNode);
+            return false;
+        }
+        //여기서 세그먼트 적용이 모두 끝날때 까지 대기해야 문서순서가 바뀌지 않음.
+        Object result = resultFuture.take();
+        logger.debug("[{}] Segment indexing request done > {} : Node {} > {} time : {}ms", collectionId, documentId, indexNode.id(), result, (System.nanoTime() - st) / 1000000);
+        return true;
+    }
 }
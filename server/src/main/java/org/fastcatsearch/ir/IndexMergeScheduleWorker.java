@@ -13,6 +13,8 @@ import org.slf4j.LoggerFactory;
 import java.util.*;
 
 /**
+ * 세그먼트 크기별로 머징대상을 골라 LocalIndexMergingJob 을 실행한다.
+ * 머징은 CollectionMergeIndexer(SegmentMerger) 가 문서를 다시 분석하지 않고 색인파일을 직접 머징한다.
  * Created by swsong on 2016. 3. 4..
  */
 public class IndexMergeScheduleWorker extends Thread {
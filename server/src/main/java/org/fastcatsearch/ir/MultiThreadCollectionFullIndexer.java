@@ -1,6 +1,7 @@
 package org.fastcatsearch.ir;
 
 import org.apache.commons.io.FileUtils;
+import org.fastcatsearch.datasource.reader.AbstractDataSourceReader;
 import org.fastcatsearch.datasource.reader.DataSourceReader;
 import org.fastcatsearch.datasource.reader.DefaultDataSourceReaderFactory;
 import org.fastcatsearch.ir.analysis.AnalyzerPoolManager;
@@ -19,6 +20,7 @@ import org.fastcatsearch.ir.settings.SchemaSetting;
 import org.fastcatsearch.ir.util.Formatter;
 import org.fastcatsearch.job.indexing.IndexingStopException;
 import org.fastcatsearch.job.state.IndexingTaskState;
+import org.fastcatsearch.service.ServiceManager;
 import org.fastcatsearch.util.CollectionContextUtil;
 import org.fastcatsearch.util.FilePaths;
 import org.slf4j.Logger;
@@ -140,12 +142,28 @@ public class MultiThreadCollectionFullIndexer implements CollectionIndexerable {
 		}
 		File filePath = collectionContext.collectionFilePaths().file();
 		dataSourceReader = createDataSourceReader(filePath, schema.schemaSetting());
+		//소스파싱과 document 변환이 색인보다 느린 경우, 변환을 여러 쓰레드에서 수행한다.
+		if(dataSourceReader instanceof AbstractDataSourceReader) {
+			((AbstractDataSourceReader<?>) dataSourceReader).setConvertThreads(getConvertThreads());
+		}
 		
 		indexWriteInfoList = new IndexWriteInfoList();
 		
 		startTime = System.currentTimeMillis();
 	}
 
+	private int getConvertThreads() {
+		ServiceManager serviceManager = ServiceManager.getInstance();
+		if(serviceManager == null) {
+			return 0;
+		}
+		IRService irService = serviceManager.getService(IRService.class);
+		if(irService == null) {
+			return 0;
+		}
+		return irService.settings().getInt("indexing.full.convert_threads", 0);
+	}
+
 	protected void prepare() throws IRException {
 		workingSegmentInfoList = new ArrayList<SegmentInfo>(segmentSize);
 		//순차적 세그먼트 info 를 할당한다.
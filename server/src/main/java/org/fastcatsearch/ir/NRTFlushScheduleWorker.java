@@ -0,0 +1,53 @@
+package org.fastcatsearch.ir;
+
+import org.fastcatsearch.service.ServiceManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 새 문서가 들어오지 않아도 NRT 버퍼가 flush 주기를 넘기면 일반 세그먼트로 적용하도록 주기적으로 확인한다.
+ */
+public class NRTFlushScheduleWorker extends Thread {
+
+    private static final Logger logger = LoggerFactory.getLogger(NRTFlushScheduleWorker.class);
+
+    private String collectionId;
+    private CollectionNRTIndexer nrtIndexer;
+    private long scheduleDelayInMS;
+    private boolean isCanceled;
+
+    public NRTFlushScheduleWorker(String collectionId, CollectionNRTIndexer nrtIndexer, long scheduleDelayInMS) {
+        super("NRTFlushScheduler-" + collectionId);
+        setDaemon(true);
+        this.collectionId = collectionId;
+        this.nrtIndexer = nrtIndexer;
+        this.scheduleDelayInMS = scheduleDelayInMS;
+    }
+
+    public void requestCancel() {
+        this.interrupt();
+        isCanceled = true;
+    }
+
+    @Override
+    public void run() {
+        logger.info("[{}] {} is started!", collectionId, getClass().getName());
+        while (!isCanceled) {
+            try {
+                if (nrtIndexer.checkRefresh()) {
+                    //NRT 세그먼트가 바뀌었으므로 이 노드의 캐시를 지운다.
+                    IRService irService = ServiceManager.getInstance().getService(IRService.class);
+                    irService.invalidateQueryCache(collectionId);
+                }
+            } catch (Throwable t) {
+                logger.error("", t);
+            }
+            try {
+                Thread.sleep(scheduleDelayInMS);
+            } catch (InterruptedException e) {
+                //종료..
+            }
+        }
+        logger.info("[{}] {} is terminated!", collectionId, getClass().getName());
+    }
+}
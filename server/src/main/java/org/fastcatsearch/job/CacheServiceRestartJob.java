@@ -53,6 +53,11 @@ public class CacheServiceRestartJob extends Job{
 			} catch (Exception e) {
 				logger.debug("ERROR Unloading Document Cache : {}", e.getMessage());
 			}
+			try {
+				irService.shardResultCache().reset();
+			} catch (Exception e) {
+				logger.debug("ERROR Unloading Shard Result Cache : {}", e.getMessage());
+			}
 		}
 		return new JobResult(true);
 	}
@@ -11,6 +11,7 @@
 
 package org.fastcatsearch.job;
 
+import org.fastcatsearch.common.QueryCacheGeneration;
 import org.fastcatsearch.error.SearchError;
 import org.fastcatsearch.error.ServerErrorCode;
 import org.fastcatsearch.exception.FastcatSearchException;
@@ -69,8 +70,9 @@ public class DocumentListJob extends Job {
         IRService irService = ServiceManager.getInstance().getService(IRService.class);
 //			logger.debug("NoCache => "+noCache+" ,option = "+q.getMeta().option()+", "+(q.getMeta().option() & Query.SEARCH_OPT_NOCACHE));
         String cacheKey = collection+":"+start+":"+rows;
+        QueryCacheGeneration cacheGeneration = irService.documentCache().generation(collection);
         if(!noCache){
-            result = irService.documentCache().get(cacheKey);
+            result = irService.documentCache().get(cacheKey, cacheGeneration);
         }
 
         //Not Exist in Cache
@@ -86,7 +88,7 @@ public class DocumentListJob extends Job {
 //				result = collectionHandler.searcher().listDocument(collection, start, rows);
 
             if(!noCache){
-                irService.documentCache().put(cacheKey, result);
+                irService.documentCache().put(cacheKey, result, cacheGeneration);
             }
         }
 //			long st = System.currentTimeMillis();
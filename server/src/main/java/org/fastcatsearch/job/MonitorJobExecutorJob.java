@@ -15,6 +15,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ThreadPoolExecutor;
 
+import org.fastcatsearch.control.JobExecutorLane;
 import org.fastcatsearch.control.JobService;
 import org.fastcatsearch.exception.FastcatSearchException;
 
@@ -27,7 +28,8 @@ public class MonitorJobExecutorJob extends Job{
 	@Override
 	public JobResult doRun() throws FastcatSearchException {
 		
-		ThreadPoolExecutor executor = ((JobService)getJobExecutor()).getJobExecutor();
+		JobService jobService = (JobService) getJobExecutor();
+		ThreadPoolExecutor executor = jobService.getJobExecutor();
 		Map<String, String> result = new HashMap<String, String>();
 		
 		int d = executor.getActiveCount();
@@ -42,6 +44,13 @@ public class MonitorJobExecutorJob extends Job{
 		long l = executor.getCompletedTaskCount();
 		result.put("CompletedTaskCount", Long.toString(l));
 		
+		//레인별 통계는 "레인명.항목" 으로 넣는다.
+		for (JobExecutorLane lane : jobService.getLanes()) {
+			for (Map.Entry<String, String> entry : lane.stats().entrySet()) {
+				result.put(lane.name() + "." + entry.getKey(), entry.getValue());
+			}
+		}
+		
 		return new JobResult(result);
 	}
 	
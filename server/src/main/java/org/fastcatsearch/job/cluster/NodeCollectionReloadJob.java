@@ -15,8 +15,8 @@ import org.fastcatsearch.ir.io.DataInput;
 import org.fastcatsearch.ir.io.DataOutput;
 import org.fastcatsearch.ir.search.CollectionHandler;
 import org.fastcatsearch.ir.util.Counter;
-import org.fastcatsearch.job.CacheServiceRestartJob;
 import org.fastcatsearch.job.Job;
+import org.fastcatsearch.job.indexing.NodeIndexDocumentSegmentJob;
 import org.fastcatsearch.service.ServiceManager;
 import org.fastcatsearch.transport.vo.StreamableCollectionContext;
 import org.fastcatsearch.util.CollectionContextUtil;
@@ -62,9 +62,11 @@ public class NodeCollectionReloadJob extends Job implements Streamable {
 			nodeService.updateLoadBalance(collectionId, dataNodeList);
 
 			/*
-			 * 캐시 클리어.
+			 * 리로드한 컬렉션의 캐시 클리어.
 			 */
-			getJobExecutor().offer(new CacheServiceRestartJob());
+			irService.invalidateQueryCache(collectionId);
+			//색인노드라면 새 색인이 모든 노드에 적용되었으므로 동적색인을 다시 보낸다.
+			NodeIndexDocumentSegmentJob.clearOutOfSync(collectionId);
 			return new JobResult(true);
 
 		} catch (Exception e) {
@@ -0,0 +1,66 @@
+package org.fastcatsearch.job.cluster;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.fastcatsearch.cluster.ClusterUtils;
+import org.fastcatsearch.cluster.Node;
+import org.fastcatsearch.cluster.NodeService;
+import org.fastcatsearch.common.io.Streamable;
+import org.fastcatsearch.exception.FastcatSearchException;
+import org.fastcatsearch.ir.IRService;
+import org.fastcatsearch.ir.io.DataInput;
+import org.fastcatsearch.ir.io.DataOutput;
+import org.fastcatsearch.job.Job;
+import org.fastcatsearch.service.ServiceManager;
+
+/**
+ * 컬렉션의 세그먼트가 바뀌었을때 노드의 검색결과 캐시중 해당 컬렉션의 결과만 제거한다.
+ * 검색결과 캐시는 검색요청을 받은 노드에 있으므로 모든 노드에 보낸다.
+ * */
+public class NodeQueryCacheInvalidateJob extends Job implements Streamable {
+
+	private static final long serialVersionUID = -2383407183517207795L;
+
+	private String collectionId;
+
+	public NodeQueryCacheInvalidateJob() {
+	}
+
+	public NodeQueryCacheInvalidateJob(String collectionId) {
+		this.collectionId = collectionId;
+	}
+
+	/**
+	 * 살아있는 모든 노드(자신포함)의 컬렉션 캐시를 제거한다.
+	 * */
+	public static void invalidateAllNodes(String collectionId) {
+		NodeService nodeService = ServiceManager.getInstance().getService(NodeService.class);
+		List<Node> nodeList = new ArrayList<Node>();
+		for (Node node : nodeService.getNodeArrayList()) {
+			if (node.isActive() || nodeService.isMyNode(node)) {
+				nodeList.add(node);
+			}
+		}
+		ClusterUtils.sendJobToNodeList(new NodeQueryCacheInvalidateJob(collectionId), nodeService, nodeList, true);
+	}
+
+	@Override
+	public JobResult doRun() throws FastcatSearchException {
+		IRService irService = ServiceManager.getInstance().getService(IRService.class);
+		irService.invalidateQueryCache(collectionId);
+		return new JobResult(true);
+	}
+
+	@Override
+	public void readFrom(DataInput input) throws IOException {
+		collectionId = input.readString();
+	}
+
+	@Override
+	public void writeTo(DataOutput output) throws IOException {
+		output.writeString(collectionId);
+	}
+
+}
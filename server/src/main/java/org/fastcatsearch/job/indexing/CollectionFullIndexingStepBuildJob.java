@@ -29,7 +29,6 @@ import org.fastcatsearch.ir.io.DataInput;
 import org.fastcatsearch.ir.io.DataOutput;
 import org.fastcatsearch.ir.search.CollectionHandler;
 import org.fastcatsearch.ir.util.Counter;
-import org.fastcatsearch.job.CacheServiceRestartJob;
 import org.fastcatsearch.job.result.IndexingJobResult;
 import org.fastcatsearch.job.state.IndexingTaskState;
 import org.fastcatsearch.service.ServiceManager;
@@ -144,9 +143,9 @@ public class CollectionFullIndexingStepBuildJob extends IndexingJob {
 			int duration = (int) (System.currentTimeMillis() - startTime);
 			
 			/*
-			 * 캐시 클리어.
+			 * 색인한 컬렉션의 캐시 클리어.
 			 */
-			getJobExecutor().offer(new CacheServiceRestartJob());
+			irService.invalidateQueryCache(collectionId);
 
 			IndexStatus indexStatus = collectionContext.indexStatus().getFullIndexStatus();
 			indexingLogger.info("[{}] Collection Full Indexing Finished! {} time = {}", collectionId, indexStatus, duration);
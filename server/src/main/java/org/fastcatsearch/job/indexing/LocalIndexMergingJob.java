@@ -9,6 +9,7 @@ import org.fastcatsearch.ir.search.CollectionHandler;
 import org.fastcatsearch.ir.search.SegmentReader;
 import org.fastcatsearch.ir.util.Formatter;
 import org.fastcatsearch.job.Job;
+import org.fastcatsearch.job.cluster.NodeQueryCacheInvalidateJob;
 import org.fastcatsearch.service.ServiceManager;
 import org.fastcatsearch.util.CollectionContextUtil;
 import org.fastcatsearch.util.FileUtils;
@@ -106,6 +107,8 @@ public class LocalIndexMergingJob extends Job {
                     collectionContext = collectionHandler.applyMergedSegment(segmentInfo, mergeIndexer.getSegmentDir(), mergingSegmentIdSet);
                 }
                 CollectionContextUtil.saveCollectionAfterDynamicIndexing(collectionContext);
+                //머징중에 적용된 삭제가 있을수 있으므로 컬렉션 캐시를 제거한다.
+                NodeQueryCacheInvalidateJob.invalidateAllNodes(collectionId);
                 int totalLiveDocs = collectionContext.dataInfo().getDocuments() - collectionContext.dataInfo().getDeletes();
                 long elapsed = System.currentTimeMillis() - startTime;
                 indexingLogger.info("[{}] Merge Indexing Done. Inserts[{}] Deletes[{}] Elapsed[{}] TotalLive[{}] Segments[{}] SegIds{} "
@@ -0,0 +1,100 @@
+package org.fastcatsearch.job.indexing;
+
+import org.fastcatsearch.common.io.Streamable;
+import org.fastcatsearch.exception.FastcatSearchException;
+import org.fastcatsearch.ir.IRService;
+import org.fastcatsearch.ir.common.IRException;
+import org.fastcatsearch.ir.common.SettingException;
+import org.fastcatsearch.ir.config.CollectionContext;
+import org.fastcatsearch.ir.config.DataInfo;
+import org.fastcatsearch.ir.index.DeleteIdSet;
+import org.fastcatsearch.ir.io.DataInput;
+import org.fastcatsearch.ir.io.DataOutput;
+import org.fastcatsearch.ir.search.CollectionHandler;
+import org.fastcatsearch.ir.util.Formatter;
+import org.fastcatsearch.job.DataJob;
+import org.fastcatsearch.service.ServiceManager;
+import org.fastcatsearch.util.CollectionContextUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * 색인노드에서 만들어 전송한 동적색인 세그먼트를 적용한다.
+ * 세그먼트 파일은 이 작업전에 같은 경로로 전송되어 있어야 하며, 문서가 없는 세그먼트는 삭제문서만 적용한다.
+ */
+public class NodeApplySegmentJob extends DataJob implements Streamable {
+
+    protected static Logger indexingLogger = LoggerFactory.getLogger("INDEXING_LOG");
+
+    private String collectionId;
+    private DataInfo.SegmentInfo segmentInfo;
+    private DeleteIdSet deleteIdSet;
+
+    public NodeApplySegmentJob() {
+    }
+
+    public NodeApplySegmentJob(String collectionId, DataInfo.SegmentInfo segmentInfo, DeleteIdSet deleteIdSet) {
+        this.collectionId = collectionId;
+        this.segmentInfo = segmentInfo;
+        this.deleteIdSet = deleteIdSet;
+    }
+
+    @Override
+    public JobResult doRun() throws FastcatSearchException {
+        long startTime = System.currentTimeMillis();
+        IRService irService = ServiceManager.getInstance().getService(IRService.class);
+        CollectionHandler collectionHandler = irService.collectionHandler(collectionId);
+        if (collectionHandler == null) {
+            throw new FastcatSearchException("Collection [" + collectionId + "] is not loaded.");
+        }
+        File segmentDir = collectionHandler.collectionContext().indexFilePaths().file(segmentInfo.getId());
+        if (segmentInfo.getLiveCount() > 0 && !segmentDir.exists()) {
+            throw new FastcatSearchException("Segment files are not found. " + segmentDir.getAbsolutePath());
+        }
+        try {
+            int totalLiveDocs = applySegment(collectionHandler, segmentInfo, segmentDir, deleteIdSet);
+            long elapsed = System.currentTimeMillis() - startTime;
+            indexingLogger.info("[{}] Dynamic Segment Applied. Inserts[{}] Deletes[{}] Elapsed[{}] TotalLive[{}]", collectionId, segmentInfo.getDocumentCount(), segmentInfo.getDeleteCount(), Formatter.getFormatTime(elapsed), totalLiveDocs);
+        } catch (Exception e) {
+            logger.error(collectionId + " apply segment error!", e);
+            throw new FastcatSearchException(e);
+        }
+        return new JobResult(true);
+    }
+
+    /**
+     * 추가문서가 있거나 삭제문서가 있을때 세그먼트를 적용하고 컬렉션 정보를 저장한다. 적용후 살아있는 문서수를 리턴한다.
+     * 캐시는 호출하는 쪽에서 제거한다.
+     */
+    public static int applySegment(CollectionHandler collectionHandler, DataInfo.SegmentInfo segmentInfo, File segmentDir, DeleteIdSet deleteIdSet) throws IOException, IRException, SettingException {
+        CollectionContext collectionContext = null;
+        if (segmentInfo.getLiveCount() > 0 || deleteIdSet.size() > 0) {
+            collectionContext = collectionHandler.applyNewSegment(segmentInfo, segmentDir, deleteIdSet);
+            CollectionContextUtil.saveCollectionAfterDynamicIndexing(collectionContext);
+        } else {
+            collectionContext = collectionHandler.collectionContext();
+        }
+        return collectionContext.dataInfo().getDocuments() - collectionContext.dataInfo().getDeletes();
+    }
+
+    @Override
+    public void readFrom(DataInput input) throws IOException {
+        collectionId = input.readString();
+        segmentInfo = new DataInfo.SegmentInfo(input.readString(), input.readInt(), input.readInt(), input.readLong());
+        deleteIdSet = new DeleteIdSet();
+        deleteIdSet.readFrom(input);
+    }
+
+    @Override
+    public void writeTo(DataOutput output) throws IOException {
+        output.writeString(collectionId);
+        output.writeString(segmentInfo.getId());
+        output.writeInt(segmentInfo.getDocumentCount());
+        output.writeInt(segmentInfo.getDeleteCount());
+        output.writeLong(segmentInfo.getCreateTime());
+        deleteIdSet.writeTo(output);
+    }
+}
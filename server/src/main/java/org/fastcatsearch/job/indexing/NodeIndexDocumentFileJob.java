@@ -3,21 +3,24 @@ package org.fastcatsearch.job.indexing;
 import org.fastcatsearch.common.io.Streamable;
 import org.fastcatsearch.exception.FastcatSearchException;
 import org.fastcatsearch.http.action.service.indexing.IndexDocumentsAction;
-import org.fastcatsearch.http.action.service.indexing.JSONRequestReader;
 import org.fastcatsearch.http.action.service.indexing.MapDocument;
 import org.fastcatsearch.ir.CollectionDynamicIndexer;
+import org.fastcatsearch.ir.CollectionNRTIndexer;
+import org.fastcatsearch.ir.DocumentBatch;
+import org.fastcatsearch.ir.DocumentBatchReader;
+import org.fastcatsearch.ir.DynamicIndexModule;
 import org.fastcatsearch.ir.IRService;
-import org.fastcatsearch.ir.config.CollectionContext;
+import org.fastcatsearch.ir.common.IRException;
+import org.fastcatsearch.ir.common.SettingException;
 import org.fastcatsearch.ir.config.DataInfo;
 import org.fastcatsearch.ir.index.DeleteIdSet;
 import org.fastcatsearch.ir.io.DataInput;
 import org.fastcatsearch.ir.io.DataOutput;
 import org.fastcatsearch.ir.search.CollectionHandler;
 import org.fastcatsearch.ir.util.Formatter;
-import org.fastcatsearch.job.CacheServiceRestartJob;
+import org.fastcatsearch.job.cluster.NodeQueryCacheInvalidateJob;
 import org.fastcatsearch.job.DataJob;
 import org.fastcatsearch.service.ServiceManager;
-import org.fastcatsearch.util.CollectionContextUtil;
 import org.fastcatsearch.util.FileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,12 +38,12 @@ public class NodeIndexDocumentFileJob extends DataJob implements Streamable {
 
     private String collectionId;
     private String documentId;
-    private String documents;
+    private DocumentBatch documents;
 
     public NodeIndexDocumentFileJob() {
     }
 
-    public NodeIndexDocumentFileJob(String collectionId, String documentId, String documents) {
+    public NodeIndexDocumentFileJob(String collectionId, String documentId, DocumentBatch documents) {
         this.collectionId = collectionId;
         this.documentId = documentId;
         this.documents = documents;
@@ -51,49 +54,36 @@ public class NodeIndexDocumentFileJob extends DataJob implements Streamable {
         try {
             IRService irService = ServiceManager.getInstance().getService(IRService.class);
             CollectionHandler collectionHandler = irService.collectionHandler(collectionId);
+            DynamicIndexModule dynamicIndexModule = irService.getDynamicIndexModule(collectionId);
+            CollectionNRTIndexer nrtIndexer = dynamicIndexModule != null ? dynamicIndexModule.nrtIndexer() : null;
+            if (nrtIndexer != null) {
+                if (documents.isInsertOnly()) {
+                    //추가문서는 NRT 세그먼트로 바로 검색되게 한다.
+                    nrtIndexer.add(documents);
+                    nrtIndexer.refresh();
+                    NodeQueryCacheInvalidateJob.invalidateAllNodes(collectionId);
+                    return new JobResult();
+                }
+                //수정, 삭제문서가 있으면 문서순서를 지키기 위해 모아둔 추가문서를 먼저 세그먼트로 적용한다.
+                nrtIndexer.flush();
+            }
             long startTime = System.currentTimeMillis();
             CollectionDynamicIndexer indexer = null;
             try {
                 indexer = new CollectionDynamicIndexer(documentId, collectionHandler);
-                JSONRequestReader jsonReader = new JSONRequestReader(documents);
-//                List<MapDocument> docList = JSONRequestReader.readMapDocuments(documents);
-                MapDocument doc = null;
-                while((doc = jsonReader.readAsMapDocument()) != null) {
-//                for(MapDocument doc : docList) {
-                    String type = String.valueOf(doc.getType());
-                    Map<String, Object> sourceMap = doc.getSourceMap();
-                    if (type.equals(IndexDocumentsAction.INSERT_TYPE)) {
-                        indexer.insertDocument(sourceMap);
-                    } else if (type.equals(IndexDocumentsAction.UPDATE_TYPE)) {
-                        indexer.updateDocument(sourceMap);
-                    } else if (type.equals(IndexDocumentsAction.DELETE_TYPE)) {
-                        indexer.deleteDocument(sourceMap);
-                    } else {
-                        logger.error("Unknown doctype[{}] {}", doc.getType(), sourceMap);
-                    }
-                }
+                indexDocuments(indexer, documents);
             } finally {
                 DataInfo.SegmentInfo segmentInfo = null;
                 if (indexer != null) {
-                    segmentInfo = indexer.close();
+                    segmentInfo = closeIndexer(indexer, collectionHandler);
 
                     File segmentDir = indexer.getSegmentDir();
                     DeleteIdSet deleteIdSet = indexer.getDeleteIdSet();
-                    if(segmentInfo.getDocumentCount() == 0 || segmentInfo.getLiveCount() <= 0) {
-                        indexingLogger.info("[{}] Delete segment dir due to no documents = {}, deleteIdSet = {}", collectionHandler.collectionId(), segmentDir.getAbsolutePath(), deleteIdSet.size());
-                        FileUtils.deleteDirectory(segmentDir);
-                    }
-
                     //추가문서가 있거나, 또는 삭제문서가 있어야 적용을 한다.
-                    int totalLiveDocs = 0;
+                    int totalLiveDocs = NodeApplySegmentJob.applySegment(collectionHandler, segmentInfo, segmentDir, deleteIdSet);
                     if (segmentInfo.getLiveCount() > 0 || deleteIdSet.size() > 0) {
-                        CollectionContext collectionContext = collectionHandler.applyNewSegment(segmentInfo, segmentDir, deleteIdSet);
-                        CollectionContextUtil.saveCollectionAfterDynamicIndexing(collectionContext);
-                        getJobExecutor().offer(new CacheServiceRestartJob(0));
-                        totalLiveDocs = collectionContext.dataInfo().getDocuments() - collectionContext.dataInfo().getDeletes();
-                    } else {
-                        CollectionContext collectionContext = collectionHandler.collectionContext();
-                        totalLiveDocs = collectionContext.dataInfo().getDocuments() - collectionContext.dataInfo().getDeletes();
+                        //바뀐 컬렉션의 캐시만 제거한다.
+                        NodeQueryCacheInvalidateJob.invalidateAllNodes(collectionId);
                     }
                     long elapsed = System.currentTimeMillis() - startTime;
 
@@ -102,23 +92,58 @@ public class NodeIndexDocumentFileJob extends DataJob implements Streamable {
             }
         } catch (Exception e) {
             logger.error(collectionId + " node dynamic index error!", e);
-            logger.error("[{}] Dynamic index error documents >>\n{}", collectionId, documents);
+            logger.error("[{}] Dynamic index error documents >> {}", collectionId, documents);
         }
 
         return new JobResult();
     }
 
+    /**
+     * 문서묶음을 하나씩 읽어 타입에 따라 추가, 수정, 삭제한다.
+     */
+    public static void indexDocuments(CollectionDynamicIndexer indexer, DocumentBatch documents) throws IRException, IOException {
+        DocumentBatchReader batchReader = documents.reader();
+        MapDocument doc = null;
+        while((doc = batchReader.readAsMapDocument()) != null) {
+            String type = String.valueOf(doc.getType());
+            Map<String, Object> sourceMap = doc.getSourceMap();
+            if (type.equals(IndexDocumentsAction.INSERT_TYPE)) {
+                indexer.insertDocument(sourceMap);
+            } else if (type.equals(IndexDocumentsAction.UPDATE_TYPE)) {
+                indexer.updateDocument(sourceMap);
+            } else if (type.equals(IndexDocumentsAction.DELETE_TYPE)) {
+                indexer.deleteDocument(sourceMap);
+            } else {
+                logger.error("Unknown doctype[{}] {}", doc.getType(), sourceMap);
+            }
+        }
+    }
+
+    /**
+     * 색인을 마치고, 살아있는 문서가 없으면 세그먼트 디렉토리를 지운다.
+     */
+    public static DataInfo.SegmentInfo closeIndexer(CollectionDynamicIndexer indexer, CollectionHandler collectionHandler) throws IRException, SettingException, IndexingStopException, IOException {
+        DataInfo.SegmentInfo segmentInfo = indexer.close();
+        File segmentDir = indexer.getSegmentDir();
+        if(segmentInfo.getDocumentCount() == 0 || segmentInfo.getLiveCount() <= 0) {
+            indexingLogger.info("[{}] Delete segment dir due to no documents = {}, deleteIdSet = {}", collectionHandler.collectionId(), segmentDir.getAbsolutePath(), indexer.getDeleteIdSet().size());
+            FileUtils.deleteDirectory(segmentDir);
+        }
+        return segmentInfo;
+    }
+
     @Override
     public void readFrom(DataInput input) throws IOException {
         collectionId = input.readString();
         documentId = input.readString();
-        documents = input.readString();
+        documents = new DocumentBatch();
+        documents.readFrom(input);
     }
 
     @Override
     public void writeTo(DataOutput output) throws IOException {
         output.writeString(collectionId);
         output.writeString(documentId);
-        output.writeString(documents);
+        documents.writeTo(output);
     }
 }
@@ -0,0 +1,270 @@
+package org.fastcatsearch.job.indexing;
+
+import org.fastcatsearch.cluster.Node;
+import org.fastcatsearch.cluster.NodeService;
+import org.fastcatsearch.common.io.Streamable;
+import org.fastcatsearch.control.ResultFuture;
+import org.fastcatsearch.error.SearchError;
+import org.fastcatsearch.error.ServerErrorCode;
+import org.fastcatsearch.exception.FastcatSearchException;
+import org.fastcatsearch.ir.CollectionDynamicIndexer;
+import org.fastcatsearch.ir.DocumentBatch;
+import org.fastcatsearch.ir.IRService;
+import org.fastcatsearch.ir.config.DataInfo;
+import org.fastcatsearch.ir.index.DeleteIdSet;
+import org.fastcatsearch.ir.io.DataInput;
+import org.fastcatsearch.ir.io.DataOutput;
+import org.fastcatsearch.ir.search.CollectionHandler;
+import org.fastcatsearch.ir.util.Formatter;
+import org.fastcatsearch.job.DataJob;
+import org.fastcatsearch.job.cluster.NodeQueryCacheInvalidateJob;
+import org.fastcatsearch.service.ServiceManager;
+import org.fastcatsearch.task.IndexFileTransfer;
+import org.fastcatsearch.transport.TransportException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 색인노드에서 동적색인 문서로 세그먼트를 한번만 만들고, 세그먼트 파일과 삭제문서를 다른 노드에 전송하여 적용한다.
+ * 각 노드가 같은 문서를 다시 분석하지 않아도 된다.
+ * 세그먼트 전송이나 적용에 실패한 노드에는 문서를 보내 직접 색인하도록 한다.
+ * 다음 묶음보다 먼저 반영되도록 적용과 문서색인이 끝날때까지 기다린다.
+ * replica_timeout_SEC 안에 응답이 없는 노드는 적용이 늦게 끝나 다음 묶음을 덮어쓸수 있으므로 문서를 다시 보내지 않고,
+ * 동기화가 깨진 노드로 표시하여 이후 묶음을 보내지 않는다. 전체색인으로 컬렉션이 다시 로딩되면 표시를 지운다.
+ */
+public class NodeIndexDocumentSegmentJob extends DataJob implements Streamable {
+
+    protected static Logger indexingLogger = LoggerFactory.getLogger("INDEXING_LOG");
+
+    private static final int DEFAULT_REPLICA_TIMEOUT = 60;
+
+    //컬렉션별 동기화가 깨진 노드 아이디.
+    private static final ConcurrentMap<String, Set<String>> outOfSyncNodeMap = new ConcurrentHashMap<String, Set<String>>();
+
+    private String collectionId;
+    private String documentId;
+    private DocumentBatch documents;
+    private List<String> replicaNodeIdList;
+
+    public NodeIndexDocumentSegmentJob() {
+    }
+
+    public NodeIndexDocumentSegmentJob(String collectionId, String documentId, DocumentBatch documents, List<String> replicaNodeIdList) {
+        this.collectionId = collectionId;
+        this.documentId = documentId;
+        this.documents = documents;
+        this.replicaNodeIdList = replicaNodeIdList;
+    }
+
+    @Override
+    public JobResult doRun() throws FastcatSearchException {
+        NodeService nodeService = ServiceManager.getInstance().getService(NodeService.class);
+        long replicaTimeout = environment.settingManager().getSystemSettings().getInt("ir.indexing.dynamic.replica_timeout_SEC", DEFAULT_REPLICA_TIMEOUT) * 1000L;
+        List<Node> replicaNodeList = new ArrayList<Node>();
+        for (Node node : nodeService.getNodeById(replicaNodeIdList)) {
+            if (nodeService.isMyNode(node)) {
+                continue;
+            }
+            if (isOutOfSync(collectionId, node)) {
+                logger.warn("[{}] Skip out of sync node {}. Full indexing is required to resync.", collectionId, node);
+                continue;
+            }
+            replicaNodeList.add(node);
+        }
+        //세그먼트를 받지 못한 노드. 문서를 보내 색인한다.
+        List<Node> fallbackNodeList = new ArrayList<Node>();
+        //세그먼트 적용요청을 보냈는지 여부. 보내기 전에 에러가 나면 모든 노드가 문서로 색인한다.
+        boolean isDistributed = false;
+        try {
+            IRService irService = ServiceManager.getInstance().getService(IRService.class);
+            CollectionHandler collectionHandler = irService.collectionHandler(collectionId);
+            long startTime = System.currentTimeMillis();
+            CollectionDynamicIndexer indexer = null;
+            try {
+                indexer = new CollectionDynamicIndexer(documentId, collectionHandler);
+                NodeIndexDocumentFileJob.indexDocuments(indexer, documents);
+            } finally {
+                if (indexer != null) {
+                    DataInfo.SegmentInfo segmentInfo = NodeIndexDocumentFileJob.closeIndexer(indexer, collectionHandler);
+                    File segmentDir = indexer.getSegmentDir();
+                    DeleteIdSet deleteIdSet = indexer.getDeleteIdSet();
+                    int totalLiveDocs = 0;
+                    if (segmentInfo.getLiveCount() > 0 || deleteIdSet.size() > 0) {
+                        //적용하면 세그먼트 디렉토리가 옮겨지므로 먼저 전송한다.
+                        List<Node> applyNodeList = transferSegment(nodeService, segmentDir, segmentInfo, replicaNodeList, fallbackNodeList);
+                        ResultFuture[] resultFutureList = new ResultFuture[applyNodeList.size()];
+                        for (int i = 0; i < applyNodeList.size(); i++) {
+                            resultFutureList[i] = nodeService.sendRequest(applyNodeList.get(i), new NodeApplySegmentJob(collectionId, segmentInfo.copy(), deleteIdSet));
+                        }
+                        isDistributed = true;
+                        try {
+                            totalLiveDocs = NodeApplySegmentJob.applySegment(collectionHandler, segmentInfo, segmentDir, deleteIdSet);
+                        } finally {
+                            for (int i = 0; i < applyNodeList.size(); i++) {
+                                if (resultFutureList[i] == null) {
+                                    fallbackNodeList.add(applyNodeList.get(i));
+                                    continue;
+                                }
+                                Object result = resultFutureList[i].pollInMillis(replicaTimeout);
+                                if (resultFutureList[i].isSuccess()) {
+                                    continue;
+                                }
+                                if (isUnknownResult(result)) {
+                                    //적용이 늦게 끝날수 있으므로 문서를 다시 보내지 않는다.
+                                    logger.error("[{}] No response of segment apply at {} : {}", collectionId, applyNodeList.get(i), result);
+                                    markOutOfSync(collectionId, applyNodeList.get(i));
+                                } else {
+                                    logger.error("[{}] Fail to apply segment at {} : {}", collectionId, applyNodeList.get(i), result);
+                                    fallbackNodeList.add(applyNodeList.get(i));
+                                }
+                            }
+                        }
+                    } else {
+                        //적용할 문서가 없다.
+                        isDistributed = true;
+                        totalLiveDocs = NodeApplySegmentJob.applySegment(collectionHandler, segmentInfo, segmentDir, deleteIdSet);
+                    }
+                    long elapsed = System.currentTimeMillis() - startTime;
+                    indexingLogger.info("[{}] Dynamic Indexing Done. Inserts[{}] Deletes[{}] Elapsed[{}] TotalLive[{}] Replicas[{}]", collectionId, segmentInfo.getDocumentCount(), segmentInfo.getDeleteCount(), Formatter.getFormatTime(elapsed), totalLiveDocs, replicaNodeList.size() - fallbackNodeList.size());
+                }
+            }
+        } catch (Exception e) {
+            logger.error(collectionId + " node dynamic index error!", e);
+            logger.error("[{}] Dynamic index error documents >> {}", collectionId, documents);
+            if (!isDistributed) {
+                fallbackNodeList.clear();
+                fallbackNodeList.addAll(replicaNodeList);
+            }
+        }
+
+        if (fallbackNodeList.size() > 0) {
+            logger.warn("[{}] Send documents instead of segment to {}", collectionId, fallbackNodeList);
+            sendDocuments(nodeService, fallbackNodeList, replicaTimeout);
+        }
+        //바뀐 컬렉션의 캐시만 제거한다.
+        NodeQueryCacheInvalidateJob.invalidateAllNodes(collectionId);
+        return new JobResult(true);
+    }
+
+    /*
+     * 문서를 보내 노드에서 직접 색인하도록 하고, 다음 묶음과 순서가 바뀌지 않도록 끝날때까지 기다린다.
+     */
+    private void sendDocuments(NodeService nodeService, List<Node> nodeList, long timeout) {
+        NodeIndexDocumentFileJob indexFileDocumentJob = new NodeIndexDocumentFileJob(collectionId, documentId, documents);
+        ResultFuture[] resultFutureList = new ResultFuture[nodeList.size()];
+        for (int i = 0; i < nodeList.size(); i++) {
+            resultFutureList[i] = nodeService.sendRequest(nodeList.get(i), indexFileDocumentJob);
+        }
+        for (int i = 0; i < nodeList.size(); i++) {
+            if (resultFutureList[i] == null) {
+                logger.error("[{}] Fail to send documents {} to {}", collectionId, documentId, nodeList.get(i));
+                continue;
+            }
+            Object result = resultFutureList[i].pollInMillis(timeout);
+            if (!resultFutureList[i].isSuccess()) {
+                logger.error("[{}] Fail to index documents {} at {} : {}", collectionId, documentId, nodeList.get(i), result);
+                if (isUnknownResult(result)) {
+                    markOutOfSync(collectionId, nodeList.get(i));
+                }
+            }
+        }
+    }
+
+    /*
+     * 제한시간이 지났거나 연결이 끊겨 노드에서 작업이 끝났는지 알수 없는 결과.
+     */
+    private static boolean isUnknownResult(Object result) {
+        if (result == null) {
+            return true;
+        }
+        return result instanceof SearchError && ((SearchError) result).getErrorCode() == ServerErrorCode.JOB_TIMEOUT_ERROR;
+    }
+
+    private static void markOutOfSync(String collectionId, Node node) {
+        Set<String> nodeIdSet = outOfSyncNodeMap.get(collectionId);
+        if (nodeIdSet == null) {
+            Set<String> newSet = Collections.synchronizedSet(new HashSet<String>());
+            nodeIdSet = outOfSyncNodeMap.putIfAbsent(collectionId, newSet);
+            if (nodeIdSet == null) {
+                nodeIdSet = newSet;
+            }
+        }
+        nodeIdSet.add(node.id());
+        indexingLogger.error("[{}] Node {} is out of sync. Dynamic indexing is not sent to it until the next full indexing.", collectionId, node);
+    }
+
+    public static boolean isOutOfSync(String collectionId, Node node) {
+        Set<String> nodeIdSet = outOfSyncNodeMap.get(collectionId);
+        return nodeIdSet != null && nodeIdSet.contains(node.id());
+    }
+
+    /**
+     * 전체색인이 노드들에 다시 로딩되면 동기화가 깨진 노드 표시를 지운다.
+     */
+    public static void clearOutOfSync(String collectionId) {
+        if (outOfSyncNodeMap.remove(collectionId) != null) {
+            indexingLogger.info("[{}] Out of sync nodes are cleared by collection reload.", collectionId);
+        }
+    }
+
+    /*
+     * 세그먼트 파일을 노드별로 전송하고, 적용할 노드 리스트를 리턴한다. 문서가 없으면 삭제문서만 적용하므로 전송하지 않는다.
+     */
+    private List<Node> transferSegment(NodeService nodeService, File segmentDir, DataInfo.SegmentInfo segmentInfo, List<Node> replicaNodeList, List<Node> fallbackNodeList) {
+        List<Node> applyNodeList = new ArrayList<Node>();
+        IndexFileTransfer indexFileTransfer = new IndexFileTransfer(environment);
+        for (Node node : replicaNodeList) {
+            if (!node.isActive()) {
+                fallbackNodeList.add(node);
+                continue;
+            }
+            if (segmentInfo.getLiveCount() > 0) {
+                long st = System.nanoTime();
+                try {
+                    indexFileTransfer.transferFile(segmentDir, nodeService, node);
+                } catch (TransportException e) {
+                    logger.error("[{}] Fail to send segment {} to {} : {}", collectionId, segmentDir.getName(), node, e.getMessage());
+                    fallbackNodeList.add(node);
+                    continue;
+                }
+                logger.debug("[{}] Send segment {} to {}. time : {}ms", collectionId, segmentDir.getName(), node, (System.nanoTime() - st) / 1000000);
+            }
+            applyNodeList.add(node);
+        }
+        return applyNodeList;
+    }
+
+    @Override
+    public void readFrom(DataInput input) throws IOException {
+        collectionId = input.readString();
+        documentId = input.readString();
+        documents = new DocumentBatch();
+        documents.readFrom(input);
+        int size = input.readVInt();
+        replicaNodeIdList = new ArrayList<String>(size);
+        for (int i = 0; i < size; i++) {
+            replicaNodeIdList.add(input.readString());
+        }
+    }
+
+    @Override
+    public void writeTo(DataOutput output) throws IOException {
+        output.writeString(collectionId);
+        output.writeString(documentId);
+        documents.writeTo(output);
+        output.writeVInt(replicaNodeIdList.size());
+        for (String nodeId : replicaNodeIdList) {
+            output.writeString(nodeId);
+        }
+    }
+}
@@ -2,6 +2,8 @@ package org.fastcatsearch.job.internal;
 
 import java.io.IOException;
 
+import org.fastcatsearch.common.QueryCacheGeneration;
+import org.fastcatsearch.common.ShardResultCacheUtils;
 import org.fastcatsearch.common.io.Streamable;
 import org.fastcatsearch.error.SearchError;
 import org.fastcatsearch.error.ServerErrorCode;
@@ -41,6 +43,23 @@ public class InternalGroupSearchJob extends Job implements Streamable {
 
         IRService irService = ServiceManager.getInstance().getService(IRService.class);
 
+        //노캐시 옵션이 없으면 데이터노드의 shard 결과캐시를 확인한다.
+        String cacheKey = null;
+        QueryCacheGeneration cacheGeneration = null;
+        if (!q.getMeta().isSearchOption(Query.SEARCH_OPT_NOCACHE)) {
+            cacheKey = ShardResultCacheUtils.makeKey(ShardResultCacheUtils.TYPE_GROUP, queryMap, false);
+        }
+        if (cacheKey != null) {
+            cacheGeneration = irService.shardResultCache().generation(collectionId);
+            byte[] cachedData = irService.shardResultCache().get(cacheKey, cacheGeneration);
+            if (cachedData != null) {
+                try {
+                    result = ShardResultCacheUtils.fromBytes(cachedData, new StreamableGroupsData()).groupData();
+                } catch (IOException e) {
+                    logger.error("error while reading cached group data.", e);
+                }
+            }
+        }
 
         //Not Exist in Cache
         if(result == null){
@@ -54,6 +73,13 @@ public class InternalGroupSearchJob extends Job implements Streamable {
             } catch (Throwable e) {
                 throw new SearchError(ServerErrorCode.SERVER_SEARCH_ERROR, e.getMessage());
             }
+            if (cacheKey != null) {
+                try {
+                    irService.shardResultCache().put(cacheKey, ShardResultCacheUtils.toBytes(new StreamableGroupsData(result)), cacheGeneration);
+                } catch (IOException e) {
+                    logger.error("error while caching group data.", e);
+                }
+            }
         }
 
         return new JobResult(new StreamableGroupsData(result));
@@ -3,6 +3,8 @@ package org.fastcatsearch.job.internal;
 import java.io.IOException;
 import java.util.Map;
 
+import org.fastcatsearch.common.QueryCacheGeneration;
+import org.fastcatsearch.common.ShardResultCacheUtils;
 import org.fastcatsearch.common.io.Streamable;
 import org.fastcatsearch.error.SearchAbortError;
 import org.fastcatsearch.error.SearchError;
@@ -29,11 +31,12 @@ import org.fastcatsearch.util.SearchLogger;
 
 public class InternalSearchJob extends Job implements Streamable {
     private static final long serialVersionUID = 4998297114497342795L;
-    private QueryMap queryMap;
-    private boolean forMerging;
+    protected QueryMap queryMap;
+    protected boolean forMerging;
 
     private CollectionSearcher boostCollectionSearcher;
-    private CollectionSearcher mainCollectionSearcher;
+    protected CollectionSearcher mainCollectionSearcher;
+    protected transient boolean isCachedResult;
 
     public InternalSearchJob(){}
 
@@ -91,47 +94,8 @@ public class InternalSearchJob extends Job implements Streamable {
             }
 
             IRService irService = ServiceManager.getInstance().getService(IRService.class);
-
-            //Not Exist in Cache
-            if(result == null){
-                CollectionHandler collectionHandler = irService.collectionHandler(collectionId);
-                if(collectionHandler == null){
-                    throw new SearchError(ServerErrorCode.COLLECTION_NOT_FOUND, collectionId);
-                }
-                Query boostQuery = q.getBoostQuery();
-                PkScoreList pkScoreList = null;
-                if(boostQuery != null) {
-                    try {
-                        String boostKeyword = boostQuery.getMeta().getUserData("KEYWORD");
-                        pkScoreList = new PkScoreList(boostKeyword);
-                        String boostCollectionId = boostQuery.getMeta().collectionId();
-                        CollectionHandler boostCollectionHandler = irService.collectionHandler(boostCollectionId);
-                        boostCollectionSearcher = boostCollectionHandler.searcher();
-                        InternalSearchResult r = boostCollectionSearcher.searchInternal(boostQuery, forMerging);
-                        for (HitElement e : r.getHitElementList()) {
-                            if (e == null) {
-                                continue;
-                            }
-                            /**
-                             * 첫번째 필드가 ID 이어야 한다.
-                             */
-//                            logger.debug("e.docNo() > {}", e.docNo());
-                            String id = boostCollectionSearcher.requestDocument(e.segmentId(), e.docNo()).get(1).toString();
-//                            logger.debug("field > {}", id);
-                            int score = e.score();
-                            pkScoreList.add(new PkScore(id, score));
-                        }
-                    } catch(Throwable t) {
-                        logger.error("error while boosting query > " + boostQuery, t);
-                    }
-                }
-                mainCollectionSearcher = collectionHandler.searcher();
-                result = mainCollectionSearcher.searchInternal(q, forMerging, pkScoreList);
-                long elapsed = (System.nanoTime() - st) / 1000000;
-                if(elapsed > getTimeout()) {
-                    throw new SearchError(ServerErrorCode.SEARCH_TIMEOUT_ERROR, String.valueOf(getTimeout()));
-                }
-            }
+            result = searchCached(irService, collectionId, q, st);
+            isCache = isCachedResult;
 
             return new JobResult(new StreamableInternalSearchResult(result));
 
@@ -149,6 +113,86 @@ public class InternalSearchJob extends Job implements Streamable {
 
     }
 
+    /**
+     * 노캐시 옵션이 없으면 데이터노드의 shard 결과캐시를 확인하고, 없으면 검색하여 캐시에 넣는다.
+     * 캐시에서 가져온 결과이면 isCachedResult 가 true 가 된다.
+     * */
+    protected InternalSearchResult searchCached(IRService irService, String collectionId, Query q, long st) throws Exception {
+        isCachedResult = false;
+        Metadata meta = q.getMeta();
+        //explain 결과는 직렬화시 유지되지 않으므로 캐시하지 않는다.
+        String cacheKey = null;
+        QueryCacheGeneration cacheGeneration = null;
+        if (!meta.isSearchOption(Query.SEARCH_OPT_NOCACHE) && !meta.isSearchOption(Query.SEARCH_OPT_EXPLAIN)) {
+            cacheKey = ShardResultCacheUtils.makeKey(ShardResultCacheUtils.TYPE_SEARCH, queryMap, forMerging);
+        }
+        if (cacheKey != null) {
+            //검색전의 세대. 부스트 컬렉션이 있으면 함께 본다.
+            String cacheCollectionIds = collectionId;
+            Query boostQuery = q.getBoostQuery();
+            if (boostQuery != null && boostQuery.getMeta().collectionId() != null) {
+                cacheCollectionIds += "," + boostQuery.getMeta().collectionId();
+            }
+            cacheGeneration = irService.shardResultCache().generation(cacheCollectionIds);
+            byte[] cachedData = irService.shardResultCache().get(cacheKey, cacheGeneration);
+            if (cachedData != null) {
+                isCachedResult = true;
+                return ShardResultCacheUtils.fromBytes(cachedData, new StreamableInternalSearchResult()).getInternalSearchResult();
+            }
+        }
+
+        //Not Exist in Cache
+        CollectionHandler collectionHandler = irService.collectionHandler(collectionId);
+        if(collectionHandler == null){
+            throw new SearchError(ServerErrorCode.COLLECTION_NOT_FOUND, collectionId);
+        }
+        InternalSearchResult result = searchInternal(collectionHandler, q);
+        long elapsed = (System.nanoTime() - st) / 1000000;
+        if(elapsed > getTimeout()) {
+            throw new SearchError(ServerErrorCode.SEARCH_TIMEOUT_ERROR, String.valueOf(getTimeout()));
+        }
+        if (cacheKey != null) {
+            irService.shardResultCache().put(cacheKey, ShardResultCacheUtils.toBytes(new StreamableInternalSearchResult(result)), cacheGeneration);
+        }
+        return result;
+    }
+
+    /**
+     * 부스트 쿼리가 있으면 부스트 컬렉션을 먼저 검색하여 점수를 반영한 뒤 컬렉션을 검색한다.
+     * */
+    protected InternalSearchResult searchInternal(CollectionHandler collectionHandler, Query q) throws Exception {
+        IRService irService = ServiceManager.getInstance().getService(IRService.class);
+        Query boostQuery = q.getBoostQuery();
+        PkScoreList pkScoreList = null;
+        if(boostQuery != null) {
+            try {
+                String boostKeyword = boostQuery.getMeta().getUserData("KEYWORD");
+                pkScoreList = new PkScoreList(boostKeyword);
+                String boostCollectionId = boostQuery.getMeta().collectionId();
+                CollectionHandler boostCollectionHandler = irService.collectionHandler(boostCollectionId);
+                boostCollectionSearcher = boostCollectionHandler.searcher();
+                InternalSearchResult r = boostCollectionSearcher.searchInternal(boostQuery, forMerging);
+                for (HitElement e : r.getHitElementList()) {
+                    if (e == null) {
+                        continue;
+                    }
+                    /**
+                     * 첫번째 필드가 ID 이어야 한다.
+                     */
+//                            logger.debug("e.docNo() > {}", e.docNo());
+                    String id = boostCollectionSearcher.requestDocument(e.segmentId(), e.docNo()).get(1).toString();
+//                            logger.debug("field > {}", id);
+                    int score = e.score();
+                    pkScoreList.add(new PkScore(id, score));
+                }
+            } catch(Throwable t) {
+                logger.error("error while boosting query > " + boostQuery, t);
+            }
+        }
+        mainCollectionSearcher = collectionHandler.searcher();
+        return mainCollectionSearcher.searchInternal(q, forMerging, pkScoreList);
+    }
+
     @Override
     public void readFrom(DataInput input) throws IOException {
         setTimeout(input.readLong(), input.readBoolean()); //타임아웃.
@@ -0,0 +1,163 @@
+package org.fastcatsearch.job.internal;
+
+import java.util.List;
+import java.util.Map;
+
+import org.fastcatsearch.error.SearchAbortError;
+import org.fastcatsearch.error.SearchError;
+import org.fastcatsearch.error.ServerErrorCode;
+import org.fastcatsearch.exception.FastcatSearchException;
+import org.fastcatsearch.ir.IRService;
+import org.fastcatsearch.ir.query.InternalSearchResult;
+import org.fastcatsearch.ir.query.Metadata;
+import org.fastcatsearch.ir.query.Query;
+import org.fastcatsearch.ir.query.QueryModifier;
+import org.fastcatsearch.ir.query.Result;
+import org.fastcatsearch.ir.query.Row;
+import org.fastcatsearch.ir.query.View;
+import org.fastcatsearch.ir.query.ViewContainer;
+import org.fastcatsearch.ir.search.CollectionHandler;
+import org.fastcatsearch.ir.search.DocIdList;
+import org.fastcatsearch.ir.search.DocumentResult;
+import org.fastcatsearch.ir.search.HitElement;
+import org.fastcatsearch.ir.settings.FieldSetting;
+import org.fastcatsearch.query.QueryMap;
+import org.fastcatsearch.query.QueryParser;
+import org.fastcatsearch.service.ServiceManager;
+import org.fastcatsearch.transport.vo.StreamableResult;
+import org.fastcatsearch.util.SearchLogger;
+
+/*
+ * 단일 컬렉션 검색에서 검색과 문서조회를 데이터노드에서 한번에 수행하여 결과를 만드는 job.
+ * InternalSearchJob 과 InternalDocumentSearchJob 을 차례로 보내는 것과 같은 결과를 한번의 요청으로 받는다.
+ * 같은 searcher 로 문서를 가져오므로 검색과 문서조회 사이에 세그먼트가 바뀌지 않는다.
+ * 검색결과는 InternalSearchJob 과 같은 shard 결과캐시를 사용한다. 캐시된 결과는 현재 searcher 로 문서를 가져오며,
+ * 그 사이 세그먼트가 바뀌어 문서를 가져오지 못하면 캐시없이 다시 검색한다.
+ * 그룹결과는 GroupsData 로 전달하며, explain 결과는 포함하지 않는다.
+ * */
+public class InternalSingleSearchJob extends InternalSearchJob {
+    private static final long serialVersionUID = -2178324536730946815L;
+
+    public InternalSingleSearchJob(){}
+
+    public InternalSingleSearchJob(QueryMap queryMap){
+        super(queryMap, false);
+    }
+
+    @Override
+    public JobResult doRun() throws FastcatSearchException {
+
+        long st = System.nanoTime();
+        Query q = QueryParser.getInstance().parseQuery(queryMap);
+        String collectionId = queryMap.collectionId();
+        Metadata meta = q.getMeta();
+        String searchKeyword = meta.getUserData("KEYWORD");
+        Result result = null;
+        String tagString = "";
+        String errorMsg = null;
+        try {
+            QueryModifier queryModifier = meta.queryModifier();
+            //쿼리모디파이.
+            if (queryModifier != null) {
+                q = queryModifier.modify(collectionId, q);
+                meta = q.getMeta();
+            }
+
+            Map<String, String> userDataMap = meta.userData();
+            if(userDataMap != null) {
+                StringBuilder sb = new StringBuilder();
+                for(Map.Entry<String, String> e : userDataMap.entrySet()) {
+                    if(! "KEYWORD".equals(e.getKey())) {
+                        if(sb.length() > 0) {
+                            sb.append(",");
+                        }
+                        sb.append(e.getKey()).append("=").append(e.getValue());
+                    }
+                }
+
+                tagString = sb.toString();
+            }
+
+            IRService irService = ServiceManager.getInstance().getService(IRService.class);
+            CollectionHandler collectionHandler = irService.collectionHandler(collectionId);
+            if(collectionHandler == null){
+                throw new SearchError(ServerErrorCode.COLLECTION_NOT_FOUND, collectionId);
+            }
+
+            InternalSearchResult internalSearchResult = searchCached(irService, collectionId, q, st);
+            if (isCachedResult) {
+                mainCollectionSearcher = collectionHandler.searcher();
+            }
+
+            ViewContainer views = q.getViews();
+            if(views == null) {
+                views = new ViewContainer();
+            }
+            if(views.size() == 0) {
+                List<FieldSetting> list = collectionHandler.schema().schemaSetting().getFieldSettingList();
+                if(list.size() > 0) {
+                    views.add(new View(list.get(0).getId()));
+                }
+            }
+
+            DocumentResult documentResult = null;
+            try {
+                documentResult = searchDocument(internalSearchResult, views, meta);
+            } catch (Exception e) {
+                if (!isCachedResult) {
+                    throw e;
+                }
+                logger.debug("cached result is stale. search again. {}", e.toString());
+                isCachedResult = false;
+                internalSearchResult = searchInternal(collectionHandler, q);
+                documentResult = searchDocument(internalSearchResult, views, meta);
+            }
+
+            int realSize = internalSearchResult.getCount();
+            HitElement[] hitElementList = internalSearchResult.getHitElementList();
+            Row[] rows = documentResult.rows();
+            Row[][] bundleRows = documentResult.bundleRows();
+            int[] bundleTotalSizeList = new int[realSize];
+            for (int i = 0; i < realSize; i++) {
+                HitElement el = hitElementList[i];
+                rows[i].setScore(el.score());
+                rows[i].setHit(el.hit());
+                rows[i].setDistance(el.distance());
+                rows[i].setFilterMatchOrder(el.filterMatchOrder());
+                bundleTotalSizeList[i] = el.getTotalBundleSize();
+            }
+
+            long elapsed = (System.nanoTime() - st) / 1000000;
+            if(elapsed > getTimeout()) {
+                throw new SearchError(ServerErrorCode.SEARCH_TIMEOUT_ERROR, String.valueOf(getTimeout()));
+            }
+
+            result = new Result(rows, bundleRows, bundleTotalSizeList, null, documentResult.fieldIdList(), realSize, internalSearchResult.getTotalCount(), meta.start(), null, null);
+            return new JobResult(new StreamableResult(result, internalSearchResult.getGroupsData()));
+
+        } catch (SearchError e){
+            errorMsg = e.getMessage();
+            throw e;
+        } catch (SearchAbortError e){
+            errorMsg = e.getMessage();
+            throw e;
+        } catch(Exception e){
+            throw new FastcatSearchException(e);
+        } finally {
+            SearchLogger.writeSearchLog(collectionId, searchKeyword, result, (System.nanoTime() - st) / 1000000, isCachedResult, errorMsg, tagString);
+        }
+
+    }
+
+    private DocumentResult searchDocument(InternalSearchResult internalSearchResult, ViewContainer views, Metadata meta) throws Exception {
+        int realSize = internalSearchResult.getCount();
+        HitElement[] hitElementList = internalSearchResult.getHitElementList();
+        DocIdList docIdList = new DocIdList(realSize);
+        for (int i = 0; i < realSize; i++) {
+            HitElement el = hitElementList[i];
+            //묶음 문서 존재시 같이 넣어준다.
+            docIdList.add(el.segmentId(), el.docNo(), el.getBundleDocIdList());
+        }
+        return mainCollectionSearcher.searchDocument(docIdList, views, meta.tags(), internalSearchResult.getHighlightInfo());
+    }
+}
@@ -0,0 +1,112 @@
+package org.fastcatsearch.job.management;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.fastcatsearch.common.QueryCacheModule;
+import org.fastcatsearch.common.io.Streamable;
+import org.fastcatsearch.exception.FastcatSearchException;
+import org.fastcatsearch.ir.IRService;
+import org.fastcatsearch.ir.io.DataInput;
+import org.fastcatsearch.ir.io.DataOutput;
+import org.fastcatsearch.job.Job;
+import org.fastcatsearch.service.ServiceManager;
+import org.fastcatsearch.util.TinyLFUCache;
+
+/**
+ * 노드의 검색결과 캐시별 적중률, 제거수, 크기 통계를 가져온다.
+ * */
+public class GetQueryCacheStatsJob extends Job {
+
+	private static final long serialVersionUID = 3518239465827349043L;
+
+	@Override
+	public JobResult doRun() throws FastcatSearchException {
+		IRService irService = ServiceManager.getInstance().getService(IRService.class);
+		List<CacheStats> cacheStatsList = new ArrayList<CacheStats>();
+		for (QueryCacheModule<String, ?> queryCache : irService.queryCacheList()) {
+			TinyLFUCache<String, ?> cache = queryCache.cache();
+			CacheStats stats = new CacheStats();
+			stats.name = queryCache.name();
+			stats.size = cache.size();
+			stats.maxSize = cache.maxEntries();
+			stats.weight = cache.weight();
+			stats.maxWeight = cache.maxWeight();
+			stats.hitCount = cache.hitCount();
+			stats.missCount = cache.missCount();
+			stats.evictionCount = cache.evictionCount();
+			stats.rejectCount = cache.rejectCount();
+			cacheStatsList.add(stats);
+		}
+		return new JobResult(new QueryCacheStatsInfo(cacheStatsList));
+	}
+
+	public static class CacheStats {
+		public String name;
+		public int size;
+		public int maxSize;
+		public long weight;
+		public long maxWeight;
+		public long hitCount;
+		public long missCount;
+		public long evictionCount;
+		public long rejectCount;
+
+		public double hitRatio() {
+			long total = hitCount + missCount;
+			return total > 0 ? (double) hitCount / total : 0;
+		}
+	}
+
+	public static class QueryCacheStatsInfo implements Streamable {
+
+		private List<CacheStats> cacheStatsList;
+
+		public QueryCacheStatsInfo() {
+		}
+
+		public QueryCacheStatsInfo(List<CacheStats> cacheStatsList) {
+			this.cacheStatsList = cacheStatsList;
+		}
+
+		public List<CacheStats> getCacheStatsList() {
+			return cacheStatsList;
+		}
+
+		@Override
+		public void readFrom(DataInput input) throws IOException {
+			int size = input.readVInt();
+			cacheStatsList = new ArrayList<CacheStats>(size);
+			for (int i = 0; i < size; i++) {
+				CacheStats stats = new CacheStats();
+				stats.name = input.readString();
+				stats.size = input.readVInt();
+				stats.maxSize = input.readVInt();
+				stats.weight = input.readVLong();
+				stats.maxWeight = input.readVLong();
+				stats.hitCount = input.readVLong();
+				stats.missCount = input.readVLong();
+				stats.evictionCount = input.readVLong();
+				stats.rejectCount = input.readVLong();
+				cacheStatsList.add(stats);
+			}
+		}
+
+		@Override
+		public void writeTo(DataOutput output) throws IOException {
+			output.writeVInt(cacheStatsList.size());
+			for (CacheStats stats : cacheStatsList) {
+				output.writeString(stats.name);
+				output.writeVInt(stats.size);
+				output.writeVInt(stats.maxSize);
+				output.writeVLong(stats.weight);
+				output.writeVLong(stats.maxWeight);
+				output.writeVLong(stats.hitCount);
+				output.writeVLong(stats.missCount);
+				output.writeVLong(stats.evictionCount);
+				output.writeVLong(stats.rejectCount);
+			}
+		}
+	}
+}
@@ -0,0 +1,110 @@
+package org.fastcatsearch.job.management;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.fastcatsearch.common.io.Streamable;
+import org.fastcatsearch.exception.FastcatSearchException;
+import org.fastcatsearch.ir.document.DocumentBlockCache;
+import org.fastcatsearch.ir.io.DataInput;
+import org.fastcatsearch.ir.io.DataOutput;
+import org.fastcatsearch.ir.search.FilterBitSetCachePool;
+import org.fastcatsearch.job.Job;
+
+/**
+ * 노드의 세그먼트 캐시(필터 비트셋, 저장문서 블럭)별 적중률, 제거수, 메모리 통계를 가져온다.
+ * */
+public class GetSegmentCacheStatsJob extends Job {
+
+	private static final long serialVersionUID = -2291374086583104826L;
+
+	@Override
+	public JobResult doRun() throws FastcatSearchException {
+		List<CacheStats> cacheStatsList = new ArrayList<CacheStats>();
+		FilterBitSetCachePool pool = FilterBitSetCachePool.getInstance();
+		CacheStats stats = new CacheStats();
+		stats.name = "filterBitSet";
+		stats.size = pool.size();
+		stats.bytes = pool.bytes();
+		stats.maxBytes = pool.maxBytes();
+		stats.hitCount = pool.hitCount();
+		stats.missCount = pool.missCount();
+		stats.evictionCount = pool.evictionCount();
+		cacheStatsList.add(stats);
+
+		DocumentBlockCache blockCache = DocumentBlockCache.getInstance();
+		stats = new CacheStats();
+		stats.name = "documentBlock";
+		stats.size = blockCache.size();
+		stats.bytes = blockCache.bytes();
+		stats.maxBytes = blockCache.maxBytes();
+		stats.hitCount = blockCache.hitCount();
+		stats.missCount = blockCache.missCount();
+		stats.evictionCount = blockCache.evictionCount();
+		cacheStatsList.add(stats);
+		return new JobResult(new SegmentCacheStatsInfo(cacheStatsList));
+	}
+
+	public static class CacheStats {
+		public String name;
+		public int size;
+		public long bytes;
+		public long maxBytes;
+		public long hitCount;
+		public long missCount;
+		public long evictionCount;
+
+		public double hitRatio() {
+			long total = hitCount + missCount;
+			return total > 0 ? (double) hitCount / total : 0;
+		}
+	}
+
+	public static class SegmentCacheStatsInfo implements Streamable {
+
+		private List<CacheStats> cacheStatsList;
+
+		public SegmentCacheStatsInfo() {
+		}
+
+		public SegmentCacheStatsInfo(List<CacheStats> cacheStatsList) {
+			this.cacheStatsList = cacheStatsList;
+		}
+
+		public List<CacheStats> getCacheStatsList() {
+			return cacheStatsList;
+		}
+
+		@Override
+		public void readFrom(DataInput input) throws IOException {
+			int size = input.readVInt();
+			cacheStatsList = new ArrayList<CacheStats>(size);
+			for (int i = 0; i < size; i++) {
+				CacheStats stats = new CacheStats();
+				stats.name = input.readString();
+				stats.size = input.readVInt();
+				stats.bytes = input.readVLong();
+				stats.maxBytes = input.readVLong();
+				stats.hitCount = input.readVLong();
+				stats.missCount = input.readVLong();
+				stats.evictionCount = input.readVLong();
+				cacheStatsList.add(stats);
+			}
+		}
+
+		@Override
+		public void writeTo(DataOutput output) throws IOException {
+			output.writeVInt(cacheStatsList.size());
+			for (CacheStats stats : cacheStatsList) {
+				output.writeString(stats.name);
+				output.writeVInt(stats.size);
+				output.writeVLong(stats.bytes);
+				output.writeVLong(stats.maxBytes);
+				output.writeVLong(stats.hitCount);
+				output.writeVLong(stats.missCount);
+				output.writeVLong(stats.evictionCount);
+			}
+		}
+	}
+}
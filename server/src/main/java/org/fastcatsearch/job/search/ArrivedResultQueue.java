@@ -0,0 +1,149 @@
+package org.fastcatsearch.job.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.fastcatsearch.cluster.Node;
+import org.fastcatsearch.control.ResultFuture;
+
+/**
+ * 여러 노드에 보낸 요청의 결과를 도착하는 순서대로 꺼낸다.
+ * 컬렉션(slot)마다 요청을 여러개(hedged 요청) 보낼수 있으며, 먼저 성공한 결과 하나만 리턴한다.
+ * slot 의 모든 요청이 실패해야 실패결과를 리턴한다.
+ * */
+public class ArrivedResultQueue {
+
+	private final BlockingQueue<Request> arrivedQueue = new LinkedBlockingQueue<Request>();
+	private final List<Request>[] requestList;
+	private final boolean[] isDone;
+	private final int[] failCount;
+	private int pendingCount;
+
+	public ArrivedResultQueue(int slotSize) {
+		requestList = new List[slotSize];
+		isDone = new boolean[slotSize];
+		failCount = new int[slotSize];
+	}
+
+	/**
+	 * slot 에 요청결과를 등록한다. slot 의 첫 요청이면 대기중인 slot 이 된다.
+	 * */
+	public void add(int slot, Node node, ResultFuture resultFuture) {
+		if (isDone[slot]) {
+			return;
+		}
+		if (requestList[slot] == null) {
+			requestList[slot] = new ArrayList<Request>(2);
+			pendingCount++;
+		}
+		final Request request = new Request(slot, node, resultFuture);
+		requestList[slot].add(request);
+		resultFuture.addCompletionListener(new ResultFuture.CompletionListener() {
+			@Override
+			public void onComplete(boolean isSuccess, long elapsedTime) {
+				arrivedQueue.offer(request);
+			}
+		});
+	}
+
+	public boolean isPending(int slot) {
+		return requestList[slot] != null && !isDone[slot];
+	}
+
+	public int pendingCount() {
+		return pendingCount;
+	}
+
+	/**
+	 * 다음에 끝난 slot 의 결과. waitTime(ms) 안에 끝난 slot 이 없으면 null.
+	 * */
+	public Arrived poll(long waitTime) throws InterruptedException {
+		long deadline = waitTime >= Long.MAX_VALUE / 2 ? Long.MAX_VALUE : System.currentTimeMillis() + waitTime;
+		while (pendingCount > 0) {
+			long remainTime = deadline - System.currentTimeMillis();
+			Request request = remainTime > 0 ? arrivedQueue.poll(remainTime, TimeUnit.MILLISECONDS) : arrivedQueue.poll();
+			if (request == null) {
+				return null;
+			}
+			int slot = request.slot;
+			if (isDone[slot]) {
+				//다른 요청의 결과가 이미 사용되었다.
+				continue;
+			}
+			//결과가 큐에 들어간 후 알림이 오므로 바로 꺼낼수 있다. 타임아웃으로 끝난 요청은 결과가 없다.
+			Object result = request.resultFuture.pollInMillis(0);
+			boolean isSuccess = request.resultFuture.isSuccess() && result != null;
+			if (!isSuccess && ++failCount[slot] < requestList[slot].size()) {
+				//아직 결과를 기다리는 다른 요청이 있다.
+				continue;
+			}
+			isDone[slot] = true;
+			pendingCount--;
+			return new Arrived(slot, request.node, isSuccess, result);
+		}
+		return null;
+	}
+
+	/**
+	 * 결과가 오지 않은 slot 의 요청을 모두 타임아웃 처리하고, 해당 slot 목록을 리턴한다.
+	 * */
+	public List<Integer> expirePending() {
+		List<Integer> slotList = new ArrayList<Integer>();
+		for (int slot = 0; slot < requestList.length; slot++) {
+			if (isPending(slot)) {
+				isDone[slot] = true;
+				for (Request request : requestList[slot]) {
+					request.resultFuture.expire();
+				}
+				slotList.add(slot);
+			}
+		}
+		pendingCount = 0;
+		return slotList;
+	}
+
+	private static class Request {
+		final int slot;
+		final Node node;
+		final ResultFuture resultFuture;
+
+		Request(int slot, Node node, ResultFuture resultFuture) {
+			this.slot = slot;
+			this.node = node;
+			this.resultFuture = resultFuture;
+		}
+	}
+
+	public static class Arrived {
+		private final int slot;
+		private final Node node;
+		private final boolean isSuccess;
+		private final Object result;
+
+		Arrived(int slot, Node node, boolean isSuccess, Object result) {
+			this.slot = slot;
+			this.node = node;
+			this.isSuccess = isSuccess;
+			this.result = result;
+		}
+
+		public int slot() {
+			return slot;
+		}
+
+		public Node node() {
+			return node;
+		}
+
+		public boolean isSuccess() {
+			return isSuccess;
+		}
+
+		public Object result() {
+			return result;
+		}
+	}
+}
@@ -6,6 +6,7 @@ import java.util.Random;
 
 import org.fastcatsearch.cluster.Node;
 import org.fastcatsearch.cluster.NodeService;
+import org.fastcatsearch.common.QueryCacheGeneration;
 import org.fastcatsearch.common.Strings;
 import org.fastcatsearch.control.ResultFuture;
 import org.fastcatsearch.error.SearchError;
@@ -46,8 +47,9 @@ public class ClusterGroupSearchJob extends Job {
 		}
 		
 		IRService irService = ServiceManager.getInstance().getService(IRService.class);
+		QueryCacheGeneration cacheGeneration = irService.groupingCache().generation(q.getMeta().collectionId());
 		if(!noCache){
-			groupResults = irService.groupingCache().get(queryMap.queryString());
+			groupResults = irService.groupingCache().get(queryMap.queryString(), cacheGeneration);
 //			logger.debug("CACHE_GET result>>{}, qr >>{}", groupResults, queryMap.queryString());
 			if(groupResults != null){
 				return new JobResult(groupResults);
@@ -106,7 +108,7 @@ public class ClusterGroupSearchJob extends Job {
 		groupResults = aggregator.aggregate(resultList);
 		
 		if(groupResults != null && !noCache){
-			irService.groupingCache().put(queryMap.queryString(), groupResults);
+			irService.groupingCache().put(queryMap.queryString(), groupResults, cacheGeneration);
 		}
 		
 		logger.debug("ClusterGroupSearchJob 수행시간 : {}", Strings.getHumanReadableTimeInterval(System.currentTimeMillis() - st));
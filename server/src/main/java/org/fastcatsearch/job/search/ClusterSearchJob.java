@@ -2,6 +2,7 @@ package org.fastcatsearch.job.search;
 
 import org.fastcatsearch.cluster.Node;
 import org.fastcatsearch.cluster.NodeService;
+import org.fastcatsearch.common.QueryCacheGeneration;
 import org.fastcatsearch.control.ResultFuture;
 import org.fastcatsearch.error.SearchAbortError;
 import org.fastcatsearch.error.ServerErrorCode;
@@ -21,11 +22,13 @@ import org.fastcatsearch.ir.settings.Schema;
 import org.fastcatsearch.job.Job;
 import org.fastcatsearch.job.internal.InternalDocumentSearchJob;
 import org.fastcatsearch.job.internal.InternalSearchJob;
+import org.fastcatsearch.job.internal.InternalSingleSearchJob;
 import org.fastcatsearch.query.QueryMap;
 import org.fastcatsearch.query.QueryParser;
 import org.fastcatsearch.service.ServiceManager;
 import org.fastcatsearch.transport.vo.StreamableDocumentResult;
 import org.fastcatsearch.transport.vo.StreamableInternalSearchResult;
+import org.fastcatsearch.transport.vo.StreamableResult;
 import org.fastcatsearch.util.SearchLogger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,6 +43,8 @@ import static org.fastcatsearch.error.ServerErrorCode.SEARCH_TIMEOUT_ERROR;
 public class ClusterSearchJob extends Job {
 
 	private static final long serialVersionUID = 2375551165135599911L;
+	//제한시간중 문서를 가져오는 단계에 남겨둘 비율(%).
+	private static final int DOCUMENT_PHASE_TIMEOUT_PERCENT = 30;
 
 	@Override
 	public JobResult doRun() throws FastcatSearchException {
@@ -78,8 +83,10 @@ public class ClusterSearchJob extends Job {
 			}
 	
 			IRService irService = ServiceManager.getInstance().getService(IRService.class);
+			//검색전의 컬렉션 세대. 검색중에 색인이 적용되면 결과를 캐시하지 않는다.
+			QueryCacheGeneration cacheGeneration = irService.searchCache().generation(collectionId);
 			if (!noCache) {
-				Result result = irService.searchCache().get(queryMap.queryString());
+				Result result = irService.searchCache().get(queryMap.queryString(), cacheGeneration);
 				// logger.debug("CACHE_GET result>>{}, qr >>{}", result, queryMap.queryString());
 				if (result != null) {
 					isCache = true;
@@ -128,11 +135,28 @@ public class ClusterSearchJob extends Job {
 				throw new SearchError(ServerErrorCode.COLLECTION_NOT_FOUND, unknownCollectionList);
 			}
 
-			ResultFuture[] resultFutureList = new ResultFuture[collectionIdList.length];
 			Map<String, Integer> collectionNumberMap = new HashMap<String, Integer>();
 			Node[] selectedNodeList = new Node[collectionIdList.length];
+			//검색단계는 제한시간중 문서단계 몫을 남기고 사용하며, 문서단계는 남은 시간을 모두 사용한다.
+			long jobDeadline = Long.MAX_VALUE;
+			long searchDeadline = Long.MAX_VALUE;
+			if (getTimeout() > 0) {
+				jobDeadline = System.currentTimeMillis() + getTimeout() - (System.nanoTime() - st) / 1000000;
+				searchDeadline = jobDeadline - getTimeout() * DOCUMENT_PHASE_TIMEOUT_PERCENT / 100;
+			}
+			//일부 컬렉션의 결과가 빠졌는지 여부.
+			boolean isPartial = false;
+
+			ArrivedResultQueue searchResultQueue = new ArrivedResultQueue(collectionIdList.length);
+			//hedged 요청을 보낼 시각. 보내지 않으면 Long.MAX_VALUE.
+			long[] hedgeTimeList = new long[collectionIdList.length];
+			Arrays.fill(hedgeTimeList, Long.MAX_VALUE);
 
 			boolean forMerging = collectionIdList.length > 1;
+			//컬렉션이 하나이면 데이터노드에서 문서까지 가져오도록 한번에 요청한다. explain 결과는 전달되지 않으므로 두번 나누어 요청한다.
+			boolean isSingleRequest = !forMerging && !meta.isSearchOption(Query.SEARCH_OPT_EXPLAIN);
+			//한번에 요청하면 검색단계가 제한시간을 모두 사용한다.
+			long gatherDeadline = isSingleRequest ? jobDeadline : searchDeadline;
 			for (int i = 0, errorCount = 0; i < collectionIdList.length; i++) {
 				String id = collectionIdList[i];
 				if(irService.collectionHandler(id) == null) {
@@ -153,97 +177,169 @@ public class ClusterSearchJob extends Job {
 				}
 				selectedNodeList[i] = dataNode;
 
-				QueryMap newQueryMap = queryMap.clone();
-				newQueryMap.setId(id);
-				logger.debug("query-{} {} >> {}", i, id, newQueryMap);
 				// collectionId가 하나이상이면 머징을 해야한다.
-				InternalSearchJob job = new InternalSearchJob(newQueryMap, forMerging);
-                job.setTimeout(getTimeout(), isForceAbortWhenTimeout());
-				resultFutureList[i] = nodeService.sendRequest(dataNode, job);
-                // 노드 접속불가일경우 resultFutureList[i]가 null로 리턴됨.
-                if (resultFutureList[i] == null) {
+				Job job = newSearchJob(queryMap, id, forMerging, isSingleRequest, gatherDeadline);
+				logger.debug("query-{} {} >> {}", i, id, queryMap);
+				ResultFuture resultFuture = nodeService.sendRequest(dataNode, job);
+                // 노드 접속불가일경우 resultFuture가 null로 리턴됨.
+                if (resultFuture == null) {
 					errorCount++;
 					if (meta.isSearchOption(Query.SEARCH_OPT_STOPONERROR)
 						|| errorCount == collectionIdList.length) {
 						throw new SearchError(ServerErrorCode.DATA_NODE_CONNECTION_ERROR, dataNode.toString() );
 					}
 					collectionIdList[i] = null;
+					continue;
                 }
+				searchResultQueue.add(i, dataNode, resultFuture);
+				//응답이 노드의 평소 응답시간(percentile)보다 늦으면 다른 노드에 같은 요청을 보내 먼저 성공한 결과를 사용한다.
+				long hedgeDelay = nodeService.getHedgeDelay(dataNode);
+				if (hedgeDelay >= 0 && id != null) {
+					hedgeTimeList[i] = System.currentTimeMillis() + hedgeDelay;
+				}
 			}
 
-			List<InternalSearchResult> resultList = new ArrayList<InternalSearchResult>(collectionIdList.length);
+			//
+			// collectionIdList 내의 스키마는 동일하다는 가정하에 진행한다. collectionIdList[0] 의 스키마를 가져온다.
+			//
+			Schema schema = collectionContext.schema();
+			// 결과가 도착하는 순서대로 머징한다. 컬렉션이 하나이면 결과를 그대로 사용한다.
+			SearchResultAggregator aggregator = new SearchResultAggregator(q, schema);
+			InternalSearchResult singleSearchResult = null;
+			StreamableResult singleRequestResult = null;
 			HighlightInfo highlightInfo = null;
 
-			for (int i = 0, errorCount = 0; i < collectionIdList.length; i++) {
-				if (resultFutureList[i] != null) {
-					/* 2019.6.18 swsong 타임아웃 시간을 넘기면 해당 결과는 포기.
-					* 결국 이 전체결과는 만들어져도 타임아웃으로 사용이 안 될것이다. */
-					Object obj = resultFutureList[i].pollInMillis(getTimeout());
+			for (int errorCount = 0; searchResultQueue.pendingCount() > 0; ) {
+				long now = System.currentTimeMillis();
+				if (now >= gatherDeadline) {
+					break;
+				}
+				long nextHedgeTime = Long.MAX_VALUE;
+				for (int i = 0; i < collectionIdList.length; i++) {
+					if (searchResultQueue.isPending(i)) {
+						nextHedgeTime = Math.min(nextHedgeTime, hedgeTimeList[i]);
+					}
+				}
+				ArrivedResultQueue.Arrived arrived = searchResultQueue.poll(Math.min(gatherDeadline, nextHedgeTime) - now);
+				if (arrived == null) {
+					now = System.currentTimeMillis();
+					for (int i = 0; i < collectionIdList.length; i++) {
+						if (searchResultQueue.isPending(i) && hedgeTimeList[i] <= now) {
+							hedgeTimeList[i] = Long.MAX_VALUE;
+							sendHedgedRequest(nodeService, searchResultQueue, queryMap, collectionIdList[i], i, selectedNodeList[i], forMerging, isSingleRequest, gatherDeadline);
+						}
+					}
+					continue;
+				}
 
-					if (!resultFutureList[i].isSuccess()) {
-						Exception exception = null;
-						if (obj instanceof SearchError) {
-							SearchError err = (SearchError) obj;
-							//타임아웃이 걸리면 더 볼것없이 예외를 던진다.
-							if(err.getErrorCode() == SEARCH_TIMEOUT_ERROR) {
+				int i = arrived.slot();
+				Object obj = arrived.result();
+				if (!arrived.isSuccess()) {
+					Exception exception = null;
+					if (obj instanceof SearchError) {
+						SearchError err = (SearchError) obj;
+						//데이터노드의 타임아웃은 제한시간을 넘긴것과 같이 부분결과로 처리한다.
+						if(err.getErrorCode() == SEARCH_TIMEOUT_ERROR) {
+							if (meta.isSearchOption(Query.SEARCH_OPT_STOPONERROR)) {
 								throw err;
 							}
-							exception = err;
-						} else if (obj instanceof Throwable) {
-							exception = new FastcatSearchException((Throwable) obj);
-							resultFutureList[i] = null;
-						} else {
-							exception = new FastcatSearchException("Error while searching.", obj);
+							logger.warn("search timeout at {} for {}", arrived.node(), collectionIdList[i]);
+							collectionIdList[i] = null;
+							isPartial = true;
+							continue;
 						}
-						errorCount++;
-						if (exception != null && (
-								meta.isSearchOption(Query.SEARCH_OPT_STOPONERROR)
-										|| errorCount == collectionIdList.length)) {
-							if (obj instanceof SearchError) {
-								throw (SearchError) exception;
-							} else {
-								throw (FastcatSearchException) exception;
-							}
+						exception = err;
+					} else if (obj instanceof Throwable) {
+						exception = new FastcatSearchException((Throwable) obj);
+					} else {
+						exception = new FastcatSearchException("Error while searching.", obj);
+					}
+					errorCount++;
+					if (meta.isSearchOption(Query.SEARCH_OPT_STOPONERROR)
+									|| errorCount == collectionIdList.length) {
+						if (obj instanceof SearchError) {
+							throw (SearchError) exception;
 						} else {
-							continue;
+							throw (FastcatSearchException) exception;
 						}
 					}
+					collectionIdList[i] = null;
+					isPartial = true;
+					continue;
+				}
+
+				selectedNodeList[i] = arrived.node();
+				if (obj instanceof StreamableResult) {
+					singleRequestResult = (StreamableResult) obj;
+					continue;
+				}
+				StreamableInternalSearchResult obj2 = (StreamableInternalSearchResult) obj;
+				InternalSearchResult internalSearchResult = obj2.getInternalSearchResult();
+				internalSearchResult.setNodeId(selectedNodeList[i].id());
+				if (forMerging) {
+					aggregator.add(internalSearchResult);
+				} else {
+					singleSearchResult = internalSearchResult;
+				}
 
-					StreamableInternalSearchResult obj2 = (StreamableInternalSearchResult) obj;
-					InternalSearchResult internalSearchResult = obj2.getInternalSearchResult();
-					internalSearchResult.setNodeId(selectedNodeList[i].id());
-					resultList.add(internalSearchResult);
-
-					/*
-					 * highlightInfo 를 택1 한다.
-					 */
-//					highlightInfo = internalSearchResult.getHighlightInfo();
-					HighlightInfo highlightInfo2 = internalSearchResult.getHighlightInfo();
-					if (highlightInfo == null) {
-						// highlightInfo가 없거나
-						// 필드가 더 많은 것으로 대체한다.
+				/*
+				 * highlightInfo 를 택1 한다.
+				 */
+//				highlightInfo = internalSearchResult.getHighlightInfo();
+				HighlightInfo highlightInfo2 = internalSearchResult.getHighlightInfo();
+				if (highlightInfo == null) {
+					// highlightInfo가 없거나
+					// 필드가 더 많은 것으로 대체한다.
+					highlightInfo = highlightInfo2;
+				} else if (highlightInfo2 != null) {
+					if (highlightInfo.fieldIndexAnalyzerMap() == null && highlightInfo2.fieldIndexAnalyzerMap() != null) {
+						// 기존에 하이라이팅 정보가 없고, 신규로는 정보가 있을 경우.
 						highlightInfo = highlightInfo2;
-					} else {
-						if (highlightInfo.fieldIndexAnalyzerMap() == null && highlightInfo2.fieldIndexAnalyzerMap() != null) {
-							// 기존에 하이라이팅 정보가 없고, 신규로는 정보가 있을 경우.
+					} else if (highlightInfo.fieldIndexAnalyzerMap() != null && highlightInfo2.fieldIndexAnalyzerMap() != null) {
+						// 모두 하이라이팅 정보가 있고, 신규정보의 갯수가 더 많으면 덮어쓴다.
+						if (highlightInfo.fieldIndexAnalyzerMap().size() < highlightInfo2.fieldIndexAnalyzerMap().size()) {
 							highlightInfo = highlightInfo2;
-						} else if (highlightInfo.fieldIndexAnalyzerMap() != null && highlightInfo2.fieldIndexAnalyzerMap() != null) {
-							// 모두 하이라이팅 정보가 있고, 신규정보의 갯수가 더 많으면 덮어쓴다.
-							if (highlightInfo.fieldIndexAnalyzerMap().size() < highlightInfo2.fieldIndexAnalyzerMap().size()) {
-								highlightInfo = highlightInfo2;
-							}
 						}
 					}
 				}
 			}
 
-			//
-			// collectionIdList 내의 스키마는 동일하다는 가정하에 진행한다. collectionIdList[0] 의 스키마를 가져온다.
-			//
+			/* 2019.6.18 swsong 타임아웃 시간을 넘기면 해당 결과는 포기.
+			 * 제한시간안에 도착하지 않은 컬렉션은 빼고 부분결과를 만든다. */
+			if (searchResultQueue.pendingCount() > 0) {
+				for (int i : searchResultQueue.expirePending()) {
+					logger.warn("search result missed the deadline. {} at {}", collectionIdList[i], selectedNodeList[i]);
+					collectionIdList[i] = null;
+				}
+				isPartial = true;
+				if (meta.isSearchOption(Query.SEARCH_OPT_STOPONERROR)) {
+					throw new SearchError(SEARCH_TIMEOUT_ERROR, String.valueOf(getTimeout()));
+				}
+			}
 
-			Schema schema = collectionContext.schema();
-			SearchResultAggregator aggregator = new SearchResultAggregator(q, schema);
-			InternalSearchResult aggregatedSearchResult = aggregator.aggregate(resultList);
+			if (isSingleRequest) {
+				if (singleRequestResult == null) {
+					if (isPartial) {
+						throw new SearchError(SEARCH_TIMEOUT_ERROR, String.valueOf(getTimeout()));
+					}
+					throw new SearchError(ServerErrorCode.DATA_NODE_CONNECTION_ERROR, collectionId);
+				}
+				searchResult = singleRequestResult.result();
+				if (singleRequestResult.groupsData() != null) {
+					searchResult.setGroupResult(groups.getGroupResultsGenerator().generate(singleRequestResult.groupsData()));
+				}
+				searchResult = completeResult(searchResult, meta, searchKeyword, queryMap, false, !noCache && searchResult.getCount() > 0, irService, cacheGeneration);
+				return new JobResult(searchResult);
+			}
+
+			InternalSearchResult aggregatedSearchResult = forMerging ? aggregator.result() : singleSearchResult;
+			if (aggregatedSearchResult == null) {
+				//받은 결과가 하나도 없다.
+				if (isPartial) {
+					throw new SearchError(SEARCH_TIMEOUT_ERROR, String.valueOf(getTimeout()));
+				}
+				throw new SearchError(ServerErrorCode.DATA_NODE_CONNECTION_ERROR, collectionId);
+			}
 			int totalSize = aggregatedSearchResult.getTotalCount();
 			List<Explanation> explanations = aggregatedSearchResult.getExplanations();
 
@@ -293,7 +389,7 @@ public class ClusterSearchJob extends Job {
 			}
 
 			// document 요청을 보낸다.
-			resultFutureList = new ResultFuture[collectionIdList.length];
+			ArrivedResultQueue documentResultQueue = new ArrivedResultQueue(collectionIdList.length);
 			ViewContainer views = q.getViews();
             if(views == null) {
                 views = new ViewContainer();
@@ -305,7 +401,14 @@ public class ClusterSearchJob extends Job {
                 }
             }
 
-            long documentTimeout = getTimeout() / 2;
+            //검색단계에서 쓰고 남은 제한시간.
+            long documentTimeout = getTimeout();
+            if (getTimeout() > 0) {
+                documentTimeout = jobDeadline - System.currentTimeMillis();
+                if (documentTimeout <= 0) {
+                    throw new SearchError(SEARCH_TIMEOUT_ERROR, String.valueOf(getTimeout()));
+                }
+            }
 			String[] tags = q.getMeta().tags();
 			for (int i = 0, errorCount = 0; i < collectionIdList.length; i++) {
 				String cid = collectionIdList[i];
@@ -316,54 +419,69 @@ public class ClusterSearchJob extends Job {
 
 					InternalDocumentSearchJob job = new InternalDocumentSearchJob(cid, docIdList[i], views, tags, highlightInfo);
 					job.setTimeout(documentTimeout, isForceAbortWhenTimeout());
-					resultFutureList[i] = nodeService.sendRequest(dataNode, job);
-					if (resultFutureList[i] == null) {
+					ResultFuture resultFuture = nodeService.sendRequest(dataNode, job);
+					if (resultFuture == null) {
 						errorCount++;
 						if (meta.isSearchOption(Query.SEARCH_OPT_STOPONERROR)
 							|| errorCount == collectionIdList.length) {
 							throw new SearchError(ServerErrorCode.DATA_NODE_CONNECTION_ERROR, dataNode.toString() );
 						}
+						continue;
 					}
+					documentResultQueue.add(i, dataNode, resultFuture);
 				}
 			}
 
-			// document 결과를 받는다.
+			// document 결과를 도착하는 순서대로 받는다.
 			DocumentResult[] docResultList = new DocumentResult[collectionIdList.length];
 
-			for (int i = 0, errorCount = 0; i < collectionIdList.length; i++) {
+			for (int errorCount = 0; documentResultQueue.pendingCount() > 0; ) {
+				long waitTime = jobDeadline == Long.MAX_VALUE ? Long.MAX_VALUE : jobDeadline - System.currentTimeMillis();
+				if (waitTime <= 0) {
+					break;
+				}
+				ArrivedResultQueue.Arrived arrived = documentResultQueue.poll(waitTime);
+				if (arrived == null) {
+					break;
+				}
+				int i = arrived.slot();
 				String cid = collectionIdList[i];
-				if (cid!= null && resultFutureList[i] != null) {
-					Object obj = resultFutureList[i].take();
+				Object obj = arrived.result();
+				if (!arrived.isSuccess()) {
 					Exception exception = null;
-					if (!resultFutureList[i].isSuccess()) {
+					if (obj instanceof SearchError) {
+						exception = (SearchError) obj;
+					} else if (obj instanceof Throwable) {
+						exception = new FastcatSearchException((Throwable) obj);
+					} else {
+						exception = new FastcatSearchException("Error while searching.", obj);
+					}
+					errorCount++;
+					if (meta.isSearchOption(Query.SEARCH_OPT_STOPONERROR)
+						|| errorCount == collectionIdList.length) {
 						if (obj instanceof SearchError) {
-							exception = (SearchError) obj;
-						} else if (obj instanceof Throwable) {
-							exception = new FastcatSearchException((Throwable) obj);
+							throw (SearchError) exception;
 						} else {
-							exception = new FastcatSearchException("Error while searching.", obj);
-						}
-						errorCount++;
-						if (exception != null && (
-							meta.isSearchOption(Query.SEARCH_OPT_STOPONERROR)
-							|| errorCount == collectionIdList.length)) {
-							if (obj instanceof SearchError) {
-								throw (SearchError) exception;
-							} else {
-								throw (FastcatSearchException) exception;
-							}
-						} else {
-							continue;
+							throw (FastcatSearchException) exception;
 						}
 					}
+					continue;
+				}
 
-					StreamableDocumentResult obj2 = (StreamableDocumentResult) obj;
-					DocumentResult documentResult = obj2.documentResult();
-					if (documentResult != null) {
-						docResultList[i] = documentResult;
-					} else {
-						logger.warn("{}의 documentList가 null입니다.", cid);
-					}
+				StreamableDocumentResult obj2 = (StreamableDocumentResult) obj;
+				DocumentResult documentResult = obj2.documentResult();
+				if (documentResult != null) {
+					docResultList[i] = documentResult;
+				} else {
+					logger.warn("{}의 documentList가 null입니다.", cid);
+				}
+			}
+			if (documentResultQueue.pendingCount() > 0) {
+				for (int i : documentResultQueue.expirePending()) {
+					logger.warn("document result missed the deadline. {} at {}", collectionIdList[i], selectedNodeList[i]);
+				}
+				if (meta.isSearchOption(Query.SEARCH_OPT_STOPONERROR)) {
+					throw new SearchError(SEARCH_TIMEOUT_ERROR, String.valueOf(getTimeout()));
 				}
 			}
 			
@@ -375,27 +493,53 @@ public class ClusterSearchJob extends Job {
 				}
 			}
 			
+			if (fieldIdList == null) {
+				//문서결과를 하나도 받지 못했다.
+				throw new SearchError(SEARCH_TIMEOUT_ERROR, String.valueOf(getTimeout()));
+			}
+
+			//문서를 받지 못한 컬렉션의 결과는 빼고 앞으로 당긴다.
 			Row[] rows = new Row[realSize];
 			Row[][] bundleRows = null;
+			int rowSize = 0;
 			for (int i = 0; i < realSize; i++) {
 				int collectionNo = collectionTags[i];
 				DocumentResult documentResult = docResultList[collectionNo];
-				rows[i] = documentResult.row();
+				if (documentResult == null) {
+					isPartial = true;
+					continue;
+				}
+				rows[rowSize] = documentResult.row();
 				Row[] bundleRow = documentResult.bundleRow();
 				if(bundleRow != null) {
 					if(bundleRows == null) {
 						bundleRows = new Row[realSize][];
 					}
-					bundleRows[i] = bundleRow;
+					bundleRows[rowSize] = bundleRow;
 				}
 //				int score = eachScores[collectionNo].pop();
                 int score = eachScores[i];
-				rows[i].setScore(score);
-                rows[i].setHit(eachHits[i]);
-                rows[i].setDistance(eachDistance[i]);
-				rows[i].setFilterMatchOrder(eachFilterMatchOrder[i]);
+				rows[rowSize].setScore(score);
+                rows[rowSize].setHit(eachHits[i]);
+                rows[rowSize].setDistance(eachDistance[i]);
+				rows[rowSize].setFilterMatchOrder(eachFilterMatchOrder[i]);
+				bundleTotalSizeList[rowSize] = bundleTotalSizeList[i];
+				if (rowExplanationsList != null) {
+					rowExplanationsList[rowSize] = rowExplanationsList[i];
+				}
 				
 				documentResult.next();
+				rowSize++;
+			}
+			if (rowSize < realSize) {
+				rows = Arrays.copyOf(rows, rowSize);
+				if (bundleRows != null) {
+					bundleRows = Arrays.copyOf(bundleRows, rowSize);
+				}
+				bundleTotalSizeList = Arrays.copyOf(bundleTotalSizeList, rowSize);
+				if (rowExplanationsList != null) {
+					rowExplanationsList = Arrays.copyOf(rowExplanationsList, rowSize);
+				}
 			}
 
 			//TODO row별과 통합 explain결과 포함시킨다.
@@ -409,27 +553,18 @@ public class ClusterSearchJob extends Job {
 				groupResults = groups.getGroupResultsGenerator().generate(groupsData);
 			}
 
-			searchResult = new Result(rows, bundleRows, bundleTotalSizeList, groupResults, fieldIdList, realSize, totalSize, meta.start(), explanations, rowExplanationsList);
+			searchResult = new Result(rows, bundleRows, bundleTotalSizeList, groupResults, fieldIdList, rowSize, totalSize, meta.start(), explanations, rowExplanationsList);
 
-			ResultModifier resultModifier = meta.resultModifier();
-			if(resultModifier != null){
-				/*
-				* 2016-05-27 전제현
-				* 결과모디파이어 modify 사용 시 키워드, 컬렉션명, 하이라이팅 태그를 매개변수로 받도록 수정
-				* (별도로 모디파이어를 작성하여 사용하지 않으면 이전과 달라지지 않음)
-				* */
-				searchResult = resultModifier.modify(searchResult, searchKeyword, queryMap.get("cn"), queryMap.get("ht"));
-			}
-			
-			if(!noCache && realSize > 0){
-				irService.searchCache().put(queryMap.queryString(), searchResult);
-			}
+			//부분결과는 캐시하지 않는다.
+			searchResult = completeResult(searchResult, meta, searchKeyword, queryMap, isPartial, !noCache && rowSize > 0 && !isPartial, irService, cacheGeneration);
 //			logger.debug("CACHE_PUT result>>{}, qr >>{}", searchResult, queryMap.queryString());
 
 //			logger.debug("ClusterSearchJob 수행시간 : {}", Strings.getHumanReadableTimeInterval((System.nanoTime() - st) / 1000000));
 			return new JobResult(searchResult);
 		}catch(IRException e){
 			throw new FastcatSearchException(e);
+		}catch(InterruptedException e){
+			throw new FastcatSearchException(e);
         }catch(SearchError e){
             errorMsg = e.getMessage();
             if(e.getErrorCode() == SEARCH_TIMEOUT_ERROR) {
@@ -443,6 +578,67 @@ public class ClusterSearchJob extends Job {
 		}
 	}
 
+	/*
+	 * 결과모디파이어를 적용하고 캐시한다.
+	 * */
+	private Result completeResult(Result searchResult, Metadata meta, String searchKeyword, QueryMap queryMap, boolean isPartial, boolean isCacheable,
+			IRService irService, QueryCacheGeneration cacheGeneration) throws IRException {
+		ResultModifier resultModifier = meta.resultModifier();
+		if(resultModifier != null){
+			/*
+			* 2016-05-27 전제현
+			* 결과모디파이어 modify 사용 시 키워드, 컬렉션명, 하이라이팅 태그를 매개변수로 받도록 수정
+			* (별도로 모디파이어를 작성하여 사용하지 않으면 이전과 달라지지 않음)
+			* */
+			searchResult = resultModifier.modify(searchResult, searchKeyword, queryMap.get("cn"), queryMap.get("ht"));
+		}
+
+		searchResult.setPartial(isPartial);
+
+		if(isCacheable){
+			irService.searchCache().put(queryMap.queryString(), searchResult, cacheGeneration);
+		}
+		return searchResult;
+	}
+
+	/*
+	 * 컬렉션 검색요청 job. isSingleRequest 이면 문서까지 한번에 가져오는 job 을 만든다.
+	 * 데이터노드도 브로커가 결과를 기다리는 deadline 까지만 검색하도록 남은 시간을 제한시간으로 준다.
+	 * */
+	private Job newSearchJob(QueryMap queryMap, String id, boolean forMerging, boolean isSingleRequest, long deadline) {
+		QueryMap newQueryMap = queryMap.clone();
+		newQueryMap.setId(id);
+		Job job = null;
+		if (isSingleRequest) {
+			job = new InternalSingleSearchJob(newQueryMap);
+		} else {
+			job = new InternalSearchJob(newQueryMap, forMerging);
+		}
+		long timeout = getTimeout();
+		if (timeout > 0) {
+			timeout = Math.max(1, deadline - System.currentTimeMillis());
+		}
+		job.setTimeout(timeout, isForceAbortWhenTimeout());
+		return job;
+	}
+
+	/*
+	 * 응답이 늦은 컬렉션의 검색요청을 다른 노드에 한번더 보낸다. 결과는 같은 slot 으로 받아 먼저 성공한 것을 사용한다.
+	 * */
+	private void sendHedgedRequest(NodeService nodeService, ArrivedResultQueue searchResultQueue, QueryMap queryMap, String id, int slot, Node selectedNode,
+			boolean forMerging, boolean isSingleRequest, long deadline) {
+		Node hedgeNode = nodeService.getHedgeNode(id, selectedNode);
+		if (hedgeNode == null) {
+			return;
+		}
+		Job hedgeJob = newSearchJob(queryMap, id, forMerging, isSingleRequest, deadline);
+		ResultFuture hedgeFuture = nodeService.sendRequest(hedgeNode, hedgeJob);
+		if (hedgeFuture != null) {
+			logger.debug("hedged request {} {} >> {}", slot, id, hedgeNode);
+			searchResultQueue.add(slot, hedgeNode, hedgeFuture);
+		}
+	}
+
 	// Fisher-Yates shuffle
 	Random random = new Random(System.nanoTime());
 	private void shuffleCollectionList(String[] collectionId) {
@@ -2,6 +2,7 @@ package org.fastcatsearch.job.search;
 
 import org.fastcatsearch.cluster.Node;
 import org.fastcatsearch.cluster.NodeService;
+import org.fastcatsearch.common.QueryCacheGeneration;
 import org.fastcatsearch.control.ResultFuture;
 import org.fastcatsearch.error.SearchError;
 import org.fastcatsearch.error.ServerErrorCode;
@@ -72,8 +73,10 @@ public class ClusterSearchLongTestJob extends Job {
 			}
 	
 			IRService irService = ServiceManager.getInstance().getService(IRService.class);
+			//검색전의 컬렉션 세대. 검색중에 색인이 적용되면 결과를 캐시하지 않는다.
+			QueryCacheGeneration cacheGeneration = irService.searchCache().generation(collectionId);
 			if (!noCache) {
-				Result result = irService.searchCache().get(queryMap.queryString());
+				Result result = irService.searchCache().get(queryMap.queryString(), cacheGeneration);
 				// logger.debug("CACHE_GET result>>{}, qr >>{}", result, queryMap.queryString());
 				if (result != null) {
 					isCache = true;
@@ -303,7 +306,7 @@ public class ClusterSearchLongTestJob extends Job {
 			}
 			
 			if(!noCache && realSize > 0){
-				irService.searchCache().put(queryMap.queryString(), searchResult);
+				irService.searchCache().put(queryMap.queryString(), searchResult, cacheGeneration);
 			}
 //			logger.debug("CACHE_PUT result>>{}, qr >>{}", searchResult, queryMap.queryString());
 
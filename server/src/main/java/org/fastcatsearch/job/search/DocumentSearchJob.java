@@ -11,6 +11,7 @@
 
 package org.fastcatsearch.job.search;
 
+import org.fastcatsearch.common.QueryCacheGeneration;
 import org.fastcatsearch.error.SearchError;
 import org.fastcatsearch.error.ServerErrorCode;
 import org.fastcatsearch.exception.FastcatSearchException;
@@ -68,8 +69,9 @@ public class DocumentSearchJob extends Job {
 //			logger.debug("NoCache => "+noCache+" ,option = "+q.getMeta().option()+", "+(q.getMeta().option() & Query.SEARCH_OPT_NOCACHE));
         IRService irService = ServiceManager.getInstance().getService(IRService.class);
         String cacheKey = collectionId+":"+idStr;
+        QueryCacheGeneration cacheGeneration = irService.documentCache().generation(collectionId);
         if(!noCache){
-            result = irService.documentCache().get(cacheKey);
+            result = irService.documentCache().get(cacheKey, cacheGeneration);
         }
 
         //Not Exist in Cache
@@ -84,7 +86,7 @@ public class DocumentSearchJob extends Job {
 //				result = collectionHandler.searcher().findDocument(collectionName, idStr);
 
             if(!noCache){
-                irService.documentCache().put(cacheKey, result);
+                irService.documentCache().put(cacheKey, result, cacheGeneration);
             }
         }
 //			long st = System.currentTimeMillis();
@@ -14,6 +14,7 @@ package org.fastcatsearch.job.search;
 import java.io.IOException;
 import java.util.Map;
 
+import org.fastcatsearch.common.QueryCacheGeneration;
 import org.fastcatsearch.error.SearchError;
 import org.fastcatsearch.error.ServerErrorCode;
 import org.fastcatsearch.exception.FastcatSearchException;
@@ -56,8 +57,9 @@ public class GroupSearchJob extends Job {
 				noCache = true;
 			}
 			IRService irService = ServiceManager.getInstance().getService(IRService.class);
+			QueryCacheGeneration cacheGeneration = irService.groupingCache().generation(collection);
 			if(!noCache)
-				groupResults = irService.groupingCache().get(queryMap.queryString());
+				groupResults = irService.groupingCache().get(queryMap.queryString(), cacheGeneration);
 			
 			//Not Exist in Cache
 			if(groupResults == null){
@@ -76,7 +78,7 @@ public class GroupSearchJob extends Job {
                 Groups groups =q.getGroups();
 				groupResults = groups.getGroupResultsGenerator().generate(groupData);
 				if(groupResults != null){
-					irService.groupingCache().put(queryMap.queryString(), groupResults);
+					irService.groupingCache().put(queryMap.queryString(), groupResults, cacheGeneration);
 				}
 			}
 			
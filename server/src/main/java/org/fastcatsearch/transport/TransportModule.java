@@ -3,6 +3,7 @@ package org.fastcatsearch.transport;
 
 import org.apache.commons.io.FileUtils;
 import org.fastcatsearch.cluster.Node;
+import org.fastcatsearch.cluster.NodeResponseStats;
 import org.fastcatsearch.common.BytesReference;
 import org.fastcatsearch.common.ThreadPoolFactory;
 import org.fastcatsearch.common.io.BlockingCachedStreamOutput;
@@ -73,6 +74,7 @@ public class TransportModule extends AbstractModule {
     private JobExecutor jobExecutor;
     
     private int cachedQueueSize;
+    private int executePoolSize;
     
     private final ReadWriteLock globalLock = new ReentrantReadWriteLock();
     private FileTransportHandler fileTransportHandler;
@@ -80,6 +82,7 @@ public class TransportModule extends AbstractModule {
 
 	//색인 데이터 전송시 별도 대역폭의 네트워크를 생성하는지 여부.
 	private boolean hasSeparateDataNetwork;
+	private NodeResponseStats responseStats;
 
     public TransportModule(Environment environment, Settings settings, int port, JobExecutor jobExecutor){
         this(environment, settings, port, jobExecutor, false);
@@ -108,10 +111,12 @@ public class TransportModule extends AbstractModule {
         this.tcpReceiveBufferSize = settings.getInt("tcp_receive_buffer_size", 1048576);
         this.sendFileChunkSize = (int) settings.getByteSize("send_file_chunk_size", 3 * 1024 * 1024);
         this.cachedQueueSize = (int) settings.getInt("send_file_cache_queue_size", 10);
+        this.executePoolSize = settings.getInt("execute_pool_size", 500);
         logger.debug("Transport setting worker_count[{}], port[{}], connect_timeout[{}]",
                 new Object[]{workerCount, port, connectTimeout});
         
-		this.executorService = ThreadPoolFactory.newUnlimitedCachedDaemonThreadPool("transport-pool");
+		//요청마다 결과를 기다리는 스레드를 점유하므로 최대 스레드수를 제한한다. 초과한 요청은 바로 에러로 응답한다.
+		this.executorService = ThreadPoolFactory.newCachedDaemonThreadPool("transport-pool", executePoolSize);
 		/*
 		 * Client
 		 * */
@@ -374,6 +379,10 @@ public class TransportModule extends AbstractModule {
 		return channels;
 	}
 
+    public void setResponseStats(NodeResponseStats responseStats) {
+    	this.responseStats = responseStats;
+    }
+
     public ResultFuture sendRequest(final Node node, final Job job) throws TransportException {
     	if(node == null){
     		throw new TransportException("node is null");
@@ -382,20 +391,28 @@ public class TransportModule extends AbstractModule {
 //    		throw new TransportException("node is not active : "+node.toString());
 //    	}
         final long requestId = newRequestId();
+        ResultFuture resultFuture = null;
         try {
 			boolean hasHeavyPayload = (job instanceof DataJob);
         	if (job.isNoResult()) {
         		sendMessageRequest(node, requestId, job, hasHeavyPayload);
         		return null;
         	}else{
-	        	ResultFuture resultFuture = new ResultFuture(requestId, resultFutureMap, job);
+	        	resultFuture = new ResultFuture(requestId, resultFutureMap, job);
 	            resultFutureMap.put(requestId, resultFuture);
+	            //결과를 받거나 타임아웃될때 노드의 응답시간이 기록된다.
+	            if (responseStats != null && NodeResponseStats.isTracked(job)) {
+	            	resultFuture.addCompletionListener(responseStats.requestStarted(node));
+	            }
 	            sendMessageRequest(node, requestId, job, hasHeavyPayload);
 	            
 	            return resultFuture;
         	}
         } catch (final Exception e) {
             resultFutureMap.remove(requestId);
+            if (resultFuture != null) {
+            	resultFuture.putNullFail();
+            }
            logger.error("", e);
            throw new TransportException("메시지 전송중 에러발생.", e);
         }
@@ -1,8 +1,10 @@
 package org.fastcatsearch.transport.common;
 
 import java.io.IOException;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.fastcatsearch.common.io.Streamable;
+import org.fastcatsearch.control.ExecutorMaxCapacityExceedException;
 import org.fastcatsearch.control.JobExecutor;
 import org.fastcatsearch.control.ResultFuture;
 import org.fastcatsearch.env.Environment;
@@ -145,6 +147,9 @@ public class MessageChannelHandler extends SimpleChannelUpstreamHandler {
 			}
 
 			transport.execute(new RequestHandler(requestJob, transportChannel));
+		} catch (RejectedExecutionException e) {
+			logger.error("처리허용량을 초과하여 요청이 거부되었습니다. requestId = {}", requestId);
+			transportChannel.sendResponse(new ExecutorMaxCapacityExceedException("처리허용량을 초과하여 요청이 거부되었습니다."));
 		} catch (Exception e) {
 			logger.error("", e);
 			try {
@@ -0,0 +1,165 @@
+package org.fastcatsearch.transport.vo;
+
+import java.io.IOException;
+
+import org.fastcatsearch.common.io.Streamable;
+import org.fastcatsearch.ir.group.GroupsData;
+import org.fastcatsearch.ir.io.DataInput;
+import org.fastcatsearch.ir.io.DataOutput;
+import org.fastcatsearch.ir.query.Result;
+import org.fastcatsearch.ir.query.Row;
+
+/**
+ * 데이터노드에서 문서까지 채워 만든 검색결과.
+ * 그룹결과는 쿼리의 그룹설정으로 만들어지므로 GroupsData 로 전달하고, 받는 쪽에서 GroupResults 로 만든다.
+ * explain 결과는 포함하지 않는다.
+ * */
+public class StreamableResult implements Streamable {
+	private Result result;
+	private GroupsData groupsData;
+
+	public StreamableResult() {
+	}
+
+	public StreamableResult(Result result, GroupsData groupsData) {
+		this.result = result;
+		this.groupsData = groupsData;
+	}
+
+	public Result result() {
+		return result;
+	}
+
+	public GroupsData groupsData() {
+		return groupsData;
+	}
+
+	@Override
+	public void readFrom(DataInput input) throws IOException {
+		int count = input.readVInt();
+		int totalCount = input.readVInt();
+		int start = input.readVInt();
+
+		String[] fieldNameList = new String[input.readVInt()];
+		for (int i = 0; i < fieldNameList.length; i++) {
+			fieldNameList[i] = input.readString();
+		}
+
+		Row[] rows = new Row[input.readVInt()];
+		for (int i = 0; i < rows.length; i++) {
+			rows[i] = readRow(input);
+			rows[i].setScore(input.readInt());
+			rows[i].setHit(input.readInt());
+			rows[i].setDistance(Float.intBitsToFloat(input.readInt()));
+			rows[i].setFilterMatchOrder(input.readInt());
+		}
+
+		Row[][] bundleRows = null;
+		if (input.readBoolean()) {
+			bundleRows = new Row[rows.length][];
+			for (int i = 0; i < bundleRows.length; i++) {
+				int bundleSize = input.readVInt();
+				if (bundleSize > 0) {
+					bundleRows[i] = new Row[bundleSize];
+					for (int j = 0; j < bundleSize; j++) {
+						bundleRows[i][j] = readRow(input);
+					}
+				}
+			}
+		}
+
+		int[] bundleTotalSizeList = null;
+		if (input.readBoolean()) {
+			bundleTotalSizeList = new int[input.readVInt()];
+			for (int i = 0; i < bundleTotalSizeList.length; i++) {
+				bundleTotalSizeList[i] = input.readVInt();
+			}
+		}
+
+		if (input.readBoolean()) {
+			StreamableGroupsData sGroupData = new StreamableGroupsData();
+			sGroupData.readFrom(input);
+			groupsData = sGroupData.groupData();
+		}
+
+		result = new Result(rows, bundleRows, bundleTotalSizeList, null, fieldNameList, count, totalCount, start, null, null);
+	}
+
+	@Override
+	public void writeTo(DataOutput output) throws IOException {
+		output.writeVInt(result.getCount());
+		output.writeVInt(result.getTotalCount());
+		output.writeVInt(result.getStart());
+
+		String[] fieldNameList = result.getFieldNameList();
+		output.writeVInt(fieldNameList.length);
+		for (int i = 0; i < fieldNameList.length; i++) {
+			output.writeString(fieldNameList[i]);
+		}
+
+		Row[] rows = result.getData();
+		output.writeVInt(rows.length);
+		for (int i = 0; i < rows.length; i++) {
+			Row row = rows[i];
+			writeRow(output, row);
+			output.writeInt(row.getScore());
+			output.writeInt(row.getHit());
+			output.writeInt(Float.floatToIntBits(row.getDistance()));
+			output.writeInt(row.getFilterMatchOrder());
+		}
+
+		Row[][] bundleRows = result.getBundleData();
+		if (bundleRows == null) {
+			output.writeBoolean(false);
+		} else {
+			output.writeBoolean(true);
+			for (int i = 0; i < rows.length; i++) {
+				Row[] bundleRow = bundleRows[i];
+				if (bundleRow == null) {
+					output.writeVInt(0);
+				} else {
+					output.writeVInt(bundleRow.length);
+					for (Row row : bundleRow) {
+						writeRow(output, row);
+					}
+				}
+			}
+		}
+
+		int[] bundleTotalSizeList = result.getBundleTotalSizeList();
+		if (bundleTotalSizeList == null) {
+			output.writeBoolean(false);
+		} else {
+			output.writeBoolean(true);
+			output.writeVInt(bundleTotalSizeList.length);
+			for (int i = 0; i < bundleTotalSizeList.length; i++) {
+				output.writeVInt(bundleTotalSizeList[i]);
+			}
+		}
+
+		if (groupsData == null) {
+			output.writeBoolean(false);
+		} else {
+			output.writeBoolean(true);
+			new StreamableGroupsData(groupsData).writeTo(output);
+		}
+	}
+
+	private Row readRow(DataInput input) throws IOException {
+		int fieldCount = input.readVInt();
+		Row row = new Row(fieldCount);
+		for (int j = 0; j < fieldCount; j++) {
+			row.put(j, input.readUString());
+		}
+		return row;
+	}
+
+	private void writeRow(DataOutput output, Row row) throws IOException {
+		int fieldCount = row.getFieldCount();
+		output.writeVInt(fieldCount);
+		for (int j = 0; j < fieldCount; j++) {
+			char[] chars = row.get(j);
+			output.writeUString(chars, 0, chars.length);
+		}
+	}
+}
@@ -0,0 +1,10 @@
+package org.fastcatsearch.util;
+
+/**
+ * 캐시에 넣을 값의 메모리 크기(byte)를 추정한다.
+ * */
+public interface CacheWeigher<V> {
+
+	public long weigh(V value);
+
+}
@@ -0,0 +1,76 @@
+package org.fastcatsearch.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 키의 최근 사용빈도를 근사적으로 기록하는 count-min sketch.
+ * 키마다 4개의 카운터(최대 15)를 올리고, 그중 최소값을 빈도로 본다.
+ * 증가횟수가 sampleSize 에 이르면 모든 카운터를 반으로 줄여 오래된 빈도가 사라지게 한다.
+ * 카운터 증가는 락없이 하므로 동시에 증가하면 일부가 유실될수 있지만 근사값이므로 문제되지 않는다.
+ * */
+public class FrequencySketch {
+
+	private static final int DEPTH = 4;
+	private static final int MAX_COUNT = 15;
+	private static final int[] SEEDS = new int[] { 0x97cb3127, 0xb492b66f, 0x9ae16a3b, 0xcbf29ce4 };
+
+	private final byte[] table;
+	private final int width;
+	private final int mask;
+	private final int sampleSize;
+	private final AtomicInteger additions = new AtomicInteger();
+
+	public FrequencySketch(int expectedSize) {
+		//캐시에 들어있는 것보다 많은 키가 요청되므로 entry 갯수의 4배 이상 카운터를 둔다.
+		int w = 1024;
+		while (w < expectedSize * 4 && w < (1 << 24)) {
+			w <<= 1;
+		}
+		width = w;
+		mask = w - 1;
+		table = new byte[DEPTH * width];
+		sampleSize = 10 * width;
+	}
+
+	public void increment(int hash) {
+		boolean added = false;
+		for (int i = 0; i < DEPTH; i++) {
+			int index = indexOf(hash, i);
+			if (table[index] < MAX_COUNT) {
+				table[index]++;
+				added = true;
+			}
+		}
+		if (added && additions.incrementAndGet() >= sampleSize) {
+			reset();
+		}
+	}
+
+	public int frequency(int hash) {
+		int frequency = MAX_COUNT;
+		for (int i = 0; i < DEPTH; i++) {
+			frequency = Math.min(frequency, table[indexOf(hash, i)]);
+		}
+		return frequency;
+	}
+
+	/*
+	 * 모든 카운터를 반으로 줄인다.
+	 * */
+	private synchronized void reset() {
+		if (additions.get() < sampleSize) {
+			//다른 스레드가 이미 줄였다.
+			return;
+		}
+		for (int i = 0; i < table.length; i++) {
+			table[i] = (byte) (table[i] >>> 1);
+		}
+		additions.set(additions.get() / 2);
+	}
+
+	private int indexOf(int hash, int row) {
+		int h = hash * SEEDS[row];
+		h ^= h >>> 16;
+		return row * width + (h & mask);
+	}
+}
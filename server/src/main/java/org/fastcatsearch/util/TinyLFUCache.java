@@ -0,0 +1,327 @@
+package org.fastcatsearch.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 값의 추정크기(byte)와 갯수로 제한되는 캐시.
+ *
+ * get 은 ConcurrentHashMap 만 읽으므로 락을 잡지 않는다. 사용여부는 entry 의 referenced 플래그로만 남긴다.
+ * put 과 제거는 키 해시로 나눈 stripe 단위로 락을 잡는다. stripe 마다 크기제한을 나누어 가진다.
+ * 제거순서는 stripe 별 CLOCK(second chance) 큐로 정하며 최근에 읽힌 entry 는 한번 더 기회를 준다.
+ * 큐는 entry 를 직접 연결한 이중연결리스트이므로 교체나 removeAll 로 중간의 entry 를 빼는것도 O(1) 이다.
+ * 새 entry 가 들어갈 자리가 없으면 FrequencySketch 로 제거대상과 사용빈도를 비교하여,
+ * 새 entry 의 빈도가 더 낮으면 넣지 않는다(TinyLFU admission). 한번만 요청된 질의가 자주 쓰이는 결과를 밀어내지 않도록 한다.
+ * 빈도가 같으면 넣어서 비슷한 빈도끼리는 최근 것이 남게 한다.
+ * */
+public class TinyLFUCache<K, V> {
+
+	//entry 하나의 키, 참조 등 기본 메모리 추정치.
+	private static final long ENTRY_OVERHEAD = 64;
+
+	private final ConcurrentHashMap<K, CacheEntry<K, V>> map;
+	private final Stripe<K, V>[] stripes;
+	private final int stripeMask;
+	private final FrequencySketch sketch;
+	private final CacheWeigher<V> weigher;
+	private final long maxWeight;
+	private final int maxEntries;
+
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+	private final AtomicLong putCount = new AtomicLong();
+	private final AtomicLong evictionCount = new AtomicLong();
+	private final AtomicLong rejectCount = new AtomicLong();
+
+	public TinyLFUCache(long maxWeight, int maxEntries, int stripeCount, CacheWeigher<V> weigher) {
+		int count = 1;
+		while (count < stripeCount) {
+			count <<= 1;
+		}
+		this.maxWeight = maxWeight;
+		this.maxEntries = maxEntries;
+		this.weigher = weigher;
+		this.stripeMask = count - 1;
+		this.stripes = new Stripe[count];
+		long stripeWeight = Math.max(1, maxWeight / count);
+		int stripeEntries = Math.max(1, (maxEntries + count - 1) / count);
+		for (int i = 0; i < count; i++) {
+			stripes[i] = new Stripe<K, V>(stripeWeight, stripeEntries);
+		}
+		map = new ConcurrentHashMap<K, CacheEntry<K, V>>(Math.max(16, maxEntries), 0.75f, count);
+		sketch = new FrequencySketch(maxEntries);
+	}
+
+	public V get(K key) {
+		int hash = hash(key);
+		sketch.increment(hash);
+		CacheEntry<K, V> entry = map.get(key);
+		if (entry == null) {
+			missCount.incrementAndGet();
+			return null;
+		}
+		entry.referenced = true;
+		hitCount.incrementAndGet();
+		return entry.value;
+	}
+
+	/**
+	 * 값을 넣는다. 크기가 너무 크거나 사용빈도가 낮아 들어가지 못할수 있다.
+	 * */
+	public void put(K key, V value) {
+		if (key == null || value == null) {
+			return;
+		}
+		int hash = hash(key);
+		long weight = ENTRY_OVERHEAD + (weigher != null ? weigher.weigh(value) : 0);
+		Stripe<K, V> stripe = stripes[hash & stripeMask];
+		if (weight > stripe.maxWeight) {
+			rejectCount.incrementAndGet();
+			return;
+		}
+		putCount.incrementAndGet();
+		CacheEntry<K, V> newEntry = new CacheEntry<K, V>(key, hash, value, weight);
+		stripe.lock.lock();
+		try {
+			CacheEntry<K, V> oldEntry = map.get(key);
+			//이미 있던 키는 자주 쓰인 것이므로 빈도비교없이 교체한다.
+			boolean admit = oldEntry != null;
+			if (oldEntry != null) {
+				stripe.remove(oldEntry);
+			}
+			int candidateFrequency = sketch.frequency(hash);
+			while (stripe.weight + weight > stripe.maxWeight || stripe.count >= stripe.maxEntries) {
+				CacheEntry<K, V> victim = stripe.nextVictim();
+				if (victim == null) {
+					break;
+				}
+				if (!admit) {
+					if (candidateFrequency < sketch.frequency(victim.hash)) {
+						//새 entry 의 빈도가 낮으므로 넣지 않는다. victim 은 큐의 앞에 그대로 남는다.
+						rejectCount.incrementAndGet();
+						return;
+					}
+					admit = true;
+				}
+				stripe.remove(victim);
+				map.remove(victim.key, victim);
+				evictionCount.incrementAndGet();
+			}
+			stripe.add(newEntry);
+			map.put(key, newEntry);
+		} finally {
+			stripe.lock.unlock();
+		}
+	}
+
+	public void remove(K key) {
+		int hash = hash(key);
+		Stripe<K, V> stripe = stripes[hash & stripeMask];
+		stripe.lock.lock();
+		try {
+			CacheEntry<K, V> entry = map.remove(key);
+			if (entry != null) {
+				stripe.remove(entry);
+			}
+		} finally {
+			stripe.lock.unlock();
+		}
+	}
+
+	/**
+	 * filter 에 해당하는 entry 를 모두 제거한다. 제거한 갯수를 리턴한다.
+	 * */
+	public int removeAll(EntryFilter<K, V> filter) {
+		int removeCount = 0;
+		for (CacheEntry<K, V> entry : map.values()) {
+			if (filter.accept(entry.key, entry.value)) {
+				Stripe<K, V> stripe = stripes[entry.hash & stripeMask];
+				stripe.lock.lock();
+				try {
+					if (map.remove(entry.key, entry)) {
+						stripe.remove(entry);
+						removeCount++;
+					}
+				} finally {
+					stripe.lock.unlock();
+				}
+			}
+		}
+		return removeCount;
+	}
+
+	public void clear() {
+		for (Stripe<K, V> stripe : stripes) {
+			stripe.lock.lock();
+			try {
+				for (CacheEntry<K, V> entry = stripe.head.next; entry != stripe.head; entry = entry.next) {
+					map.remove(entry.key, entry);
+				}
+				stripe.clear();
+			} finally {
+				stripe.lock.unlock();
+			}
+		}
+	}
+
+	public int size() {
+		return map.size();
+	}
+
+	/**
+	 * 현재 추정 메모리 크기(byte)
+	 * */
+	public long weight() {
+		long weight = 0;
+		for (Stripe<K, V> stripe : stripes) {
+			weight += stripe.weight;
+		}
+		return weight;
+	}
+
+	public long maxWeight() {
+		return maxWeight;
+	}
+
+	public int maxEntries() {
+		return maxEntries;
+	}
+
+	public long hitCount() {
+		return hitCount.get();
+	}
+
+	public long missCount() {
+		return missCount.get();
+	}
+
+	public long putCount() {
+		return putCount.get();
+	}
+
+	public long evictionCount() {
+		return evictionCount.get();
+	}
+
+	public long rejectCount() {
+		return rejectCount.get();
+	}
+
+	public double hitRatio() {
+		long hit = hitCount.get();
+		long total = hit + missCount.get();
+		return total > 0 ? (double) hit / total : 0;
+	}
+
+	private static int hash(Object key) {
+		int h = key.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	public static interface EntryFilter<K, V> {
+		public boolean accept(K key, V value);
+	}
+
+	static class CacheEntry<K, V> {
+		final K key;
+		final int hash;
+		final V value;
+		final long weight;
+		volatile boolean referenced;
+		//stripe 큐의 연결. stripe 의 lock 을 잡고 사용하며, 큐에 없으면 null 이다.
+		CacheEntry<K, V> prev;
+		CacheEntry<K, V> next;
+
+		CacheEntry(K key, int hash, V value, long weight) {
+			this.key = key;
+			this.hash = hash;
+			this.value = value;
+			this.weight = weight;
+		}
+	}
+
+	/*
+	 * 모든 필드는 lock 을 잡고 사용한다. weight 는 통계용으로 락없이 읽는다.
+	 * 큐는 head 를 경계로 하는 원형 이중연결리스트이며 head.next 가 가장 앞이다.
+	 * */
+	static class Stripe<K, V> {
+		final ReentrantLock lock = new ReentrantLock();
+		final CacheEntry<K, V> head = new CacheEntry<K, V>(null, 0, null, 0);
+		final long maxWeight;
+		final int maxEntries;
+		volatile long weight;
+		int count;
+
+		Stripe(long maxWeight, int maxEntries) {
+			this.maxWeight = maxWeight;
+			this.maxEntries = maxEntries;
+			head.prev = head;
+			head.next = head;
+		}
+
+		void add(CacheEntry<K, V> entry) {
+			linkLast(entry);
+			weight += entry.weight;
+			count++;
+		}
+
+		void remove(CacheEntry<K, V> entry) {
+			if (entry.next != null) {
+				unlink(entry);
+				weight -= entry.weight;
+				count--;
+			}
+		}
+
+		private void linkLast(CacheEntry<K, V> entry) {
+			entry.prev = head.prev;
+			entry.next = head;
+			head.prev.next = entry;
+			head.prev = entry;
+		}
+
+		private void unlink(CacheEntry<K, V> entry) {
+			entry.prev.next = entry.next;
+			entry.next.prev = entry.prev;
+			entry.prev = null;
+			entry.next = null;
+		}
+
+		/*
+		 * CLOCK 순서로 제거대상을 찾는다. 최근에 읽힌 entry 는 플래그를 지우고 뒤로 보낸다.
+		 * 모두 읽혔더라도 한바퀴 돌면 플래그가 지워지므로 반드시 끝난다. 찾은 entry 는 큐의 앞에 그대로 둔다.
+		 * */
+		CacheEntry<K, V> nextVictim() {
+			int limit = count * 2 + 1;
+			for (int i = 0; i < limit; i++) {
+				CacheEntry<K, V> entry = head.next;
+				if (entry == head) {
+					return null;
+				}
+				if (entry.referenced) {
+					entry.referenced = false;
+					unlink(entry);
+					linkLast(entry);
+					continue;
+				}
+				return entry;
+			}
+			return head.next != head ? head.next : null;
+		}
+
+		void clear() {
+			CacheEntry<K, V> entry = head.next;
+			while (entry != head) {
+				CacheEntry<K, V> next = entry.next;
+				entry.prev = null;
+				entry.next = null;
+				entry = next;
+			}
+			head.prev = head;
+			head.next = head;
+			weight = 0;
+			count = 0;
+		}
+	}
+}
@@ -8,8 +8,13 @@ import java.util.Random;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import org.fastcatsearch.control.ResultFuture;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
 /**
  * 여러 컬렉션을 검색할때 잘 분배되는지 테스트가 필요하다.
  * */
@@ -96,6 +101,81 @@ public class NodeLoadBalancerTest {
 
 	}
 
+	/*
+	 * 응답이 느린 노드는 적게 선택된다.
+	 * */
+	@Test
+	public void testAdaptive() {
+		NodeResponseStats responseStats = new NodeResponseStats();
+		NodeLoadBalancer nodeLoadBalancer = new NodeLoadBalancer(responseStats);
+		List<Node> list = new ArrayList<Node>();
+		list.add(makeNode(0));
+		list.add(makeNode(1));
+		list.add(makeNode(2));
+		nodeLoadBalancer.update("col1", list);
+
+		int[] hit = new int[3];
+		for (int i = 0; i < 3000; i++) {
+			Node node = nodeLoadBalancer.getBalancedNode("col1");
+			int seq = Integer.parseInt(node.id().substring(node.id().length() - 1));
+			hit[seq]++;
+			//node-2 는 GC 등으로 응답이 100배 느리다.
+			responseStats.requestStarted(node).onComplete(true, seq == 2 ? 500 : 5);
+		}
+		System.out.println("adaptive hit = " + hit[0] + ", " + hit[1] + ", " + hit[2]);
+		assertTrue(hit[2] < 100);
+		assertTrue(hit[0] > 1000 && hit[1] > 1000);
+	}
+
+	@Test
+	public void testAdaptiveInFlight() {
+		NodeResponseStats responseStats = new NodeResponseStats();
+		NodeLoadBalancer nodeLoadBalancer = new NodeLoadBalancer(responseStats);
+		List<Node> list = new ArrayList<Node>();
+		Node node0 = makeNode(0);
+		Node node1 = makeNode(1);
+		list.add(node0);
+		list.add(node1);
+		nodeLoadBalancer.update("col1", list);
+		for (int i = 0; i < 10; i++) {
+			responseStats.requestStarted(node0).onComplete(true, 10);
+			responseStats.requestStarted(node1).onComplete(true, 10);
+		}
+		//node0 에 처리중인 요청이 쌓이면 node1 을 선택한다.
+		ResultFuture.CompletionListener[] listeners = new ResultFuture.CompletionListener[5];
+		for (int i = 0; i < listeners.length; i++) {
+			listeners[i] = responseStats.requestStarted(node0);
+		}
+		for (int i = 0; i < 10; i++) {
+			assertEquals(node1, nodeLoadBalancer.getBalancedNode("col1"));
+		}
+		for (int i = 0; i < listeners.length; i++) {
+			listeners[i].onComplete(true, 10);
+		}
+		assertEquals(0, responseStats.stat(node0).inFlight());
+
+		//inactive 노드는 선택하지 않는다.
+		node1.setInactive();
+		for (int i = 0; i < 10; i++) {
+			assertEquals(node0, nodeLoadBalancer.getBalancedNode("col1"));
+		}
+		assertNull(nodeLoadBalancer.getAlternativeNode("col1", node0));
+		node1.setActive();
+		assertEquals(node1, nodeLoadBalancer.getAlternativeNode("col1", node0));
+	}
+
+	@Test
+	public void testPercentile() {
+		NodeResponseStats responseStats = new NodeResponseStats();
+		Node node = makeNode(0);
+		responseStats.requestStarted(node).onComplete(true, 10);
+		assertEquals(-1, responseStats.percentile(node, 95));
+		for (int i = 1; i <= 100; i++) {
+			responseStats.requestStarted(node).onComplete(true, i);
+		}
+		assertEquals(95, responseStats.percentile(node, 95));
+	}
+
 	AtomicInteger[] totalHit = new AtomicInteger[]{ new AtomicInteger(), new AtomicInteger(), new AtomicInteger() };
 	@Test
 	public void testMultiThread() {
@@ -3,6 +3,9 @@ package org.fastcatsearch.common;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
 import org.fastcatsearch.settings.Settings;
 import org.junit.Test;
 
@@ -104,4 +107,39 @@ public class QueryCacheModuleTest {
 			System.out.println(r[i] +" finished!");
 		}
 	}
+
+	/*
+	 * 세대가 바뀐 컬렉션의 결과만 무효화된다.
+	 * */
+	@Test
+	public void testGenerationInvalidate() throws Exception {
+		QueryCacheGenerationTable generationTable = new QueryCacheGenerationTable();
+		QueryCacheModule<String, String> cacheModule = new QueryCacheModule<String, String>(null, new Settings(), "test", generationTable);
+		cacheModule.load();
+
+		QueryCacheGeneration generationA = cacheModule.generation("a");
+		QueryCacheGeneration generationAB = cacheModule.generation("a,b");
+		QueryCacheGeneration generationB = cacheModule.generation("b");
+		cacheModule.put("qa", "ra", generationA);
+		cacheModule.put("qab", "rab", generationAB);
+		cacheModule.put("qb", "rb", generationB);
+		assertEquals("ra", cacheModule.get("qa", cacheModule.generation("a")));
+
+		//a 에 색인이 적용되었다.
+		generationTable.increment("a");
+		assertEquals(2, cacheModule.invalidate("a"));
+		assertNull(cacheModule.get("qa", cacheModule.generation("a")));
+		assertNull(cacheModule.get("qab", cacheModule.generation("a,b")));
+		assertEquals("rb", cacheModule.get("qb", cacheModule.generation("b")));
+
+		//검색중에 세대가 바뀌면 넣지 않는다.
+		cacheModule.put("qa", "ra", generationA);
+		assertNull(cacheModule.get("qa", cacheModule.generation("a")));
+
+		//invalidate 전이라도 이전 세대의 결과는 사용하지 않는다.
+		QueryCacheGeneration generationB2 = cacheModule.generation("b");
+		generationTable.increment("b");
+		assertNull(cacheModule.get("qb", cacheModule.generation("b")));
+		assertEquals("rb", cacheModule.get("qb", generationB2));
+	}
 }
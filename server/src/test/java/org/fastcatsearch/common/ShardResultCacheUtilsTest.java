@@ -0,0 +1,53 @@
+package org.fastcatsearch.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+
+import org.fastcatsearch.query.QueryMap;
+import org.junit.Test;
+
+public class ShardResultCacheUtilsTest {
+
+	private QueryMap newQueryMap(String... keyValues) {
+		QueryMap queryMap = new QueryMap();
+		queryMap.setId("sample");
+		for (int i = 0; i < keyValues.length; i += 2) {
+			queryMap.put(keyValues[i], keyValues[i + 1]);
+		}
+		return queryMap;
+	}
+
+	/*
+	 * 보여주는 방식만 다른 요청은 같은 키가 된다.
+	 * */
+	@Test
+	public void testViewParameterExcluded() {
+		String key1 = ShardResultCacheUtils.makeKey(ShardResultCacheUtils.TYPE_SEARCH,
+				newQueryMap("cn", "sample", "se", "{title:abc}", "sn", "1", "ln", "10", "fl", "id,title", "ht", "<b>:</b>"), false);
+		String key2 = ShardResultCacheUtils.makeKey(ShardResultCacheUtils.TYPE_SEARCH,
+				newQueryMap("LN", "10", "fl", "id", "SE", " {title:abc} ", "cn", "sample", "sn", "1", "timeout", "100"), false);
+		assertEquals(key1, key2);
+	}
+
+	@Test
+	public void testRankingParameterIncluded() {
+		String key = ShardResultCacheUtils.makeKey(ShardResultCacheUtils.TYPE_SEARCH, newQueryMap("cn", "sample", "se", "{title:abc}"), false);
+		assertFalse(key.equals(ShardResultCacheUtils.makeKey(ShardResultCacheUtils.TYPE_SEARCH, newQueryMap("cn", "sample", "se", "{title:abd}"), false)));
+		assertFalse(key.equals(ShardResultCacheUtils.makeKey(ShardResultCacheUtils.TYPE_SEARCH, newQueryMap("cn", "sample", "se", "{title:abc}"), true)));
+		assertFalse(key.equals(ShardResultCacheUtils.makeKey(ShardResultCacheUtils.TYPE_GROUP, newQueryMap("cn", "sample", "se", "{title:abc}"), false)));
+		//같은 파라미터가 두번 있으면 캐시하지 않는다.
+		assertNull(ShardResultCacheUtils.makeKey(ShardResultCacheUtils.TYPE_SEARCH, newQueryMap("se", "{title:abc}", "SE", "{title:abd}"), false));
+	}
+
+	@Test
+	public void testBytes() throws IOException {
+		QueryMap queryMap = newQueryMap("cn", "sample", "se", "{title:abc}");
+		byte[] data = ShardResultCacheUtils.toBytes(queryMap);
+		QueryMap readMap = ShardResultCacheUtils.fromBytes(data, new QueryMap());
+		assertEquals(queryMap, readMap);
+		assertEquals("sample", readMap.collectionId());
+	}
+}
@@ -0,0 +1,103 @@
+package org.fastcatsearch.control;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.fastcatsearch.exception.FastcatSearchException;
+import org.fastcatsearch.job.Job;
+import org.junit.Test;
+
+public class JobExecutorLaneTest {
+
+	/*
+	 * 스레드와 대기큐가 모두 차면 바로 거부하고, 대기했던 작업의 큐대기시간을 기록한다.
+	 * */
+	@Test
+	public void testRejectAndWaitTime() throws Exception {
+		JobExecutorLane lane = new JobExecutorLane("test", 2, 2);
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch done = new CountDownLatch(4);
+		for (int i = 0; i < 4; i++) {
+			lane.execute(new BlockingJob(release, done));
+		}
+		try {
+			lane.execute(new BlockingJob(release, done));
+			fail();
+		} catch (RejectedExecutionException e) {
+			//허용량 초과.
+		}
+		assertEquals(1, lane.rejectCount());
+		assertEquals("2", lane.stats().get("QueueSize"));
+
+		Thread.sleep(50);
+		release.countDown();
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		assertEquals(4, lane.executeCount());
+		//큐에서 기다린 작업은 50ms 이상 대기하였다.
+		assertTrue(lane.maxWaitTime() >= 50);
+		lane.shutdownNow();
+	}
+
+	@Test
+	public void testUnlimited() throws Exception {
+		JobExecutorLane lane = new JobExecutorLane("unlimited", 0, 0);
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch done = new CountDownLatch(100);
+		for (int i = 0; i < 100; i++) {
+			lane.execute(new BlockingJob(release, done));
+		}
+		release.countDown();
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		assertEquals(0, lane.rejectCount());
+		lane.shutdownNow();
+	}
+
+	private static class BlockingJob extends Job {
+		private static final long serialVersionUID = 1L;
+		private CountDownLatch release;
+		private CountDownLatch done;
+
+		public BlockingJob(CountDownLatch release, CountDownLatch done) {
+			this.release = release;
+			this.done = done;
+			setJobExecutor(new NoopJobExecutor());
+			setId(1);
+		}
+
+		@Override
+		public JobResult doRun() throws FastcatSearchException {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+			}
+			done.countDown();
+			return new JobResult(true);
+		}
+	}
+
+	private static class NoopJobExecutor implements JobExecutor {
+		@Override
+		public ResultFuture offer(Job job) {
+			return null;
+		}
+
+		@Override
+		public void result(Job job, Object result, boolean isSuccess) {
+		}
+
+		@Override
+		public int runningJobSize() {
+			return 0;
+		}
+
+		@Override
+		public int inQueueJobSize() {
+			return 0;
+		}
+	}
+}
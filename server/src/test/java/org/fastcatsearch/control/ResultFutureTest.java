@@ -0,0 +1,53 @@
+package org.fastcatsearch.control;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class ResultFutureTest {
+
+	private Map<Long, ResultFuture> resultFutureMap = new ConcurrentHashMap<Long, ResultFuture>();
+
+	@Test
+	public void testCompletionListener() {
+		final AtomicInteger successCount = new AtomicInteger();
+		final AtomicInteger failCount = new AtomicInteger();
+		ResultFuture.CompletionListener listener = new ResultFuture.CompletionListener() {
+			@Override
+			public void onComplete(boolean isSuccess, long elapsedTime) {
+				(isSuccess ? successCount : failCount).incrementAndGet();
+			}
+		};
+		ResultFuture resultFuture = new ResultFuture(1, resultFutureMap);
+		resultFuture.addCompletionListener(listener);
+		resultFuture.put("result", true);
+		resultFuture.put("result", true);
+		assertEquals(1, successCount.get());
+
+		//이미 끝난 요청에 등록해도 호출된다.
+		ResultFuture finished = new ResultFuture(2, resultFutureMap);
+		finished.put("error", false);
+		finished.addCompletionListener(listener);
+		assertEquals(1, failCount.get());
+
+		//타임아웃도 실패로 기록된다.
+		ResultFuture timeout = new ResultFuture(3, resultFutureMap);
+		timeout.addCompletionListener(listener);
+		timeout.pollInMillis(10);
+		assertEquals(2, failCount.get());
+		assertTrue(successCount.get() == 1);
+
+		//더 기다리지 않는 요청도 실패로 기록된다.
+		ResultFuture expired = new ResultFuture(4, resultFutureMap);
+		resultFutureMap.put(4L, expired);
+		expired.addCompletionListener(listener);
+		expired.expire();
+		assertEquals(3, failCount.get());
+		assertTrue(!resultFutureMap.containsKey(4L));
+	}
+}
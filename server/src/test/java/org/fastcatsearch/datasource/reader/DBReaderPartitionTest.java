@@ -0,0 +1,156 @@
+package org.fastcatsearch.datasource.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.fastcatsearch.ir.common.IRException;
+import org.fastcatsearch.ir.config.JDBCSourceInfo;
+import org.fastcatsearch.ir.config.SingleSourceConfig;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class DBReaderPartitionTest {
+
+	private static final String DRIVER = "org.apache.derby.jdbc.EmbeddedDriver";
+	private static final String URL = "jdbc:derby:memory:partitionTest;create=true";
+	private static final int DOC_SIZE = 1234;
+
+	private static Connection connection;
+
+	@BeforeClass
+	public static void setUp() throws Exception {
+		Class.forName(DRIVER);
+		connection = DriverManager.getConnection(URL);
+		Statement stmt = connection.createStatement();
+		stmt.executeUpdate("CREATE TABLE PRODUCT (ID INT PRIMARY KEY, TITLE VARCHAR(100))");
+		stmt.close();
+		PreparedStatement pstmt = connection.prepareStatement("INSERT INTO PRODUCT VALUES (?, ?)");
+		//키가 연속되지 않도록 띄엄띄엄 넣는다.
+		for (int i = 0; i < DOC_SIZE; i++) {
+			pstmt.setInt(1, i * 3 + 7);
+			pstmt.setString(2, "title " + i);
+			pstmt.addBatch();
+		}
+		pstmt.executeBatch();
+		pstmt.close();
+	}
+
+	@AfterClass
+	public static void tearDown() throws SQLException {
+		connection.close();
+	}
+
+	@Test
+	public void testSplitRange() {
+		List<long[]> rangeList = DBReader.splitRange(1, 10, 3);
+		assertEquals(3, rangeList.size());
+		assertEquals(1, rangeList.get(0)[0]);
+		assertEquals(rangeList.get(0)[1], rangeList.get(1)[0]);
+		assertEquals(rangeList.get(1)[1], rangeList.get(2)[0]);
+		assertEquals(11, rangeList.get(2)[1]);
+
+		//범위보다 파티션이 많으면 범위 크기만큼만 나뉜다.
+		assertEquals(2, DBReader.splitRange(5, 6, 4).size());
+		assertEquals(1, DBReader.splitRange(5, 5, 4).size());
+		assertEquals(0, DBReader.splitRange(6, 5, 4).size());
+	}
+
+	@Test
+	public void testPartitionRead() throws IRException, IOException {
+		Map<String, String> properties = newProperties();
+		properties.put("partitionSQL", "SELECT MIN(ID), MAX(ID) FROM PRODUCT");
+		assertReadAll(properties, DOC_SIZE);
+	}
+
+	@Test
+	public void testPartitionRowsRead() throws IRException, IOException {
+		Map<String, String> properties = newProperties();
+		properties.put("partitionSQL", "SELECT 0, 1000 FROM PRODUCT WHERE ID = 7 UNION ALL SELECT 1000, 2000 FROM PRODUCT WHERE ID = 7 UNION ALL SELECT 2000, 100000 FROM PRODUCT WHERE ID = 7");
+		assertReadAll(properties, DOC_SIZE);
+	}
+
+	@Test
+	public void testPartitionMaxRows() throws IRException, IOException {
+		Map<String, String> properties = newProperties();
+		properties.put("partitionSQL", "SELECT MIN(ID), MAX(ID) FROM PRODUCT");
+		DBReader reader = newReader(properties);
+		reader.setMaxRows(10);
+		reader.init();
+		int count = 0;
+		try {
+			while (reader.hasNext()) {
+				reader.nextElement();
+				count++;
+			}
+		} finally {
+			reader.close();
+		}
+		assertEquals(10, count);
+	}
+
+	@Test(expected = IRException.class)
+	public void testNoPlaceholder() throws IRException {
+		Map<String, String> properties = newProperties();
+		properties.put("dataSQL", "SELECT ID, TITLE FROM PRODUCT");
+		properties.put("partitionSQL", "SELECT MIN(ID), MAX(ID) FROM PRODUCT");
+		newReader(properties).init();
+	}
+
+	private void assertReadAll(Map<String, String> properties, int expectedSize) throws IRException, IOException {
+		DBReader reader = newReader(properties);
+		reader.init();
+		Set<String> idSet = new HashSet<String>();
+		try {
+			while (reader.hasNext()) {
+				Map<String, Object> row = reader.nextElement();
+				assertTrue(idSet.add((String) row.get("ID")));
+			}
+			assertFalse(reader.hasNext());
+		} finally {
+			reader.close();
+		}
+		assertEquals(expectedSize, idSet.size());
+	}
+
+	private Map<String, String> newProperties() {
+		Map<String, String> properties = new HashMap<String, String>();
+		properties.put("jdbcSourceId", "derby");
+		properties.put("bulkSize", "10");
+		properties.put("fetchSize", "0");
+		properties.put("partitionCount", "4");
+		properties.put("dataSQL", "SELECT ID, TITLE FROM PRODUCT WHERE ID >= ${partition_start} AND ID < ${partition_end}");
+		return properties;
+	}
+
+	private DBReader newReader(Map<String, String> properties) throws IRException {
+		SingleSourceConfig config = new SingleSourceConfig();
+		config.setProperties(properties);
+		return new DBReader("test", new File("."), config, null, null) {
+			@Override
+			protected JDBCSourceInfo findJDBCSourceInfo(String jdbcSourceId) {
+				JDBCSourceInfo info = new JDBCSourceInfo();
+				info.setId(jdbcSourceId);
+				info.setDriver(DRIVER);
+				info.setUrl(URL);
+				info.setUser("");
+				info.setPassword("");
+				return info;
+			}
+		};
+	}
+}
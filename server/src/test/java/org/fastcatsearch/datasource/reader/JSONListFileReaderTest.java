@@ -0,0 +1,97 @@
+package org.fastcatsearch.datasource.reader;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.fastcatsearch.ir.common.IRException;
+import org.fastcatsearch.ir.config.SingleSourceConfig;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JSONListFileReaderTest {
+
+	private static final int DOC_SIZE = 2500;
+
+	private File dir;
+
+	@Before
+	public void setUp() throws IOException {
+		dir = File.createTempFile("jsonlist", "");
+		dir.delete();
+		dir.mkdirs();
+		writeFile(new FileOutputStream(new File(dir, "a.json")), "a");
+		writeFile(new GZIPOutputStream(new FileOutputStream(new File(dir, "b.json.gz"))), "b");
+	}
+
+	@After
+	public void tearDown() {
+		FileUtils.deleteQuietly(dir);
+	}
+
+	@Test
+	public void testParallelParse() throws IRException, IOException {
+		List<String> expected = readIds(1, 0);
+		assertEquals(DOC_SIZE * 2, expected.size());
+		//병렬로 파싱해도 읽는 순서는 같아야 한다.
+		assertEquals(expected, readIds(4, 0));
+	}
+
+	@Test
+	public void testParallelParseLimit() throws IRException, IOException {
+		List<String> ids = readIds(4, 1234);
+		assertEquals(1234, ids.size());
+		assertEquals(readIds(1, 1234), ids);
+	}
+
+	private List<String> readIds(int parseThreads, int limitSize) throws IRException, IOException {
+		Map<String, String> properties = new HashMap<String, String>();
+		properties.put("filePath", dir.getAbsolutePath());
+		properties.put("encoding", "utf-8");
+		properties.put("parseThreads", String.valueOf(parseThreads));
+		if (limitSize > 0) {
+			properties.put("limitSize", String.valueOf(limitSize));
+		}
+		SingleSourceConfig config = new SingleSourceConfig();
+		config.setProperties(properties);
+		JSONListFileReader reader = new JSONListFileReader("test", dir, config, null, null);
+		reader.init();
+		List<String> ids = new ArrayList<String>();
+		try {
+			while (reader.hasNext()) {
+				Map<String, Object> record = reader.nextElement();
+				ids.add((String) record.get("id"));
+			}
+		} finally {
+			reader.close();
+		}
+		return ids;
+	}
+
+	private void writeFile(OutputStream os, String prefix) throws IOException {
+		Writer writer = new OutputStreamWriter(os, "utf-8");
+		try {
+			for (int i = 0; i < DOC_SIZE; i++) {
+				writer.write("{\"id\":\"" + prefix + i + "\",\"title\":\"제목 " + i + "\"}\n");
+				if (i % 100 == 0) {
+					//빈줄은 건너뛴다.
+					writer.write("\n");
+				}
+			}
+		} finally {
+			writer.close();
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package org.fastcatsearch.ir;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+public class CollectionNRTIndexerTest {
+
+	@Test
+	public void testBufferReload() throws IOException {
+		File bufferFile = File.createTempFile("nrt", ".buffer");
+		FileUtils.deleteQuietly(bufferFile);
+		try {
+			CollectionNRTIndexer nrtIndexer = new CollectionNRTIndexer("sample", bufferFile, 1000 * 1000, 60 * 1000);
+			nrtIndexer.add(makeBatch(0, 10));
+			nrtIndexer.add(makeBatch(10, 5));
+			assertEquals(15, nrtIndexer.count());
+			assertFalse(nrtIndexer.isFlushDue());
+
+			//재시작하면 버퍼파일에서 다시 읽는다.
+			CollectionNRTIndexer reloaded = new CollectionNRTIndexer("sample", bufferFile, 100, 60 * 1000);
+			reloaded.load();
+			assertEquals(15, reloaded.count());
+			//크기 기준을 넘었다.
+			assertTrue(reloaded.isFlushDue());
+		} finally {
+			FileUtils.deleteQuietly(bufferFile);
+		}
+	}
+
+	private DocumentBatch makeBatch(int start, int size) throws IOException {
+		DocumentBatchWriter writer = new DocumentBatchWriter(true);
+		for (int i = start; i < start + size; i++) {
+			Map<String, Object> source = new HashMap<String, Object>();
+			source.put("id", String.valueOf(i));
+			source.put("title", "title " + i);
+			writer.add('I', source);
+		}
+		DocumentBatch batch = writer.toBatch();
+		assertTrue(batch.isInsertOnly());
+		return batch;
+	}
+}
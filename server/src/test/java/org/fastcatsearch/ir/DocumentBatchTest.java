@@ -0,0 +1,81 @@
+package org.fastcatsearch.ir;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.fastcatsearch.common.io.BytesStreamInput;
+import org.fastcatsearch.common.io.BytesStreamOutput;
+import org.fastcatsearch.http.action.service.indexing.MapDocument;
+import org.junit.Test;
+
+public class DocumentBatchTest {
+
+	@Test
+	public void testCompressed() throws IOException {
+		testWriteAndRead(true);
+	}
+
+	@Test
+	public void testUncompressed() throws IOException {
+		testWriteAndRead(false);
+	}
+
+	private void testWriteAndRead(boolean isCompress) throws IOException {
+		int count = 10000;
+		DocumentBatchWriter writer = new DocumentBatchWriter(isCompress);
+		for (int i = 0; i < count; i++) {
+			writer.add(i % 3 == 0 ? 'U' : 'I', makeSource(i));
+		}
+		assertEquals(count, writer.count());
+		//블럭이 여러개로 나뉘어야 한다.
+		assertTrue(writer.size() > DocumentBatchWriter.BLOCK_SIZE * 2);
+
+		BytesStreamOutput output = new BytesStreamOutput();
+		writer.toBatch().writeTo(output);
+		DocumentBatch batch = new DocumentBatch();
+		batch.readFrom(new BytesStreamInput(output.bytesReference()));
+		assertEquals(count, batch.count());
+		assertFalse(batch.isInsertOnly());
+		if (isCompress) {
+			assertTrue(batch.dataLength() < writer.size());
+		}
+
+		DocumentBatchReader reader = batch.reader();
+		for (int i = 0; i < count; i++) {
+			MapDocument doc = reader.readAsMapDocument();
+			assertEquals(i % 3 == 0 ? 'U' : 'I', doc.getType());
+			Map<String, Object> source = doc.getSourceMap();
+			assertEquals("id-" + i, source.get("id"));
+			assertEquals(i, source.get("count"));
+			assertEquals("12.5", source.get("price"));
+			assertEquals("제목 " + i + " 입니다", source.get("title"));
+			assertEquals(2, ((List<?>) source.get("tags")).size());
+			assertTrue(source.containsKey("empty"));
+			assertNull(source.get("empty"));
+		}
+		assertNull(reader.readAsMapDocument());
+	}
+
+	private Map<String, Object> makeSource(int i) {
+		Map<String, Object> source = new HashMap<String, Object>();
+		source.put("id", "id-" + i);
+		source.put("count", i);
+		source.put("price", new BigDecimal("12.5"));
+		source.put("title", "제목 " + i + " 입니다");
+		List<Object> tags = new ArrayList<Object>();
+		tags.add("a");
+		tags.add(Long.valueOf(i));
+		source.put("tags", tags);
+		source.put("empty", null);
+		return source;
+	}
+}
@@ -0,0 +1,46 @@
+package org.fastcatsearch.job.indexing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.fastcatsearch.common.io.BytesStreamInput;
+import org.fastcatsearch.common.io.BytesStreamOutput;
+import org.fastcatsearch.ir.common.IRException;
+import org.fastcatsearch.ir.config.DataInfo;
+import org.fastcatsearch.ir.index.DeleteIdSet;
+import org.fastcatsearch.ir.index.PrimaryKeys;
+import org.junit.Test;
+
+public class NodeApplySegmentJobTest {
+
+	@Test
+	public void testWriteAndRead() throws IOException, IRException {
+		DataInfo.SegmentInfo segmentInfo = new DataInfo.SegmentInfo("1234567890", 100, 3, 1500000000000L);
+		DeleteIdSet deleteIdSet = new DeleteIdSet(2);
+		deleteIdSet.add("a", "1");
+		deleteIdSet.add("b", "2");
+
+		BytesStreamOutput output = new BytesStreamOutput();
+		new NodeApplySegmentJob("sample", segmentInfo, deleteIdSet).writeTo(output);
+		NodeApplySegmentJob job = new NodeApplySegmentJob();
+		job.readFrom(new BytesStreamInput(output.bytesReference()));
+
+		//다시 기록한 내용이 같아야 한다.
+		BytesStreamOutput output2 = new BytesStreamOutput();
+		job.writeTo(output2);
+		assertEquals(output.bytesReference().length(), output2.bytesReference().length());
+
+		DeleteIdSet readIdSet = new DeleteIdSet();
+		BytesStreamInput input = new BytesStreamInput(output2.bytesReference());
+		assertEquals("sample", input.readString());
+		assertEquals("1234567890", input.readString());
+		assertEquals(100, input.readInt());
+		assertEquals(3, input.readInt());
+		assertEquals(1500000000000L, input.readLong());
+		readIdSet.readFrom(input);
+		assertEquals(2, readIdSet.size());
+		assertTrue(readIdSet.contains(new PrimaryKeys("b", "2")));
+	}
+}
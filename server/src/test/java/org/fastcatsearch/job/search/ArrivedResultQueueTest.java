@@ -0,0 +1,89 @@
+package org.fastcatsearch.job.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.fastcatsearch.cluster.Node;
+import org.fastcatsearch.control.ResultFuture;
+import org.junit.Test;
+
+public class ArrivedResultQueueTest {
+
+	private Map<Long, ResultFuture> resultFutureMap = new ConcurrentHashMap<Long, ResultFuture>();
+	private Node node1 = new Node("node1", "node1", "localhost", 9090);
+	private Node node2 = new Node("node2", "node2", "localhost", 9091);
+
+	private void putLater(final ResultFuture resultFuture, final Object result, final boolean isSuccess, final long delay) {
+		new Thread() {
+			public void run() {
+				try {
+					Thread.sleep(delay);
+				} catch (InterruptedException ignore) {
+				}
+				resultFuture.put(result, isSuccess);
+			}
+		}.start();
+	}
+
+	/*
+	 * 보낸 순서가 아니라 도착한 순서대로 꺼낸다.
+	 * */
+	@Test
+	public void testArrivalOrder() throws InterruptedException {
+		ArrivedResultQueue queue = new ArrivedResultQueue(3);
+		ResultFuture[] futures = new ResultFuture[3];
+		for (int i = 0; i < futures.length; i++) {
+			futures[i] = new ResultFuture(i, resultFutureMap);
+			queue.add(i, node1, futures[i]);
+		}
+		putLater(futures[0], "r0", true, 200);
+		putLater(futures[1], "r1", true, 10);
+		assertEquals(3, queue.pendingCount());
+		ArrivedResultQueue.Arrived arrived = queue.poll(1000);
+		assertEquals(1, arrived.slot());
+		assertEquals("r1", arrived.result());
+		arrived = queue.poll(1000);
+		assertEquals(0, arrived.slot());
+		//2번은 결과가 오지 않는다.
+		assertNull(queue.poll(20));
+		List<Integer> expiredList = queue.expirePending();
+		assertEquals(1, expiredList.size());
+		assertEquals(2, expiredList.get(0).intValue());
+		assertEquals(0, queue.pendingCount());
+	}
+
+	/*
+	 * 같은 slot 에 보낸 요청은 먼저 성공한 결과 하나만 사용하고, 실패는 다른 요청이 모두 실패해야 리턴한다.
+	 * */
+	@Test
+	public void testHedgedSlot() throws InterruptedException {
+		ArrivedResultQueue queue = new ArrivedResultQueue(2);
+		ResultFuture first = new ResultFuture(1, resultFutureMap);
+		ResultFuture second = new ResultFuture(2, resultFutureMap);
+		queue.add(0, node1, first);
+		queue.add(0, node2, second);
+		first.put(new Exception("fail"), false);
+		second.put("r", true);
+		ArrivedResultQueue.Arrived arrived = queue.poll(1000);
+		assertTrue(arrived.isSuccess());
+		assertEquals(node2, arrived.node());
+		assertFalse(queue.isPending(0));
+
+		ResultFuture third = new ResultFuture(3, resultFutureMap);
+		ResultFuture fourth = new ResultFuture(4, resultFutureMap);
+		queue.add(1, node1, third);
+		queue.add(1, node2, fourth);
+		third.put(new Exception("fail"), false);
+		assertNull(queue.poll(20));
+		fourth.put(new Exception("fail"), false);
+		arrived = queue.poll(1000);
+		assertFalse(arrived.isSuccess());
+		assertEquals(0, queue.pendingCount());
+	}
+}
@@ -0,0 +1,60 @@
+package org.fastcatsearch.transport.vo;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+
+import org.fastcatsearch.common.io.BytesStreamInput;
+import org.fastcatsearch.common.io.BytesStreamOutput;
+import org.fastcatsearch.ir.query.Result;
+import org.fastcatsearch.ir.query.Row;
+import org.junit.Test;
+
+public class StreamableResultTest {
+
+	private Row makeRow(String... values) {
+		Row row = new Row(values.length);
+		for (int i = 0; i < values.length; i++) {
+			row.put(i, values[i].toCharArray());
+		}
+		return row;
+	}
+
+	@Test
+	public void testWriteAndRead() throws IOException {
+		Row[] rows = new Row[] { makeRow("1", "안녕하세요."), makeRow("2", "") };
+		rows[0].setScore(100);
+		rows[0].setHit(3);
+		rows[0].setDistance(1.5f);
+		rows[1].setScore(-1);
+		rows[1].setFilterMatchOrder(2);
+		Row[][] bundleRows = new Row[2][];
+		bundleRows[1] = new Row[] { makeRow("3", "묶음문서") };
+		int[] bundleTotalSizeList = new int[] { 0, 5 };
+		Result result = new Result(rows, bundleRows, bundleTotalSizeList, null, new String[] { "id", "title" }, 2, 30, 11, null, null);
+
+		BytesStreamOutput output = new BytesStreamOutput();
+		new StreamableResult(result, null).writeTo(output);
+		StreamableResult streamableResult = new StreamableResult();
+		streamableResult.readFrom(new BytesStreamInput(output.bytesReference()));
+		Result actual = streamableResult.result();
+
+		assertNull(streamableResult.groupsData());
+		assertEquals(2, actual.getCount());
+		assertEquals(30, actual.getTotalCount());
+		assertEquals(11, actual.getStart());
+		assertArrayEquals(new String[] { "id", "title" }, actual.getFieldNameList());
+		assertEquals("안녕하세요.", new String(actual.getData()[0].get(1)));
+		assertEquals(0, actual.getData()[1].get(1).length);
+		assertEquals(100, actual.getData()[0].getScore());
+		assertEquals(3, actual.getData()[0].getHit());
+		assertEquals(1.5f, actual.getData()[0].getDistance(), 0f);
+		assertEquals(-1, actual.getData()[1].getScore());
+		assertEquals(2, actual.getData()[1].getFilterMatchOrder());
+		assertNull(actual.getBundleData()[0]);
+		assertEquals("묶음문서", new String(actual.getBundleData()[1][0].get(1)));
+		assertArrayEquals(bundleTotalSizeList, actual.getBundleTotalSizeList());
+	}
+}
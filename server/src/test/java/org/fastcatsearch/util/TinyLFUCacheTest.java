@@ -0,0 +1,158 @@
+package org.fastcatsearch.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class TinyLFUCacheTest {
+
+	private static final CacheWeigher<String> STRING_WEIGHER = new CacheWeigher<String>() {
+		@Override
+		public long weigh(String value) {
+			return value.length();
+		}
+	};
+
+	@Test
+	public void testPutGet() {
+		TinyLFUCache<String, String> cache = new TinyLFUCache<String, String>(1024 * 1024, 100, 4, STRING_WEIGHER);
+		cache.put("a", "1");
+		assertEquals("1", cache.get("a"));
+		assertNull(cache.get("b"));
+		cache.put("a", "2");
+		assertEquals("2", cache.get("a"));
+		assertEquals(1, cache.size());
+		assertEquals(2, cache.hitCount());
+		assertEquals(1, cache.missCount());
+		cache.remove("a");
+		assertNull(cache.get("a"));
+		assertEquals(0, cache.weight());
+	}
+
+	/*
+	 * 크기제한을 넘지 않아야 하고, 제한보다 큰 값은 넣지 않는다.
+	 * */
+	@Test
+	public void testWeightBound() {
+		TinyLFUCache<String, String> cache = new TinyLFUCache<String, String>(64 * 1024, 10000, 4, STRING_WEIGHER);
+		StringBuilder value = new StringBuilder();
+		for (int i = 0; i < 1000; i++) {
+			value.append('x');
+		}
+		for (int i = 0; i < 1000; i++) {
+			String key = "q" + i;
+			//두번씩 요청하여 빈도를 올린다.
+			cache.get(key);
+			cache.get(key);
+			cache.put(key, value.toString());
+			assertTrue(cache.weight() <= cache.maxWeight());
+		}
+		assertTrue(cache.evictionCount() > 0);
+		assertTrue(cache.size() < 1000);
+
+		long rejectCount = cache.rejectCount();
+		cache.put("big", new String(new char[64 * 1024]));
+		assertNull(cache.get("big"));
+		assertEquals(rejectCount + 1, cache.rejectCount());
+	}
+
+	/*
+	 * 한번만 요청된 질의가 자주 쓰이는 결과를 밀어내지 않는다.
+	 * */
+	@Test
+	public void testFrequencyAdmission() {
+		TinyLFUCache<String, String> cache = new TinyLFUCache<String, String>(1024 * 1024, 16, 1, STRING_WEIGHER);
+		for (int i = 0; i < 16; i++) {
+			String key = "hot" + i;
+			for (int j = 0; j < 5; j++) {
+				cache.get(key);
+			}
+			cache.put(key, key);
+		}
+		for (int i = 0; i < 1000; i++) {
+			//자주 쓰이는 결과는 계속 요청된다.
+			assertNotNull(cache.get("hot" + (i % 16)));
+			String key = "once" + i;
+			cache.get(key);
+			cache.put(key, key);
+		}
+		for (int i = 0; i < 16; i++) {
+			assertNotNull(cache.get("hot" + i));
+		}
+		assertTrue(cache.rejectCount() > 900);
+	}
+
+	/*
+	 * 같은 키를 덮어쓰거나 removeAll 로 중간의 entry 를 지워도 크기와 갯수가 맞아야 한다.
+	 * */
+	@Test
+	public void testOverwriteAndRemoveAll() {
+		TinyLFUCache<String, String> cache = new TinyLFUCache<String, String>(64 * 1024 * 1024, 100000, 4, STRING_WEIGHER);
+		for (int i = 0; i < 50000; i++) {
+			cache.put(Integer.toString(i), "v");
+		}
+		long weight = cache.weight();
+		for (int i = 0; i < 50000; i++) {
+			cache.put(Integer.toString(i), "w");
+		}
+		assertEquals(50000, cache.size());
+		assertEquals(weight, cache.weight());
+		assertEquals("w", cache.get("123"));
+
+		int removed = cache.removeAll(new TinyLFUCache.EntryFilter<String, String>() {
+			@Override
+			public boolean accept(String key, String value) {
+				return Integer.parseInt(key) % 2 == 0;
+			}
+		});
+		assertEquals(25000, removed);
+		assertEquals(25000, cache.size());
+		assertNull(cache.get("124"));
+		assertEquals("w", cache.get("123"));
+
+		cache.clear();
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.weight());
+	}
+
+	@Test
+	public void testMultiThread() throws InterruptedException {
+		final TinyLFUCache<String, String> cache = new TinyLFUCache<String, String>(256 * 1024, 1000, 16, STRING_WEIGHER);
+		final AtomicInteger errorCount = new AtomicInteger();
+		Thread[] threads = new Thread[8];
+		for (int t = 0; t < threads.length; t++) {
+			final int seed = t;
+			threads[t] = new Thread() {
+				public void run() {
+					try {
+						for (int i = 0; i < 100000; i++) {
+							String key = Integer.toString((i * (seed + 1)) % 3000);
+							String value = cache.get(key);
+							if (value == null) {
+								cache.put(key, key);
+							} else if (!value.equals(key)) {
+								errorCount.incrementAndGet();
+							}
+						}
+					} catch (Throwable e) {
+						e.printStackTrace();
+						errorCount.incrementAndGet();
+					}
+				}
+			};
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(0, errorCount.get());
+		assertTrue(cache.size() <= 1000 + 16);
+		assertTrue(cache.weight() <= cache.maxWeight());
+		assertTrue(cache.hitRatio() > 0);
+	}
+}